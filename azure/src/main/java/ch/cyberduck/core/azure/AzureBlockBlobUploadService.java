@@ -0,0 +1,382 @@
+package ch.cyberduck.core.azure;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.BufferPool;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.io.ThrottledInputStream;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.DefaultRetryCallable;
+import ch.cyberduck.core.threading.PartScheduler;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.bouncycastle.util.encoders.Base64;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageErrorCodeStrings;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+
+/**
+ * Upload to block blob staging blocks concurrently with Put Block and committing with Put Block List
+ */
+public class AzureBlockBlobUploadService implements Upload<Void> {
+    private static final Logger log = Logger.getLogger(AzureBlockBlobUploadService.class);
+
+    /**
+     * Maximum number of blocks in a block blob
+     */
+    public static final int MAXIMUM_UPLOAD_BLOCKS = 50000;
+
+    /**
+     * Maximum size of a single block
+     */
+    public static final long MAXIMUM_BLOCK_SIZE = 100L * 1024L * 1024L;
+
+    private final Preferences preferences
+        = PreferencesFactory.get();
+
+    private final AzureSession session;
+
+    private final OperationContext context;
+
+    private final PathContainerService containerService
+        = new AzurePathContainerService();
+
+    private Write<Void> writer;
+
+    private final Long blocksize;
+
+    private final Integer concurrency;
+
+    public AzureBlockBlobUploadService(final AzureSession session, final OperationContext context, final Write<Void> writer) {
+        this(session, context, writer, PreferencesFactory.get().getLong("azure.upload.blockblob.size"),
+            PreferencesFactory.get().getInteger("azure.upload.blockblob.concurrency"));
+    }
+
+    public AzureBlockBlobUploadService(final AzureSession session, final OperationContext context, final Write<Void> writer,
+                                       final Long blocksize, final Integer concurrency) {
+        this.session = session;
+        this.context = context;
+        this.writer = writer;
+        this.blocksize = blocksize;
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public Void upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                       final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        if(!(writer instanceof AzureWriteFeature)) {
+            // Blocks are read from file without transformation of content by writer
+            throw new InteroperabilityException(String.format("Block blob upload not supported with writer %s", writer));
+        }
+        final PartScheduler scheduler = PartScheduler.get("azure", session.getHost().getHostname(),
+            preferences.getInteger("azure.upload.blockblob.concurrency.limit"));
+        // Blocks submitted to scheduler and not yet completed
+        final Deque<Future<BlockEntry>> blocks = new ArrayDeque<Future<BlockEntry>>();
+        try {
+            final CloudBlockBlob blob = this.reference(file);
+            // Blocks staged by previous transfer or attempt and not committed
+            final Map<String, Long> staged = new HashMap<String, Long>();
+            if(status.isAppend() || status.isRetry()) {
+                staged.putAll(this.staged(blob));
+                if(status.isAppend() && staged.isEmpty()) {
+                    // Offset is not from uncommitted blocks but the size of an existing append blob
+                    throw new InteroperabilityException(String.format("No uncommitted blocks found for %s", file));
+                }
+            }
+            final List<BlockEntry> completed = new ArrayList<BlockEntry>();
+            try {
+                // Full size of file
+                final long size = status.isAppend() ? status.getOffset() + status.getLength() : status.getLength();
+                // Bytes of staged blocks already counted in transfer status
+                final long applied = status.getOffset();
+                final long length = this.length(size);
+                final Deque<Block> pending = new ArrayDeque<Block>();
+                long remaining = size;
+                long offset = 0;
+                for(int number = 1; remaining > 0; number++) {
+                    final Block block = new Block(number, offset, Math.min(length, remaining));
+                    final Long existing = staged.get(block.id);
+                    if(existing != null && existing == block.length) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Skip staged block %s with length %d", block.id, block.length));
+                        }
+                        if(block.offset >= applied) {
+                            status.progress(block.length);
+                            listener.sent(block.length);
+                        }
+                    }
+                    else {
+                        pending.add(block);
+                    }
+                    remaining -= block.length;
+                    offset += block.length;
+                    completed.add(new BlockEntry(block.id));
+                }
+                while(!pending.isEmpty() || !blocks.isEmpty()) {
+                    // Submit to shared queue with no more than the number of concurrent blocks for a single file
+                    while(blocks.size() < concurrency && !pending.isEmpty()) {
+                        blocks.add(this.submit(scheduler, file, local, throttle, listener, status, pending.poll()));
+                    }
+                    final Future<BlockEntry> future = blocks.poll();
+                    try {
+                        future.get();
+                    }
+                    catch(InterruptedException e) {
+                        log.error("Block upload failed with interrupt failure");
+                        status.setCanceled();
+                        throw new ConnectionCanceledException(e);
+                    }
+                    catch(ExecutionException e) {
+                        log.warn(String.format("Block upload failed with execution failure %s", e.getMessage()));
+                        if(e.getCause() instanceof BackgroundException) {
+                            throw (BackgroundException) e.getCause();
+                        }
+                        throw new BackgroundException(e.getCause());
+                    }
+                }
+                // Commit blocks in order of offset
+                AzureWriteFeature.configure(blob, status);
+                blob.commitBlockList(completed, AccessCondition.generateEmptyCondition(), this.options(), context);
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Committed block list for %s with %d blocks", file, completed.size()));
+                    log.info(String.format("Blocks scheduled with %s", scheduler));
+                }
+                // Mark parent status as complete
+                status.setComplete();
+                return null;
+            }
+            finally {
+                // Cancel future tasks
+                for(Future<BlockEntry> future : blocks) {
+                    future.cancel(false);
+                }
+            }
+        }
+        catch(StorageException e) {
+            if(StringUtils.equals(StorageErrorCodeStrings.INVALID_BLOB_TYPE, e.getErrorCode())) {
+                // Existing blob is not a block blob
+                throw new InteroperabilityException(e.getMessage(), e);
+            }
+            throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        finally {
+            scheduler.release();
+        }
+    }
+
+    private Future<BlockEntry> submit(final PartScheduler scheduler, final Path file, final Local local,
+                                      final BandwidthThrottle throttle, final StreamListener listener,
+                                      final TransferStatus overall, final Block block) {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Submit block %d of %s to queue with offset %d and length %d", block.number, file, block.offset, block.length));
+        }
+        return scheduler.submit(overall, new DefaultRetryCallable<BlockEntry>(new BackgroundExceptionCallable<BlockEntry>() {
+            @Override
+            public BlockEntry call() throws BackgroundException {
+                if(overall.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                final BufferPool pool = BufferPool.heap();
+                final ByteBuffer buffer;
+                try {
+                    buffer = pool.borrow((int) block.length, overall);
+                }
+                catch(IOException e) {
+                    throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+                }
+                try {
+                    final InputStream in = local.getInputStream();
+                    try {
+                        IOUtils.skipFully(in, block.offset);
+                        IOUtils.readFully(in, buffer.array(), 0, (int) block.length);
+                    }
+                    finally {
+                        IOUtils.closeQuietly(in);
+                    }
+                    // Markable stream not copied by client when computing Content-MD5 verified by server with transactional MD5 option
+                    reference(file).uploadBlock(block.id,
+                        new ThrottledInputStream(new ByteArrayInputStream(buffer.array(), 0, (int) block.length), throttle),
+                        block.length, AccessCondition.generateEmptyCondition(), options(), context);
+                }
+                catch(StorageException e) {
+                    if(StringUtils.equals(StorageErrorCodeStrings.INVALID_BLOB_TYPE, e.getErrorCode())) {
+                        // Existing blob is not a block blob
+                        throw new InteroperabilityException(e.getMessage(), e);
+                    }
+                    throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+                }
+                catch(IOException e) {
+                    throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+                }
+                finally {
+                    pool.release(buffer);
+                }
+                overall.progress(block.length);
+                listener.sent(block.length);
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Staged block %d with ID %s for %s", block.number, block.id, file));
+                }
+                return new BlockEntry(block.id);
+            }
+        }, overall));
+    }
+
+    /**
+     * @return Size of uncommitted blocks by block identifier
+     */
+    private Map<String, Long> staged(final CloudBlockBlob blob) throws StorageException {
+        final Map<String, Long> staged = new HashMap<String, Long>();
+        try {
+            for(BlockEntry entry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED,
+                AccessCondition.generateEmptyCondition(), this.options(), context)) {
+                staged.put(entry.getId(), entry.getSize());
+            }
+        }
+        catch(StorageException e) {
+            if(StringUtils.equals(StorageErrorCodeStrings.INVALID_BLOB_TYPE, e.getErrorCode())) {
+                // Existing blob is not a block blob
+                throw e;
+            }
+            log.warn(String.format("Ignore failure listing uncommitted blocks. %s", e.getMessage()));
+        }
+        return staged;
+    }
+
+    /**
+     * @param size Full size of file
+     * @return Block size increased to stay within the maximum number of blocks
+     */
+    private long length(final long size) {
+        return Math.min(Math.max(size / MAXIMUM_UPLOAD_BLOCKS + 1, blocksize), MAXIMUM_BLOCK_SIZE);
+    }
+
+    private CloudBlockBlob reference(final Path file) throws BackgroundException {
+        try {
+            return session.getClient().getContainerReference(containerService.getContainer(file).getName())
+                .getBlockBlobReference(containerService.getKey(file));
+        }
+        catch(StorageException e) {
+            throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        catch(URISyntaxException e) {
+            throw new NotfoundException(e.getMessage(), e);
+        }
+    }
+
+    private BlobRequestOptions options() {
+        final BlobRequestOptions options = new BlobRequestOptions();
+        options.setConcurrentRequestCount(1);
+        options.setUseTransactionalContentMD5(preferences.getBoolean("azure.upload.blockblob.md5"));
+        options.setStoreBlobContentMD5(false);
+        return options;
+    }
+
+    /**
+     * @param number Block number starting at 1
+     * @return Base64 encoded block identifier of equal length for all blocks
+     */
+    protected static String toBlockId(final int number) {
+        return Base64.toBase64String(String.format("%07d", number).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static final class Block {
+        private final int number;
+        private final String id;
+        private final long offset;
+        private final long length;
+
+        public Block(final int number, final long offset, final long length) {
+            this.number = number;
+            this.id = toBlockId(number);
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    @Override
+    public Write.Append append(final Path file, final Long length, final Cache<Path> cache) throws BackgroundException {
+        final Map<String, Long> staged;
+        try {
+            staged = this.staged(this.reference(file));
+        }
+        catch(StorageException e) {
+            // Existing append blob
+            return writer.append(file, length, cache);
+        }
+        if(staged.isEmpty()) {
+            return writer.append(file, length, cache);
+        }
+        final long block = this.length(length);
+        long size = 0L;
+        // Resume after contiguous blocks from start of file. Exclude last block to commit block list.
+        for(int number = 1; size + block < length; number++) {
+            final Long existing = staged.get(toBlockId(number));
+            if(existing == null || existing != block) {
+                break;
+            }
+            size += existing;
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Found %d uncommitted blocks for %s with contiguous size %d", staged.size(), file, size));
+        }
+        return new Write.Append(size);
+    }
+
+    @Override
+    public Upload<Void> withWriter(final Write<Void> writer) {
+        this.writer = writer;
+        return this;
+    }
+}
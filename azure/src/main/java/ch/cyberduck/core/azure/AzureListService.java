@@ -20,11 +20,12 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 
 import com.microsoft.azure.storage.OperationContext;
 
-public class AzureListService implements ListService {
+public class AzureListService implements StreamingListService {
 
     private final AzureSession session;
     private final OperationContext context;
@@ -44,6 +45,16 @@ public class AzureListService implements ListService {
         }
     }
 
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(directory.isRoot()) {
+            callback.chunk(directory, new AzureContainerListService(session, context).list(directory, listener));
+        }
+        else {
+            new AzureObjectListService(session, context).list(directory, listener, callback);
+        }
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         return this;
@@ -21,12 +21,14 @@ package ch.cyberduck.core.azure;
 import ch.cyberduck.core.AbstractPath;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.CollectingListCallback;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.io.Checksum;
@@ -50,7 +52,7 @@ import com.microsoft.azure.storage.blob.CloudBlobContainer;
 import com.microsoft.azure.storage.blob.CloudBlobDirectory;
 import com.microsoft.azure.storage.blob.ListBlobItem;
 
-public class AzureObjectListService implements ListService {
+public class AzureObjectListService implements StreamingListService {
 
     private final AzureSession session;
 
@@ -66,9 +68,15 @@ public class AzureObjectListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final CollectingListCallback children = new CollectingListCallback(listener);
+        this.list(directory, listener, children);
+        return children.getList();
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
         try {
             final CloudBlobContainer container = session.getClient().getContainerReference(containerService.getContainer(directory).getName());
-            final AttributedList<Path> children = new AttributedList<Path>();
             ResultContinuation token = null;
             ResultSegment<ListBlobItem> result;
             String prefix = StringUtils.EMPTY;
@@ -83,6 +91,7 @@ public class AzureObjectListService implements ListService {
                 result = container.listBlobsSegmented(
                         prefix, false, EnumSet.noneOf(BlobListingDetails.class),
                         PreferencesFactory.get().getInteger("azure.listing.chunksize"), token, options, context);
+                final AttributedList<Path> children = new AttributedList<Path>();
                 for(ListBlobItem object : result.getResults()) {
                     if(new Path(object.getUri().getPath(), EnumSet.of(Path.Type.directory)).equals(directory)) {
                         continue;
@@ -103,11 +112,10 @@ public class AzureObjectListService implements ListService {
                     final Path child = new Path(directory, PathNormalizer.name(object.getUri().getPath()), types, attributes);
                     children.add(child);
                 }
-                listener.chunk(directory, children);
+                callback.chunk(directory, children);
                 token = result.getContinuationToken();
             }
             while(result.getHasMoreResults());
-            return children;
         }
         catch(StorageException e) {
             throw new AzureExceptionMappingService().map("Listing directory {0} failed", e, directory);
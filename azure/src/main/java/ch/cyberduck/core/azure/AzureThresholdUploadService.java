@@ -0,0 +1,114 @@
+package ch.cyberduck.core.azure;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.shared.DefaultUploadFeature;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import com.microsoft.azure.storage.OperationContext;
+
+public class AzureThresholdUploadService implements Upload<Void> {
+    private static final Logger log = Logger.getLogger(AzureThresholdUploadService.class);
+
+    private final Preferences preferences
+        = PreferencesFactory.get();
+
+    private final AzureSession session;
+
+    private final OperationContext context;
+
+    private Long threshold;
+
+    private Write<Void> writer;
+
+    public AzureThresholdUploadService(final AzureSession session, final OperationContext context) {
+        this(session, context, PreferencesFactory.get().getLong("azure.upload.blockblob.threshold"));
+    }
+
+    public AzureThresholdUploadService(final AzureSession session, final OperationContext context, final Long threshold) {
+        this.session = session;
+        this.context = context;
+        this.threshold = threshold;
+        this.writer = new AzureWriteFeature(session, context);
+    }
+
+    @Override
+    public Write.Append append(final Path file, final Long length, final Cache<Path> cache) throws BackgroundException {
+        if(this.isBlockBlob(length)) {
+            // Resume with uncommitted blocks of previous transfer
+            return new AzureBlockBlobUploadService(session, context, writer).append(file, length, cache);
+        }
+        return writer.append(file, length, cache);
+    }
+
+    @Override
+    public Void upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                       final TransferStatus status, final ConnectionCallback prompt) throws BackgroundException {
+        if(this.isBlockBlob(status.getLength())) {
+            try {
+                return new AzureBlockBlobUploadService(session, context, writer).upload(file, local, throttle, listener, status, prompt);
+            }
+            catch(InteroperabilityException e) {
+                log.warn(String.format("Failure using block blob upload %s. Fallback to single upload.", e.getMessage()));
+            }
+        }
+        // Use single upload service
+        return new DefaultUploadFeature<Void>(writer).upload(file, local, throttle, listener, status, prompt);
+    }
+
+    /**
+     * @return False if content must be written with the writer such as for encryption in vault
+     */
+    private boolean isBlockBlob(final Long length) {
+        if(length > threshold) {
+            if(!preferences.getBoolean("azure.upload.blockblob")) {
+                log.warn("Block blob upload is disabled with property azure.upload.blockblob");
+                return false;
+            }
+            if(!(writer instanceof AzureWriteFeature)) {
+                log.warn(String.format("Block blob upload not supported with writer %s", writer));
+                return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public AzureThresholdUploadService withThreshold(final Long threshold) {
+        this.threshold = threshold;
+        return this;
+    }
+
+    @Override
+    public Upload<Void> withWriter(final Write<Void> writer) {
+        this.writer = writer;
+        return this;
+    }
+}
@@ -20,9 +20,10 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 
-public class B2ListService implements ListService {
+public class B2ListService implements StreamingListService {
 
     private final B2BucketListService buckets;
     private final B2ObjectListService objects;
@@ -42,6 +43,16 @@ public class B2ListService implements ListService {
         }
     }
 
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(directory.isRoot()) {
+            callback.chunk(directory, buckets.list(directory, listener));
+        }
+        else {
+            objects.list(directory, listener, callback);
+        }
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         buckets.withCache(cache);
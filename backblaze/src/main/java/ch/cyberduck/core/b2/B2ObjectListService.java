@@ -17,6 +17,7 @@ package ch.cyberduck.core.b2;
 
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.CollectingListCallback;
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
@@ -24,6 +25,7 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.preferences.PreferencesFactory;
@@ -32,6 +34,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Locale;
@@ -44,7 +47,7 @@ import synapticloop.b2.response.B2ListFilesResponse;
 
 import static ch.cyberduck.core.b2.B2MetadataFeature.X_BZ_INFO_SRC_LAST_MODIFIED_MILLIS;
 
-public class B2ObjectListService implements ListService {
+public class B2ObjectListService implements StreamingListService {
     private static final Logger log = Logger.getLogger(B2ObjectListService.class);
 
     private final PathContainerService containerService
@@ -67,8 +70,14 @@ public class B2ObjectListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final CollectingListCallback objects = new CollectingListCallback(listener);
+        this.list(directory, listener, objects);
+        return objects.getList();
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
         try {
-            final AttributedList<Path> objects = new AttributedList<Path>();
             Marker marker;
             if(containerService.isContainer(directory)) {
                 marker = new Marker(null, null);
@@ -90,11 +99,15 @@ public class B2ObjectListService implements ListService {
                     marker.nextFilename, marker.nextFileId, chunksize,
                     containerService.isContainer(directory) ? null : String.format("%s%s", containerService.getKey(directory), String.valueOf(Path.DELIMITER)),
                     String.valueOf(Path.DELIMITER));
+                final AttributedList<Path> objects = new AttributedList<Path>();
                 marker = this.parse(directory, objects, response, revisions);
-                listener.chunk(directory, objects);
+                if(marker.hasNext()) {
+                    // Versions of a file are listed consecutively and may continue in next chunk only
+                    revisions.keySet().retainAll(Collections.singleton(marker.nextFilename));
+                }
+                callback.chunk(directory, objects);
             }
             while(marker.hasNext());
-            return objects;
         }
         catch(B2ApiException e) {
             throw new B2ExceptionMappingService().map("Listing directory {0} failed", e, directory);
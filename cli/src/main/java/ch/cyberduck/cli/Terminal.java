@@ -40,6 +40,10 @@ import ch.cyberduck.core.local.ApplicationFinderFactory;
 import ch.cyberduck.core.local.ApplicationQuitCallback;
 import ch.cyberduck.core.local.TemporaryFileServiceFactory;
 import ch.cyberduck.core.manta.MantaProtocol;
+import ch.cyberduck.core.metrics.JsonMetricsExporter;
+import ch.cyberduck.core.metrics.MetricsExporter;
+import ch.cyberduck.core.metrics.MetricsRegistry;
+import ch.cyberduck.core.metrics.PrometheusMetricsExporter;
 import ch.cyberduck.core.nio.LocalProtocol;
 import ch.cyberduck.core.onedrive.OneDriveProtocol;
 import ch.cyberduck.core.openstack.SwiftProtocol;
@@ -82,6 +86,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.log4j.Logger;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -284,10 +290,32 @@ public class Terminal {
         finally {
             this.disconnect(source);
             this.disconnect(destination);
+            if(input.hasOption(TerminalOptionsBuilder.Params.metrics.name())) {
+                this.metrics(input.getOptionValue(TerminalOptionsBuilder.Params.metrics.name()));
+            }
         }
         return Exit.failure;
     }
 
+    /**
+     * Print snapshot of metrics registry
+     *
+     * @param format Either json or prometheus
+     */
+    protected void metrics(final String format) {
+        final MetricsExporter exporter = "prometheus".equals(format) ? new PrometheusMetricsExporter() : new JsonMetricsExporter();
+        final StringWriter out = new StringWriter();
+        try {
+            exporter.export(MetricsRegistry.get().snapshot(), out);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure exporting metrics. %s", e.getMessage()));
+            return;
+        }
+        final Console console = new Console();
+        console.printf("%n%s", out.toString());
+    }
+
     protected void configure(final CommandLine input) {
         final boolean preserve = input.hasOption(TerminalOptionsBuilder.Params.preserve.name());
         preferences.setProperty("queue.upload.permissions.change", preserve);
@@ -317,6 +345,7 @@ public class Terminal {
                 NumberUtils.toInt(input.getOptionValue(TerminalOptionsBuilder.Params.parallel.name()), 2));
         }
         preferences.setProperty("connection.login.keychain", !input.hasOption(TerminalOptionsBuilder.Params.nokeychain.name()));
+        preferences.setProperty("metrics.session.enable", input.hasOption(TerminalOptionsBuilder.Params.metrics.name()));
     }
 
     protected Exit transfer(final Transfer transfer, final SessionPool source, final SessionPool destination) {
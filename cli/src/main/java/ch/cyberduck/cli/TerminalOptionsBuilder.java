@@ -159,6 +159,12 @@ public final class TerminalOptionsBuilder {
                 .withLongOpt(Params.nokeychain.name())
                 .isRequired(false)
                 .create());
+        options.addOption(OptionBuilder
+                .withDescription("Print request, connection and transfer metrics when done")
+                .withLongOpt(Params.metrics.name())
+                .hasOptionalArg().withArgName("json|prometheus")
+                .isRequired(false)
+                .create());
         final StringBuilder b = new StringBuilder().append(StringUtils.LF);
         b.append("Options for downloads and uploads:").append(StringUtils.LF);
         for(TransferAction a : TransferAction.forTransfer(Transfer.Type.download)) {
@@ -230,6 +236,7 @@ public final class TerminalOptionsBuilder {
         password,
         identity,
         application,
-        chmod
+        chmod,
+        metrics
     }
 }
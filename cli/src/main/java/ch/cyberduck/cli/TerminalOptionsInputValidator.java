@@ -98,6 +98,14 @@ public class TerminalOptionsInputValidator {
                     break;
             }
         }
+        if(input.hasOption(TerminalOptionsBuilder.Params.metrics.name())) {
+            final String arg = input.getOptionValue(TerminalOptionsBuilder.Params.metrics.name());
+            if(StringUtils.isNotBlank(arg) && !Arrays.asList("json", "prometheus").contains(arg)) {
+                console.printf("Invalid argument '%s' for option %s. Must be one of %s%n",
+                    arg, TerminalOptionsBuilder.Params.metrics.name(), Arrays.toString(new String[]{"json", "prometheus"}));
+                return false;
+            }
+        }
         // Validate arguments
         switch(action) {
             case list:
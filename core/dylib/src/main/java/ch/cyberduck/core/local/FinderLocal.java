@@ -23,6 +23,7 @@ import ch.cyberduck.binding.foundation.NSURL;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.LocalAccessDeniedException;
+import ch.cyberduck.core.io.FileChannelOutputStream;
 import ch.cyberduck.core.io.LocalRepeatableFileInputStream;
 import ch.cyberduck.core.library.Native;
 import ch.cyberduck.core.preferences.PreferencesFactory;
@@ -40,6 +41,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class FinderLocal extends Local {
     private static final Logger log = Logger.getLogger(FinderLocal.class);
@@ -171,6 +176,57 @@ public class FinderLocal extends Local {
         }
     }
 
+    @Override
+    public OutputStream getOutputStream(final long position) throws AccessDeniedException {
+        final NSURL resolved;
+        try {
+            resolved = this.lock(false);
+        }
+        catch(LocalAccessDeniedException e) {
+            return super.getOutputStream(position);
+        }
+        try {
+            final FileChannel channel = FileChannel.open(Paths.get(resolved.path()), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(position);
+            return new FileChannelOutputStream(channel) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    }
+                    finally {
+                        release(resolved);
+                    }
+                }
+            };
+        }
+        catch(IOException e) {
+            this.release(resolved);
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void allocate(final long length) throws AccessDeniedException {
+        final NSURL resolved;
+        try {
+            resolved = this.lock(false);
+        }
+        catch(LocalAccessDeniedException e) {
+            super.allocate(length);
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(resolved.path(), "rw")) {
+            file.setLength(length);
+        }
+        catch(IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+        finally {
+            this.release(resolved);
+        }
+    }
+
     /**
      * @param interactive Prompt to resolve bookmark of file outside of sandbox with choose panel
      */
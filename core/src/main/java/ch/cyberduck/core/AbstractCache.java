@@ -18,31 +18,107 @@ package ch.cyberduck.core;
  *  dkocher@cyberduck.ch
  */
 
-import org.apache.commons.collections4.map.LRUMap;
+import ch.cyberduck.core.cache.AttributedListWeigher;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.log4j.Logger;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
 public abstract class AbstractCache<T extends Referenceable> implements Cache<T> {
     private static final Logger log = Logger.getLogger(AbstractCache.class);
 
-    private final Map<T, AttributedList<T>> impl;
+    /**
+     * Number of segments in cache with maximum weight divided among segments
+     */
+    private static final int CONCURRENCY = 4;
+
+    /**
+     * Concurrent with lock striping and lock free reads
+     */
+    private final com.google.common.cache.Cache<T, Weighted<T>> delegate;
+    private final Map<T, Weighted<T>> impl;
+
+    private final AttributedListWeigher weigher;
+    /**
+     * Maximum weight of a single listing. A listing heavier than the share of a segment in the maximum weight
+     * would be evicted as soon as it is added.
+     */
+    private final long limit;
+
+    /**
+     * @param size Maximum number of directory listings. Scaled by the average number of entries per directory
+     *             when weighing by entries or estimated memory footprint.
+     */
+    public AbstractCache(final int size) {
+        this(size, AttributedListWeigher.valueOf(PreferencesFactory.get().getProperty("cache.weigher")));
+    }
 
-    public AbstractCache(int size) {
+    public AbstractCache(final int size, final AttributedListWeigher weigher) {
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().concurrencyLevel(CONCURRENCY).recordStats();
+        this.weigher = weigher;
         if(size == Integer.MAX_VALUE) {
             // Unlimited
-            impl = Collections.synchronizedMap(new LinkedHashMap<T, AttributedList<T>>());
+            delegate = builder.build();
+            limit = Long.MAX_VALUE;
         }
         else if(size == 0) {
-            impl = Collections.emptyMap();
+            delegate = builder.maximumSize(0L).build();
+            limit = Long.MAX_VALUE;
         }
         else {
-            // Will inflate to the given size
-            impl = Collections.synchronizedMap(new LRUMap<T, AttributedList<T>>(size));
+            final Preferences preferences = PreferencesFactory.get();
+            final long maximum;
+            switch(weigher) {
+                case entry:
+                    maximum = size * preferences.getLong("cache.weigher.entries.directory");
+                    break;
+                case bytes:
+                    // Bound by fraction of available heap
+                    maximum = Math.min(
+                        size * preferences.getLong("cache.weigher.entries.directory") * AttributedListWeigher.ESTIMATED_ENTRY_SIZE,
+                        (long) (Runtime.getRuntime().maxMemory() * preferences.getDouble("cache.weigher.memory.ratio")));
+                    break;
+                default:
+                    maximum = -1L;
+                    break;
+            }
+            if(maximum > 0) {
+                delegate = builder.maximumWeight(maximum).weigher(new Weigher<T, Weighted<T>>() {
+                    @Override
+                    public int weigh(final T key, final Weighted<T> value) {
+                        return weigher.weigh(key, value.list);
+                    }
+                }).build();
+                limit = Math.max(1L, maximum / CONCURRENCY);
+            }
+            else {
+                delegate = builder.maximumSize(size).build();
+                limit = Long.MAX_VALUE;
+            }
+        }
+        impl = delegate.asMap();
+    }
+
+    /**
+     * @return False if listing is too heavy to be cached
+     */
+    private boolean fits(final T reference, final AttributedList<T> children) {
+        if(limit == Long.MAX_VALUE) {
+            return true;
+        }
+        final int weight = weigher.weigh(reference, children);
+        if(weight > limit) {
+            log.warn(String.format("Skip caching %s with weight %d exceeding limit %d", reference, weight, limit));
+            return false;
         }
+        return true;
     }
 
     @Override
@@ -63,7 +139,7 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
      * @return True if the directory listing of this path is cached
      */
     public boolean containsKey(final T reference) {
-        return impl.containsKey(reference);
+        return this.find(reference) != null;
     }
 
     /**
@@ -73,12 +149,12 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
      * @return The previously cached directory listing
      */
     public AttributedList<T> remove(final T reference) {
-        final AttributedList<T> removed = impl.remove(reference);
+        final Weighted<T> removed = impl.remove(reference);
         if(null == removed) {
             // Not previously in cache
             return AttributedList.emptyList();
         }
-        return removed;
+        return removed.list;
     }
 
     /**
@@ -88,7 +164,7 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
      *                                                   and requests a new filter here.
      */
     public AttributedList<T> get(final T reference) {
-        AttributedList<T> children = impl.get(reference);
+        final AttributedList<T> children = this.find(reference);
         if(null == children) {
             log.warn(String.format("No cache for %s", reference));
             return AttributedList.emptyList();
@@ -96,6 +172,33 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         return children;
     }
 
+    /**
+     * Lookup recording hit or miss in statistics. Update weight of cached listing modified after it was added.
+     *
+     * @return Null if not cached
+     */
+    private AttributedList<T> find(final T reference) {
+        if(null == reference) {
+            // No parent for root
+            return null;
+        }
+        final Weighted<T> value = delegate.getIfPresent(reference);
+        if(null == value) {
+            return null;
+        }
+        if(value.size != value.list.size()) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Update weight of %s with %d entries", reference, value.list.size()));
+            }
+            if(!this.fits(reference, value.list)) {
+                impl.remove(reference, value);
+                return null;
+            }
+            impl.replace(reference, value, new Weighted<T>(value.list));
+        }
+        return value.list;
+    }
+
     /**
      * @param reference Reference to the path in cache.
      * @param children  Cached directory listing
@@ -105,7 +208,22 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         if(log.isInfoEnabled()) {
             log.info(String.format("Caching %s", reference));
         }
-        return impl.put(reference, children);
+        if(null == children) {
+            return this.remove(reference);
+        }
+        if(!this.fits(reference, children)) {
+            // Discard previous version no longer current
+            final Weighted<T> previous = impl.remove(reference);
+            if(null == previous) {
+                return null;
+            }
+            return previous.list;
+        }
+        final Weighted<T> previous = impl.put(reference, new Weighted<T>(children));
+        if(null == previous) {
+            return null;
+        }
+        return previous.list;
     }
 
     /**
@@ -116,10 +234,11 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
     }
 
     public boolean isValid(final T reference) {
-        if(this.isCached(reference)) {
-            return !this.get(reference).attributes().isInvalid();
+        final AttributedList<T> children = this.find(reference);
+        if(null == children) {
+            return false;
         }
-        return false;
+        return !children.attributes().isInvalid();
     }
 
     /**
@@ -129,8 +248,9 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         if(log.isInfoEnabled()) {
             log.info(String.format("Invalidate %s", reference));
         }
-        if(this.containsKey(reference)) {
-            this.get(reference).attributes().setInvalid(true);
+        final AttributedList<T> children = this.find(reference);
+        if(null != children) {
+            children.attributes().setInvalid(true);
         }
         else {
             log.warn(String.format("No cache for %s", reference));
@@ -147,11 +267,49 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         impl.clear();
     }
 
+    /**
+     * @return Number of lookups returning a cached directory listing
+     */
+    public long getHitCount() {
+        return delegate.stats().hitCount();
+    }
+
+    /**
+     * @return Number of lookups with no cached directory listing
+     */
+    public long getMissCount() {
+        return delegate.stats().missCount();
+    }
+
+    /**
+     * @return Number of directory listings evicted to stay within bounds
+     */
+    public long getEvictionCount() {
+        return delegate.stats().evictionCount();
+    }
+
     @Override
     public String toString() {
+        final CacheStats stats = delegate.stats();
         final StringBuilder sb = new StringBuilder("Cache{");
         sb.append("size=").append(impl.size());
+        sb.append(", hits=").append(stats.hitCount());
+        sb.append(", misses=").append(stats.missCount());
+        sb.append(", evictions=").append(stats.evictionCount());
         sb.append('}');
         return sb.toString();
     }
+
+    /**
+     * Listing with number of entries at the time its weight was determined
+     */
+    private static final class Weighted<T extends Referenceable> {
+        private final AttributedList<T> list;
+        private final int size;
+
+        private Weighted(final AttributedList<T> list) {
+            this.list = list;
+            this.size = list.size();
+        }
+    }
 }
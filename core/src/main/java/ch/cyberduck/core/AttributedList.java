@@ -20,17 +20,20 @@ package ch.cyberduck.core;
 
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
 import java.util.function.Predicate;
 
 /**
- * A sortable list with a map to lookup values by key.
+ * A sortable list with a map to lookup values by key. Elements are appended to a mutable list while
+ * listing and frozen into an immutable snapshot with a hash index on first read after a modification.
  */
 public class AttributedList<E extends Referenceable> implements Iterable<E> {
     private static final Logger log = Logger.getLogger(AttributedList.class);
@@ -52,8 +55,15 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
         }
     };
 
-    private final List<E> impl
-        = new CopyOnWriteArrayList<>();
+    /**
+     * Append only builder while listing. Guarded by itself.
+     */
+    private final List<E> impl;
+
+    /**
+     * Immutable copy of elements. Reset on modification.
+     */
+    private volatile Snapshot<E> snapshot;
 
     /**
      * Metadata of file listing
@@ -65,18 +75,23 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * Initialize an attributed list with default attributes
      */
     public AttributedList() {
-        //
+        this.impl = new ArrayList<>();
     }
 
     /**
      * @param collection Default content
      */
     public AttributedList(final Iterable<E> collection) {
+        this();
         for(E e : collection) {
             this.add(e);
         }
     }
 
+    private AttributedList(final List<E> impl) {
+        this.impl = impl;
+    }
+
     @SuppressWarnings("unchecked")
     public static <T extends Referenceable> AttributedList<T> emptyList() {
         return (AttributedList<T>) EMPTY;
@@ -92,11 +107,17 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public boolean add(final E e) {
-        return impl.add(e);
+        synchronized(impl) {
+            snapshot = null;
+            return impl.add(e);
+        }
     }
 
     public void add(final int index, final E e) {
-        impl.add(index, e);
+        synchronized(impl) {
+            snapshot = null;
+            impl.add(index, e);
+        }
     }
 
     public boolean addAll(final Iterable<? extends E> c) {
@@ -107,34 +128,60 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public E get(final int index) {
-        return impl.get(index);
+        final Snapshot<E> frozen = snapshot;
+        if(null == frozen) {
+            // Do not freeze while still listing
+            synchronized(impl) {
+                return impl.get(index);
+            }
+        }
+        return frozen.get(index);
     }
 
     public E get(final E reference) {
-        final int index = impl.indexOf(reference);
+        final Snapshot<E> frozen = this.freeze();
+        final int index = frozen.indexOf(reference);
         if(-1 == index) {
             return null;
         }
-        return impl.get(index);
+        return frozen.get(index);
     }
 
     public void set(final int i, final E e) {
-        impl.set(i, e);
+        synchronized(impl) {
+            snapshot = null;
+            impl.set(i, e);
+        }
     }
 
+    /**
+     * @return Iterator over snapshot of current elements not affected by later modifications
+     */
     @Override
     public Iterator<E> iterator() {
-        return impl.iterator();
+        return this.freeze().list().iterator();
+    }
+
+    /**
+     * @return Immutable copy of current elements with index
+     */
+    private Snapshot<E> freeze() {
+        Snapshot<E> frozen = snapshot;
+        if(null == frozen) {
+            synchronized(impl) {
+                frozen = snapshot;
+                if(null == frozen) {
+                    snapshot = frozen = new Snapshot<>(impl.toArray());
+                }
+            }
+        }
+        return frozen;
     }
 
     /**
-     * The CopyOnWriteArrayList iterator does not support remove but the sort implementation
-     * makes use of it. Provide our own implementation here to circumvent.
-     *
      * @param copy       The list copy to sort
      * @param comparator The comparator to use
      * @see java.util.Collections#sort(java.util.List, java.util.Comparator)
-     * @see java.util.concurrent.CopyOnWriteArrayList#iterator()
      */
     private void doSort(final List<E> copy, final Comparator<E> comparator) {
         if(null == comparator) {
@@ -164,67 +211,100 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @return Filtered list sorted with comparator
      */
     public AttributedList<E> filter(final Comparator<E> comparator, final Filter<E> filter) {
-        final AttributedList<E> filtered = new AttributedList<>(impl);
+        final List<E> copy = new ArrayList<>(this.freeze().list());
         if(null != comparator) {
-            this.doSort(filtered.impl, comparator);
+            this.doSort(copy, comparator);
         }
         if(null != filter) {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Filter list %s with filter %s", this, filter));
             }
-            filtered.impl.removeIf(new Predicate<E>() {
+            copy.removeIf(new Predicate<E>() {
                 @Override
                 public boolean test(final E e) {
                     return !filter.accept(e);
                 }
             });
         }
-        return filtered;
+        return new AttributedList<>(copy);
     }
 
     /**
      * Clear the list and all references.
      */
     public void clear() {
-        impl.clear();
+        synchronized(impl) {
+            snapshot = null;
+            impl.clear();
+        }
     }
 
     public boolean isEmpty() {
-        return impl.isEmpty();
+        return 0 == this.size();
     }
 
     public int size() {
-        return impl.size();
+        final Snapshot<E> frozen = snapshot;
+        if(null == frozen) {
+            synchronized(impl) {
+                return impl.size();
+            }
+        }
+        return frozen.size();
     }
 
     public boolean contains(final E e) {
-        return impl.contains(e);
+        return -1 != this.indexOf(e);
+    }
+
+    /**
+     * Lookup in index by hash code. Cache references are equal to elements with the same hash code.
+     *
+     * @param reference Reference to element
+     * @return First element with the same hash code as the reference or null
+     */
+    public E lookup(final CacheReference<E> reference) {
+        final Snapshot<E> frozen = this.freeze();
+        final int index = frozen.lookup(reference.hashCode());
+        if(-1 == index) {
+            return null;
+        }
+        return frozen.get(index);
     }
 
     public E find(final Predicate<E> predicate) {
-        final Optional<E> optional = impl.stream().filter(predicate).findFirst();
-        return optional.orElse(null);
+        return this.freeze().find(predicate);
     }
 
     @SuppressWarnings("unchecked")
     public E[] toArray() {
-        return (E[]) impl.toArray(new Referenceable[impl.size()]);
+        final Snapshot<E> frozen = this.freeze();
+        return (E[]) Arrays.copyOf(frozen.elements, frozen.size(), Referenceable[].class);
     }
 
+    /**
+     * @return Unmodifiable snapshot of elements
+     */
     public List<E> toList() {
-        return impl;
+        return this.freeze().list();
     }
 
     public int indexOf(final E e) {
-        return impl.indexOf(e);
+        return this.freeze().indexOf(e);
     }
 
     public boolean remove(final E e) {
-        return impl.remove(e);
+        synchronized(impl) {
+            snapshot = null;
+            return impl.remove(e);
+        }
     }
 
-    public boolean removeAll(final java.util.Collection<E> e) {
-        return impl.removeAll(e);
+    public boolean removeAll(final Collection<E> e) {
+        synchronized(impl) {
+            snapshot = null;
+            return impl.removeAll(e);
+        }
     }
 
     @Override
@@ -236,11 +316,100 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
             return false;
         }
         final AttributedList<?> that = (AttributedList<?>) o;
-        return Objects.equals(impl, that.impl);
+        return Arrays.equals(this.freeze().elements, that.freeze().elements);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(impl);
+        return Arrays.hashCode(this.freeze().elements);
+    }
+
+    /**
+     * Immutable elements with index by hash code created on first keyed lookup
+     */
+    private static final class Snapshot<E> {
+        private final Object[] elements;
+        private final List<E> list;
+
+        /**
+         * Hash code of element to index of first element with that hash code
+         */
+        private volatile Map<Integer, Integer> index;
+
+        @SuppressWarnings("unchecked")
+        private Snapshot(final Object[] elements) {
+            this.elements = elements;
+            this.list = Collections.unmodifiableList((List<E>) Arrays.asList(elements));
+        }
+
+        @SuppressWarnings("unchecked")
+        public E get(final int i) {
+            return (E) elements[i];
+        }
+
+        public int size() {
+            return elements.length;
+        }
+
+        public List<E> list() {
+            return list;
+        }
+
+        /**
+         * @param hash Hash code
+         * @return Index of first element with hash code or -1
+         */
+        public int lookup(final int hash) {
+            Map<Integer, Integer> map = index;
+            if(null == map) {
+                synchronized(this) {
+                    map = index;
+                    if(null == map) {
+                        map = new HashMap<>(elements.length * 4 / 3 + 1);
+                        for(int i = 0; i < elements.length; i++) {
+                            if(null != elements[i]) {
+                                map.putIfAbsent(elements[i].hashCode(), i);
+                            }
+                        }
+                        index = map;
+                    }
+                }
+            }
+            final Integer i = map.get(hash);
+            if(null == i) {
+                return -1;
+            }
+            return i;
+        }
+
+        public int indexOf(final Object o) {
+            if(null == o) {
+                return -1;
+            }
+            final int i = this.lookup(o.hashCode());
+            if(-1 == i) {
+                return -1;
+            }
+            if(o.equals(elements[i])) {
+                return i;
+            }
+            // Collision of hash code with element not equal
+            for(int k = i + 1; k < elements.length; k++) {
+                if(o.equals(elements[k])) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        public E find(final Predicate<E> predicate) {
+            for(int i = 0; i < elements.length; i++) {
+                final E e = this.get(i);
+                if(predicate.test(e)) {
+                    return e;
+                }
+            }
+            return null;
+        }
     }
 }
@@ -0,0 +1,60 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+/**
+ * Stream listing from any list service. Services not supporting streaming pass the complete listing as a
+ * single chunk.
+ */
+public class ChunkedListService implements StreamingListService {
+
+    private final ListService proxy;
+
+    public ChunkedListService(final ListService proxy) {
+        this.proxy = proxy;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        return proxy.list(directory, listener);
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(proxy instanceof StreamingListService) {
+            ((StreamingListService) proxy).list(directory, listener, callback);
+        }
+        else {
+            callback.chunk(directory, proxy.list(directory, listener));
+        }
+    }
+
+    @Override
+    public ListService withCache(final Cache<Path> cache) {
+        proxy.withCache(cache);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ChunkedListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+/**
+ * Collect chunks of streaming listing into a single list notifying the listener with the contents so far
+ */
+public class CollectingListCallback implements StreamingListService.Callback {
+
+    private final AttributedList<Path> children = new AttributedList<Path>();
+
+    private final ListProgressListener listener;
+
+    public CollectingListCallback(final ListProgressListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void chunk(final Path directory, final AttributedList<Path> chunk) throws BackgroundException {
+        children.addAll(chunk);
+        listener.chunk(directory, children);
+    }
+
+    public AttributedList<Path> getList() {
+        return children;
+    }
+}
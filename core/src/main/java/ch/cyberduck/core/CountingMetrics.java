@@ -31,6 +31,11 @@ public class CountingMetrics implements Metrics {
         metrics.get(key).getAndIncrement();
     }
 
+    @Override
+    public <T> void set(final T key, final long value) {
+        metrics.computeIfAbsent(key, k -> new AtomicLong()).set(value);
+    }
+
     @Override
     public <T> long get(final T key) {
         return metrics.containsKey(key) ? metrics.get(key).longValue() : 0;
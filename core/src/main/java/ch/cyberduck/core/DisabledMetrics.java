@@ -20,6 +20,9 @@ public class DisabledMetrics implements Metrics {
     public <T> void increment(final T key) {
     }
 
+    public <T> void set(final T key, final long value) {
+    }
+
     public <T> long get(final T key) {
         return 0;
     }
@@ -89,6 +89,15 @@ public class FolderTransferCollection extends Collection<Transfer> {
         return LocalFactory.get(folder, String.format("%s.cyberducktransfer", transfer.getUuid()));
     }
 
+    /**
+     * @param transfer Transfer
+     * @return Journal of files completed in previous run of transfer
+     * @see ch.cyberduck.core.transfer.TransferJournal#get(Transfer)
+     */
+    public Local getJournal(final Transfer transfer) {
+        return LocalFactory.get(folder, String.format("%s.journal", transfer.getUuid()));
+    }
+
     public Local getFolder() {
         return folder;
     }
@@ -97,6 +106,11 @@ public class FolderTransferCollection extends Collection<Transfer> {
     public void collectionItemRemoved(final Transfer transfer) {
         try {
             this.getFile(transfer).delete();
+            final Local journal = this.getJournal(transfer);
+            if(journal.exists()) {
+                // Entries of interrupted transfer no longer resumed
+                journal.delete();
+            }
             preferences.deleteProperty(String.format("%s%s", prefix, transfer.getUuid()));
         }
         catch(AccessDeniedException | NotfoundException e) {
@@ -19,5 +19,13 @@ public interface Metrics {
 
     <T> void increment(T key);
 
+    /**
+     * Record current value of gauge
+     *
+     * @param key   Metric
+     * @param value Current value
+     */
+    <T> void set(T key, long value);
+
     <T> long get(T key);
 }
@@ -17,6 +17,8 @@ package ch.cyberduck.core;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.cache.AttributedListWeigher;
+
 public class PathCache extends AbstractCache<Path> {
 
     private static final PathCache EMPTY = new PathCache(0) {
@@ -34,6 +36,10 @@ public class PathCache extends AbstractCache<Path> {
         super(size);
     }
 
+    public PathCache(final int size, final AttributedListWeigher weigher) {
+        super(size, weigher);
+    }
+
     @Override
     public CacheReference key(final Path file) {
         return new DefaultPathPredicate(file);
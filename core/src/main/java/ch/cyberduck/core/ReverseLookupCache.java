@@ -85,6 +85,7 @@ public class ReverseLookupCache<T extends Referenceable> implements Cache<T> {
      * @return Null if the path is not in the cache
      * @see ch.cyberduck.core.AttributedList#get(Referenceable)
      */
+    @SuppressWarnings("unchecked")
     public T lookup(final CacheReference reference) {
         final T parent = reverse.get(reference);
         final AttributedList<T> list = proxy.get(parent);
@@ -92,6 +93,11 @@ public class ReverseLookupCache<T extends Referenceable> implements Cache<T> {
             log.warn(String.format("Lookup failed for %s in reverse cache", reference));
             return null;
         }
+        final T found = list.lookup((CacheReference<T>) reference);
+        if(null != found && proxy.key(found).equals(reference)) {
+            return found;
+        }
+        // Hash code of element not matching key
         final T[] entries = list.toArray();
         for(T entry : entries) {
             if(proxy.key(entry).equals(reference)) {
@@ -32,6 +32,7 @@ import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.features.Search;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.metrics.RegistryMetrics;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.proxy.Proxy;
@@ -124,6 +125,9 @@ public abstract class Session<C> implements TranscriptListener {
 
     protected Session(final Host h) {
         this.host = h;
+        if(PreferencesFactory.get().getBoolean("metrics.session.enable")) {
+            metrics = new RegistryMetrics(h.getHostname());
+        }
     }
 
     /**
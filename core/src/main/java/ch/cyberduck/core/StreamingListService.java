@@ -0,0 +1,43 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+/**
+ * Listing consumed in chunks as retrieved from the server without building the complete directory listing
+ */
+public interface StreamingListService extends ListService {
+
+    /**
+     * Chunks are passed to the callback in the order retrieved and are not retained by the implementation. The
+     * listener may additionally be notified with chunks when the implementation falls back to a complete listing
+     * as of {@link ListService#list(Path, ListProgressListener)}. Consume contents from the callback only.
+     *
+     * @param directory Directory to list
+     * @param listener  Progress messages
+     * @param callback  Receives contents of directory chunk by chunk
+     */
+    void list(Path directory, ListProgressListener listener, Callback callback) throws BackgroundException;
+
+    interface Callback {
+        /**
+         * @param directory Directory listed
+         * @param chunk     Files retrieved with a single request. Throw exception to interrupt listing
+         */
+        void chunk(Path directory, AttributedList<Path> chunk) throws BackgroundException;
+    }
+}
@@ -17,6 +17,7 @@ package ch.cyberduck.core;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.cache.AttributedListWeigher;
 import ch.cyberduck.core.transfer.TransferItem;
 
 public class TransferItemCache extends AbstractCache<TransferItem> {
@@ -34,6 +35,10 @@ public class TransferItemCache extends AbstractCache<TransferItem> {
         super(size);
     }
 
+    public TransferItemCache(final int size, final AttributedListWeigher weigher) {
+        super(size, weigher);
+    }
+
     @Override
     public CacheReference key(final TransferItem object) {
         return new DefaultPathPredicate(object.remote);
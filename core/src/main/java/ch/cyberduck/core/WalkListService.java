@@ -0,0 +1,140 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Walk;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * List service for recursive workers. When a directory is requested that is not yet known the tree below is
+ * enumerated using the walk feature of the session until the number of files listed in advance reaches the limit.
+ * Directories skipped are walked when requested. Listings of subdirectories are kept until requested once and
+ * removed thereafter. Without walk feature the listing is streamed in chunks from the list service.
+ */
+public class WalkListService implements StreamingListService {
+    private static final Logger log = Logger.getLogger(WalkListService.class);
+
+    private final ListService proxy;
+    private final Walk walk;
+
+    /**
+     * Maximum number of files and directories listed in advance with a single walk
+     */
+    private final long limit;
+
+    /**
+     * Listings retrieved in advance not yet requested
+     */
+    private final Map<Path, AttributedList<Path>> prefetched;
+
+    public WalkListService(final Session<?> session) {
+        this(session, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @param prefetched Listings shared between sessions
+     */
+    public WalkListService(final Session<?> session, final Map<Path, AttributedList<Path>> prefetched) {
+        this(session.getFeature(ListService.class), session.getFeature(Walk.class), prefetched);
+    }
+
+    public WalkListService(final ListService proxy, final Walk walk, final Map<Path, AttributedList<Path>> prefetched) {
+        this(proxy, walk, prefetched, PreferencesFactory.get().getLong("browser.list.walk.limit"));
+    }
+
+    public WalkListService(final ListService proxy, final Walk walk, final Map<Path, AttributedList<Path>> prefetched, final long limit) {
+        this.proxy = proxy;
+        this.walk = walk;
+        this.prefetched = prefetched;
+        this.limit = limit;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final AttributedList<Path> list = prefetched.remove(directory);
+        if(list != null) {
+            listener.chunk(directory, list);
+            return list;
+        }
+        if(null == walk) {
+            return proxy.list(directory, listener);
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Walk tree %s with %s", directory, walk));
+        }
+        // Number of files listed and directories accepted for listing
+        final AtomicLong count = new AtomicLong();
+        walk.walk(directory, listener, new Walk.Callback() {
+            @Override
+            public boolean accept(final Path file) {
+                if(file.isSymbolicLink()) {
+                    // Symbolic links are listed when requested
+                    return false;
+                }
+                if(!file.equals(directory) && count.get() >= limit) {
+                    // Walk when requested
+                    return false;
+                }
+                count.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public void visit(final Path file, final AttributedList<Path> children) {
+                count.addAndGet(children.size());
+                prefetched.put(file, children);
+            }
+        });
+        final AttributedList<Path> walked = prefetched.remove(directory);
+        if(null == walked) {
+            // Skipped by walk
+            return proxy.list(directory, listener);
+        }
+        return walked;
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(null == walk && !prefetched.containsKey(directory)) {
+            new ChunkedListService(proxy).list(directory, listener, callback);
+        }
+        else {
+            callback.chunk(directory, this.list(directory, listener));
+        }
+    }
+
+    @Override
+    public ListService withCache(final Cache<Path> cache) {
+        proxy.withCache(cache);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("WalkListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append(", walk=").append(walk);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package ch.cyberduck.core.cache;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Referenceable;
+
+import com.google.common.cache.Weigher;
+
+/**
+ * Weight of cached directory listing
+ */
+public enum AttributedListWeigher implements Weigher<Referenceable, AttributedList<? extends Referenceable>> {
+    /**
+     * Any directory listing has the same weight regardless of number of entries
+     */
+    directory {
+        @Override
+        public int weigh(final Referenceable key, final AttributedList<? extends Referenceable> value) {
+            return 1;
+        }
+    },
+    /**
+     * Weight by number of entries in directory listing
+     */
+    entry {
+        @Override
+        public int weigh(final Referenceable key, final AttributedList<? extends Referenceable> value) {
+            return 1 + value.size();
+        }
+    },
+    /**
+     * Weight by estimated memory footprint of entries in directory listing
+     */
+    bytes {
+        @Override
+        public int weigh(final Referenceable key, final AttributedList<? extends Referenceable> value) {
+            return (int) Math.min(Integer.MAX_VALUE, (1L + value.size()) * ESTIMATED_ENTRY_SIZE);
+        }
+    };
+
+    /**
+     * Estimated average retained size in bytes of a path with its attributes
+     */
+    public static final long ESTIMATED_ENTRY_SIZE = 512L;
+}
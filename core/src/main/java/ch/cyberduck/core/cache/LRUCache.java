@@ -20,7 +20,9 @@ import org.apache.log4j.Logger;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -31,6 +33,14 @@ import com.google.common.util.concurrent.UncheckedExecutionException;
 public class LRUCache<Key, Value> {
     private static final Logger log = Logger.getLogger(LRUCache.class);
 
+    /**
+     * @param maximumSize Maximum number of entries
+     * @return Cache without loader where entries are only added with {@link #put(Object, Object)}
+     */
+    public static <Key, Value> LRUCache<Key, Value> build(final long maximumSize) {
+        return new LRUCache<>(null, maximumSize, -1L);
+    }
+
     public static <Key, Value> LRUCache<Key, Value> usingLoader(final Function<Key, Value> loader) {
         return usingLoader(loader, -1L, -1L);
     }
@@ -43,7 +53,7 @@ public class LRUCache<Key, Value> {
         return new LRUCache<>(loader, maximumSize, expireDuration);
     }
 
-    private final LoadingCache<Key, Value> delegate;
+    private final Cache<Key, Value> delegate;
 
     private LRUCache(final Function<Key, Value> loader, final long maximumSize, final long expireDuration) {
         final CacheBuilder<Key, Value> builder = CacheBuilder.newBuilder()
@@ -61,16 +71,34 @@ public class LRUCache<Key, Value> {
         if(expireDuration > 0) {
             builder.expireAfterAccess(expireDuration, TimeUnit.MILLISECONDS);
         }
-        delegate = builder.build(new CacheLoader<Key, Value>() {
-            @Override
-            public Value load(Key key) {
-                return loader.apply(key);
-            }
-        });
+        if(null == loader) {
+            delegate = builder.build();
+        }
+        else {
+            delegate = builder.build(new CacheLoader<Key, Value>() {
+                @Override
+                public Value load(Key key) {
+                    return loader.apply(key);
+                }
+            });
+        }
     }
 
+    /**
+     * @return Value from loader if not cached or null if not cached and built without loader
+     */
     public Value get(final Key key) throws UncheckedExecutionException {
-        return delegate.getUnchecked(key);
+        if(delegate instanceof LoadingCache) {
+            return ((LoadingCache<Key, Value>) delegate).getUnchecked(key);
+        }
+        return delegate.getIfPresent(key);
+    }
+
+    /**
+     * @return Null if not cached
+     */
+    public Value getIfPresent(final Key key) {
+        return delegate.getIfPresent(key);
     }
 
     public void forEach(final BiConsumer<Key, Value> function) {
@@ -85,7 +113,22 @@ public class LRUCache<Key, Value> {
         delegate.invalidate(key);
     }
 
+    /**
+     * Remove all entries with matching key
+     */
+    public void removeIf(final Predicate<Key> predicate) {
+        delegate.asMap().keySet().removeIf(predicate);
+    }
+
     public boolean contains(final Key key) {
         return null != delegate.getIfPresent(key);
     }
+
+    public void clear() {
+        delegate.invalidateAll();
+    }
+
+    public long size() {
+        return delegate.size();
+    }
 }
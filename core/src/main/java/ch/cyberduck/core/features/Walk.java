@@ -0,0 +1,51 @@
+package ch.cyberduck.core.features;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+
+/**
+ * Enumerate a directory tree with multiple listing requests in flight
+ */
+public interface Walk {
+
+    /**
+     * List directory and all accepted subdirectories. Directories may be skipped by the implementation
+     * and must then be listed by the caller using the list service.
+     *
+     * @param directory Root of tree
+     * @param listener  Notified with the contents of each directory when complete
+     * @param callback  Receives contents of directories in no particular order
+     */
+    void walk(Path directory, ListProgressListener listener, Callback callback) throws BackgroundException;
+
+    interface Callback {
+        /**
+         * @param directory Directory found in listing of parent
+         * @return False to skip listing of directory
+         */
+        boolean accept(Path directory) throws BackgroundException;
+
+        /**
+         * @param directory Directory listed
+         * @param children  Complete contents of directory
+         */
+        void visit(Path directory, AttributedList<Path> children) throws BackgroundException;
+    }
+}
@@ -17,8 +17,10 @@ package ch.cyberduck.core.http;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.DisabledMetrics;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.LoginCallback;
+import ch.cyberduck.core.Metrics;
 import ch.cyberduck.core.PreferencesUseragentProvider;
 import ch.cyberduck.core.ProxyCredentialsStoreFactory;
 import ch.cyberduck.core.Scheme;
@@ -35,13 +37,19 @@ import ch.cyberduck.core.ssl.X509KeyManager;
 import ch.cyberduck.core.ssl.X509TrustManager;
 
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.HttpStatus;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.client.config.AuthSchemes;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.ConnectionConfig;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.RouteInfo;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -78,6 +86,8 @@ public class HttpConnectionPoolBuilder {
     private final ConnectionSocketFactory sslSocketFactory;
     private final Host host;
 
+    private Metrics metrics = new DisabledMetrics();
+
     public HttpConnectionPoolBuilder(final Host host,
                                      final ThreadLocalHostnameDelegatingTrustManager trust,
                                      final X509KeyManager key,
@@ -159,6 +169,14 @@ public class HttpConnectionPoolBuilder {
         this.sslSocketFactory = sslSocketFactory;
     }
 
+    /**
+     * @param metrics Record connection pool statistics
+     */
+    public HttpConnectionPoolBuilder withMetrics(final Metrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     /**
      * @param proxy    Proxy configuration
      * @param listener Log listener
@@ -205,7 +223,26 @@ public class HttpConnectionPoolBuilder {
         configuration.setRequestExecutor(new LoggingHttpRequestExecutor(listener));
         // Always register HTTP for possible use with proxy. Contains a number of protocol properties such as the
         // default port and the socket factory to be used to create the java.net.Socket instances for the given protocol
-        configuration.setConnectionManager(this.createConnectionManager(this.createRegistry()));
+        final PoolingHttpClientConnectionManager manager = this.createConnectionManager(this.createRegistry());
+        configuration.setConnectionManager(manager);
+        if(manager instanceof InstrumentedHttpClientConnectionManager) {
+            if(((InstrumentedHttpClientConnectionManager) manager).isAdaptive()) {
+                configuration.addInterceptorLast(new HttpResponseInterceptor() {
+                    @Override
+                    public void process(final HttpResponse response, final HttpContext context) {
+                        final RouteInfo route = HttpClientContext.adapt(context).getHttpRoute();
+                        if(!(route instanceof HttpRoute)) {
+                            return;
+                        }
+                        switch(response.getStatusLine().getStatusCode()) {
+                            case 429:
+                            case HttpStatus.SC_SERVICE_UNAVAILABLE:
+                                ((InstrumentedHttpClientConnectionManager) manager).throttle((HttpRoute) route);
+                        }
+                    }
+                });
+            }
+        }
         configuration.setDefaultAuthSchemeRegistry(RegistryBuilder.<AuthSchemeProvider>create()
             .register(AuthSchemes.BASIC, new BasicSchemeFactory(
                 Charset.forName(preferences.getProperty("http.credentials.charset"))))
@@ -244,7 +281,7 @@ public class HttpConnectionPoolBuilder {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Setup connection pool with registry %s", registry));
         }
-        final PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(registry);
+        final PoolingHttpClientConnectionManager manager = new InstrumentedHttpClientConnectionManager(registry, metrics);
         manager.setMaxTotal(preferences.getInteger("http.connections.total"));
         manager.setDefaultMaxPerRoute(preferences.getInteger("http.connections.route"));
         manager.setValidateAfterInactivity(5000);
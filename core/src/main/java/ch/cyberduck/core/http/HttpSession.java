@@ -33,15 +33,21 @@ public abstract class HttpSession<C> extends SSLSession<C> {
 
     protected HttpSession(final Host host, final ThreadLocalHostnameDelegatingTrustManager trust, final X509KeyManager key) {
         super(host, trust, key);
-        this.builder = new HttpConnectionPoolBuilder(host, trust, key, ProxyFactory.get());
+        this.builder = new HttpConnectionPoolBuilder(host, trust, key, ProxyFactory.get()).withMetrics(this.getMetrics());
     }
 
     protected HttpSession(final Host host, final ThreadLocalHostnameDelegatingTrustManager trust, final X509KeyManager key, final SocketFactory socketFactory) {
         super(host, trust, key);
-        this.builder = new HttpConnectionPoolBuilder(host, trust, key, socketFactory);
+        this.builder = new HttpConnectionPoolBuilder(host, trust, key, socketFactory).withMetrics(this.getMetrics());
     }
 
     public void setBuilder(final HttpConnectionPoolBuilder builder) {
-        this.builder = builder;
+        this.builder = builder.withMetrics(this.getMetrics());
+    }
+
+    @Override
+    public void enableMetrics() {
+        super.enableMetrics();
+        builder.withMetrics(this.getMetrics());
     }
 }
@@ -69,8 +69,24 @@ public class HttpUploadFeature<Reply, Digest> implements Upload<Reply> {
     public Reply upload(final Path file, final Local local, final BandwidthThrottle throttle,
                         final StreamListener listener, final TransferStatus status,
                         final StreamCancelation cancel, final StreamProgress progress, final ConnectionCallback callback) throws BackgroundException {
+        final Digest digest;
+        try {
+            digest = this.digest();
+        }
+        catch(IOException e) {
+            throw new HttpExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        return this.upload(file, local, throttle, listener, status, cancel, progress, callback, digest);
+    }
+
+    /**
+     * @param digest Digest updated with content read or null
+     */
+    protected Reply upload(final Path file, final Local local, final BandwidthThrottle throttle,
+                           final StreamListener listener, final TransferStatus status,
+                           final StreamCancelation cancel, final StreamProgress progress, final ConnectionCallback callback,
+                           final Digest digest) throws BackgroundException {
         try {
-            final Digest digest = this.digest();
             // Wrap with digest stream if available
             final InputStream in = this.decorate(local.getInputStream(), digest);
             final StatusOutputStream<Reply> out = writer.write(file, status, callback);
@@ -106,14 +122,23 @@ public class HttpUploadFeature<Reply, Digest> implements Upload<Reply> {
     }
 
     protected void verify(final Path file, final MessageDigest digest, final Checksum checksum) throws ChecksumException {
-        if(file.getType().contains(Path.Type.encrypted)) {
-            log.warn(String.format("Skip checksum verification for %s with client side encryption enabled", file));
-            return;
-        }
         if(null == digest) {
             log.debug(String.format("Digest disabled for file %s", file));
             return;
         }
+        // Obtain locally-calculated MD5 hash.
+        this.verify(file, new Checksum(HashAlgorithm.md5, Hex.encodeHexString(digest.digest())), checksum);
+    }
+
+    /**
+     * @param expected MD5 hash computed for content uploaded
+     * @param checksum ETag returned by server
+     */
+    protected void verify(final Path file, final Checksum expected, final Checksum checksum) throws ChecksumException {
+        if(file.getType().contains(Path.Type.encrypted)) {
+            log.warn(String.format("Skip checksum verification for %s with client side encryption enabled", file));
+            return;
+        }
         if(null == checksum || !checksum.algorithm.equals(HashAlgorithm.md5)) {
             log.warn("ETag returned by server is unknown checksum algorithm");
             return;
@@ -122,13 +147,11 @@ public class HttpUploadFeature<Reply, Digest> implements Upload<Reply> {
             log.warn(String.format("ETag %s returned by server is %s but expected MD5", checksum.hash, checksum.algorithm));
             return;
         }
-        // Obtain locally-calculated MD5 hash.
-        final String expected = Hex.encodeHexString(digest.digest());
         // Compare our locally-calculated hash with the ETag returned by S3.
-        if(!checksum.equals(Checksum.parse(expected))) {
+        if(!checksum.equals(expected)) {
             throw new ChecksumException(MessageFormat.format(LocaleFactory.localizedString("Upload {0} failed", "Error"), file.getName()),
                     MessageFormat.format("Mismatch between MD5 hash {0} of uploaded data and ETag {1} returned by the server",
-                            expected, checksum.hash));
+                            expected.hash, checksum.hash));
         }
     }
 
@@ -0,0 +1,208 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledMetrics;
+import ch.cyberduck.core.Metrics;
+import ch.cyberduck.core.metrics.MetricName;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool recording lease, wait, reuse and connect counts per route. In adaptive mode the maximum number
+ * of connections per route is raised while requests queue for a connection and halved when the server responds
+ * with throttling.
+ */
+public class InstrumentedHttpClientConnectionManager extends PoolingHttpClientConnectionManager {
+    private static final Logger log = Logger.getLogger(InstrumentedHttpClientConnectionManager.class);
+
+    private final Preferences preferences
+        = PreferencesFactory.get();
+
+    private final Metrics metrics;
+
+    /**
+     * Resize maximum connections per route
+     */
+    private final boolean adaptive
+        = preferences.getBoolean("http.connections.route.adaptive");
+    private final int minimum
+        = preferences.getInteger("http.connections.route.adaptive.minimum");
+    private final int maximum
+        = preferences.getInteger("http.connections.route.adaptive.maximum");
+    /**
+     * Minimum interval in milliseconds between increases of the limit for a route
+     */
+    private final long interval
+        = preferences.getLong("http.connections.route.adaptive.interval");
+
+    private final Map<HttpRoute, AtomicInteger> pending
+        = new ConcurrentHashMap<>();
+    /**
+     * Earliest time the limit for a route may be raised again
+     */
+    private final Map<HttpRoute, AtomicLong> hold
+        = new ConcurrentHashMap<>();
+
+    public InstrumentedHttpClientConnectionManager(final Registry<ConnectionSocketFactory> registry) {
+        this(registry, new DisabledMetrics());
+    }
+
+    public InstrumentedHttpClientConnectionManager(final Registry<ConnectionSocketFactory> registry, final Metrics metrics) {
+        super(registry);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        final ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(final long timeout, final TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                if(adaptive) {
+                    final PoolStats stats = getStats(route);
+                    if(stats.getAvailable() == 0 && stats.getLeased() >= stats.getMax()) {
+                        // Request will queue for a connection
+                        increase(route);
+                    }
+                }
+                final AtomicInteger counter = pending.computeIfAbsent(route, r -> new AtomicInteger());
+                metrics.set(key("pending", route), counter.incrementAndGet());
+                final long start = System.currentTimeMillis();
+                try {
+                    final HttpClientConnection connection = request.get(timeout, tunit);
+                    metrics.increment(key("lease", route));
+                    metrics.set(key("wait", route), System.currentTimeMillis() - start);
+                    if(connection.isOpen()) {
+                        metrics.increment(key("reuse", route));
+                    }
+                    return connection;
+                }
+                catch(ConnectionPoolTimeoutException e) {
+                    metrics.increment(key("exhausted", route));
+                    log.warn(String.format("Connection pool exhausted for route %s with %s", route, getStats(route)));
+                    throw e;
+                }
+                finally {
+                    metrics.set(key("pending", route), counter.decrementAndGet());
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void connect(final HttpClientConnection connection, final HttpRoute route, final int connectTimeout, final HttpContext context) throws IOException {
+        super.connect(connection, route, connectTimeout, context);
+        metrics.increment(key("connect", route));
+        if(route.isSecure() && !route.isTunnelled()) {
+            metrics.increment(key("handshake", route));
+        }
+    }
+
+    @Override
+    public void upgrade(final HttpClientConnection connection, final HttpRoute route, final HttpContext context) throws IOException {
+        super.upgrade(connection, route, context);
+        // Layered TLS over proxy tunnel
+        metrics.increment(key("handshake", route));
+    }
+
+    /**
+     * Raise limit for route by one connection up to the configured maximum
+     */
+    protected void increase(final HttpRoute route) {
+        if(!adaptive) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final AtomicLong next = hold.computeIfAbsent(route, r -> new AtomicLong());
+        final long earliest = next.get();
+        if(now < earliest || !next.compareAndSet(earliest, now + interval)) {
+            return;
+        }
+        final int current = this.getMaxPerRoute(route);
+        if(current >= maximum) {
+            return;
+        }
+        this.setMaxPerRoute(route, current + 1);
+        metrics.set(key("limit", route), current + 1);
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Increase connection limit for route %s to %d", route, current + 1));
+        }
+    }
+
+    /**
+     * Halve limit for route after throttling response from server and hold off further increases
+     */
+    public void throttle(final HttpRoute route) {
+        metrics.increment(key("throttled", route));
+        if(!adaptive) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final AtomicLong next = hold.computeIfAbsent(route, r -> new AtomicLong());
+        final long earliest = next.get();
+        if(now < earliest && earliest - now > interval) {
+            // Already decreased recently
+            return;
+        }
+        next.set(now + interval * 10);
+        final int current = this.getMaxPerRoute(route);
+        final int limit = Math.max(minimum, current / 2);
+        if(limit == current) {
+            return;
+        }
+        this.setMaxPerRoute(route, limit);
+        metrics.set(key("limit", route), limit);
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Decrease connection limit for route %s to %d after throttling", route, limit));
+        }
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * @return Metric with fixed name labeled with target host of route
+     */
+    private static MetricName key(final String name, final HttpRoute route) {
+        return new MetricName(String.format("http.pool.%s", name), "route", route.getTargetHost().toHostString());
+    }
+}
@@ -21,6 +21,7 @@ package ch.cyberduck.core.http;
 import ch.cyberduck.core.PreferencesUseragentProvider;
 import ch.cyberduck.core.TranscriptListener;
 import ch.cyberduck.core.UseragentProvider;
+import ch.cyberduck.core.metrics.MetricsRegistry;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
@@ -28,12 +29,15 @@ import org.apache.http.HttpClientConnection;
 import org.apache.http.HttpException;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpRequest;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpRequestExecutor;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class LoggingHttpRequestExecutor extends HttpRequestExecutor {
 
@@ -42,6 +46,8 @@ public class LoggingHttpRequestExecutor extends HttpRequestExecutor {
 
     private final TranscriptListener listener;
 
+    private final MetricsRegistry metrics = MetricsRegistry.get();
+
     public LoggingHttpRequestExecutor(final TranscriptListener listener) {
         this.listener = listener;
     }
@@ -52,7 +58,21 @@ public class LoggingHttpRequestExecutor extends HttpRequestExecutor {
         if(!request.containsHeader(HttpHeaders.USER_AGENT)) {
             request.addHeader(new BasicHeader(HttpHeaders.USER_AGENT, useragentProvider.get()));
         }
-        return super.execute(request, conn, context);
+        final HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+        final String hostname = null == target ? StringUtils.EMPTY : target.getHostName();
+        final long start = System.nanoTime();
+        try {
+            final HttpResponse response = super.execute(request, conn, context);
+            metrics.histogram("http.request.duration", "host", hostname, "method", request.getRequestLine().getMethod())
+                .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            metrics.counter("http.response", "host", hostname, "status",
+                String.format("%dxx", response.getStatusLine().getStatusCode() / 100)).increment();
+            return response;
+        }
+        catch(IOException | HttpException e) {
+            metrics.counter("http.request.failures", "host", hostname).increment();
+            throw e;
+        }
     }
 
     @Override
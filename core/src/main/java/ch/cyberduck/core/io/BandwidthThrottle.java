@@ -1,15 +1,26 @@
 package ch.cyberduck.core.io;
 
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.log4j.Logger;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 /**
- * Limits throughput of a stream to at most N bytes per T seconds.  Mutable and
+ * Limits throughput of streams to at most N bytes per second.  Mutable and
  * thread-safe.<p>
  * <p/>
  * In the following example, <tt>throttle</tt> is used to send the contents of
- * <tt>buf</tt> to <tt>out</tt> at no more than <tt>N/T</tt> bytes per second:
+ * <tt>buf</tt> to <tt>out</tt> at no more than <tt>N</tt> bytes per second:
  * <pre>
- *      BandwidthThrottle throttle=new BandwidthThrottle(N, T);
+ *      BandwidthThrottle throttle=new BandwidthThrottle(N);
  *      OutputStream out=...;
  *      byte[] buf=...;
  *      for (int i=0; i<buf.length; ) {
@@ -19,103 +30,120 @@ import org.apache.log4j.Logger;
  *      }
  * </pre>
  * <p/>
- * This class works by allowing exactly N bytes to be sent every T seconds.  If
- * the number of bytes for a given window have been exceeded, subsequent calls
- * to request(..) will block.  The default value of T is 100 milliseconds.
- * Smaller window values T allow fairer bandwidth sharing and less noticeable
- * pauses but may decrease efficiency slightly.<p>
+ * This class works as a token bucket refilled continuously at the given rate with a burst
+ * of at most 100 milliseconds worth of bytes. The bucket state is kept as the time at which
+ * all tokens granted so far are paid for and is updated with compare and set only. If
+ * not enough tokens are available, subsequent calls to request(..) will park until enough time
+ * has passed.<p>
  * <p/>
- * Note that throttles are <i>not</i> cumulative.  In the future, this may allow
- * enable fancier control.  Also, BandwidthThrottle may be able delegate to
- * other throttles.  This would allow, for example, a 15 KB/s Gnutella messaging
- * throttle, with no more than 10 KB/s devoted to uploads.<p>
+ * The throttle is shared by all streams of a transfer. Each grant is limited to the share of the
+ * burst for the number of streams currently requesting bandwidth such that spare capacity is split
+ * fairly between concurrent connections.<p>
  * <p/>
- * This implementation is based on the <a href="http://cvs.sourceforge.net/cgi-bin/viewcvs.cgi/freenet/freenet/src/freenet/support/io/Bandwidth.java">Bandwidth</a>
- * class from
- * the Freenet project.  It has been simplified and better documented.<p>
-
+ * Throttles are cumulative with their parent. Bytes granted must be available from this throttle
+ * and all of its ancestors. Transfers are created with a per host throttle as parent which itself
+ * delegates to a global throttle for all connections.
  */
 public final class BandwidthThrottle {
     private static final Logger log = Logger.getLogger(BandwidthThrottle.class);
 
     /**
-     * The number of windows per second.
+     * No throttling
      */
-    private static final int TICKS_PER_SECOND = 10;
+    public static final int UNLIMITED = -1;
+
     /**
-     * The value of T, in milliseconds.
+     * Maximum burst in nanoseconds of rate.
      */
-    private static final int MILLIS_PER_TICK = 1000 / TICKS_PER_SECOND;
+    private static final long BURST = TimeUnit.MILLISECONDS.toNanos(100L);
 
     /**
-     * The bytes to send per tick.  Modified by setThrottle.
+     * Per host throttles kept as long as referenced by a transfer
      */
-    private volatile int bytesPerTick;
+    private static final LoadingCache<String, BandwidthThrottle> hosts = CacheBuilder.newBuilder()
+        .weakValues()
+        .build(new CacheLoader<String, BandwidthThrottle>() {
+            @Override
+            public BandwidthThrottle load(final String hostname) {
+                return new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.bandwidth.host.bytes"), global());
+            }
+        });
+
+    private static final class GlobalHolder {
+        private static final BandwidthThrottle global
+            = new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.bandwidth.global.bytes"), null);
+    }
 
     /**
-     * Whether or not we're only allowing bandwidth to be used every other
-     * second.
+     * @return Throttle shared by all connections
      */
-    private volatile boolean switching = false;
+    public static BandwidthThrottle global() {
+        return GlobalHolder.global;
+    }
 
     /**
-     * The number of bytes remaining in this window.
+     * @param hostname Server
+     * @return Throttle shared by all connections to hostname with global throttle as parent
      */
-    private int availableBytes;
+    public static BandwidthThrottle host(final String hostname) {
+        return hosts.getUnchecked(hostname);
+    }
+
     /**
-     * The system time when the window is reset so more bytes can be sent.
+     * Throttle to request bandwidth from additionally
      */
-    private long nextTickTime;
+    private final BandwidthThrottle parent;
+
+    private final Clock clock;
 
     /**
-     * Creates a new bandwidth throttle at the given throttle rate.
-     * The default windows size T is used.  The bytes per windows N
-     * is calculated from bytesPerSecond.
-     *
-     * @param bytesPerSecond the limits in bytes (not bits!) per second
-     *                       (not milliseconds!)
+     * Time in nanoseconds when all granted bytes are paid for with the current rate
      */
-    public BandwidthThrottle(float bytesPerSecond) {
-        this.setRate(bytesPerSecond);
-    }
+    private final AtomicLong horizon;
 
     /**
-     * Creates a new bandwidth throttle at the given throttle rate,
-     * only allowing bandwidth to be used every other second if
-     * switching is true.
-     * The default windows size T is used.  The bytes per windows N
-     * is calculated from bytesPerSecond.
+     * Number of callers currently waiting in request
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Bytes per second allowed
+     */
+    private volatile float rate = UNLIMITED;
+
+    /**
+     * Creates a new bandwidth throttle at the given throttle rate.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second
      *                       (not milliseconds!)
-     * @param switching      true if we should only allow bandwidth to be used
-     *                       every other second.
      */
-    public BandwidthThrottle(float bytesPerSecond, boolean switching) {
-        this.setRate(bytesPerSecond);
-        this.setSwitching(switching);
-
+    public BandwidthThrottle(final float bytesPerSecond) {
+        this(bytesPerSecond, null);
     }
 
     /**
-     * No throttling
+     * @param bytesPerSecond the limits in bytes (not bits!) per second
+     * @param parent         Throttle to additionally request bandwidth from or null
      */
-    public static final int UNLIMITED = -1;
+    public BandwidthThrottle(final float bytesPerSecond, final BandwidthThrottle parent) {
+        this(bytesPerSecond, parent, Clock.SYSTEM);
+    }
 
-    /**
-     * Bytes per second allowed
-     */
-    private float rate = UNLIMITED;
+    BandwidthThrottle(final float bytesPerSecond, final BandwidthThrottle parent, final Clock clock) {
+        this.parent = parent;
+        this.clock = clock;
+        this.horizon = new AtomicLong(clock.nanoTime());
+        this.setRate(bytesPerSecond);
+    }
 
     /**
-     * Sets the throttle to the given throttle rate.  The default windows size
-     * T is used.  The bytes per windows N is calculated from bytesPerSecond.
+     * Sets the throttle to the given throttle rate.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second
      *                       (not milliseconds!)
      */
-    public void setRate(float bytesPerSecond) {
-        if(bytesPerSecond < 0) {
+    public void setRate(final float bytesPerSecond) {
+        if(bytesPerSecond <= 0) {
             rate = UNLIMITED;
         }
         else {
@@ -123,10 +151,6 @@ public final class BandwidthThrottle {
                 log.debug(String.format("Set rate to %s bytes per second", bytesPerSecond));
             }
             rate = bytesPerSecond;
-            bytesPerTick = (int) (bytesPerSecond / TICKS_PER_SECOND);
-        }
-        if(switching) {
-            this.fixBytesPerTick(true);
         }
     }
 
@@ -138,93 +162,102 @@ public final class BandwidthThrottle {
     }
 
     /**
-     * Sets whether or not this throttle is switching bandwidth on/off.
+     * @return Throttle this throttle is limited by additionally or null
      */
-    public void setSwitching(boolean switching) {
-        log.debug("setSwitching:" + switching);
-        if(this.switching != switching) {
-            fixBytesPerTick(switching);
-        }
-        this.switching = switching;
+    public BandwidthThrottle getParent() {
+        return parent;
     }
 
     /**
-     * Modifies bytesPerTick to either be double or half of what it was.
-     * This is necessary because of the 'switching', which can effectively
-     * reduce or raise the amount of data transferred.
-     */
-    private void fixBytesPerTick(boolean raise) {
-        int newBytesPerTick = bytesPerTick;
-        if(raise) {
-            newBytesPerTick *= 2;
-        }
-        else {
-            newBytesPerTick /= 2;
-        }
-        if(newBytesPerTick < 0) // overflowed?
-        {
-            newBytesPerTick = Integer.MAX_VALUE;
-        }
-        bytesPerTick = newBytesPerTick;
-    }
-
-    /**
-     * Blocks until the caller can send at least one byte without violating
-     * bandwidth constraints.  Records the number of byte sent.
+     * Blocks until the caller can send the lesser of the desired number of bytes and its fair share of the burst
+     * without violating bandwidth constraints of this throttle and all parents.  Records the number of byte sent.
      *
      * @param desired the number of bytes the caller would like to send
      * @return the number of bytes the sender is expected to send, which
-     *         is always greater than one and less than or equal to desired
+     * is always greater than one and less than or equal to desired
      */
-    public synchronized int request(int desired) {
-        if(UNLIMITED == rate) {
+    public int request(final int desired) {
+        if(desired <= 0) {
             return desired;
         }
-        waitForBandwidth();
-        int result = Math.min(desired, availableBytes);
-        availableBytes -= result;
-        return result;
+        final float rate = this.rate;
+        if(UNLIMITED == rate) {
+            if(null == parent) {
+                return desired;
+            }
+            return parent.request(desired);
+        }
+        active.incrementAndGet();
+        final int granted;
+        final double nanosPerByte;
+        try {
+            nanosPerByte = TimeUnit.SECONDS.toNanos(1L) / (double) rate;
+            granted = this.acquire(desired, nanosPerByte);
+        }
+        finally {
+            active.decrementAndGet();
+        }
+        if(null == parent) {
+            return granted;
+        }
+        final int allowed = parent.request(granted);
+        if(allowed < granted) {
+            // Return tokens not granted by parent
+            horizon.addAndGet(-(long) ((granted - allowed) * nanosPerByte));
+        }
+        return allowed;
     }
 
-    /**
-     * Waits until data is _availableBytes.
-     */
-    private void waitForBandwidth() {
+    private int acquire(final int desired, final double nanosPerByte) {
         while(true) {
-            long now = System.currentTimeMillis();
-            updateWindow(now);
-            if(availableBytes != 0) {
-                break;
-            }
-            try {
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Throttling bandwidth for %d milliseconds", nextTickTime - now));
+            final long now = clock.nanoTime();
+            final long current = horizon.get();
+            // Tokens do not accumulate beyond burst while idle
+            final long base = Math.max(current, now - BURST);
+            // Fair share of burst for concurrent callers
+            final long share = Math.max(1L, (long) (BURST / nanosPerByte / Math.max(1, active.get())));
+            final int requested = (int) Math.min(desired, share);
+            final long available = (long) ((now - base) / nanosPerByte);
+            if(available >= requested) {
+                if(horizon.compareAndSet(current, base + (long) Math.ceil(requested * nanosPerByte))) {
+                    return requested;
                 }
-                Thread.sleep(nextTickTime - now);
+                // Lost race with concurrent caller
+                continue;
             }
-            catch(InterruptedException e) {
-                log.error(e.getMessage(), e);
+            final long wait = (long) Math.ceil(base + requested * nanosPerByte - now);
+            if(log.isTraceEnabled()) {
+                log.trace(String.format("Throttling bandwidth for %d nanoseconds", wait));
+            }
+            clock.park(this, wait);
+            if(Thread.interrupted()) {
+                log.warn("Interrupted while throttling bandwidth");
+                Thread.currentThread().interrupt();
+                // Do not block interrupted thread
+                return 1;
             }
         }
     }
 
     /**
-     * Updates _availableBytes and _nextTickTime if possible.
+     * Source of time and parking of threads waiting for tokens
      */
-    private void updateWindow(long now) {
-        if(now >= nextTickTime) {
-            if(!switching || ((now / 1000) % 2) == 0) {
-                availableBytes = bytesPerTick;
-                nextTickTime = now + MILLIS_PER_TICK;
+    interface Clock {
+        Clock SYSTEM = new Clock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
             }
-            else {
-                availableBytes = 0;
-                // the next tick time is the time we'll hit
-                // the next second.
-                long diff = 1000 - (now % 1000);
-                nextTickTime = now + diff;
+
+            @Override
+            public void park(final Object blocker, final long nanos) {
+                LockSupport.parkNanos(blocker, nanos);
             }
-        }
+        };
+
+        long nanoTime();
+
+        void park(Object blocker, long nanos);
     }
 
     @Override
@@ -246,4 +279,14 @@ public final class BandwidthThrottle {
     public int hashCode() {
         return (rate != +0.0f ? Float.floatToIntBits(rate) : 0);
     }
-}
\ No newline at end of file
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BandwidthThrottle{");
+        sb.append("rate=").append(rate);
+        sb.append(", active=").append(active.get());
+        sb.append(", parent=").append(parent);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,376 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.io.InterruptedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of reusable buffers shared by transfers. Buffers are kept by size when released. The total number
+ * of bytes of buffers in use and kept in the pool is bound by the capacity. Borrowing a buffer blocks when the
+ * pool is exhausted until other buffers are released, the borrower is canceled or the timeout is reached.
+ */
+public final class BufferPool {
+    private static final Logger log = Logger.getLogger(BufferPool.class);
+
+    /**
+     * Milliseconds between checks for cancelation while waiting for buffer
+     */
+    private static final long INTERVAL = 100L;
+
+    private static final class Lazy {
+        private static final Preferences preferences = PreferencesFactory.get();
+
+        private static final BufferPool heap = new BufferPool(preferences.getInteger("connection.buffer.pool.heap.size"),
+            false, preferences.getLong("connection.buffer.pool.timeout"));
+        private static final BufferPool direct = new BufferPool(preferences.getInteger("connection.buffer.pool.direct.size"),
+            true, preferences.getLong("connection.buffer.pool.timeout"));
+    }
+
+    /**
+     * @return Shared pool of buffers backed by array
+     */
+    public static BufferPool heap() {
+        return Lazy.heap;
+    }
+
+    /**
+     * @return Shared pool of direct buffers allocated outside of the heap
+     */
+    public static BufferPool direct() {
+        return Lazy.direct;
+    }
+
+    /**
+     * Maximum number of bytes of buffers in use and idle
+     */
+    private final int capacity;
+    private final boolean direct;
+    /**
+     * Milliseconds to wait for buffer to be released to exhausted pool
+     */
+    private final long timeout;
+
+    /**
+     * Permits for bytes not allocated by buffers in use or idle
+     */
+    private final Semaphore available;
+    private final Map<Integer, Deque<ByteBuffer>> idle = new ConcurrentHashMap<>();
+    /**
+     * Buffers borrowed and counted in capacity. Weakly referenced to reclaim the capacity of buffers never released.
+     */
+    private final Set<Lease> borrowed = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<ByteBuffer> collected = new ReferenceQueue<>();
+
+    private final AtomicLong idleBytes = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+
+    /**
+     * @param capacity Maximum number of bytes of buffers in use and idle
+     * @param direct   Allocate direct buffers outside of heap
+     * @param timeout  Milliseconds to wait for buffer to be released to pool when exhausted
+     */
+    public BufferPool(final int capacity, final boolean direct, final long timeout) {
+        this.capacity = capacity;
+        this.direct = direct;
+        this.timeout = timeout;
+        this.available = new Semaphore(capacity);
+    }
+
+    /**
+     * Borrow buffer blocking if pool is exhausted
+     *
+     * @param size Capacity of buffer
+     * @return Cleared buffer with given capacity. Must be returned with {@link #release(ByteBuffer)}.
+     * @throws InterruptedIOException Timeout or interrupt waiting for buffer to be released
+     */
+    public ByteBuffer borrow(final int size) throws InterruptedIOException {
+        return this.borrow(size, () -> false);
+    }
+
+    /**
+     * Borrow buffer blocking if pool is exhausted
+     *
+     * @param size   Capacity of buffer
+     * @param cancel Stop waiting for buffer to be released when canceled
+     * @return Cleared buffer with given capacity. Must be returned with {@link #release(ByteBuffer)}.
+     * @throws InterruptedIOException Cancel, timeout or interrupt waiting for buffer to be released
+     */
+    public ByteBuffer borrow(final int size, final StreamCancelation cancel) throws InterruptedIOException {
+        requests.incrementAndGet();
+        this.reclaim();
+        final ByteBuffer buffer = this.reuse(size);
+        if(buffer != null) {
+            return buffer;
+        }
+        if(size > capacity) {
+            // Never available when waiting
+            log.warn(String.format("Requested buffer size %d exceeds capacity %d of pool", size, capacity));
+            overflows.incrementAndGet();
+            return this.allocate(size);
+        }
+        if(!this.acquire(size)) {
+            waits.incrementAndGet();
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Wait for buffer with size %d in exhausted pool %s", size, this));
+            }
+            final long deadline = System.currentTimeMillis() + timeout;
+            try {
+                while(!available.tryAcquire(size, INTERVAL, TimeUnit.MILLISECONDS)) {
+                    if(cancel.isCanceled()) {
+                        throw new InterruptedIOException(String.format("Canceled waiting for buffer with size %d", size));
+                    }
+                    this.reclaim();
+                    final ByteBuffer released = this.reuse(size);
+                    if(released != null) {
+                        return released;
+                    }
+                    if(this.acquire(size)) {
+                        break;
+                    }
+                    if(System.currentTimeMillis() >= deadline) {
+                        log.warn(String.format("Timeout waiting for buffer with size %d in pool %s", size, this));
+                        throw new InterruptedIOException(String.format("Timeout waiting for buffer with size %d", size));
+                    }
+                }
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(String.format("Interrupted waiting for buffer with size %d", size));
+            }
+        }
+        allocations.incrementAndGet();
+        return this.borrowed(this.allocate(size));
+    }
+
+    /**
+     * Return buffer to pool. Buffers not borrowed from this pool are ignored.
+     *
+     * @param buffer Buffer previously borrowed
+     */
+    public void release(final ByteBuffer buffer) {
+        if(null == buffer) {
+            return;
+        }
+        if(!borrowed.remove(new Lease(buffer, null))) {
+            // Not counted in capacity
+            return;
+        }
+        final int size = buffer.capacity();
+        usedBytes.addAndGet(-size);
+        if(available.hasQueuedThreads()) {
+            // Discard to allow waiting borrower to allocate buffer with any size
+            available.release(size);
+            return;
+        }
+        buffer.clear();
+        idle.computeIfAbsent(size, s -> new ConcurrentLinkedDeque<>()).offerFirst(buffer);
+        idleBytes.addAndGet(size);
+    }
+
+    /**
+     * @return Idle buffer with given size or null
+     */
+    private ByteBuffer reuse(final int size) {
+        final Deque<ByteBuffer> queue = idle.get(size);
+        if(queue != null) {
+            final ByteBuffer buffer = queue.pollFirst();
+            if(buffer != null) {
+                idleBytes.addAndGet(-size);
+                reused.incrementAndGet();
+                return this.borrowed(buffer);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Acquire permits without waiting. Free space from idle buffers with other sizes if required.
+     */
+    private boolean acquire(final int size) {
+        if(available.tryAcquire(size)) {
+            return true;
+        }
+        this.evict(size);
+        return available.tryAcquire(size);
+    }
+
+    /**
+     * Return capacity of buffers garbage collected without being released
+     */
+    private void reclaim() {
+        Lease lease;
+        while((lease = (Lease) collected.poll()) != null) {
+            if(borrowed.remove(lease)) {
+                log.warn(String.format("Reclaim %d bytes of buffer not released to pool %s", lease.size, this));
+                usedBytes.addAndGet(-lease.size);
+                available.release(lease.size);
+            }
+        }
+    }
+
+    /**
+     * Discard idle buffers until the given number of bytes is available
+     */
+    private void evict(final int size) {
+        for(Deque<ByteBuffer> queue : idle.values()) {
+            ByteBuffer buffer;
+            while(available.availablePermits() < size && (buffer = queue.pollLast()) != null) {
+                idleBytes.addAndGet(-buffer.capacity());
+                available.release(buffer.capacity());
+            }
+            if(available.availablePermits() >= size) {
+                return;
+            }
+        }
+    }
+
+    private ByteBuffer borrowed(final ByteBuffer buffer) {
+        borrowed.add(new Lease(buffer, collected));
+        usedBytes.addAndGet(buffer.capacity());
+        buffer.clear();
+        return buffer;
+    }
+
+    private ByteBuffer allocate(final int size) {
+        return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Number of bytes of buffers currently borrowed
+     */
+    public long getUsed() {
+        return usedBytes.get();
+    }
+
+    /**
+     * @return Number of bytes of buffers kept in pool for reuse
+     */
+    public long getIdle() {
+        return idleBytes.get();
+    }
+
+    /**
+     * @return Number of buffers requested
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return Number of requests served with idle buffer from pool
+     */
+    public long getReused() {
+        return reused.get();
+    }
+
+    /**
+     * @return Number of buffers allocated and counted in capacity
+     */
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    /**
+     * @return Number of requests that had to wait for buffers to be released
+     */
+    public long getWaits() {
+        return waits.get();
+    }
+
+    /**
+     * @return Number of buffers exceeding pool capacity allocated outside of pool
+     */
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BufferPool{");
+        sb.append("capacity=").append(capacity);
+        sb.append(", direct=").append(direct);
+        sb.append(", used=").append(usedBytes);
+        sb.append(", idle=").append(idleBytes);
+        sb.append(", requests=").append(requests);
+        sb.append(", reused=").append(reused);
+        sb.append(", allocations=").append(allocations);
+        sb.append(", waits=").append(waits);
+        sb.append(", overflows=").append(overflows);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Weak reference to borrowed buffer compared by identity of buffer
+     */
+    private static final class Lease extends WeakReference<ByteBuffer> {
+        private final int size;
+        private final int hash;
+
+        public Lease(final ByteBuffer buffer, final ReferenceQueue<ByteBuffer> queue) {
+            super(buffer, queue);
+            this.size = buffer.capacity();
+            this.hash = System.identityHashCode(buffer);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof Lease)) {
+                return false;
+            }
+            final ByteBuffer buffer = this.get();
+            return buffer != null && buffer == ((Lease) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
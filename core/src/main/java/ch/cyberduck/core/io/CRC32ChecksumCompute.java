@@ -15,35 +15,15 @@ package ch.cyberduck.core.io;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.exception.ChecksumException;
 import ch.cyberduck.core.transfer.TransferStatus;
 
-import org.apache.commons.io.IOUtils;
-
-import java.io.IOException;
 import java.io.InputStream;
-import java.util.zip.CRC32;
 
 public class CRC32ChecksumCompute extends AbstractChecksumCompute {
 
     @Override
     public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
-        final InputStream normalized = this.normalize(in, status);
-        final CRC32 crc32 = new CRC32();
-        try {
-            byte[] buffer = new byte[16384];
-            int bytesRead;
-            while((bytesRead = normalized.read(buffer, 0, buffer.length)) != -1) {
-                crc32.update(buffer, 0, bytesRead);
-            }
-        }
-        catch(IOException e) {
-            throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
-        }
-        finally {
-            IOUtils.closeQuietly(normalized);
-        }
-        return new Checksum(HashAlgorithm.crc32, Long.toHexString(crc32.getValue()));
+        return new MultiChecksumCompute(HashAlgorithm.crc32).compute(in, status);
     }
 }
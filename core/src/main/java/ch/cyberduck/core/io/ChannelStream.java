@@ -0,0 +1,34 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.nio.channels.FileChannel;
+
+/**
+ * Stream that can be copied with file channel transfers instead of reading into a buffer
+ */
+public interface ChannelStream {
+
+    /**
+     * @return Channel of file backing the stream or null if the stream is not backed by a file
+     */
+    FileChannel getChannel();
+
+    /**
+     * @return Throttle to apply when transferring using the channel or null
+     */
+    BandwidthThrottle getThrottle();
+}
@@ -0,0 +1,58 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Find file channel of streams not transforming data
+ */
+public final class FileChannelFinder {
+
+    private FileChannelFinder() {
+        //
+    }
+
+    /**
+     * @param stream Input or output stream
+     * @return Null if stream is not backed by a file channel
+     */
+    public static FileChannel find(final Object stream) {
+        if(stream instanceof ChannelStream) {
+            return ((ChannelStream) stream).getChannel();
+        }
+        if(stream instanceof FileInputStream) {
+            return ((FileInputStream) stream).getChannel();
+        }
+        if(stream instanceof FileOutputStream) {
+            return ((FileOutputStream) stream).getChannel();
+        }
+        return null;
+    }
+
+    /**
+     * @param stream Input or output stream
+     * @return Null if no throttle is applied to the stream
+     */
+    public static BandwidthThrottle throttle(final Object stream) {
+        if(stream instanceof ChannelStream) {
+            return ((ChannelStream) stream).getThrottle();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,314 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent index of checksums computed for local files. Entries are keyed by path and only returned as long as
+ * size, modification date and inode of the file are unchanged. Changes are appended to a journal file which is
+ * compacted when loaded.
+ */
+public class LocalChecksumIndex {
+    private static final Logger log = Logger.getLogger(LocalChecksumIndex.class);
+
+    private static final String PUT = "+";
+    private static final String DELETE = "-";
+
+    private static LocalChecksumIndex instance;
+
+    public static synchronized LocalChecksumIndex get() {
+        if(null == instance) {
+            instance = new LocalChecksumIndex(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Checksums.index"));
+        }
+        return instance;
+    }
+
+    private final Local file;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private boolean loaded;
+    private BufferedWriter journal;
+
+    public LocalChecksumIndex(final Local file) {
+        this.file = file;
+    }
+
+    /**
+     * @param local     Local file
+     * @param algorithm Hash algorithm
+     * @return Checksum previously computed or Checksum.NONE if missing or file has changed since
+     */
+    public Checksum find(final Local local, final HashAlgorithm algorithm) {
+        this.load();
+        final Entry entry = entries.get(local.getAbsolute());
+        if(null == entry) {
+            return Checksum.NONE;
+        }
+        if(!entry.fingerprint.equals(Fingerprint.of(local))) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Discard checksums for modified file %s", local));
+            }
+            this.invalidate(local);
+            return Checksum.NONE;
+        }
+        final Checksum checksum = entry.checksums.get(algorithm);
+        if(null == checksum) {
+            return Checksum.NONE;
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Return indexed checksum %s for %s", checksum, local));
+        }
+        return checksum;
+    }
+
+    /**
+     * Add checksum computed for current content of file
+     */
+    public void put(final Local local, final Checksum checksum) {
+        if(Checksum.NONE == checksum) {
+            return;
+        }
+        this.load();
+        final Fingerprint fingerprint = Fingerprint.of(local);
+        if(null == fingerprint) {
+            return;
+        }
+        entries.compute(local.getAbsolute(), (path, entry) -> {
+            if(null == entry || !entry.fingerprint.equals(fingerprint)) {
+                entry = new Entry(fingerprint);
+            }
+            entry.checksums.put(checksum.algorithm, checksum);
+            return entry;
+        });
+        this.append(String.join("\t", PUT, encode(local.getAbsolute()), String.valueOf(fingerprint.size),
+            String.valueOf(fingerprint.modified), encode(fingerprint.inode), checksum.algorithm.name(), checksum.hash));
+    }
+
+    /**
+     * Remove all checksums for file
+     */
+    public void invalidate(final Local local) {
+        this.load();
+        if(entries.remove(local.getAbsolute()) != null) {
+            this.append(String.join("\t", DELETE, encode(local.getAbsolute())));
+        }
+    }
+
+    public synchronized void close() {
+        if(journal != null) {
+            try {
+                journal.close();
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure closing checksum index %s. %s", file, e.getMessage()));
+            }
+            journal = null;
+        }
+    }
+
+    private synchronized void append(final String line) {
+        try {
+            if(null == journal) {
+                final java.nio.file.Path target = Paths.get(file.getAbsolute());
+                Files.createDirectories(target.getParent());
+                journal = Files.newBufferedWriter(target, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            journal.write(line);
+            journal.newLine();
+            journal.flush();
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing to checksum index %s. %s", file, e.getMessage()));
+        }
+    }
+
+    private synchronized void load() {
+        if(loaded) {
+            return;
+        }
+        loaded = true;
+        if(!file.exists()) {
+            return;
+        }
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file.getAbsolute()), StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                lines++;
+                final String[] fields = line.split("\t");
+                try {
+                    switch(fields[0]) {
+                        case PUT:
+                            final Fingerprint fingerprint = new Fingerprint(Long.parseLong(fields[2]), Long.parseLong(fields[3]), decode(fields[4]));
+                            final Entry entry = entries.compute(decode(fields[1]), (path, previous) ->
+                                null == previous || !previous.fingerprint.equals(fingerprint) ? new Entry(fingerprint) : previous);
+                            final HashAlgorithm algorithm = HashAlgorithm.valueOf(fields[5]);
+                            entry.checksums.put(algorithm, new Checksum(algorithm, fields[6]));
+                            break;
+                        case DELETE:
+                            entries.remove(decode(fields[1]));
+                            break;
+                    }
+                }
+                catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    // Partial line written before crash
+                    log.warn(String.format("Skip invalid line %d in checksum index %s", lines, file));
+                }
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading checksum index %s. %s", file, e.getMessage()));
+            return;
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Loaded checksums for %d files from %s", entries.size(), file));
+        }
+        int count = 0;
+        for(Entry entry : entries.values()) {
+            count += entry.checksums.size();
+        }
+        if(lines > 2 * count) {
+            this.compact();
+        }
+    }
+
+    /**
+     * Rewrite journal with current entries only
+     */
+    private void compact() {
+        final java.nio.file.Path target = Paths.get(file.getAbsolute());
+        final java.nio.file.Path temporary = Paths.get(String.format("%s.tmp", file.getAbsolute()));
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for(Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    final Fingerprint fingerprint = entry.getValue().fingerprint;
+                    for(Checksum checksum : entry.getValue().checksums.values()) {
+                        writer.write(String.join("\t", PUT, encode(entry.getKey()), String.valueOf(fingerprint.size),
+                            String.valueOf(fingerprint.modified), encode(fingerprint.inode), checksum.algorithm.name(), checksum.hash));
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Compacted checksum index %s", file));
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure compacting checksum index %s. %s", file, e.getMessage()));
+        }
+    }
+
+    private static String encode(final String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        }
+        catch(UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decode(final String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        }
+        catch(UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final Fingerprint fingerprint;
+        private final Map<HashAlgorithm, Checksum> checksums = new ConcurrentHashMap<>();
+
+        private Entry(final Fingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Size, modification date and inode of a file
+     */
+    private static final class Fingerprint {
+        private final long size;
+        private final long modified;
+        private final String inode;
+
+        private Fingerprint(final long size, final long modified, final String inode) {
+            this.size = size;
+            this.modified = modified;
+            this.inode = inode;
+        }
+
+        /**
+         * @return Null if attributes cannot be read
+         */
+        private static Fingerprint of(final Local file) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(Paths.get(file.getAbsolute()), BasicFileAttributes.class);
+                // File key is not available on all platforms
+                return new Fingerprint(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    null == attributes.fileKey() ? "" : attributes.fileKey().toString());
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure reading attributes of %s. %s", file, e.getMessage()));
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Fingerprint that = (Fingerprint) o;
+            return size == that.size &&
+                modified == that.modified &&
+                Objects.equals(inode, that.inode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, modified, inode);
+        }
+    }
+}
@@ -22,8 +22,9 @@ import org.jets3t.service.io.RepeatableFileInputStream;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.nio.channels.FileChannel;
 
-public class LocalRepeatableFileInputStream extends RepeatableFileInputStream {
+public class LocalRepeatableFileInputStream extends RepeatableFileInputStream implements ChannelStream {
 
     /**
      * Creates a repeatable input stream based on a file.
@@ -34,4 +35,17 @@ public class LocalRepeatableFileInputStream extends RepeatableFileInputStream {
     public LocalRepeatableFileInputStream(final File file) throws FileNotFoundException {
         super(file);
     }
+
+    /**
+     * @return Channel of wrapped stream. Replaced when stream is reset.
+     */
+    @Override
+    public FileChannel getChannel() {
+        return FileChannelFinder.find(this.getWrappedInputStream());
+    }
+
+    @Override
+    public BandwidthThrottle getThrottle() {
+        return null;
+    }
 }
@@ -21,15 +21,12 @@ package ch.cyberduck.core.io;
 import ch.cyberduck.core.exception.ChecksumException;
 import ch.cyberduck.core.transfer.TransferStatus;
 
-import org.apache.commons.codec.binary.Hex;
-
 import java.io.InputStream;
 
 public class MD5ChecksumCompute extends AbstractChecksumCompute {
 
     @Override
     public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
-        return new Checksum(HashAlgorithm.md5, Hex.encodeHexString(this.digest("MD5",
-            this.normalize(in, status))));
+        return new MultiChecksumCompute(HashAlgorithm.md5).compute(in, status);
     }
 }
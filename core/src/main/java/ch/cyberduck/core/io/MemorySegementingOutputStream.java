@@ -15,6 +15,8 @@ package ch.cyberduck.core.io;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.log4j.Logger;
 
 import java.io.ByteArrayOutputStream;
@@ -33,7 +35,9 @@ public class MemorySegementingOutputStream extends SegmentingOutputStream {
     private final AtomicBoolean close = new AtomicBoolean();
 
     public MemorySegementingOutputStream(final OutputStream proxy, final Integer threshold) {
-        this(proxy, threshold, new ByteArrayOutputStream(threshold));
+        // Reserve space for write exceeding threshold before flush
+        this(proxy, threshold, new PooledByteArrayOutputStream(
+            threshold + PreferencesFactory.get().getInteger("connection.chunksize")));
     }
 
     public MemorySegementingOutputStream(final OutputStream proxy, final Integer threshold, final ByteArrayOutputStream buffer) {
@@ -46,20 +50,20 @@ public class MemorySegementingOutputStream extends SegmentingOutputStream {
     @Override
     public void flush() throws IOException {
         // Copy from memory file to output
-        final byte[] content = buffer.toByteArray();
+        final int size = buffer.size();
+        final byte[] content = buffer instanceof PooledByteArrayOutputStream ?
+            ((PooledByteArrayOutputStream) buffer).array() : buffer.toByteArray();
+        int offset = 0;
+        for(; size - offset >= threshold; offset += threshold) {
+            // Copy as proxy may retain array reused for following segments and returned to pool on close
+            proxy.write(Arrays.copyOfRange(content, offset, offset + threshold));
+        }
+        final byte[] remainder = Arrays.copyOfRange(content, offset, size);
         // Re-use buffer
         buffer.reset();
-        for(int offset = 0; offset < content.length; offset += threshold) {
-            int len = Math.min(threshold, content.length - offset);
-            final byte[] bytes = Arrays.copyOfRange(content, offset, offset + len);
-            if(len < threshold) {
-                // Write to start of buffer
-                this.write(bytes);
-            }
-            else {
-                // Write out
-                proxy.write(bytes);
-            }
+        if(remainder.length > 0) {
+            // Write to start of buffer
+            this.write(remainder);
         }
     }
 
@@ -71,6 +75,7 @@ public class MemorySegementingOutputStream extends SegmentingOutputStream {
         }
         try {
             if(buffer.size() > 0) {
+                // Copy as array is returned to pool on close
                 proxy.write(buffer.toByteArray());
             }
             // Re-use buffer
@@ -79,6 +84,8 @@ public class MemorySegementingOutputStream extends SegmentingOutputStream {
         }
         finally {
             close.set(true);
+            // Return to pool
+            buffer.close();
         }
     }
 }
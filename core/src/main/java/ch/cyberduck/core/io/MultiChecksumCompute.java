@@ -0,0 +1,295 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Compute checksums for multiple algorithms in a single pass over the input. With <code>checksum.mmap.enable</code>
+ * set, input backed by a file channel is memory mapped when exceeding <code>checksum.mmap.threshold</code> bytes. Digests are then updated on separate
+ * threads from the same mapped region for input exceeding <code>checksum.parallel.threshold</code> bytes.
+ */
+public class MultiChecksumCompute extends AbstractChecksumCompute {
+    private static final Logger log = Logger.getLogger(MultiChecksumCompute.class);
+
+    /**
+     * Size of buffer shared by all digests
+     */
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Maximum size of memory mapped region
+     */
+    private static final long REGION_SIZE = 64L * 1024L * 1024L;
+
+    private final Preferences preferences = PreferencesFactory.get();
+
+    private final Set<HashAlgorithm> algorithms;
+
+    public MultiChecksumCompute(final HashAlgorithm... algorithms) {
+        this(algorithms.length == 0 ? EnumSet.noneOf(HashAlgorithm.class) : EnumSet.copyOf(Arrays.asList(algorithms)));
+    }
+
+    public MultiChecksumCompute(final Set<HashAlgorithm> algorithms) {
+        this.algorithms = algorithms;
+    }
+
+    /**
+     * @return Checksum of first algorithm in enumeration order
+     */
+    @Override
+    public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
+        final Map<HashAlgorithm, Checksum> checksums = this.computeAll(in, status);
+        if(checksums.isEmpty()) {
+            return Checksum.NONE;
+        }
+        return checksums.values().iterator().next();
+    }
+
+    /**
+     * @param in     Stream that will be closed when the checksums are computed
+     * @param status Offset and length of input to read
+     * @return Checksum by algorithm
+     */
+    public Map<HashAlgorithm, Checksum> computeAll(final InputStream in, final TransferStatus status) throws ChecksumException {
+        if(algorithms.isEmpty()) {
+            IOUtils.closeQuietly(in);
+            return Collections.emptyMap();
+        }
+        final FileChannel channel = preferences.getBoolean("checksum.mmap.enable") ? FileChannelFinder.find(in) : null;
+        if(channel != null) {
+            try {
+                final long offset = status.getOffset();
+                final long length = status.getLength() > 0 ? Math.min(status.getLength(), channel.size() - offset) : channel.size() - offset;
+                if(length >= preferences.getLong("checksum.mmap.threshold")) {
+                    try {
+                        return this.map(channel, offset, length);
+                    }
+                    finally {
+                        IOUtils.closeQuietly(in);
+                    }
+                }
+            }
+            catch(IOException e) {
+                IOUtils.closeQuietly(in);
+                throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
+            }
+        }
+        return this.read(this.normalize(in, status));
+    }
+
+    private Map<HashAlgorithm, Checksum> read(final InputStream in) throws ChecksumException {
+        final List<Digest> digests = this.digests();
+        try {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int bytesRead;
+            while((bytesRead = in.read(buffer, 0, buffer.length)) != -1) {
+                for(Digest digest : digests) {
+                    digest.update(buffer, bytesRead);
+                }
+            }
+        }
+        catch(IOException e) {
+            throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
+        }
+        finally {
+            IOUtils.closeQuietly(in);
+        }
+        return this.finish(digests);
+    }
+
+    private Map<HashAlgorithm, Checksum> map(final FileChannel channel, final long offset, final long length) throws IOException, ChecksumException {
+        final List<Digest> digests = this.digests();
+        final boolean parallel = digests.size() > 1 && length >= preferences.getLong("checksum.parallel.threshold");
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Compute %s from %d bytes of memory mapped file with parallel %s", algorithms, length, parallel));
+        }
+        final ThreadPool pool = parallel ? ThreadPoolFactory.get("checksum", digests.size()) : null;
+        try {
+            for(long position = offset; position < offset + length; position += REGION_SIZE) {
+                final ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, offset + length - position));
+                if(parallel) {
+                    // Each digest reads the whole region from its own view
+                    final List<Future<Void>> futures = new ArrayList<>();
+                    for(Digest digest : digests) {
+                        futures.add(pool.execute(() -> {
+                            digest.update(region.duplicate());
+                            return null;
+                        }));
+                    }
+                    for(Future<Void> future : futures) {
+                        this.await(future);
+                    }
+                }
+                else {
+                    // Update all digests from the same slice while it is cached
+                    for(int slice = 0; slice < region.limit(); slice += BUFFER_SIZE) {
+                        for(Digest digest : digests) {
+                            final ByteBuffer view = region.duplicate();
+                            view.position(slice);
+                            view.limit(Math.min(slice + BUFFER_SIZE, region.limit()));
+                            digest.update(view);
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            if(pool != null) {
+                pool.shutdown(false);
+            }
+        }
+        return this.finish(digests);
+    }
+
+    private void await(final Future<Void> future) throws ChecksumException {
+        try {
+            future.get();
+        }
+        catch(InterruptedException e) {
+            throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
+        }
+        catch(ExecutionException e) {
+            throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private List<Digest> digests() throws ChecksumException {
+        final List<Digest> digests = new ArrayList<>();
+        for(HashAlgorithm algorithm : algorithms) {
+            switch(algorithm) {
+                case crc32:
+                    digests.add(new CRC32Digest());
+                    break;
+                case md5:
+                    digests.add(new MessageDigestDigest(algorithm, "MD5"));
+                    break;
+                case sha1:
+                    digests.add(new MessageDigestDigest(algorithm, "SHA-1"));
+                    break;
+                case sha256:
+                    digests.add(new MessageDigestDigest(algorithm, "SHA-256"));
+                    break;
+                case sha512:
+                    digests.add(new MessageDigestDigest(algorithm, "SHA-512"));
+                    break;
+            }
+        }
+        return digests;
+    }
+
+    private Map<HashAlgorithm, Checksum> finish(final List<Digest> digests) {
+        final Map<HashAlgorithm, Checksum> checksums = new EnumMap<>(HashAlgorithm.class);
+        for(Digest digest : digests) {
+            checksums.put(digest.algorithm, digest.finish());
+        }
+        return checksums;
+    }
+
+    private abstract static class Digest {
+        private final HashAlgorithm algorithm;
+
+        private Digest(final HashAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        abstract void update(byte[] buffer, int length);
+
+        abstract void update(ByteBuffer buffer);
+
+        abstract Checksum finish();
+    }
+
+    private static final class MessageDigestDigest extends Digest {
+        private final MessageDigest md;
+
+        private MessageDigestDigest(final HashAlgorithm algorithm, final String name) throws ChecksumException {
+            super(algorithm);
+            try {
+                this.md = MessageDigest.getInstance(name);
+            }
+            catch(NoSuchAlgorithmException e) {
+                throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
+            }
+        }
+
+        @Override
+        void update(final byte[] buffer, final int length) {
+            md.update(buffer, 0, length);
+        }
+
+        @Override
+        void update(final ByteBuffer buffer) {
+            md.update(buffer);
+        }
+
+        @Override
+        Checksum finish() {
+            return new Checksum(super.algorithm, Hex.encodeHexString(md.digest()));
+        }
+    }
+
+    private static final class CRC32Digest extends Digest {
+        private final CRC32 crc32 = new CRC32();
+
+        private CRC32Digest() {
+            super(HashAlgorithm.crc32);
+        }
+
+        @Override
+        void update(final byte[] buffer, final int length) {
+            crc32.update(buffer, 0, length);
+        }
+
+        @Override
+        void update(final ByteBuffer buffer) {
+            crc32.update(buffer);
+        }
+
+        @Override
+        Checksum finish() {
+            return new Checksum(super.algorithm, Long.toHexString(crc32.getValue()));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Byte array output stream with initial array borrowed from heap buffer pool. The array is returned to the pool
+ * when the stream is closed. Falls back to an array not from the pool when no buffer is released to the exhausted
+ * pool within its timeout.
+ */
+public class PooledByteArrayOutputStream extends ByteArrayOutputStream {
+    private static final Logger log = Logger.getLogger(PooledByteArrayOutputStream.class);
+
+    private final BufferPool pool;
+    private final ByteBuffer buffer;
+
+    private final AtomicBoolean close = new AtomicBoolean();
+
+    public PooledByteArrayOutputStream(final int size) {
+        this(BufferPool.heap(), size);
+    }
+
+    /**
+     * @param pool Pool with buffers backed by array
+     * @param size Initial capacity
+     */
+    public PooledByteArrayOutputStream(final BufferPool pool, final int size) {
+        super(0);
+        this.pool = pool;
+        this.buffer = borrow(pool, size);
+        this.buf = buffer.array();
+    }
+
+    private static ByteBuffer borrow(final BufferPool pool, final int size) {
+        try {
+            return pool.borrow(size);
+        }
+        catch(InterruptedIOException e) {
+            log.warn(String.format("Failure borrowing buffer with size %d from pool. %s", size, e.getMessage()));
+            // Ignored when released to pool
+            return ByteBuffer.allocate(size);
+        }
+    }
+
+    /**
+     * @return Internal array with {@link #size()} bytes written. Not copied.
+     */
+    public synchronized byte[] array() {
+        return buf;
+    }
+
+    @Override
+    public synchronized void close() {
+        if(close.compareAndSet(false, true)) {
+            // Drop reference to array reused by other borrowers
+            buf = new byte[0];
+            count = 0;
+            pool.release(buffer);
+        }
+    }
+}
@@ -21,15 +21,12 @@ package ch.cyberduck.core.io;
 import ch.cyberduck.core.exception.ChecksumException;
 import ch.cyberduck.core.transfer.TransferStatus;
 
-import org.apache.commons.codec.binary.Hex;
-
 import java.io.InputStream;
 
 public class SHA1ChecksumCompute extends AbstractChecksumCompute {
 
     @Override
     public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
-        return new Checksum(HashAlgorithm.sha1, Hex.encodeHexString(this.digest("SHA-1",
-            this.normalize(in, status))));
+        return new MultiChecksumCompute(HashAlgorithm.sha1).compute(in, status);
     }
 }
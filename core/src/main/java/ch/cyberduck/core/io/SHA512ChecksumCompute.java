@@ -18,15 +18,12 @@ package ch.cyberduck.core.io;
 import ch.cyberduck.core.exception.ChecksumException;
 import ch.cyberduck.core.transfer.TransferStatus;
 
-import org.apache.commons.codec.binary.Hex;
-
 import java.io.InputStream;
 
 public class SHA512ChecksumCompute extends AbstractChecksumCompute {
 
     @Override
     public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
-        return new Checksum(HashAlgorithm.sha512, Hex.encodeHexString(this.digest("SHA-512",
-            this.normalize(in, status))));
+        return new MultiChecksumCompute(HashAlgorithm.sha512).compute(in, status);
     }
 }
@@ -0,0 +1,70 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.input.ProxyInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Signal end of stream when reaching the end of the segment. The length of the segment may be reduced
+ * while reading when the remainder is split to another segment.
+ */
+public class SegmentInputStream extends ProxyInputStream {
+
+    private final InputStream delegate;
+    private final TransferStatus status;
+    /**
+     * Position of segment in file when opened
+     */
+    private final long start;
+
+    public SegmentInputStream(final InputStream delegate, final TransferStatus status) {
+        super(delegate);
+        this.delegate = delegate;
+        this.status = status;
+        this.start = status.getOffset();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(this.remaining() <= 0) {
+            return -1;
+        }
+        return delegate.read();
+    }
+
+    @Override
+    public int read(final byte[] data) throws IOException {
+        return this.read(data, 0, data.length);
+    }
+
+    @Override
+    public int read(final byte[] data, final int offset, final int len) throws IOException {
+        final long remaining = this.remaining();
+        if(remaining <= 0) {
+            return -1;
+        }
+        return delegate.read(data, offset, (int) Math.min(len, remaining));
+    }
+
+    private long remaining() {
+        return start + status.getLength() - status.getOffset();
+    }
+}
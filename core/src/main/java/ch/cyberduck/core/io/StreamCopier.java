@@ -21,6 +21,7 @@ import ch.cyberduck.core.BytecountStreamListener;
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.metrics.MetricsRegistry;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.log4j.Logger;
@@ -28,6 +29,9 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
 
 public final class StreamCopier {
     private static final Logger log = Logger.getLogger(StreamCopier.class);
@@ -45,6 +49,12 @@ public final class StreamCopier {
     private Integer chunksize
             = PreferencesFactory.get().getInteger("connection.chunksize");
 
+    /**
+     * Maximum number of bytes for a single transfer between file channels
+     */
+    private Long channelsize
+            = PreferencesFactory.get().getLong("connection.chunksize.channel");
+
     private Long offset = 0L;
 
     private Long limit = -1L;
@@ -85,43 +95,26 @@ public final class StreamCopier {
      * @param out The stream to write to
      */
     public void transfer(final InputStream in, final OutputStream out) throws BackgroundException {
+        final MetricsRegistry metrics = MetricsRegistry.get();
+        final long start = System.nanoTime();
         try {
             try {
                 if(offset > 0) {
                     skip(in, offset);
                 }
-                final byte[] buffer = new byte[chunksize];
-                long total = 0;
-                int len = chunksize;
-                if(limit > 0 && limit < chunksize) {
-                    // Cast will work because chunk size is int
-                    len = limit.intValue();
+                final FileChannel source = FileChannelFinder.find(in);
+                final FileChannel target = FileChannelFinder.find(out);
+                if(null != source && null != target) {
+                    this.transfer(source, FileChannelFinder.throttle(in), target, FileChannelFinder.throttle(out));
                 }
-                while(len > 0 && !cancel.isCanceled()) {
-                    final int read = in.read(buffer, 0, len);
-                    if(-1 == read) {
-                        if(log.isDebugEnabled()) {
-                            log.debug(String.format("End of file reached with %d bytes read from stream", total));
-                        }
-                        progress.setComplete();
-                        break;
-                    }
-                    else {
-                        listener.recv(read);
-                        out.write(buffer, 0, read);
-                        progress.progress(read);
-                        listener.sent(read);
-                        total += read;
+                else {
+                    final BufferPool pool = BufferPool.heap();
+                    final ByteBuffer buffer = pool.borrow(chunksize, cancel);
+                    try {
+                        this.transfer(in, out, buffer.array());
                     }
-                    if(limit > 0) {
-                        // Only adjust if not reading to the end of the stream. Cast will work because chunk size is int
-                        len = (int) Math.min(limit - total, chunksize);
-                    }
-                    if(limit == total) {
-                        if(log.isDebugEnabled()) {
-                            log.debug(String.format("Limit %d reached reading from stream", limit));
-                        }
-                        progress.setComplete();
+                    finally {
+                        pool.release(buffer);
                     }
                 }
             }
@@ -135,6 +128,7 @@ public final class StreamCopier {
             }
         }
         catch(BackgroundException e) {
+            metrics.counter("stream.failures").increment();
             // Discard sent bytes if there is an error reply.
             final long sent = listener.getSent();
             progress.progress(-sent);
@@ -143,11 +137,98 @@ public final class StreamCopier {
             listener.recv(-recv);
             throw e;
         }
+        metrics.counter("stream.bytes").add(listener.getSent());
+        metrics.histogram("stream.duration").record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         if(cancel.isCanceled()) {
             throw new ConnectionCanceledException();
         }
     }
 
+    /**
+     * Copy using buffer in heap
+     */
+    private void transfer(final InputStream in, final OutputStream out, final byte[] buffer) throws IOException {
+        long total = 0;
+        int len = chunksize;
+        if(limit > 0 && limit < chunksize) {
+            // Cast will work because chunk size is int
+            len = limit.intValue();
+        }
+        while(len > 0 && !cancel.isCanceled()) {
+            final int read = in.read(buffer, 0, len);
+            if(-1 == read) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("End of file reached with %d bytes read from stream", total));
+                }
+                progress.setComplete();
+                break;
+            }
+            else {
+                listener.recv(read);
+                out.write(buffer, 0, read);
+                progress.progress(read);
+                listener.sent(read);
+                total += read;
+            }
+            if(limit > 0) {
+                // Only adjust if not reading to the end of the stream. Cast will work because chunk size is int
+                len = (int) Math.min(limit - total, chunksize);
+            }
+            if(limit == total) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Limit %d reached reading from stream", limit));
+                }
+                progress.setComplete();
+            }
+        }
+    }
+
+    /**
+     * Copy between file channels without reading into heap. Transferred in chunks to allow
+     * progress updates, cancellation and throttling.
+     */
+    private void transfer(final FileChannel source, final BandwidthThrottle read,
+                          final FileChannel target, final BandwidthThrottle write) throws IOException {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Transfer from channel %s to channel %s", source, target));
+        }
+        long position = source.position();
+        long total = 0;
+        while(!cancel.isCanceled()) {
+            long len = channelsize;
+            if(limit > 0) {
+                len = Math.min(limit - total, len);
+            }
+            if(len <= 0) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Limit %d reached reading from channel", limit));
+                }
+                progress.setComplete();
+                break;
+            }
+            if(null != read) {
+                len = read.request((int) Math.min(len, Integer.MAX_VALUE));
+            }
+            if(null != write) {
+                len = write.request((int) Math.min(len, Integer.MAX_VALUE));
+            }
+            final long transferred = source.transferTo(position, len, target);
+            if(0 == transferred && position >= source.size()) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("End of file reached with %d bytes read from channel", total));
+                }
+                progress.setComplete();
+                break;
+            }
+            position += transferred;
+            source.position(position);
+            listener.recv(transferred);
+            progress.progress(transferred);
+            listener.sent(transferred);
+            total += transferred;
+        }
+    }
+
     public static InputStream skip(final InputStream in, final long offset) throws BackgroundException {
         try {
             long skipped = in.skip(offset);
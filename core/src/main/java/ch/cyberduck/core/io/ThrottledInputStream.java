@@ -22,8 +22,9 @@ import org.apache.commons.io.input.ProxyInputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
-public class ThrottledInputStream extends ProxyInputStream {
+public class ThrottledInputStream extends ProxyInputStream implements ChannelStream {
 
     /**
      * The delegate.
@@ -53,4 +54,14 @@ public class ThrottledInputStream extends ProxyInputStream {
     public int read(byte[] data, int offset, int len) throws IOException {
         return delegate.read(data, offset, throttle.request(len));
     }
-}
\ No newline at end of file
+
+    @Override
+    public FileChannel getChannel() {
+        return FileChannelFinder.find(delegate);
+    }
+
+    @Override
+    public BandwidthThrottle getThrottle() {
+        return throttle;
+    }
+}
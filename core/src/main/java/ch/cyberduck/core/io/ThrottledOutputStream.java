@@ -21,8 +21,9 @@ import org.apache.commons.io.output.ProxyOutputStream;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
-public class ThrottledOutputStream extends ProxyOutputStream {
+public class ThrottledOutputStream extends ProxyOutputStream implements ChannelStream {
 
     /**
      * The delegate.
@@ -79,4 +80,14 @@ public class ThrottledOutputStream extends ProxyOutputStream {
             offset += length;
         }
     }
+
+    @Override
+    public FileChannel getChannel() {
+        return FileChannelFinder.find(delegate);
+    }
+
+    @Override
+    public BandwidthThrottle getThrottle() {
+        return throttle;
+    }
 }
@@ -18,14 +18,29 @@ package ch.cyberduck.core.io;
 import ch.cyberduck.core.exception.BackgroundException;
 
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+public class VoidStatusOutputStream extends StatusOutputStream<Void> implements ChannelStream {
+
+    private final OutputStream proxy;
 
-public class VoidStatusOutputStream extends StatusOutputStream<Void> {
     public VoidStatusOutputStream(final OutputStream proxy) {
         super(proxy);
+        this.proxy = proxy;
     }
 
     @Override
     public Void getStatus() throws BackgroundException {
         return null;
     }
+
+    @Override
+    public FileChannel getChannel() {
+        return FileChannelFinder.find(proxy);
+    }
+
+    @Override
+    public BandwidthThrottle getThrottle() {
+        return FileChannelFinder.throttle(proxy);
+    }
 }
@@ -0,0 +1,56 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Current value either set explicitly or read from supplier when sampled
+ */
+public final class Gauge implements Metric {
+
+    private final AtomicLong value = new AtomicLong();
+
+    private volatile LongSupplier supplier;
+
+    public void set(final long value) {
+        this.value.set(value);
+    }
+
+    /**
+     * @param supplier Read value when sampled
+     */
+    public Gauge withSupplier(final LongSupplier supplier) {
+        this.supplier = supplier;
+        return this;
+    }
+
+    public long get() {
+        final LongSupplier supplier = this.supplier;
+        return null == supplier ? value.get() : supplier.getAsLong();
+    }
+
+    @Override
+    public Type getType() {
+        return Type.gauge;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.get());
+    }
+}
@@ -0,0 +1,93 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of latencies in milliseconds with fixed bucket boundaries
+ */
+public final class Histogram implements Metric {
+
+    /**
+     * Inclusive upper bounds of buckets in milliseconds
+     */
+    private static final long[] BOUNDS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    /**
+     * Count per bucket with additional bucket for values exceeding largest bound
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * @param millis Duration in milliseconds
+     */
+    public void record(final long millis) {
+        int i = 0;
+        while(i < BOUNDS.length && millis > BOUNDS[i]) {
+            i++;
+        }
+        buckets.incrementAndGet(i);
+        count.incrementAndGet();
+        sum.addAndGet(millis);
+    }
+
+    /**
+     * @return Upper bounds of buckets excluding the last bucket for all larger values
+     */
+    public long[] getBounds() {
+        return BOUNDS.clone();
+    }
+
+    /**
+     * @return Number of values per bucket. Not cumulative.
+     */
+    public long[] getBuckets() {
+        final long[] values = new long[buckets.length()];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = buckets.get(i);
+        }
+        return values;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return Sum of all values recorded in milliseconds
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    @Override
+    public Type getType() {
+        return Type.histogram;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Histogram{");
+        sb.append("count=").append(count);
+        sb.append(", sum=").append(sum);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Write metrics as JSON array with one object per metric
+ */
+public class JsonMetricsExporter implements MetricsExporter {
+
+    @Override
+    public void export(final Map<MetricName, Metric> metrics, final Writer out) throws IOException {
+        final JsonWriter writer = new JsonWriter(out);
+        writer.setIndent("  ");
+        writer.beginArray();
+        for(Map.Entry<MetricName, Metric> entry : metrics.entrySet()) {
+            final Metric metric = entry.getValue();
+            writer.beginObject();
+            writer.name("name").value(entry.getKey().getName());
+            writer.name("type").value(metric.getType().name());
+            writer.name("labels").beginObject();
+            for(Map.Entry<String, String> label : entry.getKey().getLabels().entrySet()) {
+                writer.name(label.getKey()).value(label.getValue());
+            }
+            writer.endObject();
+            switch(metric.getType()) {
+                case counter:
+                    writer.name("value").value(((Counter) metric).get());
+                    break;
+                case gauge:
+                    writer.name("value").value(((Gauge) metric).get());
+                    break;
+                case histogram:
+                    final Histogram histogram = (Histogram) metric;
+                    writer.name("count").value(histogram.getCount());
+                    writer.name("sum").value(histogram.getSum());
+                    writer.name("buckets").beginObject();
+                    final long[] bounds = histogram.getBounds();
+                    final long[] buckets = histogram.getBuckets();
+                    for(int i = 0; i < bounds.length; i++) {
+                        writer.name(String.valueOf(bounds[i])).value(buckets[i]);
+                    }
+                    writer.name("+Inf").value(buckets[bounds.length]);
+                    writer.endObject();
+                    break;
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+}
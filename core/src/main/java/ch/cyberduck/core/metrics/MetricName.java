@@ -0,0 +1,89 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Name of metric with labels such as the hostname
+ */
+public final class MetricName implements Comparable<MetricName> {
+
+    private final String name;
+    private final Map<String, String> labels;
+
+    /**
+     * @param name   Metric name
+     * @param labels Alternating label names and values
+     */
+    public MetricName(final String name, final String... labels) {
+        if(labels.length % 2 != 0) {
+            throw new IllegalArgumentException(String.format("Missing value for label %s", labels[labels.length - 1]));
+        }
+        final Map<String, String> map = new TreeMap<>();
+        for(int i = 0; i < labels.length; i += 2) {
+            map.put(labels[i], null == labels[i + 1] ? "" : labels[i + 1]);
+        }
+        this.name = name;
+        this.labels = Collections.unmodifiableMap(map);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Labels sorted by name
+     */
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+
+    @Override
+    public int compareTo(final MetricName o) {
+        final int c = name.compareTo(o.name);
+        if(c != 0) {
+            return c;
+        }
+        return labels.toString().compareTo(o.labels.toString());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final MetricName that = (MetricName) o;
+        return Objects.equals(name, that.name) &&
+            Objects.equals(labels, that.labels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, labels);
+    }
+
+    @Override
+    public String toString() {
+        return labels.isEmpty() ? name : String.format("%s%s", name, labels);
+    }
+}
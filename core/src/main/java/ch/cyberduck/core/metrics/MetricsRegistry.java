@@ -0,0 +1,96 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Counters, gauges and latency histograms reported by transfer workers, session pools, HTTP clients and stream
+ * copiers. Metrics are created on first use and kept until cleared.
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    public static MetricsRegistry get() {
+        return instance;
+    }
+
+    private final Map<MetricName, Metric> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * @param name   Metric name
+     * @param labels Alternating label names and values
+     */
+    public Counter counter(final String name, final String... labels) {
+        return this.metric(new MetricName(name, labels), Counter.class, Counter::new);
+    }
+
+    public Counter counter(final MetricName name) {
+        return this.metric(name, Counter.class, Counter::new);
+    }
+
+    public Gauge gauge(final String name, final String... labels) {
+        return this.metric(new MetricName(name, labels), Gauge.class, Gauge::new);
+    }
+
+    public Gauge gauge(final MetricName name) {
+        return this.metric(name, Gauge.class, Gauge::new);
+    }
+
+    /**
+     * Register gauge reading value from supplier when sampled. Replaces any previous supplier for the same name
+     * and labels.
+     */
+    public Gauge gauge(final String name, final LongSupplier supplier, final String... labels) {
+        return this.gauge(name, labels).withSupplier(supplier);
+    }
+
+    public Histogram histogram(final String name, final String... labels) {
+        return this.metric(new MetricName(name, labels), Histogram.class, Histogram::new);
+    }
+
+    private <T extends Metric> T metric(final MetricName name, final Class<T> type, final Supplier<T> factory) {
+        final Metric metric = metrics.computeIfAbsent(name, k -> factory.get());
+        if(!type.isInstance(metric)) {
+            throw new IllegalArgumentException(String.format("Metric %s already registered as %s", name, metric.getType()));
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * @return Null if not registered
+     */
+    public Metric find(final MetricName name) {
+        return metrics.get(name);
+    }
+
+    /**
+     * @return Current metrics sorted by name
+     */
+    public SortedMap<MetricName, Metric> snapshot() {
+        return new TreeMap<>(metrics);
+    }
+
+    public void clear() {
+        metrics.clear();
+    }
+}
@@ -0,0 +1,101 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Write metrics in Prometheus text exposition format. Histograms are written with cumulative buckets.
+ */
+public class PrometheusMetricsExporter implements MetricsExporter {
+
+    @Override
+    public void export(final Map<MetricName, Metric> metrics, final Writer out) throws IOException {
+        String previous = null;
+        for(Map.Entry<MetricName, Metric> entry : metrics.entrySet()) {
+            final Metric metric = entry.getValue();
+            final String name = toName(entry.getKey().getName());
+            if(!name.equals(previous)) {
+                // Metrics are sorted by name
+                out.write(String.format("# TYPE %s %s\n", name, metric.getType().name()));
+                previous = name;
+            }
+            final Map<String, String> labels = entry.getKey().getLabels();
+            switch(metric.getType()) {
+                case counter:
+                    out.write(String.format("%s%s %d\n", name, toLabels(labels, null), ((Counter) metric).get()));
+                    break;
+                case gauge:
+                    out.write(String.format("%s%s %d\n", name, toLabels(labels, null), ((Gauge) metric).get()));
+                    break;
+                case histogram:
+                    final Histogram histogram = (Histogram) metric;
+                    final long[] bounds = histogram.getBounds();
+                    final long[] buckets = histogram.getBuckets();
+                    long cumulative = 0L;
+                    for(int i = 0; i < bounds.length; i++) {
+                        cumulative += buckets[i];
+                        out.write(String.format("%s_bucket%s %d\n", name, toLabels(labels, String.valueOf(bounds[i])), cumulative));
+                    }
+                    cumulative += buckets[bounds.length];
+                    out.write(String.format("%s_bucket%s %d\n", name, toLabels(labels, "+Inf"), cumulative));
+                    out.write(String.format("%s_sum%s %d\n", name, toLabels(labels, null), histogram.getSum()));
+                    out.write(String.format("%s_count%s %d\n", name, toLabels(labels, null), histogram.getCount()));
+                    break;
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * @return Name with all characters not allowed replaced with underscore
+     */
+    protected static String toName(final String name) {
+        final String sanitized = name.replaceAll("[^a-zA-Z0-9_:]", "_");
+        return Character.isDigit(sanitized.charAt(0)) ? String.format("_%s", sanitized) : sanitized;
+    }
+
+    /**
+     * @param bucket Upper bound of histogram bucket or null
+     */
+    private static String toLabels(final Map<String, String> labels, final String bucket) {
+        if(labels.isEmpty() && null == bucket) {
+            return StringUtils.EMPTY;
+        }
+        final StringBuilder sb = new StringBuilder("{");
+        for(Map.Entry<String, String> label : labels.entrySet()) {
+            if(sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append(toName(label.getKey())).append("=\"").append(escape(label.getValue())).append('"');
+        }
+        if(null != bucket) {
+            if(sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append("le=\"").append(bucket).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
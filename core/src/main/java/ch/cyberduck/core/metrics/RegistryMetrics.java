@@ -0,0 +1,84 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report session metrics to registry labeled with hostname
+ */
+public class RegistryMetrics implements Metrics {
+
+    private final MetricsRegistry registry;
+    private final String hostname;
+
+    public RegistryMetrics(final String hostname) {
+        this(MetricsRegistry.get(), hostname);
+    }
+
+    public RegistryMetrics(final MetricsRegistry registry, final String hostname) {
+        this.registry = registry;
+        this.hostname = hostname;
+    }
+
+    @Override
+    public <T> void increment(final T key) {
+        registry.counter(this.toName(key)).increment();
+    }
+
+    @Override
+    public <T> void set(final T key, final long value) {
+        registry.gauge(this.toName(key)).set(value);
+    }
+
+    @Override
+    public <T> long get(final T key) {
+        final Metric metric = registry.find(this.toName(key));
+        if(metric instanceof Counter) {
+            return ((Counter) metric).get();
+        }
+        if(metric instanceof Gauge) {
+            return ((Gauge) metric).get();
+        }
+        return 0L;
+    }
+
+    /**
+     * @return Metric name with labels of key and hostname
+     */
+    private <T> MetricName toName(final T key) {
+        if(key instanceof Class) {
+            // Feature lookup
+            return new MetricName("session.feature", "host", hostname, "feature", ((Class<?>) key).getSimpleName());
+        }
+        if(key instanceof MetricName) {
+            final MetricName name = (MetricName) key;
+            final List<String> labels = new ArrayList<>();
+            for(Map.Entry<String, String> label : name.getLabels().entrySet()) {
+                labels.add(label.getKey());
+                labels.add(label.getValue());
+            }
+            labels.add("host");
+            labels.add(hostname);
+            return new MetricName(name.getName(), labels.toArray(new String[labels.size()]));
+        }
+        return new MetricName(key.toString(), "host", hostname);
+    }
+}
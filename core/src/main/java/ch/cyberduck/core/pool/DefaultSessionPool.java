@@ -24,6 +24,7 @@ import ch.cyberduck.core.SessionFactory;
 import ch.cyberduck.core.TranscriptListener;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.metrics.MetricsRegistry;
 import ch.cyberduck.core.ssl.DefaultX509KeyManager;
 import ch.cyberduck.core.ssl.DisabledX509TrustManager;
 import ch.cyberduck.core.ssl.X509KeyManager;
@@ -43,6 +44,7 @@ import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.apache.log4j.Logger;
 
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
 
 public class DefaultSessionPool implements SessionPool {
     private static final Logger log = Logger.getLogger(DefaultSessionPool.class);
@@ -62,6 +64,8 @@ public class DefaultSessionPool implements SessionPool {
 
     private final GenericObjectPool<Session> pool;
 
+    private final MetricsRegistry metrics = MetricsRegistry.get();
+
     private SessionPool features = SessionPool.DISCONNECTED;
 
     public DefaultSessionPool(final ConnectionService connect, final X509TrustManager trust, final X509KeyManager key,
@@ -135,6 +139,7 @@ public class DefaultSessionPool implements SessionPool {
         if(numActive > POOL_WARNING_THRESHOLD) {
             log.warn(String.format("Possibly large number of open connections (%d) in pool %s", numActive, this));
         }
+        final long start = System.nanoTime();
         try {
             /*
              * The number of times this action has been run
@@ -152,6 +157,9 @@ public class DefaultSessionPool implements SessionPool {
                     if(DISCONNECTED == features) {
                         features = new StatelessSessionPool(connect, session, cache, transcript, registry);
                     }
+                    metrics.histogram("pool.borrow.duration", "host", bookmark.getHostname())
+                        .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    this.gauges();
                     return session.withListener(transcript);
                 }
                 catch(IllegalStateException e) {
@@ -164,6 +172,7 @@ public class DefaultSessionPool implements SessionPool {
                     final Throwable cause = e.getCause();
                     if(null == cause) {
                         log.warn(String.format("Timeout borrowing session from pool %s. Wait for another %dms", this, BORROW_MAX_WAIT_INTERVAL));
+                        metrics.counter("pool.borrow.timeouts", "host", bookmark.getHostname()).increment();
                         // Timeout
                         continue;
                     }
@@ -226,6 +235,15 @@ public class DefaultSessionPool implements SessionPool {
         catch(IllegalStateException e) {
             log.warn(String.format("Failed to release session %s. %s", session, e.getMessage()));
         }
+        this.gauges();
+    }
+
+    /**
+     * Record number of connections in use and idle
+     */
+    private void gauges() {
+        metrics.gauge("pool.active", "host", bookmark.getHostname()).set(pool.getNumActive());
+        metrics.gauge("pool.idle", "host", bookmark.getHostname()).set(pool.getNumIdle());
     }
 
     @Override
@@ -309,6 +309,14 @@ public abstract class Preferences implements Locales {
          */
         this.setDefault("browser.cache.size", String.valueOf(1000));
         this.setDefault("transfer.cache.size", String.valueOf(100));
+        /*
+          Weigh cached directory listings by number of entries. One of directory, entry or bytes
+         */
+        this.setDefault("cache.weigher", "entry");
+        // Average number of entries per directory to scale cache size when weighing entries
+        this.setDefault("cache.weigher.entries.directory", String.valueOf(1000));
+        // Maximum fraction of heap for cache when weighing estimated bytes
+        this.setDefault("cache.weigher.memory.ratio", String.valueOf(0.25d));
         this.setDefault("icon.cache.size", String.valueOf(200));
         this.setDefault("preferences.cache.size", String.valueOf(1000));
 
@@ -322,6 +330,10 @@ public abstract class Preferences implements Locales {
          */
         this.setDefault("browser.list.limit.directory", String.valueOf(5000));
         this.setDefault("browser.list.limit.container", String.valueOf(100));
+        /*
+          Maximum number of files and directories listed in advance when walking a directory tree
+         */
+        this.setDefault("browser.list.walk.limit", String.valueOf(10000));
 
         this.setDefault("info.toolbar.selected", String.valueOf(0));
         this.setDefault("preferences.toolbar.selected", String.valueOf(0));
@@ -506,6 +518,27 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("queue.download.timestamp.change", String.valueOf(true));
         this.setDefault("queue.download.checksum", String.valueOf(true));
+        /*
+          Persist checksums computed for local files when comparing with remote
+         */
+        this.setDefault("local.checksum.index.enable", String.valueOf(true));
+        /*
+          Additional algorithms to compute in the same pass when hashing a local file for comparison
+         */
+        this.setDefault("local.checksum.index.algorithms", StringUtils.EMPTY);
+        /*
+          Memory map files when computing checksums instead of reading streams. Mapped files cannot be
+          deleted or truncated on Windows until unmapped by garbage collection
+         */
+        this.setDefault("checksum.mmap.enable", String.valueOf(false));
+        /*
+          Memory map files larger than threshold when computing checksums
+         */
+        this.setDefault("checksum.mmap.threshold", String.valueOf(TransferStatus.MEGA * 16));
+        /*
+          Update multiple digests concurrently for input larger than threshold
+         */
+        this.setDefault("checksum.parallel.threshold", String.valueOf(TransferStatus.MEGA * 256));
 
         this.setDefault("queue.download.skip.enable", String.valueOf(true));
         this.setDefault("queue.download.skip.regex.default",
@@ -526,6 +559,11 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.download.segments", String.valueOf(false));
         this.setDefault("queue.download.segments.threshold", String.valueOf(100L * 1024L * 1024L));
         this.setDefault("queue.download.segments.size", String.valueOf(50L * 1024L * 1024L));
+        // Write segments at their offset to preallocated file instead of concatenating segment files
+        this.setDefault("queue.download.segments.positional", String.valueOf(true));
+        // Minimum size and estimated remaining time to split remainder of lagging segment
+        this.setDefault("queue.download.segments.split.size", String.valueOf(10L * 1024L * 1024L));
+        this.setDefault("queue.download.segments.split.seconds", String.valueOf(10L));
 
         /*
           Open completed downloads
@@ -567,6 +605,14 @@ public abstract class Preferences implements Locales {
           Bandwidth throttle download stream
          */
         this.setDefault("queue.download.bandwidth.bytes", String.valueOf(-1));
+        /*
+          Bandwidth throttle shared by all connections to the same server
+         */
+        this.setDefault("queue.bandwidth.host.bytes", String.valueOf(-1));
+        /*
+          Bandwidth throttle shared by all connections
+         */
+        this.setDefault("queue.bandwidth.global.bytes", String.valueOf(-1));
 
         /*
          * Concurrent connections for single transfer and maximum number of concurrent transfers in transfer list
@@ -584,6 +630,23 @@ public abstract class Preferences implements Locales {
             options.append(20).append(",");
             this.setDefault("queue.connections.options", options.toString());
         }
+        /*
+         * Minimum file size to schedule transfer in separate lane for large files
+         */
+        this.setDefault("queue.transfer.lane.large.threshold", String.valueOf(TransferStatus.MEGA * 10));
+        /*
+         * Journal state of every file in transfer to resume without listing folders again
+         */
+        this.setDefault("queue.transfer.journal.enable", String.valueOf(true));
+        /*
+         * Number of lines buffered and interval in milliseconds to write journal to disk
+         */
+        this.setDefault("queue.transfer.journal.batch", String.valueOf(100));
+        this.setDefault("queue.transfer.journal.interval", String.valueOf(1000L));
+        /*
+         * Report session metrics such as feature lookups and connection pool statistics to metrics registry
+         */
+        this.setDefault("metrics.session.enable", String.valueOf(false));
 
         /*
           While downloading, update the icon of the downloaded file as a progress indicator
@@ -609,6 +672,13 @@ public abstract class Preferences implements Locales {
           HTTP routes to maximum number of connections allowed for those routes
          */
         this.setDefault("http.connections.route", String.valueOf(10));
+        /*
+          Raise connections per route while requests wait for a connection and halve on throttling responses
+         */
+        this.setDefault("http.connections.route.adaptive", String.valueOf(false));
+        this.setDefault("http.connections.route.adaptive.minimum", String.valueOf(2));
+        this.setDefault("http.connections.route.adaptive.maximum", String.valueOf(64));
+        this.setDefault("http.connections.route.adaptive.interval", String.valueOf(1000L));
         this.setDefault("http.connections.reuse", String.valueOf(true));
         /*
           Total number of connections in the pool
@@ -631,6 +701,10 @@ public abstract class Preferences implements Locales {
         this.setDefault("ftp.parser.multiline.strict", String.valueOf(false));
         this.setDefault("ftp.parser.reply.strict", String.valueOf(false));
         this.setDefault("ftp.parser.mlsd.perm.enable", String.valueOf(false));
+        /*
+          Number of lines of directory listing to parse at once while reading from data connection
+         */
+        this.setDefault("ftp.listing.chunksize", String.valueOf(1000));
 
         /*
           Send LIST -a
@@ -693,11 +767,23 @@ public abstract class Preferences implements Locales {
         this.setDefault("s3.mfa.serialnumber", StringUtils.EMPTY);
 
         this.setDefault("s3.listing.chunksize", String.valueOf(1000));
+        /*
+          Number of connections to list ranges of keys concurrently when a listing exceeds a single chunk
+         */
+        this.setDefault("s3.listing.concurrency", String.valueOf(10));
+        /*
+          Maximum number of key ranges to split a listing into
+         */
+        this.setDefault("s3.listing.concurrency.ranges", String.valueOf(64));
 
         this.setDefault("s3.upload.md5", String.valueOf(true));
 
         this.setDefault("s3.upload.multipart", String.valueOf(true));
         this.setDefault("s3.upload.multipart.concurrency", String.valueOf(10));
+        /*
+          Maximum number of parts in flight for all multipart uploads to the same server
+         */
+        this.setDefault("s3.upload.multipart.concurrency.limit", String.valueOf(20));
         this.setDefault("s3.upload.multipart.partsize.minimum", String.valueOf(5L * 1024L * 1024L));
         /*
           Threshold in bytes. Only use multipart uploads for files more than 100MB
@@ -742,9 +828,32 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("s3.delete.multiple.partition", String.valueOf(1000));
 
+        /*
+          Commit uploads of files smaller than threshold together with a single finish batch request
+         */
+        this.setDefault("dropbox.upload.batch", String.valueOf(true));
+        this.setDefault("dropbox.upload.batch.threshold", String.valueOf(4L * 1024L * 1024L));
+        this.setDefault("dropbox.upload.batch.size", String.valueOf(1000));
+        this.setDefault("dropbox.upload.batch.poll.interval", String.valueOf(500L)); // Milliseconds
+
         this.setDefault("azure.metadata.default", StringUtils.EMPTY);
         this.setDefault("azure.listing.chunksize", String.valueOf(1000));
         this.setDefault("azure.upload.md5", String.valueOf(false));
+        /*
+          Upload files larger than threshold as block blob with blocks staged concurrently
+         */
+        this.setDefault("azure.upload.blockblob", String.valueOf(true));
+        this.setDefault("azure.upload.blockblob.threshold", String.valueOf(100L * 1024L * 1024L));
+        this.setDefault("azure.upload.blockblob.size", String.valueOf(10L * 1024L * 1024L)); // 10MB
+        this.setDefault("azure.upload.blockblob.concurrency", String.valueOf(10));
+        /*
+          Maximum number of blocks in flight for all block blob uploads to the same server
+         */
+        this.setDefault("azure.upload.blockblob.concurrency.limit", String.valueOf(20));
+        /*
+          Send Content-MD5 of each block to be verified by the server
+         */
+        this.setDefault("azure.upload.blockblob.md5", String.valueOf(true));
 
         // Legacy authentication
 //        this.setDefault("openstack.authentication.context", "/v1.0");
@@ -944,6 +1053,12 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("connection.ssl.provider.bouncycastle.position", String.valueOf(1));
         this.setDefault("connection.ssl.protocols", "TLSv1.2,TLSv1.1,TLSv1");
+        /*
+          Share TLS client sessions between connections to the same host and port
+         */
+        this.setDefault("connection.ssl.session.cache.enable", String.valueOf(true));
+        this.setDefault("connection.ssl.session.cache.size", String.valueOf(100));
+        this.setDefault("connection.ssl.session.cache.timeout", String.valueOf(3600)); // Seconds
         this.setDefault("connection.ssl.cipher.blacklist", StringUtils.EMPTY);
 
         this.setDefault("connection.ssl.x509.revocation.online", String.valueOf(false));
@@ -959,10 +1074,23 @@ public abstract class Preferences implements Locales {
           Transfer read buffer size
          */
         this.setDefault("connection.chunksize", String.valueOf(32768));
+        /*
+          Maximum size of single transfer between file channels
+         */
+        this.setDefault("connection.chunksize.channel", String.valueOf(TransferStatus.MEGA * 4));
         /*
           Buffer size for wrapped buffered streams
          */
         this.setDefault("connection.buffer", String.valueOf(8192));
+        /*
+          Maximum bytes of transfer buffers in use and kept for reuse
+         */
+        this.setDefault("connection.buffer.pool.heap.size", String.valueOf(TransferStatus.MEGA * 64));
+        this.setDefault("connection.buffer.pool.direct.size", String.valueOf(TransferStatus.MEGA * 32));
+        /*
+          Milliseconds to wait for buffer returned to exhausted pool
+         */
+        this.setDefault("connection.buffer.pool.timeout", String.valueOf(60000));
         /*
           SO_SNDBUF
          */
@@ -1015,6 +1143,21 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("sftp.read.maxunconfirmed", String.valueOf(64));
         this.setDefault("sftp.write.maxunconfirmed", String.valueOf(64));
+        /*
+          Grow or shrink number of unconfirmed requests and packet size from measured acknowledgement latency
+         */
+        this.setDefault("sftp.window.adaptive", String.valueOf(true));
+        this.setDefault("sftp.read.maxunconfirmed.limit", String.valueOf(512));
+        this.setDefault("sftp.write.maxunconfirmed.limit", String.valueOf(512));
+        this.setDefault("sftp.packet.size", String.valueOf(32768));
+        /*
+          Write requests only exceed initial packet size when larger writes are announced by the server
+         */
+        this.setDefault("sftp.packet.size.limit", String.valueOf(131072));
+        /*
+          Number of directories listed concurrently with outstanding requests when walking a tree
+         */
+        this.setDefault("sftp.list.pipeline", String.valueOf(16));
 
         this.setDefault("archive.default", "tar.gz");
 
@@ -1052,9 +1195,25 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("threading.pool.size.max", String.valueOf(20));
         this.setDefault("threading.pool.keepalive.seconds", String.valueOf(60L));
+        /*
+          Run tasks in virtual threads with concurrency limited by pool size. Requires Java 21
+         */
+        this.setDefault("threading.pool.virtual", String.valueOf(false));
 
         this.setDefault("cryptomator.enable", String.valueOf(true));
         this.setDefault("cryptomator.vault.autodetect", String.valueOf(true));
+        /*
+          Save directory IDs and shortened filenames encrypted to disk when locking a vault
+         */
+        this.setDefault("cryptomator.cache.persist", String.valueOf(false));
+        /*
+          Number of file content chunks encrypted or decrypted in parallel for vault transfers
+         */
+        this.setDefault("cryptomator.chunk.concurrency", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        /*
+          Number of workers shared by all vault transfers for chunk encryption and decryption
+         */
+        this.setDefault("cryptomator.chunk.pool.size", String.valueOf(Runtime.getRuntime().availableProcessors()));
     }
 
     protected void setLogging() {
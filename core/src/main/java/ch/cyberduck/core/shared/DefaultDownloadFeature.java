@@ -25,6 +25,7 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Download;
 import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.SegmentInputStream;
 import ch.cyberduck.core.io.StreamCopier;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.io.ThrottledInputStream;
@@ -45,12 +46,13 @@ public class DefaultDownloadFeature implements Download {
     public void download(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                          final TransferStatus status, final ConnectionCallback connectionCallback, final PasswordCallback passwordCallback) throws BackgroundException {
         final InputStream in = reader.read(file, status, connectionCallback);
-        final OutputStream out = local.getOutputStream(status.isAppend());
+        final OutputStream out = status.isPositional() ?
+                local.getOutputStream(status.getOffset()) : local.getOutputStream(status.isAppend());
         new StreamCopier(status, status)
                 .withOffset(0L)
                 .withLimit(status.getLength())
                 .withListener(listener)
-                .transfer(new ThrottledInputStream(in, throttle), out);
+                .transfer(new ThrottledInputStream(status.isSegment() ? new SegmentInputStream(in, status) : in, throttle), out);
     }
 
     @Override
@@ -52,38 +52,21 @@ public abstract class ListFilteringFeature {
         else {
             list = cache.get(file.getParent());
         }
-        final Predicate<Path> predicate;
         final Predicate<Path> simple = session.getCase() == Session.Case.insensitive ? new CaseInsensitivePathPredicate(file) : new SimplePathPredicate(file);
-        if(StringUtils.isNotBlank(file.attributes().getVersionId())) {
-            // Look for exact match
-            return list.find(new PredicateChain<Path>(simple, new DefaultPathPredicate(file)));
+        // Lookup exact match in index of list
+        final Path found = list.lookup(new DefaultPathPredicate(file));
+        if(null != found && simple.test(found)) {
+            return found;
         }
-        else {
-            return list.find(simple);
+        if(StringUtils.isNotBlank(file.attributes().getVersionId())) {
+            // No exact match for version
+            return null;
         }
+        return list.find(simple);
     }
 
     public ListFilteringFeature withCache(final Cache<Path> cache) {
         this.cache = cache;
         return this;
     }
-
-    private final class PredicateChain<T> implements Predicate<T> {
-        private final Predicate<T> predicates[];
-
-        @SafeVarargs
-        private PredicateChain(final Predicate<T>... predicates) {
-            this.predicates = predicates;
-        }
-
-        @Override
-        public boolean test(final T t) {
-            for(Predicate<T> p : predicates) {
-                if(!p.test(t)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-    }
 }
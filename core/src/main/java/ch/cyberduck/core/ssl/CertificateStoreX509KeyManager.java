@@ -202,6 +202,13 @@ public class CertificateStoreX509KeyManager extends AbstractX509KeyManager {
         return null;
     }
 
+    /**
+     * @return Alias of client certificate saved for bookmark or null
+     */
+    public String getAlias() {
+        return StringUtils.trimToNull(bookmark.getCredentials().getCertificate());
+    }
+
     @Override
     public String chooseClientAlias(final String[] keyTypes, final Principal[] issuers, final Socket socket) {
         try {
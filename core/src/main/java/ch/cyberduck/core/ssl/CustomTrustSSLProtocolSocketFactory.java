@@ -63,6 +63,11 @@ public class CustomTrustSSLProtocolSocketFactory extends SSLSocketFactory {
 
     private final X509KeyManager key;
 
+    /**
+     * Context shared with other factories to resume cached sessions
+     */
+    private final boolean shared;
+
     /**
      * @param trust Verifying trusts in system settings
      * @param key   Key manager for client certificate selection
@@ -75,14 +80,38 @@ public class CustomTrustSSLProtocolSocketFactory extends SSLSocketFactory {
         this(trust, key, SecureRandomProviderFactory.get().provide(), protocols);
     }
 
+    /**
+     * @param trust  Verifying trusts in system settings
+     * @param key    Key manager for client certificate selection
+     * @param shared Use shared context to resume sessions from other connections. Not possible when sockets are
+     *               created from the context directly
+     */
+    public CustomTrustSSLProtocolSocketFactory(final X509TrustManager trust, final X509KeyManager key, final boolean shared) {
+        this(trust, key, SecureRandomProviderFactory.get().provide(), shared,
+                PreferencesFactory.get().getProperty("connection.ssl.protocols").split(","));
+    }
+
     public CustomTrustSSLProtocolSocketFactory(final X509TrustManager trust, final X509KeyManager key,
                                                final SecureRandom seeder,
                                                final String... protocols) {
+        this(trust, key, seeder, PreferencesFactory.get().getBoolean("connection.ssl.session.cache.enable"), protocols);
+    }
+
+    public CustomTrustSSLProtocolSocketFactory(final X509TrustManager trust, final X509KeyManager key,
+                                               final SecureRandom seeder, final boolean shared,
+                                               final String... protocols) {
         this.trust = trust;
         this.key = key;
+        this.shared = shared && this.isShareable(trust, key);
         try {
-            context = SSLContext.getInstance("TLS");
-            context.init(new KeyManager[]{key}, new TrustManager[]{trust}, seeder);
+            if(this.shared) {
+                // Partition by trust manager shared by sessions of a pool and key manager
+                context = TLSSessionCache.get().getContext(this.unwrap(trust), key, seeder);
+            }
+            else {
+                context = SSLContext.getInstance("TLS");
+                context.init(new KeyManager[]{key}, new TrustManager[]{trust}, seeder);
+            }
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Using SSL context with protocol %s", context.getProtocol()));
             }
@@ -94,6 +123,29 @@ public class CustomTrustSSLProtocolSocketFactory extends SSLSocketFactory {
         this.protocols = protocols;
     }
 
+    /**
+     * @return False if server certificates are not verified or a client certificate is configured
+     */
+    private boolean isShareable(final X509TrustManager trust, final X509KeyManager key) {
+        if(this.unwrap(trust) instanceof DisabledX509TrustManager) {
+            return false;
+        }
+        if(key instanceof CertificateStoreX509KeyManager) {
+            return null == ((CertificateStoreX509KeyManager) key).getAlias();
+        }
+        return true;
+    }
+
+    /**
+     * @return Trust manager not bound to a single session
+     */
+    private X509TrustManager unwrap(final X509TrustManager trust) {
+        if(trust instanceof ThreadLocalHostnameDelegatingTrustManager) {
+            return this.unwrap(((ThreadLocalHostnameDelegatingTrustManager) trust).getDelegate());
+        }
+        return trust;
+    }
+
     /**
      * @param socket    Socket to configure
      * @param protocols Enabled SSL protocol versions
@@ -145,6 +197,9 @@ public class CustomTrustSSLProtocolSocketFactory extends SSLSocketFactory {
         }
         // Configure socket
         final Socket socket = f.create();
+        if(shared && socket instanceof SSLSocket) {
+            TLSSessionCache.get().register((SSLSocket) socket, trust);
+        }
         this.configure(socket, protocols);
         if(log.isDebugEnabled()) {
             log.debug(String.format("Handshake for socket %s", socket));
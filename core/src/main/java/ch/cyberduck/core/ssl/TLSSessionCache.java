@@ -0,0 +1,273 @@
+package ch.cyberduck.core.ssl;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.metrics.MetricsRegistry;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.net.Socket;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Bounded TLS client session cache shared by socket factories. Contexts are partitioned by the trust and key manager
+ * of the factory so that a session is only resumed by connections verifying the server certificate with the same
+ * trust manager and presenting the same client certificates. Sessions are cached by the SSL context keyed by host
+ * and port of the peer. Sockets are registered with the trust manager of the session they are created for and
+ * certificate verification is delegated accordingly.
+ */
+public final class TLSSessionCache {
+    private static final Logger log = Logger.getLogger(TLSSessionCache.class);
+
+    private static final TLSSessionCache global = new TLSSessionCache();
+
+    public static TLSSessionCache get() {
+        return global;
+    }
+
+    private final Preferences preferences
+        = PreferencesFactory.get();
+
+    /**
+     * Shared context by identity of trust and key manager. Weak keys are compared by identity
+     */
+    private final Cache<javax.net.ssl.X509TrustManager, Cache<javax.net.ssl.X509KeyManager, SSLContext>> contexts
+        = CacheBuilder.newBuilder().weakKeys().build();
+
+    private final Map<Socket, javax.net.ssl.X509TrustManager> sockets
+        = Collections.synchronizedMap(new WeakHashMap<Socket, javax.net.ssl.X509TrustManager>());
+
+    private final AtomicLong handshakes = new AtomicLong();
+    private final AtomicLong resumptions = new AtomicLong();
+
+    private final X509ExtendedTrustManager trust = new RoutingTrustManager();
+
+    private TLSSessionCache() {
+        MetricsRegistry.get().gauge("tls.handshakes", this::getHandshakes);
+        MetricsRegistry.get().gauge("tls.resumptions", this::getResumptions);
+    }
+
+    /**
+     * @param trust  Trust manager verifying server certificates. Must not be shared across sessions with different
+     *               trust settings
+     * @param key    Key manager for client certificate selection
+     * @param seeder Random number generator
+     * @return Context shared by all callers with the same trust and key manager instance
+     */
+    public synchronized SSLContext getContext(final javax.net.ssl.X509TrustManager trust, final javax.net.ssl.X509KeyManager key,
+                                              final SecureRandom seeder) throws NoSuchAlgorithmException, KeyManagementException {
+        Cache<javax.net.ssl.X509KeyManager, SSLContext> partition = contexts.getIfPresent(trust);
+        if(null == partition) {
+            partition = CacheBuilder.newBuilder().weakKeys().build();
+            contexts.put(trust, partition);
+        }
+        SSLContext context = partition.getIfPresent(key);
+        if(null == context) {
+            context = SSLContext.getInstance("TLS");
+            // No strong reference to key manager from context to allow eviction
+            context.init(new KeyManager[]{new RoutingKeyManager(key)}, new TrustManager[]{this.trust}, seeder);
+            final SSLSessionContext sessions = context.getClientSessionContext();
+            sessions.setSessionCacheSize(preferences.getInteger("connection.ssl.session.cache.size"));
+            sessions.setSessionTimeout(preferences.getInteger("connection.ssl.session.cache.timeout"));
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Created shared SSL context for trust manager %s and key manager %s", trust, key));
+            }
+            partition.put(key, context);
+        }
+        return context;
+    }
+
+    /**
+     * Register socket before handshake
+     *
+     * @param socket Socket created from shared context
+     * @param trust  Trust manager to verify server certificate
+     */
+    public void register(final SSLSocket socket, final javax.net.ssl.X509TrustManager trust) {
+        final long start = System.currentTimeMillis();
+        sockets.put(socket, trust);
+        socket.addHandshakeCompletedListener(new HandshakeCompletedListener() {
+            @Override
+            public void handshakeCompleted(final HandshakeCompletedEvent event) {
+                // Resumed session was created by a previous handshake
+                if(event.getSession().getCreationTime() < start) {
+                    resumptions.incrementAndGet();
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Resumed session %s for socket %s", event.getSession(), event.getSocket()));
+                    }
+                }
+                else {
+                    handshakes.incrementAndGet();
+                }
+                event.getSocket().removeHandshakeCompletedListener(this);
+            }
+        });
+    }
+
+    /**
+     * @return Number of full handshakes
+     */
+    public long getHandshakes() {
+        return handshakes.get();
+    }
+
+    /**
+     * @return Number of abbreviated handshakes resuming a cached session
+     */
+    public long getResumptions() {
+        return resumptions.get();
+    }
+
+    /**
+     * Remove all cached sessions
+     */
+    public synchronized void clear() {
+        for(Cache<javax.net.ssl.X509KeyManager, SSLContext> partition : contexts.asMap().values()) {
+            for(SSLContext context : partition.asMap().values()) {
+                for(byte[] id : Collections.list(context.getClientSessionContext().getIds())) {
+                    final javax.net.ssl.SSLSession session = context.getClientSessionContext().getSession(id);
+                    if(session != null) {
+                        session.invalidate();
+                    }
+                }
+            }
+        }
+    }
+
+    X509ExtendedTrustManager getTrustManager() {
+        return trust;
+    }
+
+    private javax.net.ssl.X509TrustManager lookup(final Socket socket) throws CertificateException {
+        final javax.net.ssl.X509TrustManager registration = sockets.get(socket);
+        if(null == registration) {
+            throw new CertificateException(String.format("No trust manager registered for socket %s", socket));
+        }
+        return registration;
+    }
+
+    private final class RoutingTrustManager extends X509ExtendedTrustManager {
+        @Override
+        public void checkServerTrusted(final X509Certificate[] chain, final String authType, final Socket socket) throws CertificateException {
+            final javax.net.ssl.X509TrustManager delegate = lookup(socket);
+            if(delegate instanceof X509ExtendedTrustManager) {
+                ((X509ExtendedTrustManager) delegate).checkServerTrusted(chain, authType, socket);
+            }
+            else {
+                delegate.checkServerTrusted(chain, authType);
+            }
+        }
+
+        @Override
+        public void checkClientTrusted(final X509Certificate[] chain, final String authType, final Socket socket) throws CertificateException {
+            lookup(socket).checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine) throws CertificateException {
+            throw new CertificateException("Not supported for engine");
+        }
+
+        @Override
+        public void checkServerTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine) throws CertificateException {
+            throw new CertificateException("Not supported for engine");
+        }
+
+        @Override
+        public void checkClientTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+            throw new CertificateException("Missing socket");
+        }
+
+        @Override
+        public void checkServerTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+            throw new CertificateException("Missing socket");
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+
+    private static final class RoutingKeyManager extends X509ExtendedKeyManager {
+        private final Reference<javax.net.ssl.X509KeyManager> delegate;
+
+        private RoutingKeyManager(final javax.net.ssl.X509KeyManager delegate) {
+            this.delegate = new WeakReference<>(delegate);
+        }
+
+        @Override
+        public String chooseClientAlias(final String[] keyTypes, final Principal[] issuers, final Socket socket) {
+            final javax.net.ssl.X509KeyManager delegate = this.delegate.get();
+            return null == delegate ? null : delegate.chooseClientAlias(keyTypes, issuers, socket);
+        }
+
+        @Override
+        public X509Certificate[] getCertificateChain(final String alias) {
+            final javax.net.ssl.X509KeyManager delegate = this.delegate.get();
+            return null == delegate ? null : delegate.getCertificateChain(alias);
+        }
+
+        @Override
+        public PrivateKey getPrivateKey(final String alias) {
+            final javax.net.ssl.X509KeyManager delegate = this.delegate.get();
+            return null == delegate ? null : delegate.getPrivateKey(alias);
+        }
+
+        @Override
+        public String[] getClientAliases(final String keyType, final Principal[] issuers) {
+            final javax.net.ssl.X509KeyManager delegate = this.delegate.get();
+            return null == delegate ? null : delegate.getClientAliases(keyType, issuers);
+        }
+
+        @Override
+        public String[] getServerAliases(final String keyType, final Principal[] issuers) {
+            return null;
+        }
+
+        @Override
+        public String chooseServerAlias(final String keyType, final Principal[] issuers, final Socket socket) {
+            return null;
+        }
+    }
+}
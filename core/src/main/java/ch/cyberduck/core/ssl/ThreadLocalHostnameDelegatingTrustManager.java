@@ -72,6 +72,10 @@ public class ThreadLocalHostnameDelegatingTrustManager implements X509TrustManag
         this.target.set(hostname);
     }
 
+    public X509TrustManager getDelegate() {
+        return delegate;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("ThreadLocalHostnameDelegatingTrustManager{");
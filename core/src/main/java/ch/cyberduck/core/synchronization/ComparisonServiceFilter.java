@@ -30,14 +30,25 @@ import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.LocalChecksumIndex;
+import ch.cyberduck.core.io.MultiChecksumCompute;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
 import java.text.MessageFormat;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 public class ComparisonServiceFilter implements ComparePathFilter {
+    private static final Logger log = Logger.getLogger(ComparisonServiceFilter.class);
 
     private Find finder;
 
@@ -51,6 +62,11 @@ public class ComparisonServiceFilter implements ComparePathFilter {
 
     private final ProgressListener progress;
 
+    /**
+     * Previously computed checksums of local files. Defaults to shared index if enabled
+     */
+    private LocalChecksumIndex index;
+
     public ComparisonServiceFilter(final Session<?> session, final TimeZone tz, final ProgressListener listener) {
         this.finder = session.getFeature(Find.class, new DefaultFindFeature(session));
         this.attribute = session.getFeature(AttributesFinder.class, new DefaultAttributesFinderFeature(session));
@@ -70,6 +86,11 @@ public class ComparisonServiceFilter implements ComparePathFilter {
         return this;
     }
 
+    public ComparisonServiceFilter withIndex(final LocalChecksumIndex index) {
+        this.index = index;
+        return this;
+    }
+
     public ComparisonServiceFilter withCache(final Cache<Path> cache) {
         finder.withCache(cache);
         attribute.withCache(cache);
@@ -88,10 +109,7 @@ public class ComparisonServiceFilter implements ComparePathFilter {
                 {
                     // MD5/ETag Checksum is supported
                     if(Checksum.NONE != attributes.getChecksum()) {
-                        progress.message(MessageFormat.format(
-                                LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
-                        local.attributes().setChecksum(ChecksumComputeFactory.get(attributes.getChecksum().algorithm)
-                                .compute(local.getInputStream(), new TransferStatus()));
+                        local.attributes().setChecksum(this.checksum(file, local, attributes.getChecksum().algorithm));
                         final Comparison comparison = checksum.compare(attributes, local.attributes());
                         if(!Comparison.notequal.equals(comparison)) {
                             // Decision is available
@@ -130,4 +148,39 @@ public class ComparisonServiceFilter implements ComparePathFilter {
         }
         return Comparison.equal;
     }
+
+    /**
+     * @return Checksum from index if the local file is unchanged since last computed
+     */
+    private Checksum checksum(final Path file, final Local local, final HashAlgorithm algorithm) throws BackgroundException {
+        if(null == index && PreferencesFactory.get().getBoolean("local.checksum.index.enable")) {
+            index = LocalChecksumIndex.get();
+        }
+        if(index != null) {
+            final Checksum checksum = index.find(local, algorithm);
+            if(Checksum.NONE != checksum) {
+                return checksum;
+            }
+        }
+        progress.message(MessageFormat.format(
+                LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
+        if(null == index) {
+            return ChecksumComputeFactory.get(algorithm).compute(local.getInputStream(), new TransferStatus());
+        }
+        // Compute checksums for other protocols in the same pass
+        final Set<HashAlgorithm> algorithms = EnumSet.of(algorithm);
+        for(String name : StringUtils.split(StringUtils.defaultString(PreferencesFactory.get().getProperty("local.checksum.index.algorithms")), ", ")) {
+            try {
+                algorithms.add(HashAlgorithm.valueOf(name));
+            }
+            catch(IllegalArgumentException e) {
+                log.warn(String.format("Ignore unknown checksum algorithm %s", name));
+            }
+        }
+        final Map<HashAlgorithm, Checksum> checksums = new MultiChecksumCompute(algorithms).computeAll(local.getInputStream(), new TransferStatus());
+        for(Checksum checksum : checksums.values()) {
+            index.put(local, checksum);
+        }
+        return checksums.get(algorithm);
+    }
 }
@@ -0,0 +1,279 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.metrics.MetricsRegistry;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared scheduler for parts of multipart uploads with a fixed budget of parts in flight. Parts are queued per file
+ * and dispatched round robin between files such that parts of many files are interleaved. Threads are reused between
+ * files and terminate when idle.
+ */
+public class PartScheduler {
+    private static final Logger log = Logger.getLogger(PartScheduler.class);
+
+    /**
+     * Shared schedulers in use guarded by itself
+     */
+    private static final Map<String, PartScheduler> schedulers = new HashMap<>();
+
+    /**
+     * Must be returned with {@link #release()} when done submitting parts
+     *
+     * @param feature  Upload service using scheduler
+     * @param hostname Server
+     * @param size     Maximum number of parts in flight for all files
+     * @return Shared scheduler for feature, server and size
+     */
+    public static PartScheduler get(final String feature, final String hostname, final int size) {
+        final String key = String.format("%s-%s-%d", feature, hostname, size);
+        synchronized(schedulers) {
+            PartScheduler scheduler = schedulers.get(key);
+            if(null == scheduler) {
+                scheduler = new PartScheduler(key, new DefaultThreadPool(String.format("multipart-%s", key), size), size);
+                final MetricsRegistry metrics = MetricsRegistry.get();
+                metrics.gauge("multipart.queue", scheduler::getQueueDepth, "scheduler", key);
+                metrics.gauge("multipart.active", scheduler::getActive, "scheduler", key);
+                metrics.gauge("multipart.completed", scheduler::getCompleted, "scheduler", key);
+                metrics.gauge("multipart.latency", scheduler::getLatency, "scheduler", key);
+                metrics.gauge("multipart.wait", scheduler::getWait, "scheduler", key);
+                schedulers.put(key, scheduler);
+            }
+            scheduler.references++;
+            return scheduler;
+        }
+    }
+
+    /**
+     * Null if not shared
+     */
+    private final String key;
+    /**
+     * Number of callers using shared scheduler guarded by schedulers
+     */
+    private int references;
+
+    private final ThreadPool pool;
+    private final int size;
+
+    /**
+     * Queued parts by file
+     */
+    private final Map<Object, Deque<PartTask<?>>> queues = new HashMap<>();
+    /**
+     * Files with queued parts in dispatch order
+     */
+    private final Deque<Object> rotation = new ArrayDeque<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    /**
+     * Sum of time in nanoseconds parts were running
+     */
+    private final AtomicLong latency = new AtomicLong();
+    /**
+     * Sum of time in nanoseconds parts were waiting in queue
+     */
+    private final AtomicLong wait = new AtomicLong();
+
+    public PartScheduler(final ThreadPool pool, final int size) {
+        this(null, pool, size);
+    }
+
+    private PartScheduler(final String key, final ThreadPool pool, final int size) {
+        this.key = key;
+        this.pool = pool;
+        this.size = size;
+        if(pool.executor() instanceof ThreadPoolExecutor) {
+            // Release threads when no uploads are running
+            ((ThreadPoolExecutor) pool.executor()).allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * @param owner Identifies the file the part belongs to
+     * @param part  Upload of part
+     * @return Future result of part
+     */
+    public <T> Future<T> submit(final Object owner, final Callable<T> part) {
+        final PartTask<T> task = new PartTask<>(part);
+        synchronized(queues) {
+            final Deque<PartTask<?>> queue = queues.computeIfAbsent(owner, k -> new ArrayDeque<>());
+            if(queue.isEmpty()) {
+                rotation.add(owner);
+            }
+            queue.add(task);
+        }
+        queued.incrementAndGet();
+        // One dispatch per part
+        pool.execute(new Callable<Void>() {
+            @Override
+            public Void call() {
+                dispatch();
+                return null;
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Run next part of file following the one last dispatched
+     */
+    private void dispatch() {
+        final PartTask<?> task;
+        synchronized(queues) {
+            final Object owner = rotation.poll();
+            if(null == owner) {
+                return;
+            }
+            final Deque<PartTask<?>> queue = queues.get(owner);
+            task = queue.poll();
+            if(queue.isEmpty()) {
+                queues.remove(owner);
+            }
+            else {
+                rotation.add(owner);
+            }
+        }
+        queued.decrementAndGet();
+        task.run();
+    }
+
+    /**
+     * Return scheduler obtained with {@link #get(String, String, int)}. Removes the shared scheduler and shuts
+     * down its threads when released by the last caller.
+     */
+    public void release() {
+        if(key != null) {
+            synchronized(schedulers) {
+                if(--references > 0) {
+                    return;
+                }
+                schedulers.remove(key, this);
+            }
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Shutdown unused scheduler %s", this));
+        }
+        // Parts of last caller are either completed or canceled
+        pool.shutdown(false);
+    }
+
+    /**
+     * @return Number of parts waiting for a thread
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * @return Number of parts currently uploading
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * @return Average time in milliseconds to upload a part
+     */
+    public long getLatency() {
+        final long count = completed.get();
+        return 0 == count ? 0L : TimeUnit.NANOSECONDS.toMillis(latency.get() / count);
+    }
+
+    /**
+     * @return Average time in milliseconds parts waited in queue
+     */
+    public long getWait() {
+        final long count = completed.get();
+        return 0 == count ? 0L : TimeUnit.NANOSECONDS.toMillis(wait.get() / count);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private final class PartTask<T> extends FutureTask<T> {
+        public PartTask(final Callable<T> callable) {
+            this(callable, System.nanoTime());
+        }
+
+        private PartTask(final Callable<T> callable, final long timestamp) {
+            // Record statistics before result is set
+            super(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    final long start = System.nanoTime();
+                    active.incrementAndGet();
+                    try {
+                        return callable.call();
+                    }
+                    finally {
+                        active.decrementAndGet();
+                        final long end = System.nanoTime();
+                        wait.addAndGet(start - timestamp);
+                        latency.addAndGet(end - start);
+                        completed.incrementAndGet();
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Completed part in %dms after waiting %dms in %s",
+                                TimeUnit.NANOSECONDS.toMillis(end - start), TimeUnit.NANOSECONDS.toMillis(start - timestamp), PartScheduler.this));
+                        }
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            if(this.isDone()) {
+                // Canceled
+                return;
+            }
+            super.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PartScheduler{");
+        sb.append("size=").append(size);
+        sb.append(", queued=").append(queued.get());
+        sb.append(", active=").append(active.get());
+        sb.append(", completed=").append(completed.get());
+        sb.append(", latency=").append(this.getLatency());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -40,6 +40,12 @@ public class ThreadPoolFactory extends Factory<ThreadPool> {
      * @param handler Uncaught thread exception handler
      */
     protected ThreadPool create(final String prefix, final Integer size, final ThreadPool.Priority priority, final Thread.UncaughtExceptionHandler handler) {
+        if(PreferencesFactory.get().getBoolean("threading.pool.virtual")) {
+            if(VirtualThreadPool.isSupported()) {
+                return new VirtualThreadPool(prefix, size, priority, handler);
+            }
+            log.warn("Virtual threads not supported by runtime");
+        }
         final String clazz = PreferencesFactory.get().getProperty("factory.threadpool.class");
         if(null == clazz) {
             throw new FactoryException(String.format("No implementation given for factory %s", this.getClass().getSimpleName()));
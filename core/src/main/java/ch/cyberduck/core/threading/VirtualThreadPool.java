@@ -0,0 +1,228 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool starting a new virtual thread for every task with the number of tasks running concurrently limited by a
+ * semaphore instead of the number of threads. Tasks waiting for a permit are parked without occupying a platform
+ * thread. Virtual threads are only available on Java 21 and later and obtained by reflection.
+ */
+public class VirtualThreadPool extends ExecutorServiceThreadPool {
+    private static final Logger log = Logger.getLogger(VirtualThreadPool.class);
+
+    private static final boolean supported = probe();
+
+    /**
+     * @return True if runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return supported;
+    }
+
+    private static boolean probe() {
+        try {
+            factory(DEFAULT_THREAD_NAME_PREFIX, new LoggingUncaughtExceptionHandler());
+            return true;
+        }
+        catch(UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return Factory for virtual threads
+     * @throws UnsupportedOperationException Virtual threads not supported by runtime
+     */
+    private static ThreadFactory factory(final String prefix, final Thread.UncaughtExceptionHandler handler) {
+        try {
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object virtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            virtual = builder.getMethod("name", String.class, long.class).invoke(virtual, String.format("%s-", prefix), 1L);
+            virtual = builder.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class).invoke(virtual, handler);
+            return (ThreadFactory) builder.getMethod("factory").invoke(virtual);
+        }
+        catch(ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            throw new UnsupportedOperationException(e.getMessage(), e);
+        }
+        catch(InvocationTargetException e) {
+            // Preview feature not enabled
+            throw new UnsupportedOperationException(e.getCause());
+        }
+    }
+
+    public VirtualThreadPool() {
+        this(PreferencesFactory.get().getInteger("threading.pool.size.max"));
+    }
+
+    public VirtualThreadPool(final int size) {
+        this(DEFAULT_THREAD_NAME_PREFIX, size);
+    }
+
+    public VirtualThreadPool(final String prefix, final int size) {
+        this(prefix, size, new LoggingUncaughtExceptionHandler());
+    }
+
+    public VirtualThreadPool(final String prefix, final int size, final Thread.UncaughtExceptionHandler handler) {
+        this(prefix, size, Priority.norm, handler);
+    }
+
+    /**
+     * @param prefix   Thread name prefix
+     * @param size     Maximum number of tasks running concurrently
+     * @param priority Ignored for virtual threads
+     * @param handler  Uncaught thread exception handler
+     */
+    public VirtualThreadPool(final String prefix, final int size, final Priority priority, final Thread.UncaughtExceptionHandler handler) {
+        this(size, factory(prefix, handler));
+    }
+
+    /**
+     * @param size    Maximum number of tasks running concurrently
+     * @param factory Thread factory called for every task
+     */
+    public VirtualThreadPool(final int size, final ThreadFactory factory) {
+        super(new SemaphoreExecutorService(size, factory));
+    }
+
+    /**
+     * Executor starting a new thread for every task that waits for a permit before running the task
+     */
+    private static final class SemaphoreExecutorService extends AbstractExecutorService {
+        private final Semaphore permits;
+        private final ThreadFactory factory;
+
+        /**
+         * Threads started and not yet finished
+         */
+        private final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        private final Object lock = new Object();
+
+        private volatile boolean shutdown;
+
+        public SemaphoreExecutorService(final int size, final ThreadFactory factory) {
+            this.permits = new Semaphore(size, true);
+            this.factory = factory;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if(shutdown) {
+                throw new RejectedExecutionException(String.format("Executor %s shutdown", this));
+            }
+            final Thread thread = factory.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        permits.acquire();
+                    }
+                    catch(InterruptedException e) {
+                        log.warn(String.format("Interrupted waiting for permit to run %s", command));
+                        if(command instanceof Future) {
+                            ((Future<?>) command).cancel(false);
+                        }
+                        this.finish();
+                        return;
+                    }
+                    try {
+                        command.run();
+                    }
+                    finally {
+                        permits.release();
+                        this.finish();
+                    }
+                }
+
+                private void finish() {
+                    synchronized(lock) {
+                        threads.remove(Thread.currentThread());
+                        lock.notifyAll();
+                    }
+                }
+            });
+            synchronized(lock) {
+                threads.add(thread);
+            }
+            thread.start();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            for(Thread thread : threads) {
+                thread.interrupt();
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && threads.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized(lock) {
+                while(!this.isTerminated()) {
+                    final long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+                return true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("SemaphoreExecutorService{");
+            sb.append("available=").append(permits.availablePermits());
+            sb.append(", threads=").append(threads.size());
+            sb.append(", shutdown=").append(shutdown);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
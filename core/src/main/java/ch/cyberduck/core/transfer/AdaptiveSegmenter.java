@@ -0,0 +1,183 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Size segments from the observed throughput and split the unfinished remainder of a lagging segment when a
+ * connection becomes idle near the end of a segmented download. Segments are kept ordered and contiguous in the
+ * parent transfer status.
+ */
+public class AdaptiveSegmenter {
+    private static final Logger log = Logger.getLogger(AdaptiveSegmenter.class);
+
+    private final TransferSpeedometer meter;
+
+    /**
+     * Minimum number of bytes for split segment
+     */
+    private final long minimum;
+
+    /**
+     * Minimum estimated remaining time in milliseconds for segment to be split
+     */
+    private final long threshold;
+
+    public AdaptiveSegmenter(final TransferSpeedometer meter) {
+        this(meter, PreferencesFactory.get().getLong("queue.download.segments.split.size"),
+            PreferencesFactory.get().getLong("queue.download.segments.split.seconds") * 1000L);
+    }
+
+    public AdaptiveSegmenter(final TransferSpeedometer meter, final long minimum, final long threshold) {
+        this.meter = meter;
+        this.minimum = minimum;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Resize segments not yet started to the number of bytes a single connection is estimated to transfer
+     * within the split threshold from the throughput observed so far.
+     *
+     * @param status      Parent transfer status with segments
+     * @param connections Number of connections to share throughput
+     * @return True if segments were replaced
+     */
+    public boolean resize(final TransferStatus status, final int connections) {
+        if(!status.isSegmented()) {
+            return false;
+        }
+        final Double throughput = meter.getThroughput();
+        if(throughput <= 0) {
+            // No transfer observed yet
+            return false;
+        }
+        synchronized(status) {
+            final List<TransferStatus> segments = status.getSegments();
+            final TransferStatus first = segments.get(0);
+            if(!first.isPositional()) {
+                return false;
+            }
+            long length = 0L;
+            for(TransferStatus segment : segments) {
+                if(segment.isComplete() || segment.getOffset() != length) {
+                    // Keep segments from previous attempt
+                    return false;
+                }
+                length += segment.getLength();
+            }
+            final long size = Math.max(minimum, Math.min(
+                (long) (throughput / Math.max(1, connections) * threshold),
+                length / Math.max(1, connections)));
+            if(size == first.getLength()) {
+                return false;
+            }
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Resize segments from %d to %d bytes for throughput %f", first.getLength(), size, throughput));
+            }
+            final List<TransferStatus> resized = new ArrayList<>();
+            for(long offset = 0L; offset < length; offset += size) {
+                resized.add(new TransferStatus()
+                    .segment(true)
+                    .positional(true)
+                    .append(true)
+                    .skip(offset)
+                    .length(Math.min(size, length - offset))
+                    .rename(first.getRename().local));
+            }
+            segments.clear();
+            segments.addAll(resized);
+            return true;
+        }
+    }
+
+    /**
+     * Reduce length of lagging segment and add new segment with its remainder to the parent status
+     *
+     * @param status Parent transfer status with segments
+     * @return New segment to schedule or null if no segment qualifies for split
+     */
+    public TransferStatus split(final TransferStatus status) {
+        if(!status.isSegmented()) {
+            return null;
+        }
+        synchronized(status) {
+            final List<TransferStatus> segments = status.getSegments();
+            if(!segments.get(0).isPositional()) {
+                // Segment files must be concatenated in order
+                return null;
+            }
+            int lagging = -1;
+            long position = 0L;
+            long remaining = 0L;
+            int running = 0;
+            for(int i = 0; i < segments.size(); i++) {
+                final TransferStatus segment = segments.get(i);
+                final long start = position;
+                position += segment.getLength();
+                if(segment.isComplete() || segment.isCanceled()) {
+                    continue;
+                }
+                if(segment.getOffset() == start) {
+                    // Pending segment will be picked up by idle connection
+                    return null;
+                }
+                running++;
+                final long r = position - segment.getOffset();
+                if(r > remaining) {
+                    remaining = r;
+                    lagging = i;
+                }
+            }
+            if(-1 == lagging || remaining < 2 * minimum) {
+                return null;
+            }
+            final Double throughput = meter.getThroughput();
+            if(throughput > 0) {
+                // Estimate remaining time with throughput shared by all running segments
+                final double estimate = remaining / (throughput / running);
+                if(estimate < threshold) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Skip split of segment with %d bytes remaining in %dms", remaining, (long) estimate));
+                    }
+                    return null;
+                }
+            }
+            final TransferStatus segment = segments.get(lagging);
+            final long end = segment.getOffset() + remaining;
+            final long split = segment.getOffset() + remaining / 2;
+            final TransferStatus remainder = new TransferStatus()
+                .segment(true)
+                .positional(true)
+                .append(true)
+                .skip(split)
+                .length(end - split)
+                .rename(segment.getRename().local);
+            // Truncate lagging segment
+            segment.setLength(segment.getLength() - (end - split));
+            segments.add(lagging + 1, remainder);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Split %d bytes from segment %s to %s", end - split, segment, remainder));
+            }
+            return remainder;
+        }
+    }
+}
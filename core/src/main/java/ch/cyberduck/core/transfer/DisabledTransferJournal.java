@@ -0,0 +1,95 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.List;
+
+public class DisabledTransferJournal extends TransferJournal {
+
+    public DisabledTransferJournal() {
+        super(null, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public TransferJournal open() {
+        return this;
+    }
+
+    @Override
+    public void reset() {
+        //
+    }
+
+    @Override
+    public boolean isComplete(final TransferItem item) {
+        return false;
+    }
+
+    @Override
+    public boolean isPartial(final TransferItem item) {
+        return false;
+    }
+
+    @Override
+    public long getOffset(final TransferItem item) {
+        return 0L;
+    }
+
+    @Override
+    public List<TransferItem> getChildren(final TransferItem directory) {
+        return null;
+    }
+
+    @Override
+    public void listed(final TransferItem directory, final List<TransferItem> children) {
+        //
+    }
+
+    @Override
+    public void prepared(final TransferItem item, final TransferStatus status) {
+        //
+    }
+
+    @Override
+    public void started(final TransferItem item, final TransferStatus status) {
+        //
+    }
+
+    @Override
+    public void completed(final TransferItem item, final TransferStatus status) {
+        //
+    }
+
+    @Override
+    public void failed(final TransferItem item, final TransferStatus status) {
+        //
+    }
+
+    @Override
+    public void flush() {
+        //
+    }
+
+    @Override
+    public void close() {
+        //
+    }
+
+    @Override
+    public void delete() {
+        //
+    }
+}
@@ -51,6 +51,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DownloadTransfer extends Transfer {
     private static final Logger log = Logger.getLogger(DownloadTransfer.class);
@@ -62,6 +63,11 @@ public class DownloadTransfer extends Transfer {
     private Cache<Path> cache
             = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
 
+    /**
+     * Listings of subdirectories retrieved when walking tree in advance
+     */
+    private final Map<Path, AttributedList<Path>> prefetched = new ConcurrentHashMap<>();
+
     private final DownloadSymlinkResolver symlinkResolver;
 
     private DownloadFilterOptions options = new DownloadFilterOptions();
@@ -85,7 +91,8 @@ public class DownloadTransfer extends Transfer {
     }
 
     public DownloadTransfer(final Host host, final List<TransferItem> roots, final Filter<Path> f, final Comparator<Path> comparator) {
-        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
+        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes"),
+            BandwidthThrottle.host(host.getHostname())));
         this.filter = f;
         this.comparator = comparator;
         this.symlinkResolver = new DownloadSymlinkResolver(roots);
@@ -126,7 +133,7 @@ public class DownloadTransfer extends Transfer {
                 list = cache.get(directory);
             }
             else {
-                list = source.getFeature(ListService.class).list(directory, listener);
+                list = new WalkListService(source, prefetched).list(directory, listener);
                 cache.put(directory, list);
             }
             final List<TransferItem> children = new ArrayList<TransferItem>();
@@ -219,6 +226,8 @@ public class DownloadTransfer extends Transfer {
 
     @Override
     public void pre(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
+        // Listings not requested when preparing
+        prefetched.clear();
         final Bulk feature = source.getFeature(Bulk.class);
         final Object id = feature.pre(Type.download, files, callback);
         if(log.isDebugEnabled()) {
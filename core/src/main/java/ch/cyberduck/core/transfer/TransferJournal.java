@@ -0,0 +1,521 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+import ch.cyberduck.core.threading.ScheduledThreadPool;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only journal of the state of every item in a transfer to resume large transfers after a crash without
+ * transferring completed files again and without listing directories again. Lines are buffered and written in
+ * batches synced to disk. The journal is compacted in the background when stale lines outnumber the live entries.
+ */
+public class TransferJournal {
+    private static final Logger log = Logger.getLogger(TransferJournal.class);
+
+    private static final String LISTED = "listed";
+    /**
+     * Written after the last child of a folder. Listings without are incomplete and ignored.
+     */
+    private static final String LISTING_COMPLETE = "listing";
+
+    public enum State {
+        prepared,
+        progress,
+        complete,
+        failed
+    }
+
+    /**
+     * @return Journal in application support folder for transfer
+     */
+    public static TransferJournal get(final Transfer transfer) {
+        return new TransferJournal(LocalFactory.get(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Transfers"),
+            String.format("%s.journal", transfer.getUuid())));
+    }
+
+    private final Local file;
+    private final int batch;
+    private final long interval;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> listings = new ConcurrentHashMap<>();
+    /**
+     * Files currently transferred to record offsets with each batch
+     */
+    private final Map<String, Entry> running = new ConcurrentHashMap<>();
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger lines = new AtomicInteger();
+
+    private ScheduledThreadPool scheduler;
+    private FileChannel channel;
+    private boolean compacting;
+
+    public TransferJournal(final Local file) {
+        this(file, PreferencesFactory.get());
+    }
+
+    private TransferJournal(final Local file, final Preferences preferences) {
+        this(file, preferences.getInteger("queue.transfer.journal.batch"),
+            preferences.getLong("queue.transfer.journal.interval"));
+    }
+
+    /**
+     * @param batch    Number of lines buffered before written to disk
+     * @param interval Milliseconds between writes of buffered lines and offsets of running transfers
+     */
+    public TransferJournal(final Local file, final int batch, final long interval) {
+        this.file = file;
+        this.batch = batch;
+        this.interval = interval;
+    }
+
+    /**
+     * Load entries from previous run and schedule periodic writes
+     */
+    public synchronized TransferJournal open() {
+        if(null == scheduler) {
+            this.load();
+            scheduler = new ScheduledThreadPool();
+            scheduler.repeat(this::flush, interval, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Discard entries from previous run
+     */
+    public synchronized void reset() {
+        entries.clear();
+        listings.clear();
+        running.clear();
+        pending.clear();
+        this.closeChannel();
+        try {
+            Files.deleteIfExists(Paths.get(file.getAbsolute()));
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure deleting transfer journal %s. %s", file, e.getMessage()));
+        }
+        lines.set(0);
+    }
+
+    /**
+     * @return True if file was transferred completely in previous run
+     */
+    public boolean isComplete(final TransferItem item) {
+        final Entry entry = entries.get(toKey(item));
+        return entry != null && State.complete == entry.state;
+    }
+
+    /**
+     * @return True if transfer of file was interrupted or failed in previous run
+     */
+    public boolean isPartial(final TransferItem item) {
+        final Entry entry = entries.get(toKey(item));
+        return entry != null && (State.progress == entry.state || State.failed == entry.state) && entry.offset > 0L;
+    }
+
+    /**
+     * @return Number of bytes transferred of file in previous run or size of file completed
+     */
+    public long getOffset(final TransferItem item) {
+        final Entry entry = entries.get(toKey(item));
+        return null == entry ? 0L : entry.offset;
+    }
+
+    /**
+     * @param directory Folder
+     * @return Children recorded when listing folder in previous run or null if unknown
+     */
+    public List<TransferItem> getChildren(final TransferItem directory) {
+        final List<String> children = listings.get(toKey(directory));
+        if(null == children) {
+            return null;
+        }
+        final List<TransferItem> items = new ArrayList<>();
+        synchronized(children) {
+            for(String child : children) {
+                final String[] fields = child.split("\t", -1);
+                final PathAttributes attributes = new PathAttributes();
+                attributes.setSize(Long.parseLong(fields[3]));
+                attributes.setModificationDate(Long.parseLong(fields[4]));
+                final Path remote = new Path(decode(fields[0]), toType(fields[2]), attributes);
+                if(fields.length > 7) {
+                    if(StringUtils.isNotEmpty(fields[5])) {
+                        remote.setSymlinkTarget(new Path(decode(fields[5]), toType(fields[6])));
+                    }
+                    if(StringUtils.isNotEmpty(fields[7])) {
+                        attributes.setVersionId(decode(fields[7]));
+                    }
+                }
+                final String local = decode(fields[1]);
+                items.add(new TransferItem(remote, StringUtils.isEmpty(local) ? null : LocalFactory.get(local)));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Record children of folder
+     */
+    public void listed(final TransferItem directory, final List<TransferItem> children) {
+        final List<String> values = Collections.synchronizedList(new ArrayList<>());
+        for(TransferItem child : children) {
+            final Path target = child.remote.getSymlinkTarget();
+            final String line = String.join("\t", encode(child.remote.getAbsolute()),
+                encode(null == child.local ? StringUtils.EMPTY : child.local.getAbsolute()),
+                StringUtils.join(child.remote.getType(), ','),
+                String.valueOf(child.remote.attributes().getSize()),
+                String.valueOf(child.remote.attributes().getModificationDate()),
+                null == target ? StringUtils.EMPTY : encode(target.getAbsolute()),
+                null == target ? StringUtils.EMPTY : StringUtils.join(target.getType(), ','),
+                encode(StringUtils.defaultString(child.remote.attributes().getVersionId())));
+            values.add(line);
+            this.append(String.join("\t", LISTED, toKey(directory), line));
+        }
+        this.append(String.join("\t", LISTING_COMPLETE, toKey(directory)));
+        listings.put(toKey(directory), values);
+    }
+
+    /**
+     * Record status determined for file
+     */
+    public void prepared(final TransferItem item, final TransferStatus status) {
+        this.record(item, State.prepared, status.getLength(), status.getOffset());
+    }
+
+    /**
+     * Record offset of file periodically until completed or failed
+     */
+    public void started(final TransferItem item, final TransferStatus status) {
+        final Entry entry = this.record(item, State.progress, status.getLength(), status.getOffset());
+        entry.status = status;
+        running.put(toKey(item), entry);
+    }
+
+    /**
+     * @param status Transfer status with offset of all bytes transferred
+     */
+    public void completed(final TransferItem item, final TransferStatus status) {
+        running.remove(toKey(item));
+        this.record(item, State.complete, status.getLength(), status.getOffset());
+    }
+
+    public void failed(final TransferItem item, final TransferStatus status) {
+        running.remove(toKey(item));
+        this.record(item, State.failed, status.getLength(), status.isSegmented() ? 0L : status.getOffset());
+    }
+
+    private Entry record(final TransferItem item, final State state, final long length, final long offset) {
+        final String key = toKey(item);
+        final Entry entry = new Entry(state, length, offset);
+        entries.put(key, entry);
+        this.append(toLine(key, entry));
+        return entry;
+    }
+
+    private void append(final String line) {
+        pending.add(line);
+        if(pending.size() >= batch) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Write buffered lines and current offset of running transfers to disk
+     */
+    public synchronized void flush() {
+        for(Map.Entry<String, Entry> next : running.entrySet()) {
+            final Entry entry = next.getValue();
+            final long offset = entry.status.getOffset();
+            if(offset != entry.offset) {
+                entry.offset = offset;
+                pending.add(toLine(next.getKey(), entry));
+            }
+        }
+        if(pending.isEmpty()) {
+            return;
+        }
+        final StringBuilder buffer = new StringBuilder();
+        int count = 0;
+        String line;
+        while((line = pending.poll()) != null) {
+            buffer.append(line).append('\n');
+            count++;
+        }
+        try {
+            if(null == channel) {
+                final java.nio.file.Path target = Paths.get(file.getAbsolute());
+                Files.createDirectories(target.getParent());
+                channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            final ByteBuffer bytes = ByteBuffer.wrap(buffer.toString().getBytes(StandardCharsets.UTF_8));
+            while(bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing to transfer journal %s. %s", file, e.getMessage()));
+            return;
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Wrote %d lines to transfer journal %s", count, file));
+        }
+        if(lines.addAndGet(count) > Math.max(batch, 2 * (entries.size() + this.size(listings)))) {
+            if(null != scheduler && !compacting) {
+                compacting = true;
+                scheduler.schedule(this::compact, 0L, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Write remaining lines and stop periodic writes
+     */
+    public synchronized void close() {
+        this.flush();
+        this.closeChannel();
+        if(scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Remove journal after transfer is complete
+     */
+    public synchronized void delete() {
+        this.close();
+        this.reset();
+    }
+
+    private void closeChannel() {
+        if(channel != null) {
+            try {
+                channel.close();
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure closing transfer journal %s. %s", file, e.getMessage()));
+            }
+            channel = null;
+        }
+    }
+
+    private void load() {
+        if(!file.exists()) {
+            return;
+        }
+        int count = 0;
+        // Children of folders by path until listing is marked complete
+        final Map<String, Map<String, String>> partial = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file.getAbsolute()), StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                count++;
+                final String[] fields = line.split("\t", 4);
+                try {
+                    final String key = String.join("\t", fields[1], fields[2]);
+                    if(LISTING_COMPLETE.equals(fields[0])) {
+                        final Map<String, String> children = partial.remove(key);
+                        listings.put(key, Collections.synchronizedList(null == children ? new ArrayList<>() : new ArrayList<>(children.values())));
+                    }
+                    else if(LISTED.equals(fields[0])) {
+                        // Validate before adding to listing
+                        final String[] child = fields[3].split("\t", -1);
+                        toType(child[2]);
+                        Long.parseLong(child[3]);
+                        Long.parseLong(child[4]);
+                        if(child.length > 7) {
+                            toType(child[6]);
+                        }
+                        // Folder listed again after incomplete listing in previous run
+                        partial.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(child[0], fields[3]);
+                    }
+                    else {
+                        final String[] values = fields[3].split("\t");
+                        entries.put(key, new Entry(State.valueOf(fields[0]), Long.parseLong(values[0]), Long.parseLong(values[1])));
+                    }
+                }
+                catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    // Partial line written before crash
+                    log.warn(String.format("Skip invalid line %d in transfer journal %s", count, file));
+                }
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading transfer journal %s. %s", file, e.getMessage()));
+            return;
+        }
+        lines.set(count);
+        if(!partial.isEmpty()) {
+            log.warn(String.format("Ignore %d incomplete listings in transfer journal %s", partial.size(), file));
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Loaded %d entries from transfer journal %s", entries.size(), file));
+        }
+    }
+
+    /**
+     * Rewrite journal with current entries only. Scheduled in background when the number of lines written
+     * exceeds twice the number of entries.
+     */
+    public synchronized void compact() {
+        compacting = false;
+        if(null == scheduler) {
+            // Closed in the meantime
+            return;
+        }
+        final java.nio.file.Path target = Paths.get(file.getAbsolute());
+        final java.nio.file.Path temporary = Paths.get(String.format("%s.tmp", file.getAbsolute()));
+        int count = 0;
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for(Map.Entry<String, List<String>> listing : listings.entrySet()) {
+                    synchronized(listing.getValue()) {
+                        for(String child : listing.getValue()) {
+                            writer.write(String.join("\t", LISTED, listing.getKey(), child));
+                            writer.newLine();
+                            count++;
+                        }
+                    }
+                    writer.write(String.join("\t", LISTING_COMPLETE, listing.getKey()));
+                    writer.newLine();
+                    count++;
+                }
+                for(Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    writer.write(toLine(entry.getKey(), entry.getValue()));
+                    writer.newLine();
+                    count++;
+                }
+            }
+            this.closeChannel();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // Lines still buffered are appended to the compacted journal
+            lines.set(count);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Compacted transfer journal %s to %d lines", file, count));
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure compacting transfer journal %s. %s", file, e.getMessage()));
+        }
+    }
+
+    private int size(final Map<String, List<String>> listings) {
+        int count = 0;
+        for(List<String> children : listings.values()) {
+            // Children and completion marker
+            count += children.size() + 1;
+        }
+        return count;
+    }
+
+    private static String toKey(final TransferItem item) {
+        return String.join("\t", encode(item.remote.getAbsolute()),
+            encode(null == item.local ? StringUtils.EMPTY : item.local.getAbsolute()));
+    }
+
+    private static String toLine(final String key, final Entry entry) {
+        return String.join("\t", entry.state.name(), key, String.valueOf(entry.length), String.valueOf(entry.offset));
+    }
+
+    private static EnumSet<Path.Type> toType(final String value) {
+        final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+        for(String t : StringUtils.split(value, ',')) {
+            type.add(Path.Type.valueOf(t));
+        }
+        return type;
+    }
+
+    private static String encode(final String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        }
+        catch(UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decode(final String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        }
+        catch(UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final State state;
+        private final long length;
+        private volatile long offset;
+        /**
+         * Status of running transfer
+         */
+        private TransferStatus status;
+
+        private Entry(final State state, final long length, final long offset) {
+            this.state = state;
+            this.length = length;
+            this.offset = offset;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TransferJournal{");
+        sb.append("file=").append(file);
+        sb.append('}');
+        return sb.toString();
+    }
+}
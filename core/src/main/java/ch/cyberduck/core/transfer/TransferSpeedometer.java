@@ -37,6 +37,13 @@ public class TransferSpeedometer extends Speedometer {
                 this.getProgress(transfer.isRunning(), size, transferred, speed), speed);
     }
 
+    /**
+     * @return Average throughput in bytes per millisecond since last reset
+     */
+    public Double getThroughput() {
+        return this.getSpeed(transfer.getTransferred(), false);
+    }
+
     public void reset() {
         final long timestamp = System.currentTimeMillis();
         if(log.isDebugEnabled()) {
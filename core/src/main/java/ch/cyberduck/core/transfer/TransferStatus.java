@@ -75,20 +75,31 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
      */
     private boolean segment = false;
 
+    /**
+     * Write segment at its offset to target file shared with other segments
+     */
+    private boolean positional = false;
+
     /**
      * Not accepted
      */
     private boolean rejected = false;
 
+    /**
+     * Written file is committed after the transfer by the bulk feature
+     */
+    private volatile boolean deferred = false;
+
     /**
      * The number of transferred bytes. Must be less or equals size.
      */
     private final AtomicLong offset
             = new AtomicLong(0);
     /**
-     * Transfer size. May be less than the file size in attributes or 0 if creating symbolic links.
+     * Transfer size. May be less than the file size in attributes or 0 if creating symbolic links. Reduced
+     * for segment when remainder is split while transferring.
      */
-    private long length = 0L;
+    private volatile long length = 0L;
 
     /**
      * The transfer has been canceled by the user.
@@ -182,7 +193,9 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
         this.exists = copy.exists;
         this.append = copy.append;
         this.segment = copy.segment;
+        this.positional = copy.positional;
         this.rejected = copy.rejected;
+        this.deferred = copy.deferred;
         this.offset.set(copy.offset.get());
         this.length = copy.length;
         this.canceled.set(copy.canceled.get());
@@ -353,6 +366,22 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
         return this;
     }
 
+    public boolean isPositional() {
+        return positional;
+    }
+
+    public void setPositional(final boolean positional) {
+        this.positional = positional;
+    }
+
+    /**
+     * @param positional Write at offset of segment to temporary target file preallocated with length of all segments
+     */
+    public TransferStatus positional(final boolean positional) {
+        this.positional = positional;
+        return this;
+    }
+
     public void setRejected(boolean rejected) {
         this.rejected = rejected;
     }
@@ -366,6 +395,17 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
         return rejected;
     }
 
+    public void setDeferred(final boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * @return True if completion is determined after the transfer when committed by the bulk feature
+     */
+    public boolean isDeferred() {
+        return deferred;
+    }
+
     public Rename getRename() {
         return rename;
     }
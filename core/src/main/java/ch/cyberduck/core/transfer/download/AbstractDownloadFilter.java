@@ -41,6 +41,7 @@ import ch.cyberduck.core.io.ChecksumCompute;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.local.ApplicationLauncher;
 import ch.cyberduck.core.local.ApplicationLauncherFactory;
+import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.local.IconService;
 import ch.cyberduck.core.local.IconServiceFactory;
 import ch.cyberduck.core.local.QuarantineService;
@@ -58,9 +59,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class AbstractDownloadFilter implements TransferPathFilter {
     private static final Logger log = Logger.getLogger(AbstractDownloadFilter.class);
@@ -210,17 +211,20 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                         long partsize = Math.max(
                             preferences.getLong("queue.download.segments.size"),
                             status.getLength() / preferences.getInteger("queue.connections.limit"));
-                        // Sorted list
-                        final List<TransferStatus> segments = new ArrayList<TransferStatus>();
+                        // Sorted list. Remainder of lagging segment may be inserted while transferring
+                        final List<TransferStatus> segments = new CopyOnWriteArrayList<TransferStatus>();
                         final Local segmentsFolder = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
+                        // Temporary file shared by all segments written at their offset
+                        final Local positionalFile = LocalFactory.get(local.getParent(), String.format("%s.cyberduckdownload", local.getName()));
                         for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
-                            final Local segmentFile = LocalFactory.get(
+                            final Local segmentFile = this.options.positional ? positionalFile : LocalFactory.get(
                                 segmentsFolder, String.format("%s-%d.cyberducksegment", local.getName(), segmentNumber));
                             boolean skip = false;
                             // Last part can be less than 5 MB. Adjust part size.
                             Long length = Math.min(partsize, remaining);
                             final TransferStatus segmentStatus = new TransferStatus()
                                 .segment(true)
+                                .positional(this.options.positional)
                                 .append(true)
                                 .skip(offset)
                                 .length(length)
@@ -246,7 +250,37 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
     @Override
     public void apply(final Path file, final Local local, final TransferStatus status,
                       final ProgressListener listener) throws BackgroundException {
-        //
+        if(status.isSegmented()) {
+            final TransferStatus first = status.getSegments().iterator().next();
+            if(first.isPositional()) {
+                final Local target = first.getRename().local;
+                // Offset is set to length of completed segments when resuming
+                final long length = status.getLength() + status.getOffset();
+                boolean resume = false;
+                for(TransferStatus segment : status.getSegments()) {
+                    if(segment.isComplete()) {
+                        resume = true;
+                        break;
+                    }
+                }
+                if(resume && target.exists() && target.attributes().getSize() == length) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Resume segments in %s with %d bytes remaining", target, status.getLength()));
+                    }
+                    return;
+                }
+                // Discard ranges completed in previous attempt
+                new SegmentRanges(target).delete();
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Allocate %d bytes for segments in %s", length, target));
+                }
+                final Local folder = target.getParent();
+                if(!folder.exists()) {
+                    new DefaultLocalDirectoryFeature().mkdir(folder);
+                }
+                target.allocate(length);
+            }
+        }
     }
 
     /**
@@ -260,6 +294,10 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
             log.debug(String.format("Complete %s with status %s", file.getAbsolute(), status));
         }
         if(status.isSegment()) {
+            if(status.isPositional() && status.isComplete()) {
+                // Record range written to allow resume without downloading completed segments again
+                new SegmentRanges(status.getRename().local).add(status.getOffset() - status.getLength(), status.getLength());
+            }
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Skip completion for single segment %s", status));
             }
@@ -269,30 +307,43 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
             if(status.isSegmented()) {
                 // Obtain ordered list of segments to reassemble
                 final List<TransferStatus> segments = status.getSegments();
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Compile %d segments to file %s", segments.size(), local));
-                }
-                if(local.exists()) {
-                    local.delete();
-                }
-                for(Iterator<TransferStatus> iterator = segments.iterator(); iterator.hasNext(); ) {
-                    final TransferStatus segmentStatus = iterator.next();
-                    // Segment
-                    final Local segmentFile = segmentStatus.getRename().local;
+                if(segments.iterator().next().isPositional()) {
+                    // All segments written to temporary file at their offset
+                    final Local segmentFile = segments.iterator().next().getRename().local;
                     if(log.isInfoEnabled()) {
-                        log.info(String.format("Append segment %s to %s", segmentFile, local));
+                        log.info(String.format("Rename %s with %d segments to %s", segmentFile, segments.size(), local));
                     }
-                    segmentFile.copy(local, new Local.CopyOptions().append(true));
+                    // Resolve ranges before rename updates the path of the temporary file
+                    final SegmentRanges ranges = new SegmentRanges(segmentFile);
+                    segmentFile.rename(local);
+                    ranges.delete();
+                }
+                else {
                     if(log.isInfoEnabled()) {
-                        log.info(String.format("Delete segment %s", segmentFile));
+                        log.info(String.format("Compile %d segments to file %s", segments.size(), local));
                     }
-                    segmentFile.delete();
-                    if(!iterator.hasNext()) {
-                        final Local folder = segmentFile.getParent();
+                    if(local.exists()) {
+                        local.delete();
+                    }
+                    for(Iterator<TransferStatus> iterator = segments.iterator(); iterator.hasNext(); ) {
+                        final TransferStatus segmentStatus = iterator.next();
+                        // Segment
+                        final Local segmentFile = segmentStatus.getRename().local;
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Append segment %s to %s", segmentFile, local));
+                        }
+                        segmentFile.copy(local, new Local.CopyOptions().append(true));
                         if(log.isInfoEnabled()) {
-                            log.info(String.format("Remove segment folder %s", folder));
+                            log.info(String.format("Delete segment %s", segmentFile));
+                        }
+                        segmentFile.delete();
+                        if(!iterator.hasNext()) {
+                            final Local folder = segmentFile.getParent();
+                            if(log.isInfoEnabled()) {
+                                log.info(String.format("Remove segment folder %s", folder));
+                            }
+                            folder.delete();
                         }
-                        folder.delete();
                     }
                 }
             }
@@ -27,6 +27,10 @@ public final class DownloadFilterOptions {
      * Split download into segments
      */
     public boolean segments;
+    /**
+     * Write segments at their offset to single preallocated file
+     */
+    public boolean positional;
     public boolean permissions;
     public boolean timestamp;
     public boolean wherefrom;
@@ -36,6 +40,7 @@ public final class DownloadFilterOptions {
     public DownloadFilterOptions() {
         final Preferences preferences = PreferencesFactory.get();
         segments = preferences.getBoolean("queue.download.segments");
+        positional = preferences.getBoolean("queue.download.segments.positional");
         permissions = preferences.getBoolean("queue.download.permissions.change");
         timestamp = preferences.getBoolean("queue.download.timestamp.change");
         wherefrom = preferences.getBoolean("queue.download.wherefrom");
@@ -47,6 +52,7 @@ public final class DownloadFilterOptions {
     public String toString() {
         final StringBuilder sb = new StringBuilder("DownloadFilterOptions{");
         sb.append("segments=").append(segments);
+        sb.append(", positional=").append(positional);
         sb.append(", permissions=").append(permissions);
         sb.append(", timestamp=").append(timestamp);
         sb.append(", wherefrom=").append(wherefrom);
@@ -32,6 +32,8 @@ import ch.cyberduck.core.transfer.symlink.SymlinkResolver;
 
 import org.apache.log4j.Logger;
 
+import java.util.List;
+
 public class ResumeFilter extends AbstractDownloadFilter {
     private static final Logger log = Logger.getLogger(ResumeFilter.class);
 
@@ -88,6 +90,30 @@ public class ResumeFilter extends AbstractDownloadFilter {
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         final TransferStatus status = super.prepare(file, local, parent, progress);
         if(status.isSegmented()) {
+            final TransferStatus first = status.getSegments().iterator().next();
+            if(first.isPositional()) {
+                final Local temporary = first.getRename().local;
+                if(temporary.exists() && temporary.attributes().getSize() == status.getLength()) {
+                    // Size of preallocated file does not tell about content written. Skip completed ranges only.
+                    final List<TransferStatus> segments = new SegmentRanges(temporary).segments(status.getLength(), first.getLength());
+                    long completed = 0L;
+                    for(TransferStatus segment : segments) {
+                        if(segment.isComplete()) {
+                            completed += segment.getLength();
+                        }
+                    }
+                    if(completed > 0) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Skip %d bytes of completed segments in %s", completed, temporary));
+                        }
+                        status.getSegments().clear();
+                        status.getSegments().addAll(segments);
+                        status.setLength(status.getLength() - completed);
+                        status.setOffset(status.getOffset() + completed);
+                    }
+                }
+                return status;
+            }
             for(TransferStatus segmentStatus : status.getSegments()) {
                 final Local segmentFile = segmentStatus.getRename().local;
                 if(segmentFile.exists()) {
@@ -0,0 +1,221 @@
+package ch.cyberduck.core.transfer.download;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Byte ranges of segments completed in temporary file preallocated for positional writes. The length of the
+ * temporary file cannot tell the written content apart because it is allocated with the size of the file.
+ */
+public class SegmentRanges {
+    private static final Logger log = Logger.getLogger(SegmentRanges.class);
+
+    private final Local file;
+
+    /**
+     * @param temporary Temporary file shared by positional segments
+     */
+    public SegmentRanges(final Local temporary) {
+        this.file = LocalFactory.get(temporary.getParent(), String.format("%s.ranges", temporary.getName()));
+    }
+
+    /**
+     * Record range of completed segment
+     *
+     * @param offset Start of segment
+     * @param length Length of segment
+     */
+    public synchronized void add(final long offset, final long length) throws AccessDeniedException {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Add range %d-%d to %s", offset, offset + length, file));
+        }
+        final OutputStream out = file.getOutputStream(true);
+        try {
+            out.write(String.format("%d\t%d\n", offset, length).getBytes(StandardCharsets.UTF_8));
+        }
+        catch(IOException e) {
+            throw new AccessDeniedException(e.getMessage(), e);
+        }
+        finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * @return Sorted list of ranges with adjacent and overlapping ranges merged
+     */
+    public synchronized List<Range> get() throws AccessDeniedException {
+        final List<Range> ranges = new ArrayList<>();
+        if(!file.exists()) {
+            return ranges;
+        }
+        final InputStream in = file.getInputStream();
+        try {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while((line = reader.readLine()) != null) {
+                final String[] values = StringUtils.split(line, '\t');
+                if(values.length != 2) {
+                    // Skip partially written line
+                    log.warn(String.format("Skip invalid range %s in %s", line, file));
+                    continue;
+                }
+                try {
+                    final long offset = Long.parseLong(values[0]);
+                    final long length = Long.parseLong(values[1]);
+                    if(offset < 0 || length <= 0) {
+                        log.warn(String.format("Skip invalid range %s in %s", line, file));
+                        continue;
+                    }
+                    ranges.add(new Range(offset, length));
+                }
+                catch(NumberFormatException e) {
+                    log.warn(String.format("Skip invalid range %s in %s", line, file));
+                }
+            }
+        }
+        catch(IOException e) {
+            throw new AccessDeniedException(e.getMessage(), e);
+        }
+        finally {
+            IOUtils.closeQuietly(in);
+        }
+        ranges.sort(Comparator.comparingLong(Range::getOffset));
+        final List<Range> merged = new ArrayList<>();
+        for(Range range : ranges) {
+            if(!merged.isEmpty()) {
+                final Range last = merged.get(merged.size() - 1);
+                if(range.getOffset() <= last.getEnd()) {
+                    merged.set(merged.size() - 1, new Range(last.getOffset(),
+                        Math.max(last.getEnd(), range.getEnd()) - last.getOffset()));
+                    continue;
+                }
+            }
+            merged.add(range);
+        }
+        return merged;
+    }
+
+    /**
+     * Plan segments for the remaining content of the temporary file. Completed ranges are added as segments
+     * marked complete to keep the list of segments contiguous.
+     *
+     * @param length   Length of file
+     * @param partsize Maximum length of segment to download
+     * @return Ordered list of segments covering the file
+     */
+    public List<TransferStatus> segments(final long length, final long partsize) throws AccessDeniedException {
+        final Local temporary = LocalFactory.get(file.getParent(), StringUtils.removeEnd(file.getName(), ".ranges"));
+        final List<TransferStatus> segments = new ArrayList<>();
+        long position = 0L;
+        for(Range range : this.get()) {
+            if(range.getOffset() >= length) {
+                break;
+            }
+            this.pending(segments, temporary, position, range.getOffset(), partsize);
+            final long end = Math.min(range.getEnd(), length);
+            if(end > position) {
+                final long start = Math.max(range.getOffset(), position);
+                final TransferStatus segment = new TransferStatus()
+                    .segment(true)
+                    .positional(true)
+                    .append(true)
+                    .skip(end)
+                    .length(end - start)
+                    .rename(temporary);
+                segment.setComplete();
+                segments.add(segment);
+                position = end;
+            }
+        }
+        this.pending(segments, temporary, position, length, partsize);
+        return segments;
+    }
+
+    private void pending(final List<TransferStatus> segments, final Local temporary,
+                         final long start, final long end, final long partsize) {
+        for(long offset = start; offset < end; offset += partsize) {
+            segments.add(new TransferStatus()
+                .segment(true)
+                .positional(true)
+                .append(true)
+                .skip(offset)
+                .length(Math.min(partsize, end - offset))
+                .rename(temporary));
+        }
+    }
+
+    public synchronized void delete() {
+        if(file.exists()) {
+            try {
+                file.delete();
+            }
+            catch(AccessDeniedException | NotfoundException e) {
+                log.warn(String.format("Failure deleting %s. %s", file, e.getMessage()));
+            }
+        }
+    }
+
+    public static final class Range {
+        private final long offset;
+        private final long length;
+
+        public Range(final long offset, final long length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getEnd() {
+            return offset + length;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Range{");
+            sb.append("offset=").append(offset);
+            sb.append(", length=").append(length);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
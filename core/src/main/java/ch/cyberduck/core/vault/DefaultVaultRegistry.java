@@ -218,6 +218,9 @@ public class DefaultVaultRegistry extends CopyOnWriteArraySet<Vault> implements
         if(type == Versioning.class) {
             return (T) new VaultRegistryVersioningFeature(session, (Versioning) proxy, this);
         }
+        if(type == Walk.class) {
+            return (T) new VaultRegistryWalkFeature(session, (Walk) proxy, this);
+        }
         return proxy;
     }
 }
@@ -20,20 +20,24 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ChunkedListService;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Vault;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.vault.DecryptingListProgressListener;
 import ch.cyberduck.core.vault.VaultFinderListProgressListener;
 import ch.cyberduck.core.vault.VaultFinderListService;
 import ch.cyberduck.core.vault.VaultLookupListener;
 import ch.cyberduck.core.vault.VaultRegistry;
+import ch.cyberduck.core.vault.VaultFoundListCanceledException;
 import ch.cyberduck.core.vault.VaultUnlockCancelException;
 
 import org.apache.log4j.Logger;
 
-public class VaultRegistryListService implements ListService {
+public class VaultRegistryListService implements StreamingListService {
     private static final Logger log = Logger.getLogger(VaultRegistryListService.class);
 
     private final Preferences preferences = PreferencesFactory.get();
@@ -71,6 +75,53 @@ public class VaultRegistryListService implements ListService {
         }
     }
 
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        try {
+            final Vault vault = registry.find(session, directory);
+            if(vault.contains(directory)) {
+                callback.chunk(directory, vault.getFeature(session, ListService.class, proxy).list(directory, listener));
+                return;
+            }
+            if(autodetect) {
+                final VaultFinderListProgressListener finder = new VaultFinderListProgressListener(lookup);
+                new ChunkedListService(proxy).list(directory, listener, new Callback() {
+                    private boolean first = true;
+
+                    @Override
+                    public void chunk(final Path folder, final AttributedList<Path> chunk) throws BackgroundException {
+                        try {
+                            finder.reset().chunk(folder, chunk);
+                        }
+                        catch(VaultFoundListCanceledException e) {
+                            if(first) {
+                                // Vault found before any chunk was passed on
+                                throw e;
+                            }
+                            log.warn(String.format("Ignore vault %s found after first chunk in %s", e.getVault(), folder));
+                        }
+                        first = false;
+                        callback.chunk(folder, chunk);
+                    }
+                });
+                return;
+            }
+            new ChunkedListService(proxy).list(directory, listener, callback);
+        }
+        catch(VaultFoundListCanceledException e) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Found vault %s", e.getVault()));
+            }
+            final Vault cryptomator = e.getVault();
+            callback.chunk(directory, proxy.list(cryptomator.encrypt(session, directory),
+                new DecryptingListProgressListener(session, cryptomator, listener.reset())));
+        }
+        catch(VaultUnlockCancelException e) {
+            log.warn(String.format("Canceled loading vault %s. %s", e.getVault(), e.getDetail()));
+            throw e;
+        }
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         proxy.withCache(cache);
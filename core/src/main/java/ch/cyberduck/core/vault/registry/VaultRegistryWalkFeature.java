@@ -0,0 +1,102 @@
+package ch.cyberduck.core.vault.registry;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Vault;
+import ch.cyberduck.core.features.Walk;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+import ch.cyberduck.core.vault.VaultRegistry;
+
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skip directories in vaults which must be listed with the vault list service for decryption
+ */
+public class VaultRegistryWalkFeature implements Walk {
+    private static final Logger log = Logger.getLogger(VaultRegistryWalkFeature.class);
+
+    private final Preferences preferences = PreferencesFactory.get();
+
+    private final Session<?> session;
+    private final Walk proxy;
+    private final VaultRegistry registry;
+
+    private final boolean autodetect = preferences.getBoolean("cryptomator.vault.autodetect")
+        && preferences.getBoolean("cryptomator.enable");
+
+    public VaultRegistryWalkFeature(final Session<?> session, final Walk proxy, final VaultRegistry registry) {
+        this.session = session;
+        this.proxy = proxy;
+        this.registry = registry;
+    }
+
+    @Override
+    public void walk(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(registry.find(session, directory) != Vault.DISABLED) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip walk of %s in vault", directory));
+            }
+            return;
+        }
+        // Directories found to be vaults
+        final Set<Path> vaults = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        proxy.walk(directory, listener, new Callback() {
+            @Override
+            public boolean accept(final Path file) throws BackgroundException {
+                if(vaults.contains(file.getParent())) {
+                    return false;
+                }
+                return callback.accept(file);
+            }
+
+            @Override
+            public void visit(final Path file, final AttributedList<Path> children) throws BackgroundException {
+                if(registry.find(session, file) != Vault.DISABLED) {
+                    vaults.add(file);
+                    return;
+                }
+                if(autodetect) {
+                    for(Path f : children) {
+                        if(f.isFile() && DefaultVaultRegistry.DEFAULT_MASTERKEY_FILE_NAME.equals(f.getName())) {
+                            vaults.add(file);
+                            return;
+                        }
+                    }
+                }
+                callback.visit(file, children);
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VaultRegistryWalkFeature{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -35,13 +35,20 @@ import ch.cyberduck.core.TransferItemCache;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.metrics.Counter;
+import ch.cyberduck.core.metrics.Histogram;
+import ch.cyberduck.core.metrics.MetricsRegistry;
 import ch.cyberduck.core.notification.NotificationService;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.TransferBackgroundActionState;
+import ch.cyberduck.core.transfer.AdaptiveSegmenter;
+import ch.cyberduck.core.transfer.DisabledTransferJournal;
 import ch.cyberduck.core.transfer.SynchronizingTransferErrorCallback;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
 import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferJournal;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferPathFilter;
 import ch.cyberduck.core.transfer.TransferPrompt;
@@ -57,6 +64,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private static final Logger log = Logger.getLogger(AbstractTransferWorker.class);
@@ -86,6 +94,25 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private final Cache<TransferItem> cache;
     private final ProgressListener progress;
     private final StreamListener stream;
+    /**
+     * Minimum length for file to be scheduled in lane for large files
+     */
+    private final long threshold = PreferencesFactory.get().getLong("queue.transfer.lane.large.threshold");
+    /**
+     * Split remainder of lagging segments
+     */
+    private final AdaptiveSegmenter segmenter;
+    /**
+     * State of files persisted to resume transfer
+     */
+    private final TransferJournal journal;
+    /**
+     * Reported to metrics registry by host and transfer type
+     */
+    private final Counter retries;
+    private final Counter failures;
+    private final Counter bytes;
+    private final Histogram duration;
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
                                   final TransferPrompt prompt, final TransferSpeedometer meter,
@@ -123,6 +150,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         this.options = options;
         this.prompt = prompt;
         this.meter = meter;
+        this.segmenter = new AdaptiveSegmenter(meter);
         this.error = new SynchronizingTransferErrorCallback(error);
         this.progress = progress;
         this.stream = stream;
@@ -131,6 +159,27 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         this.notification = notification;
         this.cache = cache;
         this.table = table;
+        this.journal = PreferencesFactory.get().getBoolean("queue.transfer.journal.enable") ?
+            TransferJournal.get(transfer) : new DisabledTransferJournal();
+        final MetricsRegistry metrics = MetricsRegistry.get();
+        final String hostname = toHostname(transfer);
+        final String type = transfer.getType().name();
+        this.retries = metrics.counter("transfer.retries", "host", hostname, "type", type);
+        this.failures = metrics.counter("transfer.failures", "host", hostname, "type", type);
+        this.bytes = metrics.counter("transfer.bytes", "host", hostname, "type", type);
+        this.duration = metrics.histogram("transfer.duration", "host", hostname, "type", type);
+    }
+
+    /**
+     * @return Server files are read from for downloads and written to for uploads and copies
+     */
+    private static String toHostname(final Transfer transfer) {
+        switch(transfer.getType()) {
+            case copy:
+                return transfer.getDestination().getHostname();
+            default:
+                return transfer.getSource().getHostname();
+        }
     }
 
     protected enum Connection {
@@ -140,6 +189,14 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
 
     protected abstract Future<TransferStatus> submit(TransferCallable callable) throws BackgroundException;
 
+    /**
+     * @param callable Task
+     * @param lane     Hint for scheduler to separate listing from small and large file transfers
+     */
+    protected Future<TransferStatus> submit(final TransferCallable callable, final TransferScheduler.Lane lane) throws BackgroundException {
+        return this.submit(callable);
+    }
+
     protected abstract Session<?> borrow(Connection type) throws BackgroundException;
 
     protected abstract void release(Session session, Connection type) throws BackgroundException;
@@ -196,6 +253,11 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                 }
                 throw new ConnectionCanceledException();
             }
+            journal.open();
+            if(!action.equals(TransferAction.resume)) {
+                // Entries from previous run only apply when resuming
+                journal.reset();
+            }
             // Reset the cached size of the transfer and progress value
             transfer.reset();
 
@@ -217,19 +279,52 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             this.await();
         }
         finally {
-            transfer.post(source, destination, table, connectionCallback);
-            if(transfer.isReset()) {
-                notification.notify(transfer.isComplete() ?
-                    String.format("%s complete", StringUtils.capitalize(transfer.getType().name())) :
-                    "Transfer incomplete", transfer.getName());
+            try {
+                transfer.post(source, destination, table, connectionCallback);
+            }
+            finally {
+                this.deferred();
+                if(transfer.isComplete()) {
+                    journal.delete();
+                }
+                else {
+                    journal.close();
+                }
+                if(transfer.isReset()) {
+                    notification.notify(transfer.isComplete() ?
+                        String.format("%s complete", StringUtils.capitalize(transfer.getType().name())) :
+                        "Transfer incomplete", transfer.getName());
+                }
+                sleep.release(lock);
+                table.clear();
+                cache.clear();
             }
-            sleep.release(lock);
-            table.clear();
-            cache.clear();
         }
         return true;
     }
 
+    /**
+     * Record files committed by bulk feature after transfer. Discard bytes sent for files that failed to commit.
+     */
+    private void deferred() {
+        for(Map.Entry<TransferItem, TransferStatus> entry : table.entrySet()) {
+            final TransferStatus status = entry.getValue();
+            if(!status.isDeferred()) {
+                continue;
+            }
+            if(status.isComplete()) {
+                journal.completed(entry.getKey(), status);
+            }
+            else {
+                log.warn(String.format("Failure committing %s", entry.getKey()));
+                transfer.addTransferred(-status.getLength());
+                // Content of upload session is not reused when resuming
+                status.setOffset(0L);
+                journal.failed(entry.getKey(), status);
+            }
+        }
+    }
+
     /**
      * To be called before any file is actually transferred
      *
@@ -250,6 +345,16 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     if(parent.isCanceled()) {
                         throw new ConnectionCanceledException();
                     }
+                    if(file.isFile() && journal.isComplete(new TransferItem(file, local))) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Skip file %s completed in previous run of transfer %s", file, this));
+                        }
+                        // Add size of completed file to total and transferred bytes
+                        final long size = journal.getOffset(new TransferItem(file, local));
+                        transfer.addSize(size);
+                        transfer.addTransferred(size);
+                        return null;
+                    }
                     Session<?> source = null;
                     Session<?> destination = null;
                     try {
@@ -273,7 +378,12 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 file.getName(), action.getTitle()));
                             // Determine transfer status
                             final TransferStatus status = filter.prepare(file, local, parent, progress);
+                            if(status.isSegmented()) {
+                                // Size segments from throughput observed for previous files in transfer
+                                segmenter.resize(status, PreferencesFactory.get().getInteger("queue.connections.limit"));
+                            }
                             table.put(new TransferItem(file, local), status);
+                            journal.prepared(new TransferItem(file, local), status);
                             final TransferItem item = new TransferItem(
                                 status.getRename().remote != null ? status.getRename().remote : file,
                                 status.getRename().local != null ? status.getRename().local : local
@@ -286,9 +396,15 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             transfer.addTransferred(status.getOffset());
                             // Recursive
                             if(file.isDirectory()) {
-                                final List<TransferItem> children;
-                                // Call recursively for all children
-                                children = transfer.list(source, destination, file, local, new WorkerListProgressListener(AbstractTransferWorker.this, progress));
+                                List<TransferItem> children = journal.getChildren(new TransferItem(file, local));
+                                if(null == children) {
+                                    // Call recursively for all children
+                                    children = transfer.list(source, destination, file, local, new WorkerListProgressListener(AbstractTransferWorker.this, progress));
+                                    journal.listed(new TransferItem(file, local), children);
+                                }
+                                else if(log.isInfoEnabled()) {
+                                    log.info(String.format("Use %d children of %s from previous run of transfer %s", children.size(), file, this));
+                                }
                                 // Put into cache for later reference when transferring
                                 cache.put(item, new AttributedList<TransferItem>(children));
                                 // Call recursively
@@ -308,6 +424,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     }
                     catch(BackgroundException e) {
                         if(this.retry(e, progress, new TransferBackgroundActionState(parent))) {
+                            retries.increment();
                             // Retry immediately
                             return call();
                         }
@@ -345,7 +462,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     sb.append('}');
                     return sb.toString();
                 }
-            });
+            }, TransferScheduler.Lane.listing);
         }
         else {
             log.info(String.format("Skip unchecked file %s for transfer %s", file, this));
@@ -366,90 +483,18 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             final TransferStatus status = table.get(item);
             // Handle submit of one or more segments
             final List<TransferStatus> segments = status.getSegments();
+            final TransferScheduler.Lane lane = status.isSegmented() || status.getLength() >= threshold ?
+                TransferScheduler.Lane.large : TransferScheduler.Lane.small;
+            if(status.isSegmented()) {
+                // Offset of parent is updated with length of completed segments
+                journal.started(item, status);
+            }
             for(final TransferStatus segment : segments) {
-                this.submit(new RetryTransferCallable() {
-                    @Override
-                    public TransferStatus call() throws BackgroundException {
-                        if(status.isCanceled()) {
-                            throw new ConnectionCanceledException();
-                        }
-                        // Transfer
-                        Session<?> source = null;
-                        Session<?> destination = null;
-                        try {
-                            source = borrow(Connection.source);
-                            destination = borrow(Connection.destination);
-                            item.remote = transfer.transfer(source, destination,
-                                segment.getRename().remote != null ? segment.getRename().remote : item.remote,
-                                segment.getRename().local != null ? segment.getRename().local : item.local,
-                                options, segment, connectionCallback, passwordCallback, progress, stream);
-                            // Recursive
-                            if(item.remote.isDirectory()) {
-                                if(!cache.isCached(item)) {
-                                    log.warn(String.format("Missing entry for %s in cache", item));
-                                }
-                                for(TransferItem f : cache.get(item)) {
-                                    // Recursive
-                                    transfer(f, action);
-                                }
-                                cache.remove(item);
-                            }
-                            // Determine transfer filter implementation from selected overwrite action
-                            final TransferPathFilter filter = transfer.filter(source, destination, action, progress);
-                            // Post process of file.
-                            filter.complete(
-                                segment.getRename().remote != null ? segment.getRename().remote : item.remote,
-                                segment.getRename().local != null ? segment.getRename().local : item.local,
-                                options, segment, progress);
-                        }
-                        catch(ConnectionCanceledException e) {
-                            segment.setFailure();
-                            throw e;
-                        }
-                        catch(BackgroundException e) {
-                            if(this.retry(e, progress, new TransferBackgroundActionState(status))) {
-                                // Set retry count to make multipart uploads search for existing segments
-                                segment.setRetry(this.getCount());
-                                // Retry immediately
-                                log.info(String.format("Retry %s with transfer status %s", item, segment));
-                                return call();
-                            }
-                            segment.setFailure();
-                            if(table.size() == 1) {
-                                // Fail fast when transferring single file
-                                throw e;
-                            }
-                            // Prompt to continue or abort for application errors
-                            else if(error.prompt(e)) {
-                                // Continue
-                                log.warn(String.format("Ignore transfer failure %s", e));
-                            }
-                            else {
-                                throw new ConnectionCanceledException(e);
-                            }
-                        }
-                        finally {
-                            if(source != null) {
-                                // Return session to pool
-                                release(source, Connection.source);
-                            }
-                            if(destination != null) {
-                                // Return session to pool
-                                release(destination, Connection.destination);
-                            }
-                        }
-                        return segment;
-                    }
-
-                    @Override
-                    public String toString() {
-                        final StringBuilder sb = new StringBuilder("RetryTransferCallable{");
-                        sb.append("item=").append(item);
-                        sb.append(", status=").append(segment);
-                        sb.append('}');
-                        return sb.toString();
-                    }
-                });
+                if(segment.isSegment() && segment.isComplete()) {
+                    // Segment completed in previous attempt
+                    continue;
+                }
+                this.transfer(item, action, status, segment, lane);
             }
             return this.submit(new TransferCallable() {
                 @Override
@@ -460,7 +505,9 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     if(status.isSegmented()) {
                         // Await completion of all segments
                         boolean complete = true;
-                        for(TransferStatus segment : segments) {
+                        // Segments may be added while awaiting completion when split
+                        for(int i = 0; i < segments.size(); i++) {
+                            final TransferStatus segment = segments.get(i);
                             if(!segment.await()) {
                                 log.warn(String.format("Failure to complete segment %s.", segment));
                                 complete = false;
@@ -477,6 +524,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                     status.getRename().remote != null ? status.getRename().remote : item.remote,
                                     status.getRename().local != null ? status.getRename().local : item.local,
                                     options, status.complete(), progress);
+                                journal.completed(item, status);
                             }
                             finally {
                                 // Return session to pool
@@ -487,6 +535,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         else {
                             log.warn(String.format("Skip concatenating segments for failed transfer %s", status));
                             status.setFailure();
+                            journal.failed(item, status);
                         }
                     }
                     return status;
@@ -500,7 +549,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     sb.append('}');
                     return sb.toString();
                 }
-            });
+            }, lane);
         }
         else {
             log.warn(String.format("Skip file %s with unknown transfer status", item));
@@ -508,6 +557,137 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         return ConcurrentUtils.constantFuture(null);
     }
 
+    /**
+     * @param item    File to transfer
+     * @param action  Transfer action for existing files
+     * @param status  Transfer status of file
+     * @param segment Segment of file or transfer status of file if not segmented
+     * @param lane    Scheduler lane
+     */
+    private Future<TransferStatus> transfer(final TransferItem item, final TransferAction action,
+                                            final TransferStatus status, final TransferStatus segment,
+                                            final TransferScheduler.Lane lane) throws BackgroundException {
+        return this.submit(new RetryTransferCallable() {
+            @Override
+            public TransferStatus call() throws BackgroundException {
+                if(status.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                final long start = System.nanoTime();
+                // Transfer
+                Session<?> source = null;
+                Session<?> destination = null;
+                try {
+                    source = borrow(Connection.source);
+                    destination = borrow(Connection.destination);
+                    if(!segment.isSegment() && item.remote.isFile()) {
+                        journal.started(item, segment);
+                    }
+                    item.remote = transfer.transfer(source, destination,
+                        segment.getRename().remote != null ? segment.getRename().remote : item.remote,
+                        segment.getRename().local != null ? segment.getRename().local : item.local,
+                        options, segment, connectionCallback, passwordCallback, progress, stream);
+                    // Recursive
+                    if(item.remote.isDirectory()) {
+                        if(!cache.isCached(item)) {
+                            log.warn(String.format("Missing entry for %s in cache", item));
+                        }
+                        for(TransferItem f : cache.get(item)) {
+                            // Recursive
+                            transfer(f, action);
+                        }
+                        cache.remove(item);
+                    }
+                    // Determine transfer filter implementation from selected overwrite action
+                    final TransferPathFilter filter = transfer.filter(source, destination, action, progress);
+                    // Post process of file.
+                    filter.complete(
+                        segment.getRename().remote != null ? segment.getRename().remote : item.remote,
+                        segment.getRename().local != null ? segment.getRename().local : item.local,
+                        options, segment, progress);
+                    if(segment.isSegment()) {
+                        status.progress(segment.getLength());
+                    }
+                    else if(item.remote.isFile()) {
+                        if(segment.isDeferred()) {
+                            if(log.isInfoEnabled()) {
+                                log.info(String.format("Defer completion of %s until committed", item));
+                            }
+                        }
+                        else {
+                            journal.completed(item, segment);
+                        }
+                    }
+                    if(item.remote.isFile()) {
+                        bytes.add(segment.getLength());
+                        duration.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                }
+                catch(ConnectionCanceledException e) {
+                    segment.setFailure();
+                    if(!segment.isSegment()) {
+                        journal.failed(item, segment);
+                    }
+                    throw e;
+                }
+                catch(BackgroundException e) {
+                    if(this.retry(e, progress, new TransferBackgroundActionState(status))) {
+                        retries.increment();
+                        // Set retry count to make multipart uploads search for existing segments
+                        segment.setRetry(this.getCount());
+                        // Retry immediately
+                        log.info(String.format("Retry %s with transfer status %s", item, segment));
+                        return call();
+                    }
+                    segment.setFailure();
+                    failures.increment();
+                    if(!segment.isSegment()) {
+                        journal.failed(item, segment);
+                    }
+                    if(table.size() == 1) {
+                        // Fail fast when transferring single file
+                        throw e;
+                    }
+                    // Prompt to continue or abort for application errors
+                    else if(error.prompt(e)) {
+                        // Continue
+                        log.warn(String.format("Ignore transfer failure %s", e));
+                    }
+                    else {
+                        throw new ConnectionCanceledException(e);
+                    }
+                }
+                finally {
+                    if(source != null) {
+                        // Return session to pool
+                        release(source, Connection.source);
+                    }
+                    if(destination != null) {
+                        // Return session to pool
+                        release(destination, Connection.destination);
+                    }
+                }
+                if(segment.isSegment() && segment.isComplete()) {
+                    // Connection is idle. Split remainder of lagging segment
+                    final TransferStatus remainder = segmenter.split(status);
+                    if(remainder != null) {
+                        transfer(item, action, status, remainder, lane);
+                    }
+                }
+                return segment;
+            }
+
+            @Override
+            public String toString() {
+                final StringBuilder sb = new StringBuilder("RetryTransferCallable{");
+                sb.append("item=").append(item);
+                sb.append(", status=").append(segment);
+                sb.append('}');
+                return sb.toString();
+            }
+        }, lane);
+    }
+
     @Override
     public String getActivity() {
         return BookmarkNameProvider.toString(transfer.getSource());
@@ -19,16 +19,20 @@ package ch.cyberduck.core.worker;
  * dkocher@cyberduck.ch
  */
 
-import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.StreamingListService;
+import ch.cyberduck.core.WalkListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class CalculateSizeWorker extends Worker<Long> {
 
@@ -48,8 +52,9 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
 
     @Override
     public Long run(final Session<?> session) throws BackgroundException {
+        final StreamingListService list = new WalkListService(session);
         for(Path next : files) {
-            next.attributes().setSize(this.calculateSize(session, next));
+            next.attributes().setSize(this.calculateSize(list, next));
         }
         return total;
     }
@@ -61,7 +66,7 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
      * @param p Directory or file
      * @return The size of the file or the sum of all containing files if a directory
      */
-    private long calculateSize(final Session<?> session, final Path p) throws BackgroundException {
+    private long calculateSize(final StreamingListService list, final Path p) throws BackgroundException {
         long size = 0;
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
@@ -69,8 +74,28 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
         listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
                 p.getName()));
         if(p.isDirectory()) {
-            for(Path next : session.getFeature(ListService.class).list(p, new WorkerListProgressListener(this, listener))) {
-                size += this.calculateSize(session, next);
+            // Only keep subdirectories of listing while files are counted chunk by chunk
+            final List<Path> directories = new ArrayList<Path>();
+            final AtomicLong files = new AtomicLong();
+            list.list(p, new WorkerListProgressListener(this, listener), new StreamingListService.Callback() {
+                @Override
+                public void chunk(final Path directory, final AttributedList<Path> chunk) throws BackgroundException {
+                    if(isCanceled()) {
+                        throw new ConnectionCanceledException();
+                    }
+                    for(Path next : chunk) {
+                        if(next.isDirectory()) {
+                            directories.add(next);
+                        }
+                        else {
+                            files.addAndGet(calculateSize(list, next));
+                        }
+                    }
+                }
+            });
+            size += files.get();
+            for(Path next : directories) {
+                size += this.calculateSize(list, next);
             }
         }
         else if(p.isFile()) {
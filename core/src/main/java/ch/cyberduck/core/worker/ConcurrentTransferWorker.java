@@ -30,8 +30,6 @@ import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundActionState;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferOptions;
@@ -41,9 +39,7 @@ import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.log4j.Logger;
 
-import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -53,10 +49,9 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
     private final SessionPool source;
     private final SessionPool destination;
 
-    private final CompletionService<TransferStatus> completion;
+    private final TransferScheduler scheduler;
     // Keep number of submited tasks
     private final AtomicInteger size = new AtomicInteger();
-    private final ThreadPool pool;
 
     public ConcurrentTransferWorker(final SessionPool source,
                                     final SessionPool destination,
@@ -73,10 +68,9 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         super(transfer, options, prompt, meter, error, progressListener, streamListener, connectionCallback, passwordCallback, notification);
         this.source = source;
         this.destination = destination;
-        this.pool = ThreadPoolFactory.get("transfer",
+        this.scheduler = new TransferScheduler("transfer",
             transfer.getSource().getTransferType() == Host.TransferType.newconnection ?
                 1 : PreferencesFactory.get().getInteger("queue.connections.limit"));
-        this.completion = new ExecutorCompletionService<TransferStatus>(pool.executor());
     }
 
     @Override
@@ -124,10 +118,15 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
 
     @Override
     public Future<TransferStatus> submit(final TransferCallable callable) throws BackgroundException {
+        return this.submit(callable, TransferScheduler.Lane.small);
+    }
+
+    @Override
+    public Future<TransferStatus> submit(final TransferCallable callable, final TransferScheduler.Lane lane) throws BackgroundException {
         if(log.isInfoEnabled()) {
-            log.info(String.format("Submit %s to pool", callable));
+            log.info(String.format("Submit %s to lane %s", callable, lane));
         }
-        final Future<TransferStatus> f = completion.submit(callable);
+        final Future<TransferStatus> f = scheduler.submit(lane, callable);
         size.incrementAndGet();
         return f;
     }
@@ -138,9 +137,9 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
             // Repeat until no new entries in queue found
             try {
                 if(log.isInfoEnabled()) {
-                    log.info(String.format("Await completion for %d submitted tasks in queue", size.get()));
+                    log.info(String.format("Await completion for %d submitted tasks in queue %s", size.get(), scheduler));
                 }
-                final TransferStatus status = completion.take().get();
+                final TransferStatus status = scheduler.take().get();
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Finished task with return value %s", status));
                 }
@@ -165,7 +164,14 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
 
     @Override
     public void cleanup(final Boolean result) {
-        pool.shutdown(result);
+        scheduler.shutdown(result);
+    }
+
+    /**
+     * @return Number of tasks waiting in lane of scheduler
+     */
+    public int getQueueDepth(final TransferScheduler.Lane lane) {
+        return scheduler.getQueueDepth(lane);
     }
 
     @Override
@@ -173,7 +179,7 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         final StringBuilder sb = new StringBuilder("ConcurrentTransferWorker{");
         sb.append("source=").append(source);
         sb.append(", destination=").append(destination);
-        sb.append(", pool=").append(completion);
+        sb.append(", scheduler=").append(scheduler);
         sb.append('}');
         return sb.toString();
     }
@@ -0,0 +1,275 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules transfer tasks in separate lanes for listing, small files and large or segmented files. Each worker
+ * thread has a home lane and steals work from the other lanes when its own lane is empty. This keeps slow large
+ * transfers from occupying every connection while thousands of small files are waiting.
+ */
+public class TransferScheduler {
+    private static final Logger log = Logger.getLogger(TransferScheduler.class);
+
+    public enum Lane {
+        /**
+         * Prepare and list directories
+         */
+        listing,
+        /**
+         * Files below threshold
+         */
+        small,
+        /**
+         * Files above threshold and segments
+         */
+        large
+    }
+
+    private final ThreadPool pool;
+    private final Map<Lane, LinkedBlockingDeque<LaneTask>> lanes = new EnumMap<>(Lane.class);
+    private final Map<Lane, AtomicInteger> active = new EnumMap<>(Lane.class);
+    /**
+     * Number of tasks queued in all lanes
+     */
+    private final Semaphore available = new Semaphore(0);
+    private final BlockingQueue<Future<TransferStatus>> completion = new LinkedBlockingQueue<>();
+    private final int size;
+
+    private volatile boolean shutdown;
+
+    public TransferScheduler(final String prefix, final int size) {
+        this(ThreadPoolFactory.get(prefix, size), size);
+    }
+
+    public TransferScheduler(final ThreadPool pool, final int size) {
+        this.pool = pool;
+        this.size = size;
+        for(Lane lane : Lane.values()) {
+            lanes.put(lane, new LinkedBlockingDeque<>());
+            active.put(lane, new AtomicInteger());
+        }
+        for(int i = 0; i < size; i++) {
+            pool.execute(new LaneWorker(this.home(i)));
+        }
+    }
+
+    /**
+     * Distribute home lanes round robin favouring transfers over listing
+     *
+     * @param index Worker thread index
+     * @return Preferred lane for worker
+     */
+    private Lane home(final int index) {
+        switch(index % Lane.values().length) {
+            case 0:
+                return Lane.small;
+            case 1:
+                return Lane.large;
+            default:
+                return Lane.listing;
+        }
+    }
+
+    /**
+     * @param lane     Queue to add task to
+     * @param callable Task
+     * @return Future also added to completion queue when done
+     */
+    public Future<TransferStatus> submit(final Lane lane, final Callable<TransferStatus> callable) {
+        final LaneTask task = new LaneTask(lane, callable);
+        synchronized(lanes) {
+            if(shutdown) {
+                throw new IllegalStateException(String.format("Scheduler %s already shutdown", this));
+            }
+            lanes.get(lane).offerLast(task);
+        }
+        available.release();
+        return task;
+    }
+
+    /**
+     * Retrieve and remove the next completed task, waiting if none are yet present
+     */
+    public Future<TransferStatus> take() throws InterruptedException {
+        return completion.take();
+    }
+
+    /**
+     * @return Number of tasks waiting in lane
+     */
+    public int getQueueDepth(final Lane lane) {
+        return lanes.get(lane).size();
+    }
+
+    /**
+     * @return Number of tasks from lane currently running
+     */
+    public int getActive(final Lane lane) {
+        return active.get(lane).get();
+    }
+
+    /**
+     * Poll home lane first and steal from other lanes in order of priority otherwise
+     */
+    private LaneTask poll(final Lane home) {
+        final LaneTask task = lanes.get(home).pollFirst();
+        if(task != null) {
+            return task;
+        }
+        for(Lane lane : Lane.values()) {
+            if(lane == home) {
+                continue;
+            }
+            // Steal oldest task from other lane
+            final LaneTask stolen = lanes.get(lane).pollFirst();
+            if(stolen != null) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Steal task %s from lane %s for worker in lane %s", stolen, lane, home));
+                }
+                return stolen;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param gracefully Wait for running and queued tasks to complete. Cancel queued tasks otherwise
+     */
+    public void shutdown(final boolean gracefully) {
+        synchronized(lanes) {
+            shutdown = true;
+        }
+        if(!gracefully) {
+            this.cancel();
+        }
+        // Wakeup idle workers to drain lanes and exit
+        available.release(size);
+        pool.shutdown(gracefully);
+        // Tasks left by interrupted workers
+        this.cancel();
+    }
+
+    /**
+     * Remove and cancel all queued tasks
+     */
+    private void cancel() {
+        for(LinkedBlockingDeque<LaneTask> queue : lanes.values()) {
+            LaneTask task;
+            while((task = queue.pollFirst()) != null) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Cancel queued task %s", task));
+                }
+                task.cancel(false);
+            }
+        }
+    }
+
+    private final class LaneTask extends FutureTask<TransferStatus> {
+        private final Lane lane;
+        private final Callable<TransferStatus> callable;
+
+        public LaneTask(final Lane lane, final Callable<TransferStatus> callable) {
+            super(callable);
+            this.lane = lane;
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            active.get(lane).incrementAndGet();
+            try {
+                super.run();
+            }
+            finally {
+                active.get(lane).decrementAndGet();
+            }
+        }
+
+        @Override
+        protected void done() {
+            completion.add(this);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("LaneTask{");
+            sb.append("lane=").append(lane);
+            sb.append(", callable=").append(callable);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+
+    private final class LaneWorker implements Callable<Void> {
+        private final Lane home;
+
+        public LaneWorker(final Lane home) {
+            this.home = home;
+        }
+
+        @Override
+        public Void call() {
+            while(true) {
+                try {
+                    available.acquire();
+                }
+                catch(InterruptedException e) {
+                    log.warn(String.format("Interrupted worker for lane %s", home));
+                    break;
+                }
+                final LaneTask task = poll(home);
+                if(null == task) {
+                    if(shutdown) {
+                        // Exit when all lanes are drained after shutdown
+                        break;
+                    }
+                    continue;
+                }
+                task.run();
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TransferScheduler{");
+        for(Lane lane : Lane.values()) {
+            sb.append(lane.name()).append("=").append(this.getQueueDepth(lane))
+                .append("/").append(this.getActive(lane)).append(", ");
+        }
+        sb.append("size=").append(size);
+        sb.append('}');
+        return sb.toString();
+    }
+}
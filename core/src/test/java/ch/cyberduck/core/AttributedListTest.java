@@ -80,4 +80,38 @@ public class AttributedListTest {
         assertNotSame(list, list.filter(new NullFilter<>()));
         assertEquals(list, list.filter(new NullFilter<>()));
     }
+
+    @Test
+    public void testIndexedLookup() throws Exception {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.directory));
+        final Path b = new Path("/b", EnumSet.of(Path.Type.file));
+        assertTrue(list.add(a));
+        assertTrue(list.add(b));
+        assertSame(b, list.get(new Path("/b", EnumSet.of(Path.Type.file))));
+        assertNull(list.get(new Path("/b", EnumSet.of(Path.Type.directory))));
+        assertSame(b, list.lookup(new DefaultPathPredicate(b)));
+        assertEquals(1, list.indexOf(b));
+        assertTrue(list.contains(a));
+        final Path c = new Path("/c", EnumSet.of(Path.Type.file));
+        list.set(1, c);
+        assertFalse(list.contains(b));
+        assertSame(c, list.lookup(new DefaultPathPredicate(c)));
+        assertTrue(list.remove(a));
+        assertEquals(0, list.indexOf(c));
+        assertNull(list.lookup(new DefaultPathPredicate(a)));
+    }
+
+    @Test
+    public void testIterateSnapshot() throws Exception {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        list.add(new Path("/a", EnumSet.of(Path.Type.directory)));
+        int count = 0;
+        for(Path f : list) {
+            list.add(new Path(f.getAbsolute() + "a", EnumSet.of(Path.Type.directory)));
+            count++;
+        }
+        assertEquals(1, count);
+        assertEquals(2, list.size());
+    }
 }
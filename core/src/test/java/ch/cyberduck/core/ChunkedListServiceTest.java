@@ -0,0 +1,101 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChunkedListServiceTest {
+
+    @Test
+    public void testSingleChunk() throws Exception {
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new AttributedList<>();
+        list.add(new Path(directory, "a", EnumSet.of(Path.Type.file)));
+        list.add(new Path(directory, "b", EnumSet.of(Path.Type.file)));
+        final List<AttributedList<Path>> chunks = new ArrayList<>();
+        new ChunkedListService(new ListService() {
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+                return list;
+            }
+
+            @Override
+            public ListService withCache(final Cache<Path> cache) {
+                return this;
+            }
+        }).list(directory, new DisabledListProgressListener(), new StreamingListService.Callback() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> chunk) {
+                chunks.add(chunk);
+            }
+        });
+        assertEquals(1, chunks.size());
+        assertSame(list, chunks.get(0));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final StreamingListService service = new StreamingListService() {
+            @Override
+            public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+                for(int i = 0; i < 3; i++) {
+                    final AttributedList<Path> chunk = new AttributedList<>();
+                    chunk.add(new Path(directory, String.valueOf(i), EnumSet.of(Path.Type.file)));
+                    callback.chunk(directory, chunk);
+                }
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+                final CollectingListCallback children = new CollectingListCallback(listener);
+                this.list(directory, listener, children);
+                return children.getList();
+            }
+
+            @Override
+            public ListService withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        final List<Integer> sizes = new ArrayList<>();
+        new ChunkedListService(service).list(directory, new DisabledListProgressListener(), new StreamingListService.Callback() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> chunk) {
+                sizes.add(chunk.size());
+            }
+        });
+        assertEquals(3, sizes.size());
+        final List<Integer> progress = new ArrayList<>();
+        final AttributedList<Path> list = new ChunkedListService(service).list(directory, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> list) {
+                progress.add(list.size());
+            }
+        });
+        assertEquals(3, list.size());
+        assertEquals(3, progress.size());
+        assertEquals(Integer.valueOf(3), progress.get(2));
+    }
+}
@@ -1,5 +1,7 @@
 package ch.cyberduck.core;
 
+import ch.cyberduck.core.cache.AttributedListWeigher;
+
 import org.junit.Test;
 
 import java.util.EnumSet;
@@ -68,4 +70,77 @@ public class PathCacheTest {
         assertFalse(cache.containsKey(file));
         assertEquals(0, cache.keySet().size());
     }
+
+    @Test
+    public void testStatistics() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final Path directory = new Path("/", EnumSet.of(Path.Type.directory));
+        cache.get(directory);
+        assertEquals(1L, cache.getMissCount());
+        cache.put(directory, new AttributedList<Path>());
+        cache.get(directory);
+        assertEquals(1L, cache.getHitCount());
+    }
+
+    @Test
+    public void testEvictByEntries() throws Exception {
+        final PathCache cache = new PathCache(1, AttributedListWeigher.entry);
+        final Path other = new Path("/o", EnumSet.of(Path.Type.directory));
+        cache.put(other, new AttributedList<Path>());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new AttributedList<Path>();
+        for(int i = 0; i < 2000; i++) {
+            list.add(new Path(directory, String.valueOf(i), EnumSet.of(Path.Type.file)));
+        }
+        cache.put(directory, list);
+        // Listing exceeding maximum weight of 1000 entries is not cached
+        assertFalse(cache.isCached(directory));
+        assertTrue(cache.isCached(other));
+        assertEquals(0L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testWeighByEntries() throws Exception {
+        final PathCache cache = new PathCache(1, AttributedListWeigher.entry);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new AttributedList<Path>();
+        for(int i = 0; i < 200; i++) {
+            list.add(new Path(directory, String.valueOf(i), EnumSet.of(Path.Type.file)));
+        }
+        cache.put(directory, list);
+        assertTrue(cache.isCached(directory));
+        for(int i = 0; i < 1000; i++) {
+            cache.put(new Path(String.format("/n%d", i), EnumSet.of(Path.Type.directory)), new AttributedList<Path>());
+        }
+        // Evicted with weight of 200 entries
+        assertFalse(cache.isCached(directory));
+    }
+
+    @Test
+    public void testUpdateWeight() throws Exception {
+        final PathCache cache = new PathCache(1, AttributedListWeigher.entry);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new AttributedList<Path>();
+        cache.put(directory, list);
+        final Path other = new Path("/o", EnumSet.of(Path.Type.directory));
+        cache.put(other, new AttributedList<Path>());
+        assertEquals(0L, cache.getEvictionCount());
+        for(int i = 0; i < 2000; i++) {
+            list.add(new Path(directory, String.valueOf(i), EnumSet.of(Path.Type.file)));
+        }
+        // Weight is determined again for modified listing no longer fitting
+        assertFalse(cache.isCached(directory));
+        assertTrue(cache.isCached(other));
+    }
+
+    @Test
+    public void testContainsKeyStatistics() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final Path directory = new Path("/", EnumSet.of(Path.Type.directory));
+        assertFalse(cache.containsKey(directory));
+        assertEquals(1L, cache.getMissCount());
+        cache.put(directory, new AttributedList<Path>());
+        assertTrue(cache.isCached(directory));
+        assertEquals(1L, cache.getHitCount());
+    }
 }
@@ -0,0 +1,154 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Walk;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WalkListServiceTest {
+
+    @Test
+    public void testListPrefetched() throws Exception {
+        final Path root = new Path("/r", EnumSet.of(Path.Type.directory));
+        final Path child = new Path(root, "c", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(child, "f", EnumSet.of(Path.Type.file));
+        final AtomicInteger walks = new AtomicInteger();
+        final AtomicInteger lists = new AtomicInteger();
+        final ListService service = new WalkListService(new ListService() {
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+                lists.incrementAndGet();
+                return AttributedList.emptyList();
+            }
+
+            @Override
+            public ListService withCache(final Cache<Path> cache) {
+                return this;
+            }
+        }, new Walk() {
+            @Override
+            public void walk(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+                walks.incrementAndGet();
+                assertTrue(callback.accept(directory));
+                callback.visit(directory, new AttributedList<>(Collections.singletonList(child)));
+                assertTrue(callback.accept(child));
+                callback.visit(child, new AttributedList<>(Collections.singletonList(file)));
+            }
+        }, new ConcurrentHashMap<>());
+        assertTrue(service.list(root, new DisabledListProgressListener()).contains(child));
+        assertTrue(service.list(child, new DisabledListProgressListener()).contains(file));
+        assertEquals(1, walks.get());
+        assertEquals(0, lists.get());
+    }
+
+    @Test
+    public void testFallbackSkipped() throws Exception {
+        final Path root = new Path("/r", EnumSet.of(Path.Type.directory));
+        final AtomicInteger lists = new AtomicInteger();
+        final ListService service = new WalkListService(new ListService() {
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+                lists.incrementAndGet();
+                return AttributedList.emptyList();
+            }
+
+            @Override
+            public ListService withCache(final Cache<Path> cache) {
+                return this;
+            }
+        }, new Walk() {
+            @Override
+            public void walk(final Path directory, final ListProgressListener listener, final Callback callback) {
+                // Skip directory
+            }
+        }, new ConcurrentHashMap<>());
+        assertTrue(service.list(root, new DisabledListProgressListener()).isEmpty());
+        assertEquals(1, lists.get());
+    }
+
+    @Test
+    public void testNoWalkFeature() throws Exception {
+        final ListService service = new WalkListService(new NullSession(new Host(new TestProtocol())));
+        assertNotNull(service.list(new Path("/", EnumSet.of(Path.Type.directory)), new DisabledListProgressListener()));
+    }
+
+    @Test
+    public void testLimitPrefetch() throws Exception {
+        final Path root = new Path("/r", EnumSet.of(Path.Type.directory));
+        final Map<Path, AttributedList<Path>> tree = new HashMap<>();
+        final AttributedList<Path> children = new AttributedList<>();
+        for(int i = 0; i < 3; i++) {
+            final Path child = new Path(root, String.valueOf(i), EnumSet.of(Path.Type.directory));
+            children.add(child);
+            tree.put(child, new AttributedList<>(Collections.singletonList(new Path(child, "f", EnumSet.of(Path.Type.file)))));
+        }
+        tree.put(root, children);
+        final AtomicInteger walks = new AtomicInteger();
+        final Map<Path, AttributedList<Path>> prefetched = new ConcurrentHashMap<>();
+        final ListService service = new WalkListService(new ListService() {
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+                fail();
+                return null;
+            }
+
+            @Override
+            public ListService withCache(final Cache<Path> cache) {
+                return this;
+            }
+        }, new Walk() {
+            @Override
+            public void walk(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+                walks.incrementAndGet();
+                final Deque<Path> pending = new ArrayDeque<>();
+                if(callback.accept(directory)) {
+                    pending.add(directory);
+                }
+                while(!pending.isEmpty()) {
+                    final Path next = pending.poll();
+                    callback.visit(next, tree.get(next));
+                    for(Path f : tree.get(next)) {
+                        if(f.isDirectory() && callback.accept(f)) {
+                            pending.add(f);
+                        }
+                    }
+                }
+            }
+        }, prefetched, 5L);
+        assertEquals(3, service.list(root, new DisabledListProgressListener()).size());
+        // Root with 3 children and first subdirectory accepted before reaching limit
+        assertEquals(1, prefetched.size());
+        assertEquals(1, walks.get());
+        for(Path child : children) {
+            assertEquals(1, service.list(child, new DisabledListProgressListener()).size());
+        }
+        assertEquals(3, walks.get());
+        assertTrue(prefetched.isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.CountingMetrics;
+import ch.cyberduck.core.Scheme;
+import ch.cyberduck.core.metrics.MetricName;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class InstrumentedHttpClientConnectionManagerTest {
+
+    private final HttpRoute route = new HttpRoute(new HttpHost("test.cyberduck.ch", 80, Scheme.http.name()));
+
+    @After
+    public void reset() {
+        PreferencesFactory.get().deleteProperty("http.connections.route.adaptive");
+    }
+
+    private InstrumentedHttpClientConnectionManager create(final CountingMetrics metrics) {
+        return new InstrumentedHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+            .register(Scheme.http.name(), PlainConnectionSocketFactory.getSocketFactory()).build(), metrics);
+    }
+
+    @Test
+    public void testLease() throws Exception {
+        final CountingMetrics metrics = new CountingMetrics();
+        final InstrumentedHttpClientConnectionManager manager = this.create(metrics);
+        manager.setMaxPerRoute(route, 1);
+        final HttpClientConnection connection = manager.requestConnection(route, null).get(0L, TimeUnit.MILLISECONDS);
+        assertEquals(1L, metrics.get(new MetricName("http.pool.lease", "route", "test.cyberduck.ch:80")));
+        assertEquals(0L, metrics.get(new MetricName("http.pool.reuse", "route", "test.cyberduck.ch:80")));
+        assertEquals(0L, metrics.get(new MetricName("http.pool.pending", "route", "test.cyberduck.ch:80")));
+        try {
+            manager.requestConnection(route, null).get(100L, TimeUnit.MILLISECONDS);
+            fail();
+        }
+        catch(ConnectionPoolTimeoutException e) {
+            assertEquals(1L, metrics.get(new MetricName("http.pool.exhausted", "route", "test.cyberduck.ch:80")));
+        }
+        manager.releaseConnection(connection, null, 0L, TimeUnit.MILLISECONDS);
+        manager.shutdown();
+    }
+
+    @Test
+    public void testAdaptive() throws Exception {
+        PreferencesFactory.get().setProperty("http.connections.route.adaptive", true);
+        final CountingMetrics metrics = new CountingMetrics();
+        final InstrumentedHttpClientConnectionManager manager = this.create(metrics);
+        assertTrue(manager.isAdaptive());
+        manager.setMaxPerRoute(route, 1);
+        final HttpClientConnection first = manager.requestConnection(route, null).get(0L, TimeUnit.MILLISECONDS);
+        // Raises limit instead of waiting for first connection to be released
+        final HttpClientConnection second = manager.requestConnection(route, null).get(100L, TimeUnit.MILLISECONDS);
+        assertEquals(2, manager.getMaxPerRoute(route));
+        assertEquals(2L, metrics.get(new MetricName("http.pool.limit", "route", "test.cyberduck.ch:80")));
+        manager.setMaxPerRoute(route, 8);
+        manager.throttle(route);
+        assertEquals(4, manager.getMaxPerRoute(route));
+        assertEquals(1L, metrics.get(new MetricName("http.pool.throttled", "route", "test.cyberduck.ch:80")));
+        // Repeated throttling within hold interval does not decrease further
+        manager.throttle(route);
+        assertEquals(4, manager.getMaxPerRoute(route));
+        manager.releaseConnection(first, null, 0L, TimeUnit.MILLISECONDS);
+        manager.releaseConnection(second, null, 0L, TimeUnit.MILLISECONDS);
+        manager.shutdown();
+    }
+}
@@ -0,0 +1,116 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BandwidthThrottleTest {
+
+    @Test
+    public void testUnlimited() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(BandwidthThrottle.UNLIMITED);
+        assertEquals(1024, throttle.request(1024));
+        assertEquals(BandwidthThrottle.UNLIMITED, throttle.getRate(), 0f);
+    }
+
+    @Test
+    public void testBurst() {
+        final FakeClock clock = new FakeClock();
+        final BandwidthThrottle throttle = new BandwidthThrottle(1000f, null, clock);
+        clock.advance(TimeUnit.SECONDS.toNanos(10L));
+        // At most 100ms worth of bytes
+        assertEquals(100, throttle.request(Integer.MAX_VALUE));
+        assertEquals(TimeUnit.SECONDS.toNanos(10L), clock.nanoTime());
+    }
+
+    @Test
+    public void testWaitForRequested() {
+        final FakeClock clock = new FakeClock();
+        final BandwidthThrottle throttle = new BandwidthThrottle(1000f, null, clock);
+        // Parks until all requested bytes are available instead of granting a single byte
+        assertEquals(50, throttle.request(50));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50L), clock.nanoTime());
+    }
+
+    @Test
+    public void testRate() {
+        final FakeClock clock = new FakeClock();
+        final BandwidthThrottle throttle = new BandwidthThrottle(10000f, null, clock);
+        long total = 0L;
+        int requests = 0;
+        while(total < 5000L) {
+            total += throttle.request(1000);
+            requests++;
+        }
+        assertEquals(5000L, total);
+        // Requests limited to burst of 100ms
+        assertEquals(5, requests);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500L), clock.nanoTime());
+    }
+
+    @Test
+    public void testParent() {
+        final FakeClock clock = new FakeClock();
+        final BandwidthThrottle parent = new BandwidthThrottle(1000f, null, clock);
+        final BandwidthThrottle child = new BandwidthThrottle(BandwidthThrottle.UNLIMITED, parent, clock);
+        assertSame(parent, child.getParent());
+        assertEquals(100, child.request(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testSharedWithParent() {
+        final FakeClock clock = new FakeClock();
+        final BandwidthThrottle global = new BandwidthThrottle(20000f, null, clock);
+        final BandwidthThrottle first = new BandwidthThrottle(BandwidthThrottle.UNLIMITED, global, clock);
+        final BandwidthThrottle second = new BandwidthThrottle(BandwidthThrottle.UNLIMITED, global, clock);
+        long total = 0L;
+        while(total < 10000L) {
+            total += first.request(500);
+            total += second.request(500);
+        }
+        assertEquals(10000L, total);
+        // 10000 bytes at 20000 bytes per second for all streams together
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500L), clock.nanoTime());
+    }
+
+    @Test
+    public void testHost() {
+        assertSame(BandwidthThrottle.host("h"), BandwidthThrottle.host("h"));
+        assertSame(BandwidthThrottle.global(), BandwidthThrottle.host("h").getParent());
+    }
+
+    private static final class FakeClock implements BandwidthThrottle.Clock {
+        private long now = 0L;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void park(final Object blocker, final long nanos) {
+            now += nanos;
+        }
+
+        public void advance(final long nanos) {
+            now += nanos;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class BufferPoolTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        final BufferPool pool = new BufferPool(1024, false, 0L);
+        final ByteBuffer buffer = pool.borrow(512);
+        assertTrue(buffer.hasArray());
+        assertEquals(512, buffer.capacity());
+        assertEquals(512L, pool.getUsed());
+        pool.release(buffer);
+        assertEquals(0L, pool.getUsed());
+        assertEquals(512L, pool.getIdle());
+        assertSame(buffer, pool.borrow(512));
+        assertEquals(1L, pool.getReused());
+        assertEquals(1L, pool.getAllocations());
+    }
+
+    @Test
+    public void testEvictIdle() throws Exception {
+        final BufferPool pool = new BufferPool(1024, true, 0L);
+        final ByteBuffer buffer = pool.borrow(1024);
+        assertTrue(buffer.isDirect());
+        pool.release(buffer);
+        assertEquals(1024L, pool.getIdle());
+        pool.release(pool.borrow(256));
+        assertEquals(256L, pool.getIdle());
+        assertEquals(0L, pool.getWaits());
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        final BufferPool pool = new BufferPool(1024, false, 0L);
+        final ByteBuffer buffer = pool.borrow(1024);
+        // Exceeding capacity
+        final ByteBuffer overflow = pool.borrow(2048);
+        assertEquals(1L, pool.getOverflows());
+        assertEquals(0L, pool.getWaits());
+        pool.release(overflow);
+        assertEquals(0L, pool.getIdle());
+        assertEquals(1024L, pool.getUsed());
+        pool.release(buffer);
+        assertEquals(0L, pool.getUsed());
+    }
+
+    @Test
+    public void testWaitForRelease() throws Exception {
+        final BufferPool pool = new BufferPool(1024, false, 60000L);
+        final ByteBuffer buffer = pool.borrow(1024);
+        final CountDownLatch borrowed = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pool.release(pool.borrow(512));
+                    borrowed.countDown();
+                }
+                catch(InterruptedIOException e) {
+                    fail(e.getMessage());
+                }
+            }
+        }).start();
+        while(0L == pool.getWaits()) {
+            Thread.sleep(10L);
+        }
+        pool.release(buffer);
+        borrowed.await();
+        assertEquals(0L, pool.getOverflows());
+        assertEquals(2L, pool.getAllocations());
+    }
+
+    @Test(expected = InterruptedIOException.class)
+    public void testTimeout() throws Exception {
+        final BufferPool pool = new BufferPool(1024, false, 0L);
+        pool.borrow(1024);
+        pool.borrow(512);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final BufferPool pool = new BufferPool(1024, false, 60000L);
+        pool.borrow(1024);
+        final AtomicBoolean cancel = new AtomicBoolean();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while(0L == pool.getWaits()) {
+                    Thread.yield();
+                }
+                cancel.set(true);
+            }
+        }).start();
+        try {
+            pool.borrow(512, cancel::get);
+            fail();
+        }
+        catch(InterruptedIOException e) {
+            assertEquals(1L, pool.getWaits());
+            assertEquals(0L, pool.getOverflows());
+        }
+    }
+
+    @Test
+    public void testReclaimNotReleased() throws Exception {
+        final BufferPool pool = new BufferPool(1024, false, 60000L);
+        ByteBuffer buffer = pool.borrow(1024);
+        assertEquals(1024L, pool.getUsed());
+        buffer = null;
+        System.gc();
+        // Capacity of collected buffer available without release
+        pool.release(pool.borrow(1024));
+        assertEquals(0L, pool.getUsed());
+        assertEquals(2L, pool.getAllocations());
+    }
+}
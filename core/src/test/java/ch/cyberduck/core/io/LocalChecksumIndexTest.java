@@ -0,0 +1,82 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocalChecksumIndexTest {
+
+    @Test
+    public void testFindPersisted() throws Exception {
+        final Local index = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(file.getAbsolute()), "input".getBytes(StandardCharsets.UTF_8));
+        final LocalChecksumIndex first = new LocalChecksumIndex(index);
+        assertEquals(Checksum.NONE, first.find(file, HashAlgorithm.md5));
+        first.put(file, new Checksum(HashAlgorithm.md5, "a43c1b0aa53a0c908810c06ab1ff3967"));
+        first.put(file, new Checksum(HashAlgorithm.sha1, "140f86aae51ab9e1cda9b4254fe98a74eb54c1a1"));
+        assertEquals(new Checksum(HashAlgorithm.md5, "a43c1b0aa53a0c908810c06ab1ff3967"), first.find(file, HashAlgorithm.md5));
+        assertEquals(Checksum.NONE, first.find(file, HashAlgorithm.sha256));
+        first.close();
+        final LocalChecksumIndex second = new LocalChecksumIndex(index);
+        assertEquals(new Checksum(HashAlgorithm.md5, "a43c1b0aa53a0c908810c06ab1ff3967"), second.find(file, HashAlgorithm.md5));
+        assertEquals(new Checksum(HashAlgorithm.sha1, "140f86aae51ab9e1cda9b4254fe98a74eb54c1a1"), second.find(file, HashAlgorithm.sha1));
+        second.invalidate(file);
+        assertEquals(Checksum.NONE, second.find(file, HashAlgorithm.md5));
+        second.close();
+        assertEquals(Checksum.NONE, new LocalChecksumIndex(index).find(file, HashAlgorithm.sha1));
+        file.delete();
+        index.delete();
+    }
+
+    @Test
+    public void testFindModified() throws Exception {
+        final Local index = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(file.getAbsolute()), "input".getBytes(StandardCharsets.UTF_8));
+        final LocalChecksumIndex checksums = new LocalChecksumIndex(index);
+        checksums.put(file, new Checksum(HashAlgorithm.md5, "a43c1b0aa53a0c908810c06ab1ff3967"));
+        Files.write(Paths.get(file.getAbsolute()), "modified".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Checksum.NONE, checksums.find(file, HashAlgorithm.md5));
+        checksums.close();
+        file.delete();
+        index.delete();
+    }
+
+    @Test
+    public void testSkipPartialLine() throws Exception {
+        final Local index = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(file.getAbsolute()), "input".getBytes(StandardCharsets.UTF_8));
+        final LocalChecksumIndex first = new LocalChecksumIndex(index);
+        first.put(file, new Checksum(HashAlgorithm.md5, "a43c1b0aa53a0c908810c06ab1ff3967"));
+        first.close();
+        Files.write(Paths.get(index.getAbsolute()), "+\t/f\t1".getBytes(StandardCharsets.UTF_8), java.nio.file.StandardOpenOption.APPEND);
+        assertEquals(new Checksum(HashAlgorithm.md5, "a43c1b0aa53a0c908810c06ab1ff3967"),
+            new LocalChecksumIndex(index).find(file, HashAlgorithm.md5));
+        file.delete();
+        index.delete();
+    }
+}
@@ -19,6 +19,11 @@ import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.commons.lang3.RandomUtils;
 import org.junit.Test;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
@@ -60,4 +65,33 @@ public class MemorySegementingOutputStreamTest {
         out.close();
         assertArrayEquals(content, proxy.toByteArray());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testProxyRetainsArray() throws Exception {
+        final List<byte[]> segments = new ArrayList<>();
+        final OutputStream proxy = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                assertEquals(0, off);
+                assertEquals(b.length, len);
+                // Keep reference without copy
+                segments.add(b);
+            }
+        };
+        final MemorySegementingOutputStream out = new MemorySegementingOutputStream(proxy, 32768);
+        final byte[] content = RandomUtils.nextBytes(65536 + 100);
+        out.write(content, 0, 32768);
+        out.write(content, 32768, 32768);
+        out.write(content, 65536, 100);
+        out.close();
+        assertEquals(3, segments.size());
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 32768), segments.get(0));
+        assertArrayEquals(Arrays.copyOfRange(content, 32768, 65536), segments.get(1));
+        assertArrayEquals(Arrays.copyOfRange(content, 65536, 65636), segments.get(2));
+    }
+}
@@ -0,0 +1,79 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class MultiChecksumComputeTest {
+
+    @Test
+    public void testComputeAll() throws Exception {
+        final Map<HashAlgorithm, Checksum> checksums = new MultiChecksumCompute(HashAlgorithm.md5, HashAlgorithm.sha1, HashAlgorithm.sha256, HashAlgorithm.crc32)
+            .computeAll(IOUtils.toInputStream("input", Charset.defaultCharset()), new TransferStatus());
+        assertEquals(4, checksums.size());
+        assertEquals("a43c1b0aa53a0c908810c06ab1ff3967", checksums.get(HashAlgorithm.md5).hash);
+        assertEquals("140f86aae51ab9e1cda9b4254fe98a74eb54c1a1", checksums.get(HashAlgorithm.sha1).hash);
+        assertEquals("c96c6d5be8d08a12e7b5cdc1b207fa6b2430974c86803d8891675e76fd992c20", checksums.get(HashAlgorithm.sha256).hash);
+        assertEquals(new CRC32ChecksumCompute().compute(IOUtils.toInputStream("input", Charset.defaultCharset()), new TransferStatus()),
+            checksums.get(HashAlgorithm.crc32));
+    }
+
+    @Test
+    public void testComputeFirst() throws Exception {
+        assertEquals(new Checksum(HashAlgorithm.md5, "a43c1b0aa53a0c908810c06ab1ff3967"),
+            new MultiChecksumCompute(HashAlgorithm.sha256, HashAlgorithm.md5).compute(IOUtils.toInputStream("input", Charset.defaultCharset()), new TransferStatus()));
+        assertEquals(Checksum.NONE, new MultiChecksumCompute().compute(IOUtils.toInputStream("input", Charset.defaultCharset()), new TransferStatus()));
+    }
+
+    @Test
+    public void testComputeMemoryMapped() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(200000);
+        final File file = File.createTempFile("checksum", null);
+        Files.write(file.toPath(), content);
+        final TransferStatus status = new TransferStatus().skip(1000).length(150000);
+        final Map<HashAlgorithm, Checksum> expected = new MultiChecksumCompute(HashAlgorithm.md5, HashAlgorithm.sha512, HashAlgorithm.crc32)
+            .computeAll(new ByteArrayInputStream(content), status);
+        PreferencesFactory.get().setProperty("checksum.mmap.enable", true);
+        PreferencesFactory.get().setProperty("checksum.mmap.threshold", 1L);
+        try {
+            assertEquals(expected, new MultiChecksumCompute(HashAlgorithm.md5, HashAlgorithm.sha512, HashAlgorithm.crc32)
+                .computeAll(new FileInputStream(file), status));
+            PreferencesFactory.get().setProperty("checksum.parallel.threshold", 1L);
+            assertEquals(expected, new MultiChecksumCompute(HashAlgorithm.md5, HashAlgorithm.sha512, HashAlgorithm.crc32)
+                .computeAll(new FileInputStream(file), status));
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("checksum.mmap.enable");
+            PreferencesFactory.get().deleteProperty("checksum.mmap.threshold");
+            PreferencesFactory.get().deleteProperty("checksum.parallel.threshold");
+            file.delete();
+        }
+    }
+}
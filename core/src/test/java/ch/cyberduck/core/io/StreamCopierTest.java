@@ -11,6 +11,10 @@ import org.apache.commons.text.RandomStringGenerator;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
 import java.nio.charset.Charset;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
@@ -168,4 +172,23 @@ public class StreamCopierTest {
         assertTrue(status.isCanceled());
         assertEquals(32768L, status.getOffset());
     }
+
+    @Test
+    public void testTransferChannel() throws Exception {
+        final byte[] bytes = new RandomStringGenerator.Builder().build().generate(39865).getBytes();
+        final File source = File.createTempFile("source", null);
+        source.deleteOnExit();
+        Files.write(source.toPath(), bytes);
+        final File target = File.createTempFile("target", null);
+        target.deleteOnExit();
+        final TransferStatus status = new TransferStatus();
+        new StreamCopier(status, status).withOffset(100L).withLimit(1000L).transfer(
+                new ThrottledInputStream(new FileInputStream(source), new BandwidthThrottle(BandwidthThrottle.UNLIMITED)),
+                new FileOutputStream(target));
+        assertTrue(status.isComplete());
+        assertEquals(1000L, status.getOffset(), 0L);
+        final byte[] expected = new byte[1000];
+        System.arraycopy(bytes, 100, expected, 0, 1000);
+        assertArrayEquals(expected, Files.readAllBytes(target.toPath()));
+    }
 }
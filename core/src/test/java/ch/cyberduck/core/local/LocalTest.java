@@ -6,9 +6,13 @@ import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
@@ -182,6 +186,23 @@ public class LocalTest {
         n.delete();
     }
 
+    @Test
+    public void testWritePositional() throws Exception {
+        final TestLocal l = new TestLocal(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        l.allocate(6L);
+        assertEquals(6L, l.attributes().getSize());
+        final OutputStream second = l.getOutputStream(3L);
+        second.write("def".getBytes(StandardCharsets.UTF_8));
+        second.close();
+        final OutputStream first = l.getOutputStream(0L);
+        first.write("abc".getBytes(StandardCharsets.UTF_8));
+        first.close();
+        final InputStream in = l.getInputStream();
+        assertEquals("abcdef", IOUtils.toString(in, StandardCharsets.UTF_8));
+        in.close();
+        l.delete();
+    }
+
     @Test
     public void testNormalize() throws Exception {
         assertEquals(StringUtils.removeEnd(System.getProperty("java.io.tmpdir"),
@@ -0,0 +1,49 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonMetricsExporterTest {
+
+    @Test
+    public void testExport() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge("pool.active", "host", "example.net").set(3L);
+        registry.histogram("stream.duration").record(20L);
+        final StringWriter out = new StringWriter();
+        new JsonMetricsExporter().export(registry.snapshot(), out);
+        final JsonArray metrics = new JsonParser().parse(out.toString()).getAsJsonArray();
+        assertEquals(2, metrics.size());
+        final JsonObject gauge = metrics.get(0).getAsJsonObject();
+        assertEquals("pool.active", gauge.get("name").getAsString());
+        assertEquals("gauge", gauge.get("type").getAsString());
+        assertEquals("example.net", gauge.getAsJsonObject("labels").get("host").getAsString());
+        assertEquals(3L, gauge.get("value").getAsLong());
+        final JsonObject histogram = metrics.get(1).getAsJsonObject();
+        assertEquals(1L, histogram.get("count").getAsLong());
+        assertEquals(20L, histogram.get("sum").getAsLong());
+        assertEquals(1L, histogram.getAsJsonObject("buckets").get("25").getAsLong());
+    }
+}
@@ -0,0 +1,74 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testCounter() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("c", "host", "a").increment();
+        registry.counter("c", "host", "a").add(2L);
+        registry.counter("c", "host", "b").increment();
+        assertEquals(3L, registry.counter("c", "host", "a").get());
+        assertEquals(1L, registry.counter("c", "host", "b").get());
+        assertEquals(2, registry.snapshot().size());
+    }
+
+    @Test
+    public void testGauge() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge("g").set(5L);
+        assertEquals(5L, registry.gauge("g").get());
+        final AtomicLong value = new AtomicLong(1L);
+        registry.gauge("s", value::get);
+        value.set(7L);
+        assertEquals(7L, ((Gauge) registry.find(new MetricName("s"))).get());
+    }
+
+    @Test
+    public void testHistogram() {
+        final Histogram histogram = new MetricsRegistry().histogram("h");
+        histogram.record(0L);
+        histogram.record(1L);
+        histogram.record(7L);
+        histogram.record(Long.MAX_VALUE / 2);
+        assertEquals(4L, histogram.getCount());
+        final long[] buckets = histogram.getBuckets();
+        assertEquals(histogram.getBounds().length + 1, buckets.length);
+        assertEquals(2L, buckets[0]);
+        assertEquals(1L, buckets[2]);
+        assertEquals(1L, buckets[buckets.length - 1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMismatch() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("m");
+        registry.gauge("m");
+    }
+
+    @Test
+    public void testLabelOrder() {
+        assertEquals(new MetricName("m", "a", "1", "b", "2"), new MetricName("m", "b", "2", "a", "1"));
+    }
+}
@@ -0,0 +1,62 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrometheusMetricsExporterTest {
+
+    @Test
+    public void testExport() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("transfer.retries", "host", "a.example.net").add(2L);
+        registry.counter("transfer.retries", "host", "b\"").increment();
+        registry.histogram("http.request.duration", "host", "a.example.net").record(3L);
+        final StringWriter out = new StringWriter();
+        new PrometheusMetricsExporter().export(registry.snapshot(), out);
+        final String text = out.toString();
+        assertTrue(text.contains("# TYPE transfer_retries counter\n" +
+            "transfer_retries{host=\"a.example.net\"} 2\n" +
+            "transfer_retries{host=\"b\\\"\"} 1\n"));
+        assertTrue(text.contains("# TYPE http_request_duration histogram\n"));
+        assertTrue(text.contains("http_request_duration_bucket{host=\"a.example.net\",le=\"1\"} 0\n"));
+        assertTrue(text.contains("http_request_duration_bucket{host=\"a.example.net\",le=\"5\"} 1\n"));
+        assertTrue(text.contains("http_request_duration_bucket{host=\"a.example.net\",le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("http_request_duration_sum{host=\"a.example.net\"} 3\n"));
+        assertTrue(text.contains("http_request_duration_count{host=\"a.example.net\"} 1\n"));
+    }
+
+    @Test
+    public void testRouteLabel() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        new RegistryMetrics(registry, "a.example.net").increment(new MetricName("http.pool.lease", "route", "b.example.net:443"));
+        final StringWriter out = new StringWriter();
+        new PrometheusMetricsExporter().export(registry.snapshot(), out);
+        assertTrue(out.toString().contains("# TYPE http_pool_lease counter\n" +
+            "http_pool_lease{host=\"a.example.net\",route=\"b.example.net:443\"} 1\n"));
+    }
+
+    @Test
+    public void testName() {
+        assertEquals("http_pool_lease", PrometheusMetricsExporter.toName("http.pool.lease"));
+        assertEquals("_1m", PrometheusMetricsExporter.toName("1m"));
+    }
+}
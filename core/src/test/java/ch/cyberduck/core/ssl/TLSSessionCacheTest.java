@@ -0,0 +1,100 @@
+package ch.cyberduck.core.ssl;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledCertificateStore;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.TestProtocol;
+
+import org.junit.Test;
+
+import javax.net.ssl.SSLSocket;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class TLSSessionCacheTest {
+
+    @Test
+    public void testSharedContext() throws Exception {
+        final Host host = new Host(new TestProtocol());
+        final X509TrustManager trust = new DefaultX509TrustManager();
+        final X509KeyManager key = new CertificateStoreX509KeyManager(new DisabledCertificateStore(), host);
+        // Sessions in pool with trust manager bound to session
+        assertSame(
+            new CustomTrustSSLProtocolSocketFactory(new ThreadLocalHostnameDelegatingTrustManager(trust, host.getHostname()), key).getSSLContext(),
+            new CustomTrustSSLProtocolSocketFactory(new ThreadLocalHostnameDelegatingTrustManager(trust, host.getHostname()), key).getSSLContext());
+        assertNotSame(
+            new CustomTrustSSLProtocolSocketFactory(trust, key).getSSLContext(),
+            new CustomTrustSSLProtocolSocketFactory(new DefaultX509TrustManager(), key).getSSLContext());
+        assertNotSame(
+            new CustomTrustSSLProtocolSocketFactory(trust, key).getSSLContext(),
+            new CustomTrustSSLProtocolSocketFactory(trust, new CertificateStoreX509KeyManager(new DisabledCertificateStore(), host)).getSSLContext());
+    }
+
+    @Test
+    public void testDisabledTrustNotShared() throws Exception {
+        final X509TrustManager trust = new DisabledX509TrustManager();
+        final X509KeyManager key = new CertificateStoreX509KeyManager(new DisabledCertificateStore(), new Host(new TestProtocol()));
+        assertNotSame(
+            new CustomTrustSSLProtocolSocketFactory(trust, key).getSSLContext(),
+            new CustomTrustSSLProtocolSocketFactory(trust, key).getSSLContext());
+        assertNotSame(
+            new CustomTrustSSLProtocolSocketFactory(new ThreadLocalHostnameDelegatingTrustManager(trust, "localhost"), key).getSSLContext(),
+            new CustomTrustSSLProtocolSocketFactory(new ThreadLocalHostnameDelegatingTrustManager(trust, "localhost"), key).getSSLContext());
+    }
+
+    @Test
+    public void testClientCertificateNotShared() throws Exception {
+        final Host host = new Host(new TestProtocol());
+        host.getCredentials().setCertificate("myclientcert");
+        final X509TrustManager trust = new DefaultX509TrustManager();
+        final X509KeyManager key = new CertificateStoreX509KeyManager(new DisabledCertificateStore(), host);
+        assertNotSame(
+            new CustomTrustSSLProtocolSocketFactory(trust, key).getSSLContext(),
+            new CustomTrustSSLProtocolSocketFactory(trust, key).getSSLContext());
+    }
+
+    @Test
+    public void testRouteTrust() throws Exception {
+        final AtomicBoolean verified = new AtomicBoolean();
+        final CustomTrustSSLProtocolSocketFactory factory = new CustomTrustSSLProtocolSocketFactory(new DefaultX509TrustManager() {
+            @Override
+            public void checkServerTrusted(final X509Certificate[] certs, final String cipher) {
+                verified.set(true);
+            }
+        }, new CertificateStoreX509KeyManager(new DisabledCertificateStore(), new Host(new TestProtocol())));
+        final SSLSocket socket = (SSLSocket) factory.createSocket();
+        TLSSessionCache.get().getTrustManager().checkServerTrusted(new X509Certificate[0], "RSA", socket);
+        assertTrue(verified.get());
+        socket.close();
+    }
+
+    @Test(expected = CertificateException.class)
+    public void testUnknownSocket() throws Exception {
+        final SSLSocket socket = (SSLSocket) TLSSessionCache.get().getContext(new DefaultX509TrustManager(),
+            new CertificateStoreX509KeyManager(new DisabledCertificateStore(), new Host(new TestProtocol())), null)
+            .getSocketFactory().createSocket();
+        try {
+            TLSSessionCache.get().getTrustManager().checkServerTrusted(new X509Certificate[0], "RSA", socket);
+        }
+        finally {
+            socket.close();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ch.cyberduck.core.synchronization;
 import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
 import ch.cyberduck.core.NullSession;
@@ -14,12 +15,14 @@ import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.LocalChecksumIndex;
 
 import org.junit.Test;
 
 import java.util.Calendar;
 import java.util.EnumSet;
 import java.util.TimeZone;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
@@ -27,6 +30,9 @@ import static org.junit.Assert.assertTrue;
 
 public class ComparisonServiceFilterTest {
 
+    private final LocalChecksumIndex index = new LocalChecksumIndex(
+        new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+
     @Test
     public void testCompareEqualResultFile() throws Exception {
         final AtomicBoolean found = new AtomicBoolean();
@@ -61,7 +67,7 @@ public class ComparisonServiceFilterTest {
             }
         };
         ComparisonServiceFilter s = new ComparisonServiceFilter(new NullSession(new Host(new TestProtocol())) {
-        }, TimeZone.getDefault(), new DisabledProgressListener()).withFinder(find).withAttributes(attributes);
+        }, TimeZone.getDefault(), new DisabledProgressListener()).withIndex(index).withFinder(find).withAttributes(attributes);
         assertEquals(Comparison.equal, s.compare(new Path("t", EnumSet.of(Path.Type.file)), new NullLocal("t") {
             @Override
             public LocalAttributes attributes() {
@@ -98,7 +104,7 @@ public class ComparisonServiceFilterTest {
             }
         };
         ComparisonServiceFilter s = new ComparisonServiceFilter(new NullSession(new Host(new TestProtocol())) {
-        }, TimeZone.getDefault(), new DisabledProgressListener()).withFinder(find);
+        }, TimeZone.getDefault(), new DisabledProgressListener()).withIndex(index).withFinder(find);
         assertEquals(Comparison.equal, s.compare(new Path("t", EnumSet.of(Path.Type.directory)), new NullLocal("t") {
             @Override
             public boolean exists() {
@@ -124,7 +130,7 @@ public class ComparisonServiceFilterTest {
             }
         };
         ComparisonServiceFilter s = new ComparisonServiceFilter(new NullSession(new Host(new TestProtocol())) {
-        }, TimeZone.getDefault(), new DisabledProgressListener()).withFinder(find);
+        }, TimeZone.getDefault(), new DisabledProgressListener()).withIndex(index).withFinder(find);
         assertEquals(Comparison.local, s.compare(new Path("t", EnumSet.of(Path.Type.directory)), new NullLocal("t") {
             @Override
             public boolean exists() {
@@ -150,7 +156,7 @@ public class ComparisonServiceFilterTest {
             }
         };
         ComparisonServiceFilter s = new ComparisonServiceFilter(new NullSession(new Host(new TestProtocol())) {
-        }, TimeZone.getDefault(), new DisabledProgressListener()).withFinder(find);
+        }, TimeZone.getDefault(), new DisabledProgressListener()).withIndex(index).withFinder(find);
         assertEquals(Comparison.remote, s.compare(new Path("t", EnumSet.of(Path.Type.directory)), new NullLocal("t") {
             @Override
             public boolean exists() {
@@ -209,7 +215,7 @@ public class ComparisonServiceFilterTest {
             }
         };
         ComparisonServiceFilter s = new ComparisonServiceFilter(new NullSession(new Host(new TestProtocol())) {
-        }, TimeZone.getDefault(), new DisabledProgressListener()).withFinder(find).withAttributes(attributes);
+        }, TimeZone.getDefault(), new DisabledProgressListener()).withIndex(index).withFinder(find).withAttributes(attributes);
         assertEquals(Comparison.local, s.compare(new Path("t", EnumSet.of(Path.Type.file)), new NullLocal("t") {
             @Override
             public LocalAttributes attributes() {
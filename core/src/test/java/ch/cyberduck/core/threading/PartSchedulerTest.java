@@ -0,0 +1,153 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class PartSchedulerTest {
+
+    @Test
+    public void testInterleaveFiles() throws Exception {
+        final PartScheduler scheduler = new PartScheduler(new DefaultThreadPool(1), 1);
+        final CountDownLatch block = new CountDownLatch(1);
+        final CountDownLatch running = new CountDownLatch(1);
+        // Occupy single thread until all parts are queued
+        final Future<Void> first = scheduler.submit("a", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                running.countDown();
+                block.await();
+                return null;
+            }
+        });
+        running.await();
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Future<String>> futures = new ArrayList<>();
+        for(String owner : new String[]{"a", "a", "a", "b", "b", "b"}) {
+            futures.add(scheduler.submit(owner, new Callable<String>() {
+                @Override
+                public String call() {
+                    order.add(owner);
+                    return owner;
+                }
+            }));
+        }
+        assertEquals(6, scheduler.getQueueDepth());
+        block.countDown();
+        first.get();
+        for(Future<String> f : futures) {
+            f.get();
+        }
+        assertEquals(0, scheduler.getQueueDepth());
+        assertEquals(0, scheduler.getActive());
+        assertEquals(7L, scheduler.getCompleted());
+        assertEquals(6, order.size());
+        // Parts of both files alternate
+        for(int i = 1; i < order.size(); i++) {
+            assertNotEquals(order.get(i - 1), order.get(i));
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final PartScheduler scheduler = new PartScheduler(new DefaultThreadPool(1), 1);
+        final CountDownLatch block = new CountDownLatch(1);
+        final Future<Void> first = scheduler.submit("a", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                block.await();
+                return null;
+            }
+        });
+        final Future<Void> second = scheduler.submit("a", new Callable<Void>() {
+            @Override
+            public Void call() {
+                fail();
+                return null;
+            }
+        });
+        assertTrue(second.cancel(false));
+        block.countDown();
+        first.get();
+        assertTrue(second.isCancelled());
+        assertEquals(1L, scheduler.getCompleted());
+    }
+
+    @Test
+    public void testShared() {
+        final PartScheduler s3 = PartScheduler.get("s3", "h", 2);
+        assertSame(s3, PartScheduler.get("s3", "h", 2));
+        final PartScheduler other = PartScheduler.get("s3", "g", 2);
+        assertNotSame(s3, other);
+        assertEquals(2, s3.getSize());
+        // Settings of other feature for same server
+        final PartScheduler azure = PartScheduler.get("azure", "h", 4);
+        assertNotSame(s3, azure);
+        assertEquals(4, azure.getSize());
+        // Changed setting
+        final PartScheduler changed = PartScheduler.get("s3", "h", 8);
+        assertEquals(8, changed.getSize());
+        s3.release();
+        s3.release();
+        other.release();
+        azure.release();
+        changed.release();
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        final PartScheduler scheduler = PartScheduler.get("s3", "release", 1);
+        assertSame(scheduler, PartScheduler.get("s3", "release", 1));
+        scheduler.release();
+        // Still in use by other caller
+        assertSame(scheduler, PartScheduler.get("s3", "release", 1));
+        assertEquals("a", scheduler.submit("a", new Callable<String>() {
+            @Override
+            public String call() {
+                return "a";
+            }
+        }).get());
+        scheduler.release();
+        scheduler.release();
+        // Unused scheduler is removed and shutdown
+        final PartScheduler recreated = PartScheduler.get("s3", "release", 1);
+        assertNotSame(scheduler, recreated);
+        recreated.release();
+        try {
+            scheduler.submit("a", new Callable<String>() {
+                @Override
+                public String call() {
+                    fail();
+                    return null;
+                }
+            });
+            fail();
+        }
+        catch(RejectedExecutionException e) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class VirtualThreadPoolTest {
+
+    /**
+     * Platform threads for runtimes without support for virtual threads
+     */
+    private final ThreadFactory factory = new NamedThreadFactory("test");
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testShutdown() throws Exception {
+        final VirtualThreadPool p = new VirtualThreadPool(1, factory);
+        p.shutdown(true);
+        p.execute(new Callable<Void>() {
+            @Override
+            public Void call() {
+                fail();
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        final VirtualThreadPool pool = new VirtualThreadPool(2, factory);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            futures.add(pool.execute(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(10L);
+                    running.decrementAndGet();
+                    return 1;
+                }
+            }));
+        }
+        int sum = 0;
+        for(Future<Integer> future : futures) {
+            sum += future.get();
+        }
+        assertEquals(20, sum);
+        assertEquals(2, maximum.get());
+        pool.shutdown(true);
+        assertTrue(pool.executor().isTerminated());
+    }
+
+    @Test
+    public void testSupported() {
+        final String version = System.getProperty("java.specification.version");
+        assertEquals(!version.startsWith("1.") && Integer.parseInt(version) >= 21, VirtualThreadPool.isSupported());
+    }
+}
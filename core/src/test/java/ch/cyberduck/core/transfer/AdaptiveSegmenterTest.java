@@ -0,0 +1,126 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.NullLocal;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveSegmenterTest {
+
+    @Test
+    public void testSplitLagging() throws Exception {
+        final NullLocal local = new NullLocal("t.cyberducksegment");
+        final TransferStatus first = new TransferStatus().segment(true).positional(true).skip(0L).length(100L).rename(local);
+        final TransferStatus second = new TransferStatus().segment(true).positional(true).skip(100L).length(100L).rename(local);
+        final TransferStatus status = new TransferStatus().length(200L).withSegments(new CopyOnWriteArrayList<>(Arrays.asList(first, second)));
+        first.progress(100L);
+        first.setComplete();
+        second.progress(20L);
+        final TransferStatus remainder = new AdaptiveSegmenter(new TransferSpeedometer(null) {
+            @Override
+            public Double getThroughput() {
+                return 0d;
+            }
+        }, 10L, 0L).split(status);
+        assertNotNull(remainder);
+        assertEquals(3, status.getSegments().size());
+        assertSame(remainder, status.getSegments().get(2));
+        assertEquals(160L, remainder.getOffset());
+        assertEquals(40L, remainder.getLength());
+        assertEquals(60L, second.getLength());
+        assertTrue(remainder.isPositional());
+        assertEquals(local, remainder.getRename().local);
+    }
+
+    @Test
+    public void testSkipPending() {
+        final TransferStatus first = new TransferStatus().segment(true).positional(true).skip(0L).length(100L);
+        final TransferStatus second = new TransferStatus().segment(true).positional(true).skip(100L).length(100L);
+        final TransferStatus status = new TransferStatus().length(200L).withSegments(new CopyOnWriteArrayList<>(Arrays.asList(first, second)));
+        first.progress(50L);
+        assertNull(new AdaptiveSegmenter(new TransferSpeedometer(null), 10L, 0L).split(status));
+    }
+
+    @Test
+    public void testSkipBelowMinimum() {
+        final TransferStatus first = new TransferStatus().segment(true).positional(true).skip(0L).length(100L);
+        final TransferStatus status = new TransferStatus().length(100L).withSegments(new CopyOnWriteArrayList<>(Arrays.asList(first)));
+        first.progress(90L);
+        assertNull(new AdaptiveSegmenter(new TransferSpeedometer(null) {
+            @Override
+            public Double getThroughput() {
+                return 0d;
+            }
+        }, 10L, 0L).split(status));
+    }
+
+    @Test
+    public void testResize() throws Exception {
+        final NullLocal local = new NullLocal("t.cyberduckdownload");
+        final TransferStatus first = new TransferStatus().segment(true).positional(true).skip(0L).length(500L).rename(local);
+        final TransferStatus second = new TransferStatus().segment(true).positional(true).skip(500L).length(500L).rename(local);
+        final TransferStatus status = new TransferStatus().length(1000L).withSegments(new CopyOnWriteArrayList<>(Arrays.asList(first, second)));
+        // 2 bytes per millisecond shared by 2 connections for 100ms
+        assertTrue(new AdaptiveSegmenter(new TransferSpeedometer(null) {
+            @Override
+            public Double getThroughput() {
+                return 2d;
+            }
+        }, 10L, 100L).resize(status, 2));
+        assertEquals(10, status.getSegments().size());
+        long position = 0L;
+        for(TransferStatus segment : status.getSegments()) {
+            assertEquals(position, segment.getOffset());
+            assertEquals(100L, segment.getLength());
+            assertEquals(local, segment.getRename().local);
+            position += segment.getLength();
+        }
+    }
+
+    @Test
+    public void testResizeNoThroughput() {
+        final TransferStatus first = new TransferStatus().segment(true).positional(true).skip(0L).length(500L);
+        final TransferStatus status = new TransferStatus().length(500L).withSegments(new CopyOnWriteArrayList<>(Arrays.asList(first)));
+        assertFalse(new AdaptiveSegmenter(new TransferSpeedometer(null) {
+            @Override
+            public Double getThroughput() {
+                return 0d;
+            }
+        }, 10L, 100L).resize(status, 2));
+        assertSame(first, status.getSegments().get(0));
+    }
+
+    @Test
+    public void testResizeSkipResumed() {
+        final TransferStatus first = new TransferStatus().segment(true).positional(true).skip(500L).length(500L);
+        first.setComplete();
+        final TransferStatus second = new TransferStatus().segment(true).positional(true).skip(500L).length(500L);
+        final TransferStatus status = new TransferStatus().length(500L).withSegments(new CopyOnWriteArrayList<>(Arrays.asList(first, second)));
+        assertFalse(new AdaptiveSegmenter(new TransferSpeedometer(null) {
+            @Override
+            public Double getThroughput() {
+                return 2d;
+            }
+        }, 10L, 100L).resize(status, 2));
+        assertEquals(2, status.getSegments().size());
+    }
+}
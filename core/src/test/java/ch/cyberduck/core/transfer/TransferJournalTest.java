@@ -0,0 +1,163 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class TransferJournalTest {
+
+    @Test
+    public void testResume() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferItem directory = new TransferItem(new Path("/d", EnumSet.of(Path.Type.directory)), new Local("/t/d"));
+        final TransferItem complete = new TransferItem(new Path("/d/a b", EnumSet.of(Path.Type.file)), new Local("/t/d/a b"));
+        final TransferItem partial = new TransferItem(new Path("/d/c", EnumSet.of(Path.Type.file)), new Local("/t/d/c"));
+        complete.remote.attributes().setSize(3L);
+        final TransferJournal first = new TransferJournal(file, 100, 1000L).open();
+        first.listed(directory, Arrays.asList(complete, partial));
+        first.prepared(complete, new TransferStatus().length(3L));
+        first.prepared(partial, new TransferStatus().length(10L));
+        first.completed(complete, new TransferStatus().length(3L).skip(3L));
+        final TransferStatus status = new TransferStatus().length(10L);
+        first.started(partial, status);
+        status.setOffset(4L);
+        first.flush();
+        // Simulate crash without closing journal
+        final TransferJournal second = new TransferJournal(file, 100, 1000L).open();
+        assertTrue(second.isComplete(complete));
+        assertFalse(second.isPartial(complete));
+        assertEquals(3L, second.getOffset(complete));
+        assertFalse(second.isComplete(partial));
+        assertTrue(second.isPartial(partial));
+        assertEquals(4L, second.getOffset(partial));
+        final List<TransferItem> children = second.getChildren(directory);
+        assertNotNull(children);
+        assertEquals(Arrays.asList(complete, partial), children);
+        assertEquals(3L, children.get(0).remote.attributes().getSize());
+        assertTrue(children.get(0).remote.isFile());
+        assertNull(second.getChildren(complete));
+        second.failed(partial, new TransferStatus().length(10L).skip(6L));
+        second.close();
+        final TransferJournal third = new TransferJournal(file, 100, 1000L).open();
+        assertEquals(6L, third.getOffset(partial));
+        third.delete();
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferJournal journal = new TransferJournal(file, 2, Long.MAX_VALUE).open();
+        journal.completed(new TransferItem(new Path("/a", EnumSet.of(Path.Type.file)), new Local("/t/a")), new TransferStatus());
+        assertFalse(file.exists());
+        journal.completed(new TransferItem(new Path("/b", EnumSet.of(Path.Type.file)), new Local("/t/b")), new TransferStatus());
+        assertTrue(file.exists());
+        assertEquals(2, Files.readAllLines(Paths.get(file.getAbsolute())).size());
+        journal.delete();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testSkipPartialLine() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferItem item = new TransferItem(new Path("/a", EnumSet.of(Path.Type.file)), new Local("/t/a"));
+        final TransferJournal first = new TransferJournal(file, 100, 1000L).open();
+        first.completed(item, new TransferStatus());
+        first.close();
+        Files.write(Paths.get(file.getAbsolute()), "progress\t%2Fb\t%2Ft%2Fb\t1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        final TransferJournal second = new TransferJournal(file, 100, 1000L).open();
+        assertTrue(second.isComplete(item));
+        assertFalse(second.isPartial(new TransferItem(new Path("/b", EnumSet.of(Path.Type.file)), new Local("/t/b"))));
+        second.delete();
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferItem item = new TransferItem(new Path("/a", EnumSet.of(Path.Type.file)), new Local("/t/a"));
+        final TransferJournal journal = new TransferJournal(file, 100, Long.MAX_VALUE).open();
+        final TransferStatus status = new TransferStatus().length(100L);
+        for(int i = 1; i <= 10; i++) {
+            journal.started(item, status.skip(i));
+        }
+        journal.completed(item, status);
+        journal.flush();
+        assertEquals(11, Files.readAllLines(Paths.get(file.getAbsolute())).size());
+        journal.compact();
+        assertEquals(1, Files.readAllLines(Paths.get(file.getAbsolute())).size());
+        journal.close();
+        final TransferJournal reopened = new TransferJournal(file, 100, Long.MAX_VALUE).open();
+        assertTrue(reopened.isComplete(item));
+        reopened.delete();
+    }
+
+    @Test
+    public void testChildrenAttributes() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferItem directory = new TransferItem(new Path("/d", EnumSet.of(Path.Type.directory)), new Local("/t/d"));
+        final TransferItem link = new TransferItem(new Path("/d/l", EnumSet.of(Path.Type.file, Path.Type.symboliclink)), new Local("/t/d/l"));
+        link.remote.setSymlinkTarget(new Path("/d/t 1", EnumSet.of(Path.Type.file)));
+        final TransferItem version = new TransferItem(new Path("/d/v", EnumSet.of(Path.Type.file)), new Local("/t/d/v"));
+        version.remote.attributes().setVersionId("a/b");
+        final TransferJournal first = new TransferJournal(file, 100, Long.MAX_VALUE).open();
+        first.listed(directory, Arrays.asList(link, version));
+        first.close();
+        final TransferJournal second = new TransferJournal(file, 100, Long.MAX_VALUE).open();
+        final List<TransferItem> children = second.getChildren(directory);
+        assertNotNull(children);
+        assertEquals(new Path("/d/t 1", EnumSet.of(Path.Type.file)), children.get(0).remote.getSymlinkTarget());
+        assertTrue(children.get(0).remote.getSymlinkTarget().isFile());
+        assertNull(children.get(0).remote.attributes().getVersionId());
+        assertNull(children.get(1).remote.getSymlinkTarget());
+        assertEquals("a/b", children.get(1).remote.attributes().getVersionId());
+        second.delete();
+    }
+
+    @Test
+    public void testIncompleteListing() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferItem directory = new TransferItem(new Path("/d", EnumSet.of(Path.Type.directory)), new Local("/t/d"));
+        final TransferItem a = new TransferItem(new Path("/d/a", EnumSet.of(Path.Type.file)), new Local("/t/d/a"));
+        final TransferItem b = new TransferItem(new Path("/d/b", EnumSet.of(Path.Type.file)), new Local("/t/d/b"));
+        final TransferJournal first = new TransferJournal(file, 100, Long.MAX_VALUE).open();
+        first.listed(directory, Arrays.asList(a, b));
+        first.close();
+        // Drop completion marker as if crashed while listing
+        final List<String> lines = Files.readAllLines(Paths.get(file.getAbsolute()));
+        assertEquals(3, lines.size());
+        Files.write(Paths.get(file.getAbsolute()), lines.subList(0, 1), StandardCharsets.UTF_8);
+        final TransferJournal second = new TransferJournal(file, 100, Long.MAX_VALUE).open();
+        assertNull(second.getChildren(directory));
+        second.listed(directory, Arrays.asList(a, b));
+        second.close();
+        final TransferJournal third = new TransferJournal(file, 100, Long.MAX_VALUE).open();
+        assertEquals(Arrays.asList(a, b), third.getChildren(directory));
+        third.delete();
+    }
+}
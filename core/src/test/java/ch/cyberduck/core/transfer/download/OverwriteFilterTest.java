@@ -2,6 +2,7 @@ package ch.cyberduck.core.transfer.download;
 
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
 import ch.cyberduck.core.NullSession;
@@ -10,11 +11,13 @@ import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.local.DefaultLocalTouchFeature;
+import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.symlink.DisabledDownloadSymlinkResolver;
 
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.UUID;
 
@@ -97,4 +100,28 @@ public class OverwriteFilterTest {
         new DefaultLocalTouchFeature().touch(l);
         f.prepare(new Path("a", EnumSet.of(Path.Type.directory)), l, new TransferStatus().exists(true), new DisabledProgressListener());
     }
+
+    @Test
+    public void testCompletePositionalSegments() throws Exception {
+        final DownloadFilterOptions options = new DownloadFilterOptions();
+        options.icon = false;
+        options.wherefrom = false;
+        options.checksum = false;
+        final OverwriteFilter f = new OverwriteFilter(new DisabledDownloadSymlinkResolver(), new NullSession(new Host(new TestProtocol())), options);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local temporary = new Local(System.getProperty("java.io.tmpdir"), String.format("%s.cyberduckdownload", local.getName()));
+        new DefaultLocalTouchFeature().touch(temporary);
+        final TransferStatus segment = new TransferStatus().segment(true).positional(true).append(true).skip(0L).length(0L).rename(temporary);
+        segment.setComplete();
+        new SegmentRanges(temporary).add(0L, 1L);
+        final Local ranges = new Local(temporary.getParent(), String.format("%s.ranges", temporary.getName()));
+        assertTrue(ranges.exists());
+        final TransferStatus status = new TransferStatus().withSegments(Collections.singletonList(segment));
+        status.setComplete();
+        f.complete(new Path("a", EnumSet.of(Path.Type.file)), local, new TransferOptions().open(false).quarantine(false), status, new DisabledProgressListener());
+        assertTrue(local.exists());
+        assertFalse(ranges.exists());
+        assertFalse(new Local(local.getParent(), String.format("%s.ranges", local.getName())).exists());
+        local.delete();
+    }
 }
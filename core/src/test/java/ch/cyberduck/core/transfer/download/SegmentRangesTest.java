@@ -0,0 +1,63 @@
+package ch.cyberduck.core.transfer.download;
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class SegmentRangesTest {
+
+    @Test
+    public void testMerge() throws Exception {
+        final SegmentRanges ranges = new SegmentRanges(new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        assertTrue(ranges.get().isEmpty());
+        ranges.add(200L, 100L);
+        ranges.add(0L, 100L);
+        ranges.add(100L, 50L);
+        final List<SegmentRanges.Range> merged = ranges.get();
+        assertEquals(2, merged.size());
+        assertEquals(0L, merged.get(0).getOffset());
+        assertEquals(150L, merged.get(0).getLength());
+        assertEquals(200L, merged.get(1).getOffset());
+        assertEquals(100L, merged.get(1).getLength());
+        ranges.delete();
+        assertTrue(ranges.get().isEmpty());
+    }
+
+    @Test
+    public void testSegments() throws Exception {
+        final Local temporary = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final SegmentRanges ranges = new SegmentRanges(temporary);
+        ranges.add(100L, 100L);
+        ranges.add(300L, 50L);
+        final List<TransferStatus> segments = ranges.segments(400L, 100L);
+        assertEquals(5, segments.size());
+        // Contiguous with completed ranges marked complete
+        long position = 0L;
+        for(TransferStatus segment : segments) {
+            assertTrue(segment.isSegment());
+            assertTrue(segment.isPositional());
+            assertEquals(temporary, segment.getRename().local);
+            if(segment.isComplete()) {
+                assertEquals(position + segment.getLength(), segment.getOffset());
+            }
+            else {
+                assertEquals(position, segment.getOffset());
+            }
+            position += segment.getLength();
+        }
+        assertEquals(400L, position);
+        assertFalse(segments.get(0).isComplete());
+        assertTrue(segments.get(1).isComplete());
+        assertFalse(segments.get(2).isComplete());
+        assertTrue(segments.get(3).isComplete());
+        assertFalse(segments.get(4).isComplete());
+        assertEquals(50L, segments.get(4).getLength());
+        ranges.delete();
+    }
+}
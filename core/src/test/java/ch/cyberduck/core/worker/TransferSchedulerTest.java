@@ -0,0 +1,153 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransferSchedulerTest {
+
+    @Test
+    public void testSubmitTake() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(new DefaultThreadPool(2), 2);
+        final TransferStatus status = new TransferStatus();
+        final Future<TransferStatus> f = scheduler.submit(TransferScheduler.Lane.listing, new Callable<TransferStatus>() {
+            @Override
+            public TransferStatus call() {
+                return status;
+            }
+        });
+        assertSame(f, scheduler.take());
+        assertSame(status, f.get());
+        scheduler.shutdown(true);
+    }
+
+    @Test
+    public void testStealFromBlockedLane() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(new DefaultThreadPool(2), 2);
+        final CountDownLatch large = new CountDownLatch(1);
+        // Occupy worker in home lane for large files
+        scheduler.submit(TransferScheduler.Lane.large, new Callable<TransferStatus>() {
+            @Override
+            public TransferStatus call() throws Exception {
+                large.await();
+                return new TransferStatus();
+            }
+        });
+        final CountDownLatch small = new CountDownLatch(10);
+        for(int i = 0; i < 10; i++) {
+            scheduler.submit(TransferScheduler.Lane.small, new Callable<TransferStatus>() {
+                @Override
+                public TransferStatus call() {
+                    small.countDown();
+                    return new TransferStatus();
+                }
+            });
+        }
+        small.await();
+        assertEquals(0, scheduler.getQueueDepth(TransferScheduler.Lane.small));
+        assertEquals(1, scheduler.getActive(TransferScheduler.Lane.large));
+        large.countDown();
+        scheduler.shutdown(true);
+        assertEquals(0, scheduler.getActive(TransferScheduler.Lane.large));
+    }
+
+    @Test
+    public void testShutdownGracefullyRunsQueued() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(new DefaultThreadPool(1), 1);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(TransferScheduler.Lane.large, new Callable<TransferStatus>() {
+            @Override
+            public TransferStatus call() throws Exception {
+                running.countDown();
+                release.await();
+                return new TransferStatus();
+            }
+        });
+        running.await();
+        final TransferStatus status = new TransferStatus();
+        // Queued behind running task in single worker
+        final Future<TransferStatus> queued = scheduler.submit(TransferScheduler.Lane.small, new Callable<TransferStatus>() {
+            @Override
+            public TransferStatus call() {
+                return status;
+            }
+        });
+        assertEquals(1, scheduler.getQueueDepth(TransferScheduler.Lane.small));
+        final Thread shutdown = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                scheduler.shutdown(true);
+            }
+        });
+        shutdown.start();
+        release.countDown();
+        assertSame(status, queued.get(10L, TimeUnit.SECONDS));
+        shutdown.join(10000L);
+        assertFalse(shutdown.isAlive());
+        assertEquals(0, scheduler.getQueueDepth(TransferScheduler.Lane.small));
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testShutdownCancelsQueued() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(new DefaultThreadPool(1), 1);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(TransferScheduler.Lane.large, new Callable<TransferStatus>() {
+            @Override
+            public TransferStatus call() throws Exception {
+                running.countDown();
+                release.await();
+                return new TransferStatus();
+            }
+        });
+        running.await();
+        final Future<TransferStatus> queued = scheduler.submit(TransferScheduler.Lane.small, new Callable<TransferStatus>() {
+            @Override
+            public TransferStatus call() {
+                fail();
+                return null;
+            }
+        });
+        scheduler.shutdown(false);
+        release.countDown();
+        queued.get(10L, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSubmitAfterShutdown() {
+        final TransferScheduler scheduler = new TransferScheduler(new DefaultThreadPool(1), 1);
+        scheduler.shutdown(false);
+        scheduler.submit(TransferScheduler.Lane.small, new Callable<TransferStatus>() {
+            @Override
+            public TransferStatus call() {
+                fail();
+                return null;
+            }
+        });
+    }
+}
@@ -15,17 +15,28 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.threading.ThreadPool;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.ProxyInputStream;
+import org.apache.log4j.Logger;
 import org.cryptomator.cryptolib.api.CryptoException;
 import org.cryptomator.cryptolib.api.Cryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CryptoInputStream extends ProxyInputStream {
+    private static final Logger log = Logger.getLogger(CryptoInputStream.class);
 
     private final InputStream proxy;
     private final Cryptor cryptor;
@@ -39,21 +50,52 @@ public class CryptoInputStream extends ProxyInputStream {
     private long chunkIndexOffset;
     private final int chunkSize;
 
+    /**
+     * Number of ciphertext chunks read ahead and decrypted in parallel
+     */
+    private final int concurrency;
+    /**
+     * Shared workers or null when decrypting on the reading thread
+     */
+    private final ThreadPool pool;
+    /**
+     * Decrypted chunks in order of ciphertext
+     */
+    private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+    /**
+     * Ciphertext buffers returned by workers for reuse
+     */
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    private boolean eof;
+
     public CryptoInputStream(final InputStream proxy, final Cryptor cryptor, final FileHeader header, final long chunkIndexOffset) throws IOException {
+        this(proxy, cryptor, header, chunkIndexOffset, 1);
+    }
+
+    /**
+     * @param concurrency Maximum number of chunks to decrypt in parallel. Decrypts on the reading thread if 1
+     */
+    public CryptoInputStream(final InputStream proxy, final Cryptor cryptor, final FileHeader header, final long chunkIndexOffset,
+                             final int concurrency) throws IOException {
         super(proxy);
         this.proxy = proxy;
         this.cryptor = cryptor;
         this.header = header;
         this.chunkSize = cryptor.fileContentCryptor().ciphertextChunkSize();
         this.chunkIndexOffset = chunkIndexOffset;
+        this.concurrency = Math.max(1, concurrency);
+        this.pool = this.concurrency > 1 ? CryptoWorkerPool.get() : null;
     }
 
     @Override
     public int read() throws IOException {
         if(!buffer.hasRemaining()) {
-            this.readNextChunk();
+            if(this.readNextChunk() == IOUtils.EOF) {
+                return IOUtils.EOF;
+            }
         }
-        return buffer.get();
+        return buffer.get() & 0xff;
     }
 
     @Override
@@ -79,20 +121,94 @@ public class CryptoInputStream extends ProxyInputStream {
         return IOUtils.skip(this, len);
     }
 
+    @Override
+    public void close() throws IOException {
+        for(Future<ByteBuffer> future : pending) {
+            future.cancel(false);
+        }
+        pending.clear();
+        buffers.clear();
+        super.close();
+    }
+
     private int readNextChunk() throws IOException {
-        final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
+        if(null == pool) {
+            final ByteBuffer ciphertextBuf = this.next();
+            if(null == ciphertextBuf) {
+                return IOUtils.EOF;
+            }
+            final int read = ciphertextBuf.remaining();
+            buffer = this.decrypt(ciphertextBuf, chunkIndexOffset++);
+            buffers.offer(ciphertextBuf);
+            return read;
+        }
+        // Keep workers busy with chunks ahead of the reader
+        while(!eof && pending.size() < concurrency) {
+            final ByteBuffer ciphertextBuf = this.next();
+            if(null == ciphertextBuf) {
+                break;
+            }
+            final long index = chunkIndexOffset++;
+            pending.add(pool.execute(() -> {
+                try {
+                    return this.decrypt(ciphertextBuf, index);
+                }
+                finally {
+                    buffers.offer(ciphertextBuf);
+                }
+            }));
+        }
+        final Future<ByteBuffer> future = pending.poll();
+        if(null == future) {
+            return IOUtils.EOF;
+        }
+        try {
+            buffer = future.get();
+        }
+        catch(InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        catch(ExecutionException e) {
+            if(log.isWarnEnabled()) {
+                log.warn(String.format("Failure decrypting chunk %s", e.getCause()));
+            }
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        return buffer.remaining();
+    }
+
+    /**
+     * @return Next ciphertext chunk from proxy stream or null when end of stream is reached
+     */
+    private ByteBuffer next() throws IOException {
+        if(eof) {
+            return null;
+        }
+        ByteBuffer ciphertextBuf = buffers.poll();
+        if(null == ciphertextBuf) {
+            ciphertextBuf = ByteBuffer.allocate(chunkSize);
+        }
+        ciphertextBuf.clear();
         final int read = IOUtils.read(proxy, ciphertextBuf.array());
         if(read == 0) {
-            return IOUtils.EOF;
+            eof = true;
+            buffers.offer(ciphertextBuf);
+            return null;
         }
         ciphertextBuf.position(read);
         ciphertextBuf.flip();
+        return ciphertextBuf;
+    }
+
+    private ByteBuffer decrypt(final ByteBuffer ciphertextBuf, final long index) throws IOException {
         try {
-            buffer = cryptor.fileContentCryptor().decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+            return cryptor.fileContentCryptor().decryptChunk(ciphertextBuf, index, header, true);
         }
         catch(CryptoException e) {
             throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
         }
-        return read;
     }
 }
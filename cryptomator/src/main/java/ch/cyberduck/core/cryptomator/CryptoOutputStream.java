@@ -19,16 +19,24 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.io.MemorySegementingOutputStream;
 import ch.cyberduck.core.io.StatusOutputStream;
 import ch.cyberduck.core.random.NonceGenerator;
+import ch.cyberduck.core.threading.ThreadPool;
 
 import org.apache.commons.io.output.ProxyOutputStream;
+import org.apache.log4j.Logger;
 import org.cryptomator.cryptolib.api.CryptoException;
 import org.cryptomator.cryptolib.api.Cryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
@@ -36,7 +44,15 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
     public CryptoOutputStream(final StatusOutputStream<Reply> proxy, final Cryptor cryptor, final FileHeader header,
                               final NonceGenerator nonces, final long chunkIndexOffset) {
-        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset),
+        this(proxy, cryptor, header, nonces, chunkIndexOffset, 1);
+    }
+
+    /**
+     * @param concurrency Maximum number of chunks to encrypt in parallel. Encrypts on the writing thread if 1
+     */
+    public CryptoOutputStream(final StatusOutputStream<Reply> proxy, final Cryptor cryptor, final FileHeader header,
+                              final NonceGenerator nonces, final long chunkIndexOffset, final int concurrency) {
+        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset, concurrency),
                 cryptor.fileContentCryptor().cleartextChunkSize()));
         this.proxy = proxy;
     }
@@ -57,20 +73,38 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
     }
 
     private static final class EncryptingOutputStream extends ProxyOutputStream {
+        private static final Logger log = Logger.getLogger(EncryptingOutputStream.class);
+
         private final Cryptor cryptor;
         private final FileHeader header;
         private final int chunksize;
         private final NonceGenerator nonces;
         private long chunkIndexOffset;
 
+        private final int concurrency;
+        /**
+         * Shared workers or null when encrypting on the writing thread
+         */
+        private final ThreadPool pool;
+        /**
+         * Encrypted chunks in order of cleartext
+         */
+        private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+        /**
+         * Cleartext buffers returned by workers for reuse
+         */
+        private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+
         public EncryptingOutputStream(final OutputStream proxy, final Cryptor cryptor, final FileHeader header,
-                                      final NonceGenerator nonces, final long chunkIndexOffset) {
+                                      final NonceGenerator nonces, final long chunkIndexOffset, final int concurrency) {
             super(proxy);
             this.cryptor = cryptor;
             this.header = header;
             this.chunksize = cryptor.fileContentCryptor().cleartextChunkSize();
             this.nonces = nonces;
             this.chunkIndexOffset = chunkIndexOffset;
+            this.concurrency = Math.max(1, concurrency);
+            this.pool = this.concurrency > 1 ? CryptoWorkerPool.get() : null;
         }
 
         @Override
@@ -80,14 +114,87 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
+            for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += chunksize) {
+                final int chunkLen = Math.min(chunksize, off + len - chunkOffset);
+                byte[] cleartext = buffers.poll();
+                if(null == cleartext) {
+                    cleartext = new byte[chunksize];
+                }
+                System.arraycopy(b, chunkOffset, cleartext, 0, chunkLen);
+                if(null == pool) {
+                    super.write(this.encrypt(ByteBuffer.wrap(cleartext, 0, chunkLen), chunkIndexOffset++, nonces.next()).array());
+                    buffers.offer(cleartext);
+                    continue;
+                }
+                if(pending.size() >= concurrency) {
+                    // Write oldest chunk before queuing more
+                    super.write(this.await(pending.poll()).array());
+                }
+                final byte[] chunk = cleartext;
+                final long index = chunkIndexOffset++;
+                // Nonces are drawn in chunk order
+                final byte[] nonce = nonces.next();
+                pending.add(pool.execute(() -> {
+                    try {
+                        return this.encrypt(ByteBuffer.wrap(chunk, 0, chunkLen), index, nonce);
+                    }
+                    finally {
+                        buffers.offer(chunk);
+                    }
+                }));
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.drain();
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
             try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += chunksize) {
-                    int chunkLen = Math.min(chunksize, len - chunkOffset);
-                    final ByteBuffer encryptedChunk = cryptor.fileContentCryptor().encryptChunk(
-                            ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen)),
-                            chunkIndexOffset++, header, nonces.next());
-                    super.write(encryptedChunk.array());
+                this.drain();
+                super.close();
+            }
+            finally {
+                for(Future<ByteBuffer> future : pending) {
+                    future.cancel(false);
                 }
+                pending.clear();
+            }
+        }
+
+        /**
+         * Write all pending encrypted chunks in order
+         */
+        private void drain() throws IOException {
+            while(!pending.isEmpty()) {
+                super.write(this.await(pending.poll()).array());
+            }
+        }
+
+        private ByteBuffer await(final Future<ByteBuffer> future) throws IOException {
+            try {
+                return future.get();
+            }
+            catch(InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            catch(ExecutionException e) {
+                if(log.isWarnEnabled()) {
+                    log.warn(String.format("Failure encrypting chunk %s", e.getCause()));
+                }
+                if(e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        private ByteBuffer encrypt(final ByteBuffer cleartext, final long index, final byte[] nonce) throws IOException {
+            try {
+                return cryptor.fileContentCryptor().encryptChunk(cleartext, index, header, nonce);
             }
             catch(CryptoException e) {
                 throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
@@ -17,6 +17,7 @@ package ch.cyberduck.core.cryptomator;
 
 import ch.cyberduck.core.*;
 import ch.cyberduck.core.cryptomator.features.*;
+import ch.cyberduck.core.cryptomator.impl.CryptoCacheStore;
 import ch.cyberduck.core.cryptomator.impl.CryptoDirectoryProvider;
 import ch.cyberduck.core.cryptomator.impl.CryptoFilenameProvider;
 import ch.cyberduck.core.cryptomator.random.FastSecureRandomProvider;
@@ -75,6 +76,10 @@ public class CryptoVault implements Vault {
 
     private final CryptoFilenameProvider filenameProvider;
     private final CryptoDirectoryProvider directoryProvider;
+    /**
+     * Persisted directory IDs and filenames or null if disabled
+     */
+    private CryptoCacheStore store;
 
     private final byte[] pepper;
 
@@ -186,6 +191,10 @@ public class CryptoVault implements Vault {
         }
         try {
             this.open(this.upgrade(session, masterKeyFileContent, credentials.getPassword()), credentials.getPassword());
+            if(preferences.getBoolean("cryptomator.cache.persist")) {
+                store = new CryptoCacheStore(bookmark, masterKeyFile);
+                store.load(cryptor, directoryProvider, filenameProvider);
+            }
             if(credentials.isSaved()) {
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Save passphrase for %s", masterKeyFile));
@@ -211,6 +220,9 @@ public class CryptoVault implements Vault {
             if(log.isInfoEnabled()) {
                 log.info(String.format("Close vault with cryptor %s", cryptor));
             }
+            if(store != null) {
+                store.save(cryptor, directoryProvider, filenameProvider);
+            }
             if(cryptor != null) {
                 cryptor.destroy();
             }
@@ -222,6 +234,7 @@ public class CryptoVault implements Vault {
             }
         }
         cryptor = null;
+        store = null;
     }
 
     private KeyFile upgrade(final Session<?> session, final KeyFile keyFile, final CharSequence passphrase) throws BackgroundException {
@@ -0,0 +1,40 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2017 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+/**
+ * Workers shared by all vault streams encrypting or decrypting file content chunks in parallel. The pool is
+ * bounded in size regardless of the number of open streams and is never shut down by a stream.
+ */
+public final class CryptoWorkerPool {
+
+    private CryptoWorkerPool() {
+        //
+    }
+
+    private static final class Holder {
+        private static final ThreadPool pool = ThreadPoolFactory.get("crypto",
+            Math.max(1, PreferencesFactory.get().getInteger("cryptomator.chunk.pool.size")));
+    }
+
+    public static ThreadPool get() {
+        return Holder.pool;
+    }
+}
@@ -72,6 +72,12 @@ public class CryptoDeleteFeature implements Delete {
         }
         if(!encrypted.isEmpty()) {
             proxy.delete(encrypted, prompt, callback);
+            for(Path f : files) {
+                if(f.isDirectory()) {
+                    // Evict folder and all its descendants
+                    vault.getDirectoryProvider().delete(f);
+                }
+            }
         }
         for(Path f : files) {
             if(f.equals(vault.getHome())) {
@@ -44,6 +44,11 @@ public class CryptoMoveFeature implements Move {
                 vault.encrypt(session, file, file.isDirectory()),
                 vault.encrypt(session, renamed, file.isDirectory()),
                 status, callback, connectionCallback);
+        if(file.isDirectory()) {
+            // Directory IDs are kept with the renamed folder. Evict paths of folder and all its descendants
+            vault.getDirectoryProvider().delete(file);
+            vault.getDirectoryProvider().delete(renamed);
+        }
         return vault.decrypt(session, target);
     }
 
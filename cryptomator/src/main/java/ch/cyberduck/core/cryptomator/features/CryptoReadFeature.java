@@ -23,6 +23,7 @@ import ch.cyberduck.core.cryptomator.CryptoInputStream;
 import ch.cyberduck.core.cryptomator.CryptoVault;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.io.IOUtils;
@@ -63,12 +64,14 @@ public class CryptoReadFeature implements Read {
                 IOUtils.closeQuietly(in);
                 final TransferStatus s = new TransferStatus(status).length(-1L);
                 s.setOffset(this.align(status.getOffset()));
-                final CryptoInputStream crypto = new CryptoInputStream(proxy.read(encrypted, s, callback), cryptor, header, this.chunk(status.getOffset()));
+                final CryptoInputStream crypto = new CryptoInputStream(proxy.read(encrypted, s, callback), cryptor, header, this.chunk(status.getOffset()),
+                        PreferencesFactory.get().getInteger("cryptomator.chunk.concurrency"));
                 crypto.skip(this.position(status.getOffset()));
                 return crypto;
             }
             else {
-                return new CryptoInputStream(in, cryptor, header, vault.numberOfChunks(status.getOffset()));
+                return new CryptoInputStream(in, cryptor, header, vault.numberOfChunks(status.getOffset()),
+                        PreferencesFactory.get().getInteger("cryptomator.chunk.concurrency"));
             }
         }
         catch(IOException e) {
@@ -29,6 +29,7 @@ import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.ChecksumCompute;
 import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -76,7 +77,8 @@ public class CryptoWriteFeature<Reply> implements Write<Reply> {
                     new TransferStatus(status).length(vault.toCiphertextSize(status.getLength()) - cryptor.fileHeaderCryptor().headerSize()).withMime(null), callback);
             }
             return new CryptoOutputStream<Reply>(out, cryptor, cryptor.fileHeaderCryptor().decryptHeader(status.getHeader()),
-                status.getNonces(), vault.numberOfChunks(status.getOffset()));
+                status.getNonces(), vault.numberOfChunks(status.getOffset()),
+                PreferencesFactory.get().getInteger("cryptomator.chunk.concurrency"));
         }
         catch(IOException e) {
             throw new DefaultIOExceptionMappingService().map(e);
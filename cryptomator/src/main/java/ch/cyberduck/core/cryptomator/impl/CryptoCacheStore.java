@@ -0,0 +1,151 @@
+package ch.cyberduck.core.cryptomator.impl;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DescriptiveUrl;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.cryptomator.CryptoInputStream;
+import ch.cyberduck.core.cryptomator.CryptoOutputStream;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.io.VoidStatusOutputStream;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+import ch.cyberduck.core.shared.DefaultUrlProvider;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.cryptomator.cryptolib.api.CryptoException;
+import org.cryptomator.cryptolib.api.Cryptor;
+import org.cryptomator.cryptolib.api.FileHeader;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Properties;
+
+/**
+ * Persist directory IDs and shortened filenames of a vault between sessions. The cache file is encrypted with the
+ * file content cryptor of the vault and named after a hash of the masterkey URL. Directory IDs loaded are verified
+ * on first use.
+ */
+public class CryptoCacheStore {
+    private static final Logger log = Logger.getLogger(CryptoCacheStore.class);
+
+    private static final String DIRECTORY_PREFIX = "d:";
+    private static final String FILENAME_PREFIX = "n:";
+
+    private final Local file;
+
+    public CryptoCacheStore(final Host bookmark, final Path masterkey) {
+        this(LocalFactory.get(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Vaults"),
+            DigestUtils.sha256Hex(new DefaultUrlProvider(bookmark).toUrl(masterkey).find(DescriptiveUrl.Type.provider).getUrl())));
+    }
+
+    public CryptoCacheStore(final Local file) {
+        this.file = file;
+    }
+
+    /**
+     * Populate caches of providers with previously saved entries. Discards the cache file if it cannot be decrypted.
+     */
+    public void load(final Cryptor cryptor, final CryptoDirectoryProvider directories, final CryptoFilenameProvider filenames) {
+        if(!file.exists()) {
+            return;
+        }
+        final Properties properties = new Properties();
+        try (InputStream in = file.getInputStream()) {
+            final ByteBuffer headerBuffer = ByteBuffer.allocate(cryptor.fileHeaderCryptor().headerSize());
+            IOUtils.readFully(in, headerBuffer.array());
+            final FileHeader header = cryptor.fileHeaderCryptor().decryptHeader(headerBuffer);
+            properties.load(new CryptoInputStream(in, cryptor, header, 0));
+        }
+        catch(AccessDeniedException e) {
+            log.warn(String.format("Failure reading vault cache from %s. %s", file.getAbsolute(), e.getDetail()));
+            return;
+        }
+        catch(IOException | CryptoException e) {
+            log.warn(String.format("Failure reading vault cache from %s. %s", file.getAbsolute(), e.getMessage()));
+            this.delete();
+            return;
+        }
+        for(String key : properties.stringPropertyNames()) {
+            if(key.startsWith(DIRECTORY_PREFIX)) {
+                directories.load(key.substring(DIRECTORY_PREFIX.length()), properties.getProperty(key));
+            }
+            else if(key.startsWith(FILENAME_PREFIX)) {
+                filenames.getCache().put(key.substring(FILENAME_PREFIX.length()), properties.getProperty(key));
+            }
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Loaded %d directory IDs and %d filenames from %s",
+                directories.getCache().size(), filenames.getCache().size(), file.getAbsolute()));
+        }
+    }
+
+    /**
+     * Write current entries of provider caches encrypted to disk
+     */
+    public void save(final Cryptor cryptor, final CryptoDirectoryProvider directories, final CryptoFilenameProvider filenames) {
+        final Properties properties = new Properties();
+        directories.getCache().forEach((key, value) -> properties.setProperty(DIRECTORY_PREFIX + key, value));
+        filenames.getCache().forEach((key, value) -> properties.setProperty(FILENAME_PREFIX + key, value));
+        try {
+            final Local parent = file.getParent();
+            if(!parent.exists()) {
+                parent.mkdir();
+            }
+            try (OutputStream out = file.getOutputStream(false)) {
+                final FileHeader header = cryptor.fileHeaderCryptor().create();
+                out.write(cryptor.fileHeaderCryptor().encryptHeader(header).array());
+                final OutputStream crypto = new BufferedOutputStream(new CryptoOutputStream<Void>(new VoidStatusOutputStream(out),
+                    cryptor, header, new RandomNonceGenerator(), 0));
+                properties.store(crypto, null);
+                crypto.close();
+            }
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Saved %d entries to %s", properties.size(), file.getAbsolute()));
+            }
+        }
+        catch(AccessDeniedException e) {
+            log.warn(String.format("Failure saving vault cache to %s. %s", file.getAbsolute(), e.getDetail()));
+        }
+        catch(IOException | CryptoException e) {
+            log.warn(String.format("Failure saving vault cache to %s. %s", file.getAbsolute(), e.getMessage()));
+        }
+    }
+
+    public void delete() {
+        try {
+            if(file.exists()) {
+                file.delete();
+            }
+        }
+        catch(AccessDeniedException | NotfoundException e) {
+            log.warn(String.format("Failure deleting vault cache %s. %s", file.getAbsolute(), e.getDetail()));
+        }
+    }
+
+    public Local getFile() {
+        return file;
+    }
+}
@@ -16,7 +16,6 @@ package ch.cyberduck.core.cryptomator.impl;
  */
 
 import ch.cyberduck.core.AbstractPath;
-import ch.cyberduck.core.CacheReference;
 import ch.cyberduck.core.DefaultPathPredicate;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
@@ -24,19 +23,20 @@ import ch.cyberduck.core.RandomStringService;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.UUIDRandomStringService;
+import ch.cyberduck.core.cache.LRUCache;
 import ch.cyberduck.core.cryptomator.ContentReader;
 import ch.cyberduck.core.cryptomator.CryptoVault;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
-import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.nio.charset.StandardCharsets;
 import java.util.EnumSet;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CryptoDirectoryProvider {
     private static final Logger log = Logger.getLogger(CryptoDirectoryProvider.class);
@@ -51,9 +51,17 @@ public class CryptoDirectoryProvider {
     private final RandomStringService random
         = new UUIDRandomStringService();
 
-    private final Map<CacheReference<Path>, String> cache = new LRUMap<CacheReference<Path>, String>(
+    /**
+     * Directory ID by reference of clear text directory
+     */
+    private final LRUCache<String, String> cache = LRUCache.build(
         PreferencesFactory.get().getInteger("browser.cache.size"));
 
+    /**
+     * References of directories with ID loaded from persisted cache not yet verified with metadata file in vault
+     */
+    private final Set<String> unverified = ConcurrentHashMap.newKeySet();
+
     public CryptoDirectoryProvider(final Path vault, final CryptoVault cryptomator) {
         this.home = vault;
         this.dataRoot = new Path(vault, DATA_DIR_NAME, vault.getType());
@@ -120,14 +128,29 @@ public class CryptoDirectoryProvider {
             return ROOT_DIR_ID;
         }
         if(StringUtils.isBlank(directoryId)) {
-            if(cache.containsKey(new DefaultPathPredicate(directory))) {
-                return cache.get(new DefaultPathPredicate(directory));
+            final String reference = new DefaultPathPredicate(directory).toString();
+            final String cached = cache.getIfPresent(reference);
+            if(cached != null) {
+                if(!unverified.contains(reference)) {
+                    return cached;
+                }
+                unverified.remove(reference);
+                // Verify with directory ID in metadata file of folder
+                final String id = this.load(session, directory);
+                if(StringUtils.equals(cached, id)) {
+                    return cached;
+                }
+                log.warn(String.format("Discard directory ID %s from persisted cache for folder %s", cached, directory));
+                // Folder deleted or recreated by another client with directory IDs of descendants no longer valid
+                this.delete(directory);
+                cache.put(reference, id);
+                return id;
             }
             final String id = this.load(session, directory);
-            cache.put(new DefaultPathPredicate(directory), id);
+            cache.put(reference, id);
             return id;
         }
-        cache.put(new DefaultPathPredicate(directory), directoryId);
+        cache.put(new DefaultPathPredicate(directory).toString(), directoryId);
         return directoryId;
     }
 
@@ -150,13 +173,30 @@ public class CryptoDirectoryProvider {
     }
 
     /**
-     * Remove from cache
+     * Remove folder and all its descendants from cache
      */
     public void delete(final Path directory) {
-        cache.remove(new DefaultPathPredicate(directory));
+        final String reference = new DefaultPathPredicate(directory).toString();
+        cache.removeIf(key -> key.equals(reference) || key.startsWith(reference + Path.DELIMITER));
+        unverified.removeIf(key -> key.equals(reference) || key.startsWith(reference + Path.DELIMITER));
+    }
+
+    /**
+     * Add directory ID from persisted cache to be verified on first use
+     *
+     * @param reference Reference of clear text directory
+     */
+    void load(final String reference, final String directoryId) {
+        cache.put(reference, directoryId);
+        unverified.add(reference);
+    }
+
+    LRUCache<String, String> getCache() {
+        return cache;
     }
 
     public void destroy() {
         cache.clear();
+        unverified.clear();
     }
 }
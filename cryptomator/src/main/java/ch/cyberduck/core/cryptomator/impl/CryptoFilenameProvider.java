@@ -17,6 +17,7 @@ package ch.cyberduck.core.cryptomator.impl;
 
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.cache.LRUCache;
 import ch.cyberduck.core.cryptomator.ContentReader;
 import ch.cyberduck.core.cryptomator.ContentWriter;
 import ch.cyberduck.core.exception.BackgroundException;
@@ -25,12 +26,10 @@ import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
-import org.apache.commons.collections4.map.LRUMap;
 import org.apache.log4j.Logger;
 import org.cryptomator.cryptolib.common.MessageDigestSupplier;
 
 import java.util.EnumSet;
-import java.util.Map;
 
 import com.google.common.io.BaseEncoding;
 
@@ -47,7 +46,10 @@ public class CryptoFilenameProvider {
 
     private final Path metadataRoot;
 
-    private final Map<String, String> cache = new LRUMap<String, String>(
+    /**
+     * Shortened name by long ciphertext filename
+     */
+    private final LRUCache<String, String> cache = LRUCache.build(
         PreferencesFactory.get().getInteger("browser.cache.size"));
 
     public CryptoFilenameProvider(final Path vault) {
@@ -66,8 +68,9 @@ public class CryptoFilenameProvider {
         if(filename.length() < NAME_SHORTENING_THRESHOLD) {
             return filename;
         }
-        if(cache.containsKey(filename)) {
-            return cache.get(filename);
+        final String cached = cache.getIfPresent(filename);
+        if(cached != null) {
+            return cached;
         }
         final byte[] longFileNameBytes = filename.getBytes(UTF_8);
         final byte[] hash = MessageDigestSupplier.SHA1.get().digest(longFileNameBytes);
@@ -107,4 +110,8 @@ public class CryptoFilenameProvider {
     public void destroy() {
         cache.clear();
     }
+
+    LRUCache<String, String> getCache() {
+        return cache;
+    }
 }
@@ -150,4 +150,39 @@ public class CryptoOutputStreamTest {
 
         assertArrayEquals(cleartext, read);
     }
+
+    @Test
+    public void testParallelRoundtrip() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getCryptor().fileHeaderCryptor().create();
+        final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(cipherText) {
+            @Override
+            public Void getStatus() throws BackgroundException {
+                return null;
+            }
+        }, vault.getCryptor(), header, new RandomNonceGenerator(), 0, 4);
+
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getCryptor().fileContentCryptor().cleartextChunkSize() * 10 + 17);
+        stream.write(cleartext, 0, cleartext.length);
+        stream.close();
+        assertEquals(vault.toCiphertextSize(cleartext.length) - vault.getCryptor().fileHeaderCryptor().headerSize(), cipherText.size());
+
+        {
+            final byte[] read = new byte[cleartext.length];
+            final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getCryptor(), header, 0, 4);
+            IOUtils.readFully(cryptoInputStream, read);
+            assertEquals(-1, cryptoInputStream.read());
+            cryptoInputStream.close();
+            assertArrayEquals(cleartext, read);
+        }
+        {
+            // Serial decryption of parallel encrypted content
+            final byte[] read = new byte[cleartext.length];
+            final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getCryptor(), header, 0);
+            IOUtils.readFully(cryptoInputStream, read);
+            cryptoInputStream.close();
+            assertArrayEquals(cleartext, read);
+        }
+    }
 }
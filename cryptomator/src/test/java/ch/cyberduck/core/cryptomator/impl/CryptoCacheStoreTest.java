@@ -0,0 +1,190 @@
+package ch.cyberduck.core.cryptomator.impl;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultPathPredicate;
+import ch.cyberduck.core.DisabledPasswordStore;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.cryptomator.CryptoVault;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Directory;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.VaultCredentials;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class CryptoCacheStoreTest {
+
+    private CryptoVault getVault(final Path home) throws Exception {
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Directory.class) {
+                    return (T) new Directory() {
+
+                        @Override
+                        public Path mkdir(final Path folder, final String region, final TransferStatus status) throws BackgroundException {
+                            return folder;
+                        }
+
+                        @Override
+                        public boolean isSupported(final Path workdir, final String name) {
+                            return true;
+                        }
+
+                        @Override
+                        public Directory withWriter(final Write writer) {
+                            return this;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final CryptoVault vault = new CryptoVault(home);
+        vault.create(session, null, new VaultCredentials("test"), new DisabledPasswordStore());
+        return vault;
+    }
+
+    /**
+     * @param directoryId Content of directory metadata files or null if not found
+     */
+    private NullSession getSession(final String directoryId) {
+        return new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Read.class) {
+                    return (T) new Read() {
+                        @Override
+                        public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+                            if(null == directoryId) {
+                                throw new NotfoundException(file.getAbsolute());
+                            }
+                            return IOUtils.toInputStream(directoryId, StandardCharsets.UTF_8);
+                        }
+
+                        @Override
+                        public boolean offset(final Path file) {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+    }
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final CryptoVault vault = this.getVault(home);
+        final Path directory = new Path(home, "d", EnumSet.of(Path.Type.directory));
+        final String id = UUID.randomUUID().toString();
+        vault.getDirectoryProvider().toEncrypted(new NullSession(new Host(new TestProtocol())), id, directory);
+        vault.getFilenameProvider().getCache().put("long", "short.lng");
+        final Local file = LocalFactory.get(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final CryptoCacheStore store = new CryptoCacheStore(file);
+        store.save(vault.getCryptor(), vault.getDirectoryProvider(), vault.getFilenameProvider());
+        assertTrue(file.exists());
+        final CryptoDirectoryProvider directories = new CryptoDirectoryProvider(home, vault);
+        final CryptoFilenameProvider filenames = new CryptoFilenameProvider(home);
+        store.load(vault.getCryptor(), directories, filenames);
+        assertEquals(1L, directories.getCache().size());
+        assertEquals("short.lng", filenames.getCache().getIfPresent("long"));
+        // Read directory ID from cache without passing it explicitly
+        assertEquals(id, directories.toEncrypted(this.getSession(id), null, directory).attributes().getDirectoryId());
+        // Verified once
+        assertEquals(id, directories.toEncrypted(this.getSession(null), null, directory).attributes().getDirectoryId());
+        store.delete();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLoadOtherVault() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final CryptoVault vault = this.getVault(home);
+        vault.getFilenameProvider().getCache().put("long", "short.lng");
+        final Local file = LocalFactory.get(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final CryptoCacheStore store = new CryptoCacheStore(file);
+        store.save(vault.getCryptor(), vault.getDirectoryProvider(), vault.getFilenameProvider());
+        final CryptoVault other = this.getVault(home);
+        final CryptoFilenameProvider filenames = new CryptoFilenameProvider(home);
+        store.load(other.getCryptor(), new CryptoDirectoryProvider(home, other), filenames);
+        assertEquals(0L, filenames.getCache().size());
+        // Discarded file not decryptable with key of other vault
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLoadMissingDirectory() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final CryptoVault vault = this.getVault(home);
+        final Path directory = new Path(home, "d", EnumSet.of(Path.Type.directory));
+        final String id = UUID.randomUUID().toString();
+        vault.getDirectoryProvider().toEncrypted(new NullSession(new Host(new TestProtocol())), id, directory);
+        final Local file = LocalFactory.get(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final CryptoCacheStore store = new CryptoCacheStore(file);
+        store.save(vault.getCryptor(), vault.getDirectoryProvider(), vault.getFilenameProvider());
+        final CryptoDirectoryProvider directories = new CryptoDirectoryProvider(home, vault);
+        store.load(vault.getCryptor(), directories, new CryptoFilenameProvider(home));
+        assertEquals(1L, directories.getCache().size());
+        // Folder deleted by other client
+        assertNotEquals(id, directories.toEncrypted(this.getSession(null), null, directory).attributes().getDirectoryId());
+        store.delete();
+    }
+
+    @Test
+    public void testLoadRecreatedDirectory() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final CryptoVault vault = this.getVault(home);
+        final Path directory = new Path(home, "d", EnumSet.of(Path.Type.directory));
+        final Path child = new Path(directory, "c", EnumSet.of(Path.Type.directory));
+        final String id = UUID.randomUUID().toString();
+        vault.getDirectoryProvider().toEncrypted(new NullSession(new Host(new TestProtocol())), id, directory);
+        vault.getDirectoryProvider().toEncrypted(new NullSession(new Host(new TestProtocol())), UUID.randomUUID().toString(), child);
+        final Local file = LocalFactory.get(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final CryptoCacheStore store = new CryptoCacheStore(file);
+        store.save(vault.getCryptor(), vault.getDirectoryProvider(), vault.getFilenameProvider());
+        final CryptoDirectoryProvider directories = new CryptoDirectoryProvider(home, vault);
+        store.load(vault.getCryptor(), directories, new CryptoFilenameProvider(home));
+        assertEquals(2L, directories.getCache().size());
+        // Folder deleted and created again by other client with new directory ID in metadata file
+        final String recreated = UUID.randomUUID().toString();
+        assertEquals(recreated, directories.toEncrypted(this.getSession(recreated), null, directory).attributes().getDirectoryId());
+        assertEquals(recreated, directories.getCache().getIfPresent(new DefaultPathPredicate(directory).toString()));
+        assertFalse(directories.getCache().contains(new DefaultPathPredicate(child).toString()));
+        store.delete();
+    }
+}
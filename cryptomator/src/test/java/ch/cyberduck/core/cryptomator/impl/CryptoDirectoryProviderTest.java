@@ -17,6 +17,7 @@ package ch.cyberduck.core.cryptomator.impl;
 
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.Credentials;
+import ch.cyberduck.core.DefaultPathPredicate;
 import ch.cyberduck.core.DisabledPasswordCallback;
 import ch.cyberduck.core.DisabledPasswordStore;
 import ch.cyberduck.core.Host;
@@ -39,8 +40,7 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.EnumSet;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class CryptoDirectoryProviderTest {
 
@@ -105,4 +105,20 @@ public class CryptoDirectoryProviderTest {
         assertNotNull(provider.toEncrypted(session, null, f));
         assertEquals(provider.toEncrypted(session, null, f), provider.toEncrypted(session, null, f));
     }
+
+    @Test
+    public void testDeleteDescendants() {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final CryptoDirectoryProvider provider = new CryptoDirectoryProvider(home, new CryptoVault(home));
+        final Path a = new Path(home, "a", EnumSet.of(Path.Type.directory));
+        final Path b = new Path(a, "b", EnumSet.of(Path.Type.directory));
+        final Path ab = new Path(home, "ab", EnumSet.of(Path.Type.directory));
+        provider.load(new DefaultPathPredicate(a).toString(), "1");
+        provider.load(new DefaultPathPredicate(b).toString(), "2");
+        provider.load(new DefaultPathPredicate(ab).toString(), "3");
+        provider.delete(a);
+        assertFalse(provider.getCache().contains(new DefaultPathPredicate(a).toString()));
+        assertFalse(provider.getCache().contains(new DefaultPathPredicate(b).toString()));
+        assertTrue(provider.getCache().contains(new DefaultPathPredicate(ab).toString()));
+    }
 }
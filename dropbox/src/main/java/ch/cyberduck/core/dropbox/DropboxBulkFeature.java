@@ -0,0 +1,130 @@
+package ch.cyberduck.core.dropbox;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Bulk;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upload small files of a transfer in closed upload sessions committed together
+ */
+public class DropboxBulkFeature implements Bulk<String> {
+    private static final Logger log = Logger.getLogger(DropboxBulkFeature.class);
+
+    private final Preferences preferences
+        = PreferencesFactory.get();
+
+    private final DropboxSession session;
+
+    public DropboxBulkFeature(final DropboxSession session) {
+        this.session = session;
+    }
+
+    /**
+     * @return Batch identifier or null if files are uploaded individually
+     */
+    @Override
+    public String pre(final Transfer.Type type, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
+        switch(type) {
+            case upload:
+                if(!preferences.getBoolean("dropbox.upload.batch")) {
+                    return null;
+                }
+                final long threshold = preferences.getLong("dropbox.upload.batch.threshold");
+                final List<TransferStatus> eligible = new ArrayList<>();
+                for(Map.Entry<TransferItem, TransferStatus> item : files.entrySet()) {
+                    final TransferStatus status = item.getValue();
+                    if(null != status.getRename().remote) {
+                        // Temporary filename renamed when complete before batch is committed
+                        continue;
+                    }
+                    if(null != status.getHeader()) {
+                        // Content encrypted by writer in vault with copy of transfer status
+                        continue;
+                    }
+                    if(item.getKey().remote.isFile() && !status.isAppend() && status.getLength() <= threshold) {
+                        eligible.add(status);
+                    }
+                }
+                if(eligible.size() < 2) {
+                    return null;
+                }
+                final DropboxUploadBatch batch = DropboxUploadBatch.create();
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Upload %d files in batch %s", eligible.size(), batch.getId()));
+                }
+                for(TransferStatus status : eligible) {
+                    final Map<String, String> parameters = new HashMap<>(status.getParameters());
+                    parameters.put(DropboxUploadBatch.PARAMETER, batch.getId());
+                    status.withParameters(parameters);
+                }
+                return batch.getId();
+        }
+        return null;
+    }
+
+    /**
+     * Commit upload sessions not yet committed. Failures are set in the transfer status of each file. Upload sessions
+     * of canceled transfers are discarded.
+     */
+    @Override
+    public void post(final Transfer.Type type, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
+        switch(type) {
+            case upload:
+                final Map<String, Boolean> canceled = new HashMap<>();
+                for(TransferStatus status : files.values()) {
+                    final String id = status.getParameters().get(DropboxUploadBatch.PARAMETER);
+                    if(null == id) {
+                        continue;
+                    }
+                    canceled.merge(id, status.isCanceled(), Boolean::logicalOr);
+                }
+                for(Map.Entry<String, Boolean> entry : canceled.entrySet()) {
+                    final DropboxUploadBatch batch = DropboxUploadBatch.remove(entry.getKey());
+                    if(null == batch) {
+                        // Already committed
+                        continue;
+                    }
+                    if(entry.getValue()) {
+                        batch.discard();
+                    }
+                    else {
+                        batch.commit(session);
+                    }
+                }
+                break;
+        }
+    }
+
+    @Override
+    public Bulk<String> withDelete(final Delete delete) {
+        return this;
+    }
+}
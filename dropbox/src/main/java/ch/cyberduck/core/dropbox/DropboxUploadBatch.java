@@ -0,0 +1,247 @@
+package ch.cyberduck.core.dropbox;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.dropbox.core.DbxException;
+import com.dropbox.core.v2.files.DbxUserFilesRequests;
+import com.dropbox.core.v2.files.UploadSessionFinishArg;
+import com.dropbox.core.v2.files.UploadSessionFinishBatchJobStatus;
+import com.dropbox.core.v2.files.UploadSessionFinishBatchLaunch;
+import com.dropbox.core.v2.files.UploadSessionFinishBatchResult;
+import com.dropbox.core.v2.files.UploadSessionFinishBatchResultEntry;
+
+/**
+ * Closed upload sessions of a transfer committed together with a single finish batch request
+ */
+public final class DropboxUploadBatch {
+    private static final Logger log = Logger.getLogger(DropboxUploadBatch.class);
+
+    /**
+     * Transfer status parameter with batch identifier
+     */
+    public static final String PARAMETER = "dropbox.batch";
+
+    /**
+     * Maximum number of entries in a finish batch request
+     */
+    public static final int MAXIMUM_BATCH_ENTRIES = 1000;
+
+    private static final ConcurrentMap<String, DropboxUploadBatch> batches = new ConcurrentHashMap<>();
+
+    public static DropboxUploadBatch create() {
+        final DropboxUploadBatch batch = new DropboxUploadBatch(UUID.randomUUID().toString());
+        batches.put(batch.getId(), batch);
+        return batch;
+    }
+
+    /**
+     * @param id Batch identifier
+     * @return Null if not found
+     */
+    public static DropboxUploadBatch get(final String id) {
+        return batches.get(id);
+    }
+
+    public static DropboxUploadBatch remove(final String id) {
+        return batches.remove(id);
+    }
+
+    private final Preferences preferences
+        = PreferencesFactory.get();
+
+    private final String id;
+
+    /**
+     * Number of entries to commit at once
+     */
+    private final int size
+        = Math.min(MAXIMUM_BATCH_ENTRIES, preferences.getInteger("dropbox.upload.batch.size"));
+
+    /**
+     * Closed upload sessions not yet committed
+     */
+    private final List<Entry> pending = new ArrayList<>();
+
+    private DropboxUploadBatch(final String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Add closed upload session and commit pending entries if batch size is reached. The transfer status
+     * is marked complete or failed when the entry is committed.
+     *
+     * @param status Transfer status of file
+     */
+    public void add(final DropboxSession session, final UploadSessionFinishArg entry, final TransferStatus status) {
+        final List<Entry> entries;
+        synchronized(pending) {
+            pending.add(new Entry(entry, status));
+            if(pending.size() < size) {
+                return;
+            }
+            entries = new ArrayList<>(pending);
+            pending.clear();
+        }
+        this.finish(session, entries);
+    }
+
+    /**
+     * Commit all pending entries
+     */
+    public void commit(final DropboxSession session) {
+        final List<Entry> entries;
+        synchronized(pending) {
+            entries = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if(entries.isEmpty()) {
+            return;
+        }
+        this.finish(session, entries);
+    }
+
+    /**
+     * Mark pending entries as failed without committing
+     */
+    public void discard() {
+        final List<Entry> entries;
+        synchronized(pending) {
+            entries = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Discard %d upload sessions in batch %s", entries.size(), id));
+        }
+        for(Entry entry : entries) {
+            entry.status.setFailure();
+        }
+    }
+
+    /**
+     * Mark transfer status of each entry complete or failed with the result of the finish batch request
+     */
+    private void finish(final DropboxSession session, final List<Entry> entries) {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Commit %d upload sessions in batch %s", entries.size(), id));
+        }
+        try {
+            final List<UploadSessionFinishArg> args = new ArrayList<>();
+            for(Entry entry : entries) {
+                args.add(entry.arg);
+            }
+            final DbxUserFilesRequests files = new DbxUserFilesRequests(session.getClient());
+            final UploadSessionFinishBatchLaunch launch = files.uploadSessionFinishBatch(args);
+            final UploadSessionFinishBatchResult result;
+            if(launch.isComplete()) {
+                result = launch.getCompleteValue();
+            }
+            else if(launch.isAsyncJobId()) {
+                result = this.poll(files, launch.getAsyncJobIdValue());
+            }
+            else {
+                throw new InteroperabilityException(launch.toString());
+            }
+            final List<UploadSessionFinishBatchResultEntry> results = result.getEntries();
+            for(int i = 0; i < entries.size(); i++) {
+                final Entry entry = entries.get(i);
+                if(i < results.size() && results.get(i).isSuccess()) {
+                    entry.status.setComplete();
+                }
+                else {
+                    log.warn(String.format("Failure %s committing upload session for %s", i < results.size() ? results.get(i).getFailureValue() : null,
+                        entry.arg.getCommit().getPath()));
+                    entry.status.setFailure();
+                }
+            }
+        }
+        catch(DbxException e) {
+            this.failure(entries, new DropboxExceptionMappingService().map("Upload failed.", e));
+        }
+        catch(BackgroundException e) {
+            this.failure(entries, e);
+        }
+    }
+
+    private void failure(final List<Entry> entries, final BackgroundException failure) {
+        log.warn(String.format("Failure committing %d upload sessions in batch %s. %s", entries.size(), id, failure.getMessage()));
+        for(Entry entry : entries) {
+            entry.status.setFailure();
+        }
+    }
+
+    /**
+     * Wait for asynchronous job to complete
+     */
+    private UploadSessionFinishBatchResult poll(final DbxUserFilesRequests files, final String job) throws DbxException, BackgroundException {
+        final long interval = preferences.getLong("dropbox.upload.batch.poll.interval");
+        while(true) {
+            final UploadSessionFinishBatchJobStatus status = files.uploadSessionFinishBatchCheck(job);
+            if(status.isComplete()) {
+                return status.getCompleteValue();
+            }
+            if(!status.isInProgress()) {
+                throw new InteroperabilityException(status.toString());
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Wait %dms for batch job %s", interval, job));
+            }
+            try {
+                Thread.sleep(interval);
+            }
+            catch(InterruptedException e) {
+                throw new ConnectionCanceledException(e);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final UploadSessionFinishArg arg;
+        private final TransferStatus status;
+
+        public Entry(final UploadSessionFinishArg arg, final TransferStatus status) {
+            this.arg = arg;
+            this.status = status;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DropboxUploadBatch{");
+        sb.append("id='").append(id).append('\'');
+        sb.append(", pending=").append(pending.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -43,6 +43,7 @@ import com.dropbox.core.v2.files.DbxUserFilesRequests;
 import com.dropbox.core.v2.files.FileMetadata;
 import com.dropbox.core.v2.files.UploadSessionAppendV2Uploader;
 import com.dropbox.core.v2.files.UploadSessionCursor;
+import com.dropbox.core.v2.files.UploadSessionFinishArg;
 import com.dropbox.core.v2.files.UploadSessionFinishUploader;
 import com.dropbox.core.v2.files.UploadSessionStartUploader;
 import com.dropbox.core.v2.files.WriteMode;
@@ -89,6 +90,14 @@ public class DropboxWriteFeature extends AbstractHttpWriteFeature<String> {
     public HttpResponseOutputStream<String> write(final Path file, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
         try {
             final DbxUserFilesRequests files = new DbxUserFilesRequests(session.getClient());
+            if(status.getParameters().containsKey(DropboxUploadBatch.PARAMETER)) {
+                final DropboxUploadBatch batch = DropboxUploadBatch.get(status.getParameters().get(DropboxUploadBatch.PARAMETER));
+                if(batch != null) {
+                    // Upload content with start request and close session to commit with batch
+                    final UploadSessionStartUploader start = files.uploadSessionStartBuilder().withClose(true).start();
+                    return new BatchUploadProxyOutputStream(file, status, start, batch);
+                }
+            }
             final UploadSessionStartUploader start = files.uploadSessionStart();
             new DefaultStreamCloser().close(start.getOutputStream());
             final String sessionId = start.finish().getSessionId();
@@ -178,11 +187,7 @@ public class DropboxWriteFeature extends AbstractHttpWriteFeature<String> {
         public void close() throws IOException {
             try {
                 DropboxWriteFeature.this.close(uploader);
-                final UploadSessionFinishUploader finish = client.uploadSessionFinish(new UploadSessionCursor(sessionId, written), CommitInfo.newBuilder(file.getAbsolute())
-                        .withClientModified(status.getTimestamp() != null ? new Date(status.getTimestamp()) : null)
-                        .withMode(WriteMode.OVERWRITE)
-                        .build()
-                );
+                final UploadSessionFinishUploader finish = client.uploadSessionFinish(new UploadSessionCursor(sessionId, written), commit(file, status));
                 finish.getOutputStream().close();
                 final FileMetadata metadtata = finish.finish();
                 fileId = metadtata.getId();
@@ -199,6 +204,69 @@ public class DropboxWriteFeature extends AbstractHttpWriteFeature<String> {
         }
     }
 
+    private final class BatchUploadProxyOutputStream extends HttpResponseOutputStream<String> {
+
+        private final Path file;
+        private final TransferStatus status;
+        private final UploadSessionStartUploader uploader;
+        private final DropboxUploadBatch batch;
+
+        private Long written = 0L;
+
+        public BatchUploadProxyOutputStream(final Path file, final TransferStatus status,
+                                            final UploadSessionStartUploader uploader, final DropboxUploadBatch batch) {
+            super(uploader.getOutputStream());
+            this.file = file;
+            this.status = status;
+            this.uploader = uploader;
+            this.batch = batch;
+        }
+
+        @Override
+        protected void afterWrite(final int n) throws IOException {
+            written += n;
+        }
+
+        /**
+         * @return Null as file is not committed before batch is finished
+         */
+        @Override
+        public String getStatus() throws BackgroundException {
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                uploader.getOutputStream().close();
+                final String sessionId = uploader.finish().getSessionId();
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Add closed upload session %s for %s to batch %s", sessionId, file, batch));
+                }
+                // Not complete until committed with batch after transfer
+                status.setDeferred(true);
+                status.setFailure();
+                batch.add(session, new UploadSessionFinishArg(new UploadSessionCursor(sessionId, written), commit(file, status)), status);
+            }
+            catch(IllegalStateException e) {
+                // Already closed
+            }
+            catch(DbxException e) {
+                throw new IOException("Upload failed.", new DropboxExceptionMappingService().map(e));
+            }
+            finally {
+                super.close();
+            }
+        }
+    }
+
+    private CommitInfo commit(final Path file, final TransferStatus status) {
+        return CommitInfo.newBuilder(file.getAbsolute())
+                .withClientModified(status.getTimestamp() != null ? new Date(status.getTimestamp()) : null)
+                .withMode(WriteMode.OVERWRITE)
+                .build();
+    }
+
     private UploadSessionAppendV2Uploader open(final DbxUserFilesRequests files, final String sessionId, final Long offset) throws DbxException {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Open next segment for upload session %s", sessionId));
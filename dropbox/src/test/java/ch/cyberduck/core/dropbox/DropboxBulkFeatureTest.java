@@ -0,0 +1,121 @@
+package ch.cyberduck.core.dropbox;
+
+/*
+ * Copyright (c) 2002-2017 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AbstractDropboxTest;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.shared.DefaultHomeFinderService;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class DropboxBulkFeatureTest extends AbstractDropboxTest {
+
+    @Test
+    public void testBatchUpload() throws Exception {
+        final Path home = new DefaultHomeFinderService(session).find();
+        final Path file1 = new Path(home, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        final Path file2 = new Path(home, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        final byte[] content = RandomUtils.nextBytes(1024);
+        final Map<TransferItem, TransferStatus> files = new HashMap<>();
+        files.put(new TransferItem(file1), new TransferStatus().length(content.length));
+        files.put(new TransferItem(file2), new TransferStatus().length(content.length));
+        final DropboxBulkFeature bulk = new DropboxBulkFeature(session);
+        final String id = bulk.pre(Transfer.Type.upload, files, new DisabledConnectionCallback());
+        assertNotNull(id);
+        for(Map.Entry<TransferItem, TransferStatus> entry : files.entrySet()) {
+            assertEquals(id, entry.getValue().getParameters().get(DropboxUploadBatch.PARAMETER));
+            final OutputStream out = new DropboxWriteFeature(session).write(entry.getKey().remote, entry.getValue(), new DisabledConnectionCallback());
+            new StreamCopier(new TransferStatus(), new TransferStatus()).transfer(new ByteArrayInputStream(content), out);
+        }
+        // Not committed before post
+        assertFalse(new DropboxFindFeature(session).find(file1));
+        for(TransferStatus status : files.values()) {
+            assertTrue(status.isDeferred());
+            assertFalse(status.isComplete());
+        }
+        bulk.post(Transfer.Type.upload, files, new DisabledConnectionCallback());
+        assertNull(DropboxUploadBatch.get(id));
+        for(TransferStatus status : files.values()) {
+            assertTrue(status.isComplete());
+        }
+        assertTrue(new DropboxFindFeature(session).find(file1));
+        assertTrue(new DropboxFindFeature(session).find(file2));
+        new DropboxDeleteFeature(session).delete(Arrays.asList(file1, file2), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
+    @Test
+    public void testSkipTemporary() throws Exception {
+        final Path home = new DefaultHomeFinderService(session).find();
+        final Map<TransferItem, TransferStatus> files = new HashMap<>();
+        for(int i = 0; i < 2; i++) {
+            final Path file = new Path(home, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+            files.put(new TransferItem(file), new TransferStatus().length(1024L)
+                .temporary(new Path(home, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file))).withDisplayname(file));
+        }
+        assertNull(new DropboxBulkFeature(session).pre(Transfer.Type.upload, files, new DisabledConnectionCallback()));
+    }
+
+    @Test
+    public void testSkipEncrypted() throws Exception {
+        final Path home = new DefaultHomeFinderService(session).find();
+        final Map<TransferItem, TransferStatus> files = new HashMap<>();
+        for(int i = 0; i < 2; i++) {
+            final TransferStatus status = new TransferStatus().length(1024L);
+            status.setHeader(ByteBuffer.allocate(88));
+            files.put(new TransferItem(new Path(home, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file))), status);
+        }
+        assertNull(new DropboxBulkFeature(session).pre(Transfer.Type.upload, files, new DisabledConnectionCallback()));
+    }
+
+    @Test
+    public void testPostCanceled() throws Exception {
+        final Path home = new DefaultHomeFinderService(session).find();
+        final Map<TransferItem, TransferStatus> files = new HashMap<>();
+        for(int i = 0; i < 2; i++) {
+            files.put(new TransferItem(new Path(home, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file))), new TransferStatus().length(1024L));
+        }
+        final DropboxBulkFeature bulk = new DropboxBulkFeature(session);
+        final String id = bulk.pre(Transfer.Type.upload, files, new DisabledConnectionCallback());
+        assertNotNull(DropboxUploadBatch.get(id));
+        for(TransferStatus status : files.values()) {
+            status.setCanceled();
+        }
+        bulk.post(Transfer.Type.upload, files, new DisabledConnectionCallback());
+        assertNull(DropboxUploadBatch.get(id));
+    }
+}
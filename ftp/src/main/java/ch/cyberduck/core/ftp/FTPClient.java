@@ -20,6 +20,7 @@ package ch.cyberduck.core.ftp;
  */
 
 import ch.cyberduck.core.Protocol;
+import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
@@ -196,6 +197,70 @@ public class FTPClient extends FTPSClient {
         return results;
     }
 
+    /**
+     * Pass lines of listing to callback as read from the data connection without buffering the response
+     *
+     * @param callback Receives each line
+     */
+    public void list(final FTPCmd command, final String pathname, final LineCallback callback) throws IOException, BackgroundException {
+        this.pret(command, pathname);
+
+        Socket socket = _openDataConnection_(command, pathname);
+
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), getControlEncoding()));
+        boolean complete = false;
+        try {
+            String line;
+            while((line = reader.readLine()) != null) {
+                _commandSupport_.fireReplyReceived(-1, line);
+                callback.line(line);
+            }
+            complete = true;
+        }
+        finally {
+            reader.close();
+            socket.close();
+            if(!complete) {
+                this.abort(command);
+            }
+        }
+
+        if(!this.completePendingCommand()) {
+            throw new FTPException(this.getReplyCode(), this.getReplyString());
+        }
+    }
+
+    /**
+     * Abort transfer interrupted before reading the complete response from the data connection. Reads both the
+     * pending reply to the transfer command and the reply to ABOR to keep the control connection in sync for the
+     * next command. Disconnects if the replies cannot be read.
+     */
+    private void abort(final FTPCmd command) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Abort %s with pending reply", command));
+        }
+        try {
+            // Reply 426 for aborted or 226 for completed transfer
+            this.abor();
+            // Reply to ABOR
+            this.getReply();
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading reply to ABOR. %s", e.getMessage()));
+            try {
+                this.disconnect();
+            }
+            catch(IOException f) {
+                log.warn(String.format("Failure closing connection. %s", f.getMessage()));
+            }
+        }
+    }
+
+    public interface LineCallback {
+        void line(String line) throws IOException, BackgroundException;
+    }
+
     /**
      * Query the server for a supported feature, and returns its values (if any).
      * Caches the parsed response to avoid resending the command repeatedly.
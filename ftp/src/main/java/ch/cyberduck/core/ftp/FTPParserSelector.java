@@ -22,11 +22,27 @@ import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.log4j.Logger;
 
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FTPParserSelector {
     private static final Logger log = Logger.getLogger(FTPParserSelector.class);
 
+    /**
+     * Parser implementation matched by server to skip autodetection for subsequent connections
+     */
+    private static final Map<String, AtomicInteger> selections = new ConcurrentHashMap<>();
+
+    /**
+     * @param hostname Server to share parser selection with previous connections
+     */
+    public CompositeFileEntryParser getParser(final String hostname, final String system, final TimeZone zone) {
+        final String key = String.format("%s %s %s", hostname, system, null == zone ? null : zone.getID());
+        return this.getParser(system, zone).withSelection(selections.computeIfAbsent(key, k -> new AtomicInteger(-1)));
+    }
+
     public CompositeFileEntryParser getParser(final String system) {
         return this.getParser(system, null);
     }
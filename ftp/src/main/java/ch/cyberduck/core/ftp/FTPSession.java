@@ -163,8 +163,9 @@ public class FTPSession extends SSLSession<FTPClient> {
     @Override
     public FTPClient connect(final Proxy proxy, final HostKeyCallback callback, final LoginCallback prompt) throws BackgroundException {
         try {
+            // Data connection sockets are created from context and cannot be registered with shared session cache
             final CustomTrustSSLProtocolSocketFactory f
-                = new CustomTrustSSLProtocolSocketFactory(trust, key);
+                = new CustomTrustSSLProtocolSocketFactory(trust, key, false);
 
             final LoggingProtocolCommandListener listener = new LoggingProtocolCommandListener(this);
             final FTPClient client = new FTPClient(host.getProtocol(), f, f.getSSLContext()) {
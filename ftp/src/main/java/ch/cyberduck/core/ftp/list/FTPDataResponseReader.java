@@ -27,4 +27,10 @@ public interface FTPDataResponseReader {
 
     AttributedList<Path> read(Path parent, List<String> replies, ListProgressListener listener)
         throws IOException, FTPInvalidListException, ConnectionCanceledException;
+
+    /**
+     * Parse lines of a listing following a previous chunk already passed to {@link #read}
+     */
+    AttributedList<Path> next(Path parent, List<String> replies, ListProgressListener listener)
+        throws IOException, FTPInvalidListException, ConnectionCanceledException;
 }
@@ -52,12 +52,18 @@ public class FTPListResponseReader implements FTPDataResponseReader {
     @Override
     public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener)
             throws IOException, FTPInvalidListException, ConnectionCanceledException {
-        final AttributedList<Path> children = new AttributedList<Path>();
-        // At least one entry successfully parsed
-        boolean success = false;
         // Call hook for those implementors which need to perform some action upon the list after it has been created
         // from the server stream, but before any clients see the list
         parser.preParse(replies);
+        return this.next(directory, replies, listener);
+    }
+
+    @Override
+    public AttributedList<Path> next(final Path directory, final List<String> replies, final ListProgressListener listener)
+            throws IOException, FTPInvalidListException, ConnectionCanceledException {
+        final AttributedList<Path> children = new AttributedList<Path>();
+        // At least one entry successfully parsed
+        boolean success = false;
         for(String line : replies) {
             final FTPFile f = parser.parseFTPEntry(line);
             if(null == f) {
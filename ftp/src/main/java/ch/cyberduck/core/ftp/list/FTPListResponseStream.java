@@ -0,0 +1,98 @@
+package ch.cyberduck.core.ftp.list;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.ftp.FTPClient;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parse lines of a listing in chunks as read from the data connection. Only a single chunk of lines is buffered
+ * and the listener is notified with the files parsed so far after each chunk.
+ */
+public class FTPListResponseStream implements FTPClient.LineCallback {
+
+    private final Path directory;
+    private final FTPDataResponseReader reader;
+    private final ListProgressListener listener;
+    private final int chunksize;
+
+    private final AttributedList<Path> children = new AttributedList<Path>();
+    private final List<String> lines = new ArrayList<String>();
+
+    /**
+     * No chunk parsed yet
+     */
+    private boolean initial = true;
+    /**
+     * At least one chunk successfully parsed
+     */
+    private boolean success = false;
+
+    public FTPListResponseStream(final Path directory, final FTPDataResponseReader reader, final ListProgressListener listener) {
+        this(directory, reader, listener, PreferencesFactory.get().getInteger("ftp.listing.chunksize"));
+    }
+
+    public FTPListResponseStream(final Path directory, final FTPDataResponseReader reader, final ListProgressListener listener, final int chunksize) {
+        this.directory = directory;
+        this.reader = reader;
+        this.listener = listener;
+        this.chunksize = chunksize;
+    }
+
+    @Override
+    public void line(final String line) throws IOException, BackgroundException {
+        lines.add(line);
+        if(lines.size() == chunksize) {
+            this.flush();
+        }
+    }
+
+    private void flush() throws IOException, BackgroundException {
+        try {
+            children.addAll(initial ? reader.read(directory, lines, listener) : reader.next(directory, lines, listener));
+            success = true;
+        }
+        catch(FTPInvalidListException e) {
+            // No entry in chunk
+            children.addAll(e.getParsed());
+        }
+        initial = false;
+        lines.clear();
+        listener.chunk(directory, children);
+    }
+
+    /**
+     * @return All files parsed
+     * @throws FTPInvalidListException No line could be parsed
+     */
+    public AttributedList<Path> finish() throws IOException, BackgroundException {
+        if(initial || !lines.isEmpty()) {
+            this.flush();
+        }
+        if(!success) {
+            throw new FTPInvalidListException(children);
+        }
+        return children;
+    }
+}
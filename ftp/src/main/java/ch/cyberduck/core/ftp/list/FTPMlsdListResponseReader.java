@@ -46,6 +46,12 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
         //
     }
 
+    @Override
+    public AttributedList<Path> next(final Path directory, final List<String> replies, final ListProgressListener listener)
+        throws IOException, FTPInvalidListException, ConnectionCanceledException {
+        return this.read(directory, replies, listener);
+    }
+
     @Override
     public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener)
         throws IOException, FTPInvalidListException, ConnectionCanceledException {
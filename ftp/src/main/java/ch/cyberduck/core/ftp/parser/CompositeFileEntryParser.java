@@ -8,6 +8,7 @@ import org.apache.commons.net.ftp.FTPFileEntryParserImpl;
 import org.apache.log4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This implementation allows to pack some FileEntryParsers together
@@ -24,10 +25,30 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
     private final List<? extends FTPFileEntryParser> parsers;
     private FTPFileEntryParser current;
 
+    /**
+     * Index of parser last matched shared between parsers for the same server
+     */
+    private AtomicInteger selection = new AtomicInteger(-1);
+
     public CompositeFileEntryParser(final List<? extends FTPFileEntryParser> parsers) {
         this.parsers = parsers;
     }
 
+    /**
+     * @param selection Index of parser previously matched for listings of the same server
+     */
+    public CompositeFileEntryParser withSelection(final AtomicInteger selection) {
+        this.selection = selection;
+        final int index = selection.get();
+        if(index >= 0 && index < parsers.size()) {
+            current = parsers.get(index);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Use previously selected %s parser implementation", current));
+            }
+        }
+        return this;
+    }
+
     @Override
     public List<String> preParse(final List<String> original) {
         for(FTPFileEntryParser parser : parsers) {
@@ -51,10 +72,12 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
             }
             current = null;
         }
-        for(FTPFileEntryParser parser : parsers) {
+        for(int i = 0; i < parsers.size(); i++) {
+            final FTPFileEntryParser parser = parsers.get(i);
             final FTPFile matched = parser.parseFTPEntry(line);
             if(matched != null) {
                 current = parser;
+                selection.set(i);
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Caching %s parser implementation", current));
                 }
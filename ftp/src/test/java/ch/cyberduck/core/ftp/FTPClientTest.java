@@ -0,0 +1,106 @@
+package ch.cyberduck.core.ftp;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ListCanceledException;
+
+import org.apache.commons.net.ftp.FTPCmd;
+import org.apache.ftpserver.FtpServer;
+import org.apache.ftpserver.FtpServerFactory;
+import org.apache.ftpserver.ftplet.Authority;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.listener.ListenerFactory;
+import org.apache.ftpserver.usermanager.impl.BaseUser;
+import org.apache.ftpserver.usermanager.impl.ConcurrentLoginPermission;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.*;
+
+public class FTPClientTest {
+
+    private static final int PORT_NUMBER = ThreadLocalRandom.current().nextInt(2000, 3000);
+
+    private static FtpServer server;
+
+    @BeforeClass
+    public static void start() throws Exception {
+        final File home = Files.createTempDirectory("ftp").toFile();
+        for(int i = 0; i < 100; i++) {
+            assertTrue(new File(home, String.format("f%d", i)).createNewFile());
+        }
+        final FtpServerFactory serverFactory = new FtpServerFactory();
+        final BaseUser user = new BaseUser();
+        user.setName("test");
+        user.setPassword("test");
+        user.setHomeDirectory(home.getAbsolutePath());
+        user.setAuthorities(Collections.<Authority>singletonList(new ConcurrentLoginPermission(1, Integer.MAX_VALUE)));
+        serverFactory.getUserManager().save(user);
+        final ListenerFactory factory = new ListenerFactory();
+        factory.setPort(PORT_NUMBER);
+        serverFactory.addListener("default", factory.createListener());
+        server = serverFactory.createServer();
+        server.start();
+    }
+
+    @AfterClass
+    public static void stop() throws FtpException {
+        server.stop();
+    }
+
+    @Test
+    public void testListCanceled() throws Exception {
+        final FTPClient client = new FTPClient(new FTPProtocol(), (SSLSocketFactory) SSLSocketFactory.getDefault(), SSLContext.getDefault());
+        client.connect("localhost", PORT_NUMBER);
+        assertTrue(client.login("test", "test"));
+        client.enterLocalPassiveMode();
+        final List<String> lines = new ArrayList<String>();
+        try {
+            client.list(FTPCmd.LIST, null, new FTPClient.LineCallback() {
+                @Override
+                public void line(final String line) throws IOException, BackgroundException {
+                    lines.add(line);
+                    if(lines.size() == 10) {
+                        throw new ListCanceledException(AttributedList.emptyList());
+                    }
+                }
+            });
+            fail();
+        }
+        catch(ListCanceledException e) {
+            assertEquals(10, lines.size());
+        }
+        // Control connection in sync with pending replies read
+        assertTrue(client.isConnected());
+        assertEquals(100, client.list(FTPCmd.LIST).size());
+        assertTrue(client.sendNoOp());
+        client.logout();
+        client.disconnect();
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.Test;
 import java.util.Arrays;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class FTPParserSelectorTest {
 
@@ -15,6 +16,15 @@ public class FTPParserSelectorTest {
         assertNotNull(new FTPParserSelector().getParser(null));
     }
 
+    @Test
+    public void testSelectionSharedByHost() throws Exception {
+        final CompositeFileEntryParser parser = new FTPParserSelector().getParser("ftp.example.net", "UNIX", null);
+        assertNull(parser.getCurrent());
+        assertNotNull(parser.parseFTPEntry("drwxr-xr-x   6 START2   SYS1        8192 Oct 28  2008 ADCD"));
+        assertNotNull(new FTPParserSelector().getParser("ftp.example.net", "UNIX", null).getCurrent());
+        assertNull(new FTPParserSelector().getParser("other.example.net", "UNIX", null).getCurrent());
+    }
+
     @Test
     public void testGetMVS() throws Exception {
         final CompositeFileEntryParser parser = new FTPParserSelector().getParser("MVS is the operating system of this server. FTP Server is running on z/OS.");
@@ -0,0 +1,63 @@
+package ch.cyberduck.core.ftp.list;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ftp.FTPParserSelector;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FTPListResponseStreamTest {
+
+    @Test
+    public void testChunks() throws Exception {
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final List<Integer> chunks = new ArrayList<>();
+        final FTPListResponseStream stream = new FTPListResponseStream(directory,
+            new FTPListResponseReader(new FTPParserSelector().getParser("UNIX")), new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path parent, final AttributedList<Path> list) {
+                chunks.add(list.size());
+            }
+        }, 2);
+        stream.line("total 3");
+        stream.line("-rw-r--r--   1 user group        10 Jun 12 15:40 a");
+        stream.line("-rw-r--r--   1 user group        20 Jun 12 15:40 b");
+        stream.line("drwxr-xr-x   2 user group       512 Jun 12 15:40 c");
+        stream.line("-rw-r--r--   1 user group        30 Jun 12 15:40 d");
+        final AttributedList<Path> list = stream.finish();
+        assertEquals(4, list.size());
+        assertEquals(3, chunks.size());
+        assertEquals(Integer.valueOf(1), chunks.get(0));
+        assertEquals(Integer.valueOf(3), chunks.get(1));
+        assertEquals(Integer.valueOf(4), chunks.get(2));
+        assertTrue(list.get(new Path(directory, "c", EnumSet.of(Path.Type.directory))).isDirectory());
+    }
+
+    @Test(expected = FTPInvalidListException.class)
+    public void testEmpty() throws Exception {
+        new FTPListResponseStream(new Path("/d", EnumSet.of(Path.Type.directory)),
+            new FTPListResponseReader(new FTPParserSelector().getParser("UNIX")), new DisabledListProgressListener(), 2).finish();
+    }
+}
@@ -18,11 +18,13 @@ package ch.cyberduck.core.googledrive;
 import ch.cyberduck.core.AbstractPath;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.CollectingListCallback;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.webloc.UrlFileWriter;
@@ -37,7 +39,7 @@ import java.util.EnumSet;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
 
-public abstract class AbstractDriveListService implements ListService {
+public abstract class AbstractDriveListService implements StreamingListService {
     private static final Logger log = Logger.getLogger(AbstractDriveListService.class);
 
     protected static final String GOOGLE_APPS_PREFIX = "application/vnd.google-apps";
@@ -69,8 +71,14 @@ public abstract class AbstractDriveListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final CollectingListCallback children = new CollectingListCallback(listener);
+        this.list(directory, listener, children);
+        return children.getList();
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
         try {
-            final AttributedList<Path> children = new AttributedList<>();
             String page = null;
             final String query = this.query(directory, listener);
             do {
@@ -87,6 +95,7 @@ public abstract class AbstractDriveListService implements ListService {
                 if(log.isDebugEnabled()) {
                     log.debug(String.format("Chunk of %d retrieved", list.getFiles().size()));
                 }
+                final AttributedList<Path> children = new AttributedList<>();
                 for(File f : list.getFiles()) {
                     final PathAttributes properties = attributes.toAttributes(f);
                     final String filename;
@@ -107,14 +116,13 @@ public abstract class AbstractDriveListService implements ListService {
                     final Path child = new Path(directory, filename, type, properties);
                     children.add(child);
                 }
-                listener.chunk(directory, children);
+                callback.chunk(directory, children);
                 page = list.getNextPageToken();
                 if(log.isDebugEnabled()) {
                     log.debug(String.format("Continue with next page token %s", page));
                 }
             }
             while(page != null);
-            return children;
         }
         catch(IOException e) {
             throw new DriveExceptionMappingService().map("Listing directory failed", e, directory);
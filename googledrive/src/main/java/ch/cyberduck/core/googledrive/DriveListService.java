@@ -20,9 +20,10 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 
-public class DriveListService implements ListService {
+public class DriveListService implements StreamingListService {
 
     private final DriveSession session;
     private final DriveFileidProvider fileid;
@@ -53,6 +54,19 @@ public class DriveListService implements ListService {
         }
     }
 
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(directory.isRoot() || DriveHomeFinderService.TEAM_DRIVES_NAME.equals(directory)) {
+            callback.chunk(directory, this.list(directory, listener));
+        }
+        else if(DriveHomeFinderService.SHARED_FOLDER_NAME.equals(directory)) {
+            new DriveSharedFolderListService(session, fileid).list(directory, listener, callback);
+        }
+        else {
+            new DriveDefaultListService(session, fileid).list(directory, listener, callback);
+        }
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         fileid.withCache(cache);
@@ -17,11 +17,13 @@ package ch.cyberduck.core.onedrive;
 
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.CollectingListCallback;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.onedrive.features.OneDriveAttributesFinderFeature;
@@ -37,7 +39,7 @@ import org.nuxeo.onedrive.client.OneDriveRuntimeException;
 import java.util.EnumSet;
 import java.util.Iterator;
 
-public class OneDriveItemListService implements ListService {
+public class OneDriveItemListService implements StreamingListService {
     private static final Logger log = Logger.getLogger(OneDriveItemListService.class);
 
     private final PathContainerService containerService
@@ -53,14 +55,22 @@ public class OneDriveItemListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
-        final AttributedList<Path> children = new AttributedList<>();
+        final CollectingListCallback children = new CollectingListCallback(listener);
+        this.list(directory, listener, children);
+        return children.getList();
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
         final OneDriveItem local = session.toItem(directory);
         if(!(local instanceof OneDriveFolder)) {
             throw new NotfoundException(directory.getAbsolute());
         }
         final OneDriveFolder folder = (OneDriveFolder) local;
         try {
-            final Iterator<OneDriveItem.Metadata> iterator = folder.iterator(PreferencesFactory.get().getInteger("onedrive.listing.chunksize"));
+            final int chunksize = PreferencesFactory.get().getInteger("onedrive.listing.chunksize");
+            final Iterator<OneDriveItem.Metadata> iterator = folder.iterator(chunksize);
+            AttributedList<Path> children = new AttributedList<>();
             while(iterator.hasNext()) {
                 final OneDriveItem.Metadata metadata;
                 try {
@@ -73,13 +83,18 @@ public class OneDriveItemListService implements ListService {
                 final PathAttributes attributes = this.attributes.toAttributes(metadata);
 
                 children.add(new Path(directory, metadata.getName(), resolveType(metadata), attributes));
-                listener.chunk(directory, children);
+                if(children.size() == chunksize) {
+                    callback.chunk(directory, children);
+                    children = new AttributedList<>();
+                }
+            }
+            if(!children.isEmpty()) {
+                callback.chunk(directory, children);
             }
         }
         catch(OneDriveRuntimeException e) { // this catches iterator.hasNext() which in return should fail fast
             throw new OneDriveExceptionMappingService().map("Listing directory {0} failed", e.getCause(), directory);
         }
-        return children;
     }
 
     @Override
@@ -20,10 +20,11 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.onedrive.features.OneDriveFileIdProvider;
 
-public class OneDriveListService implements ListService {
+public class OneDriveListService implements StreamingListService {
 
     private final OneDriveSession session;
     private final OneDriveFileIdProvider fileIdProvider;
@@ -43,6 +44,16 @@ public class OneDriveListService implements ListService {
         }
     }
 
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(directory.isRoot()) {
+            callback.chunk(directory, new OneDriveContainerListService(session).list(directory, listener));
+        }
+        else {
+            new OneDriveItemListService(session).list(directory, listener, callback);
+        }
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         fileIdProvider.withCache(cache);
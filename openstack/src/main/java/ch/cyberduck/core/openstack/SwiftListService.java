@@ -20,9 +20,10 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 
-public class SwiftListService implements ListService {
+public class SwiftListService implements StreamingListService {
 
     private final SwiftSession session;
     private final SwiftRegionService regionService;
@@ -43,6 +44,17 @@ public class SwiftListService implements ListService {
         }
     }
 
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(directory.isRoot()) {
+            callback.chunk(directory, new SwiftContainerListService(session,
+                new SwiftLocationFeature.SwiftRegion(session.getHost().getRegion())).list(directory, listener));
+        }
+        else {
+            new SwiftObjectListService(session, regionService).list(directory, listener, callback);
+        }
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         return this;
@@ -21,6 +21,7 @@ package ch.cyberduck.core.openstack;
 import ch.cyberduck.core.AbstractPath;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.CollectingListCallback;
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
@@ -28,6 +29,7 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
@@ -36,12 +38,14 @@ import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import ch.iterate.openstack.swift.exception.GenericException;
 import ch.iterate.openstack.swift.model.StorageObject;
 
-public class SwiftObjectListService implements ListService {
+public class SwiftObjectListService implements StreamingListService {
     private static final Logger log = Logger.getLogger(SwiftObjectListService.class);
 
     private final SwiftSession session;
@@ -62,8 +66,16 @@ public class SwiftObjectListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final CollectingListCallback children = new CollectingListCallback(listener);
+        this.list(directory, listener, children);
+        return children.getList();
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
         try {
-            final AttributedList<Path> children = new AttributedList<Path>();
+            // Names of placeholder objects with application/directory MIME type seen in previous chunks
+            final Set<String> placeholders = new HashSet<String>();
             final int limit = PreferencesFactory.get().getInteger("openstack.list.object.limit");
             String marker = null;
             List<StorageObject> list;
@@ -72,26 +84,29 @@ public class SwiftObjectListService implements ListService {
                 list = session.getClient().listObjectsStartingWith(regionService.lookup(container), container.getName(),
                     containerService.isContainer(directory) ? StringUtils.EMPTY : containerService.getKey(directory) + Path.DELIMITER,
                     null, limit, marker, Path.DELIMITER);
+                final AttributedList<Path> children = new AttributedList<Path>();
                 for(StorageObject object : list) {
                     final PathAttributes attributes = new SwiftAttributesFinderFeature(session, regionService).toAttributes(object);
                     final EnumSet<AbstractPath.Type> types = "application/directory"
                         .equals(object.getMimeType()) ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
                     if(StringUtils.endsWith(object.getName(), String.valueOf(Path.DELIMITER))) {
-                        if(children.contains(new Path(directory, PathNormalizer.name(object.getName()), EnumSet.of(Path.Type.directory), attributes))) {
+                        if(placeholders.contains(PathNormalizer.name(object.getName()))) {
                             // There is already a real placeholder file with application/directory MIME type. Only
                             // add virtual directory if the placeholder object is missing
                             continue;
                         }
                     }
+                    if(types.contains(Path.Type.directory)) {
+                        placeholders.add(PathNormalizer.name(object.getName()));
+                    }
                     attributes.setOwner(container.attributes().getOwner());
                     attributes.setRegion(container.attributes().getRegion());
                     children.add(new Path(directory, PathNormalizer.name(object.getName()), types, attributes));
                     marker = object.getName();
                 }
-                listener.chunk(directory, children);
+                callback.chunk(directory, children);
             }
             while(list.size() == limit);
-            return children;
         }
         catch(GenericException e) {
             throw new SwiftExceptionMappingService().map("Listing directory {0} failed", e, directory);
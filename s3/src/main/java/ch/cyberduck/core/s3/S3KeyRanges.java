@@ -0,0 +1,137 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Split the remaining keyspace of a listing into contiguous ranges to be listed concurrently. Boundaries are
+ * derived from the characters found in a sample of keys after the position where sampled keys and the marker diverge. The ranges always cover all keys
+ * after the marker regardless of the sample, which only determines how evenly keys are distributed.
+ */
+public class S3KeyRanges {
+
+    /**
+     * Number of characters following the marker to split at
+     */
+    private final int depth;
+
+    public S3KeyRanges() {
+        this(2);
+    }
+
+    public S3KeyRanges(final int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * @param prefix  Common prefix of all keys in listing
+     * @param sample  Keys already listed
+     * @param marker  Last key listed. All boundaries returned are greater
+     * @param maximum Maximum number of boundaries
+     * @return Ordered boundaries where the first range is (marker, first], the next is (first, second] and the last
+     * range is unbounded after the last boundary
+     */
+    public List<String> split(final String prefix, final Collection<String> sample, final String marker, final int maximum) {
+        // Split where sampled keys diverge instead of in a long prefix common to all keys
+        int start = marker.length();
+        for(String key : sample) {
+            if(key.startsWith(prefix)) {
+                start = Math.min(start, this.common(key, marker));
+            }
+        }
+        start = Math.max(start, prefix.length());
+        final NavigableSet<Character> alphabet = new TreeSet<>();
+        for(String key : sample) {
+            if(key.startsWith(prefix) && key.length() > start) {
+                for(char c : key.substring(start).toCharArray()) {
+                    alphabet.add(c);
+                }
+            }
+        }
+        final NavigableSet<String> boundaries = new TreeSet<>();
+        if(start == marker.length() && marker.length() > prefix.length()) {
+            // Marker is common to all sampled keys
+            for(Character c : alphabet) {
+                boundaries.add(marker + c);
+            }
+        }
+        for(int i = start; i < Math.min(marker.length(), start + depth); i++) {
+            final String base = marker.substring(0, i);
+            for(Character c : alphabet.tailSet(marker.charAt(i), false)) {
+                boundaries.add(base + c);
+            }
+        }
+        if(boundaries.size() <= maximum) {
+            return new ArrayList<>(boundaries);
+        }
+        // Keep evenly spaced subset
+        final List<String> all = new ArrayList<>(boundaries);
+        final List<String> reduced = new ArrayList<>(maximum);
+        for(int i = 1; i <= maximum; i++) {
+            reduced.add(all.get((int) ((long) i * all.size() / (maximum + 1))));
+        }
+        return reduced;
+    }
+
+    /**
+     * Merge results of ranges in order of ranges. Rolled up common prefixes may be returned for more than one
+     * range and are only kept for the first.
+     */
+    public static final class Merge<T> {
+        /**
+         * Last key merged
+         */
+        private String last;
+
+        /**
+         * @param marker Last key already listed
+         */
+        public Merge(final String marker) {
+            this.last = marker;
+        }
+
+        /**
+         * @param range Results of next range ordered by key
+         * @return Results with keys following all keys previously merged
+         */
+        public NavigableMap<String, T> next(final NavigableMap<String, T> range) {
+            final NavigableMap<String, T> following = null == last ? range : range.tailMap(last, false);
+            if(!following.isEmpty()) {
+                last = following.lastKey();
+            }
+            return following;
+        }
+    }
+
+    /**
+     * @return Length of common prefix
+     */
+    private int common(final String a, final String b) {
+        final int length = Math.min(a.length(), b.length());
+        for(int i = 0; i < length; i++) {
+            if(a.charAt(i) != b.charAt(i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+}
@@ -17,10 +17,12 @@ package ch.cyberduck.core.s3;
 
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.CollectingListCallback;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.InteroperabilityException;
@@ -29,8 +31,9 @@ import org.apache.log4j.Logger;
 import org.jets3t.service.model.MultipartUpload;
 
 import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class S3ListService implements ListService {
+public class S3ListService implements StreamingListService {
     private static final Logger log = Logger.getLogger(S3ListService.class);
 
     private final S3Session session;
@@ -45,27 +48,49 @@ public class S3ListService implements ListService {
             // List all buckets
             return new S3BucketListService(session, new S3LocationFeature.S3Region(session.getHost().getRegion())).list(directory, listener);
         }
-        else {
-            AttributedList<Path> objects;
-            try {
-                objects = new S3VersionedObjectListService(session).list(directory, listener);
-            }
-            catch(AccessDeniedException | InteroperabilityException e) {
-                log.warn(String.format("Ignore failure listing versioned objects. %s", e.getDetail()));
-                objects = new S3ObjectListService(session).list(directory, listener);
-            }
-            try {
-                for(MultipartUpload upload : new S3DefaultMultipartService(session).find(directory)) {
-                    final PathAttributes attributes = new PathAttributes();
-                    attributes.setVersionId(upload.getUploadId());
-                    attributes.setModificationDate(upload.getInitiatedDate().getTime());
-                    objects.add(new Path(directory, upload.getObjectKey(), EnumSet.of(Path.Type.file, Path.Type.upload), attributes));
+        final CollectingListCallback objects = new CollectingListCallback(listener);
+        this.list(directory, listener, objects);
+        return objects.getList();
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(directory.isRoot()) {
+            // List all buckets
+            callback.chunk(directory, new S3BucketListService(session, new S3LocationFeature.S3Region(session.getHost().getRegion())).list(directory, listener));
+            return;
+        }
+        final AtomicBoolean versioned = new AtomicBoolean();
+        try {
+            new S3VersionedObjectListService(session).list(directory, listener, new Callback() {
+                @Override
+                public void chunk(final Path folder, final AttributedList<Path> chunk) throws BackgroundException {
+                    versioned.set(true);
+                    callback.chunk(folder, chunk);
                 }
+            });
+        }
+        catch(AccessDeniedException | InteroperabilityException e) {
+            if(versioned.get()) {
+                throw e;
             }
-            catch(AccessDeniedException | InteroperabilityException e) {
-                log.warn(String.format("Ignore failure listing incomplete multipart uploads. %s", e.getDetail()));
+            log.warn(String.format("Ignore failure listing versioned objects. %s", e.getDetail()));
+            new S3ObjectListService(session).list(directory, listener, callback);
+        }
+        final AttributedList<Path> uploads = new AttributedList<Path>();
+        try {
+            for(MultipartUpload upload : new S3DefaultMultipartService(session).find(directory)) {
+                final PathAttributes attributes = new PathAttributes();
+                attributes.setVersionId(upload.getUploadId());
+                attributes.setModificationDate(upload.getInitiatedDate().getTime());
+                uploads.add(new Path(directory, upload.getObjectKey(), EnumSet.of(Path.Type.file, Path.Type.upload), attributes));
             }
-            return objects;
+        }
+        catch(AccessDeniedException | InteroperabilityException e) {
+            log.warn(String.format("Ignore failure listing incomplete multipart uploads. %s", e.getDetail()));
+        }
+        if(!uploads.isEmpty()) {
+            callback.chunk(directory, uploads);
         }
     }
 
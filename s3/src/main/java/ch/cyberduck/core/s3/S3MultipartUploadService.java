@@ -31,6 +31,7 @@ import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.MD5ChecksumCompute;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.io.StreamProgress;
@@ -38,8 +39,7 @@ import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
 import ch.cyberduck.core.threading.DefaultRetryCallable;
-import ch.cyberduck.core.threading.DefaultThreadPool;
-import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.PartScheduler;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.lang3.StringUtils;
@@ -53,8 +53,10 @@ import org.jets3t.service.model.StorageObject;
 
 import java.security.MessageDigest;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -99,7 +101,10 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
     @Override
     public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                                 final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final DefaultThreadPool pool = new DefaultThreadPool("multipart", concurrency);
+        final PartScheduler scheduler = PartScheduler.get("s3", session.getHost().getHostname(),
+            preferences.getInteger("s3.upload.multipart.concurrency.limit"));
+        // Parts submitted to scheduler and not yet completed
+        final Deque<Future<MultipartPart>> parts = new ArrayDeque<Future<MultipartPart>>();
         try {
             MultipartUpload multipart = null;
             try {
@@ -136,7 +141,7 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
             try {
                 // Full size of file
                 final long size = status.getLength() + status.getOffset();
-                final List<Future<MultipartPart>> parts = new ArrayList<Future<MultipartPart>>();
+                final Deque<Part> pending = new ArrayDeque<Part>();
                 long remaining = status.getLength();
                 long offset = 0;
                 for(int partNumber = 1; remaining > 0; partNumber++) {
@@ -159,13 +164,18 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                     if(!skip) {
                         // Last part can be less than 5 MB. Adjust part size.
                         final Long length = Math.min(Math.max((size / S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS), partsize), remaining);
-                        // Submit to queue
-                        parts.add(this.submit(pool, file, local, throttle, listener, status, multipart, partNumber, offset, length, callback));
+                        pending.add(new Part(partNumber, offset, length));
                         remaining -= length;
                         offset += length;
                     }
                 }
-                for(Future<MultipartPart> future : parts) {
+                while(!pending.isEmpty() || !parts.isEmpty()) {
+                    // Submit to shared queue with no more than the number of concurrent parts for a single file
+                    while(parts.size() < concurrency && !pending.isEmpty()) {
+                        final Part part = pending.poll();
+                        parts.add(this.submit(scheduler, file, local, throttle, listener, status, multipart, part.number, part.offset, part.length, callback));
+                    }
+                    final Future<MultipartPart> future = parts.poll();
                     try {
                         completed.add(future.get());
                     }
@@ -189,6 +199,7 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Completed multipart upload for %s with %d parts and checksum %s",
                         complete.getObjectKey(), completed.size(), complete.getEtag()));
+                    log.info(String.format("Parts scheduled with %s", scheduler));
                 }
                 if(file.getType().contains(Path.Type.encrypted)) {
                     log.warn(String.format("Skip checksum verification for %s with client side encryption enabled", file));
@@ -227,22 +238,27 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
             }
             finally {
                 // Cancel future tasks
-                pool.shutdown(false);
+                for(Future<MultipartPart> future : parts) {
+                    future.cancel(false);
+                }
             }
         }
         catch(ServiceException e) {
             throw new S3ExceptionMappingService().map("Upload {0} failed", e, file);
         }
+        finally {
+            scheduler.release();
+        }
     }
 
-    private Future<MultipartPart> submit(final ThreadPool pool, final Path file, final Local local,
+    private Future<MultipartPart> submit(final PartScheduler scheduler, final Path file, final Local local,
                                          final BandwidthThrottle throttle, final StreamListener listener,
                                          final TransferStatus overall, final MultipartUpload multipart,
                                          final int partNumber, final long offset, final long length, final ConnectionCallback callback) throws BackgroundException {
         if(log.isInfoEnabled()) {
             log.info(String.format("Submit part %d of %s to queue with offset %d and length %d", partNumber, file, offset, length));
         }
-        return pool.execute(new DefaultRetryCallable<MultipartPart>(new BackgroundExceptionCallable<MultipartPart>() {
+        return scheduler.submit(overall, new DefaultRetryCallable<MultipartPart>(new BackgroundExceptionCallable<MultipartPart>() {
             @Override
             public MultipartPart call() throws BackgroundException {
                 if(overall.isCanceled()) {
@@ -257,11 +273,7 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                     .withParameters(requestParameters);
                 status.setHeader(overall.getHeader());
                 status.setNonces(overall.getNonces());
-                switch(session.getSignatureVersion()) {
-                    case AWS4HMACSHA256:
-                        status.setChecksum(writer.checksum(file).compute(local.getInputStream(), status));
-                        break;
-                }
+                final Checksum md5 = new S3PayloadChecksumService(session, writer).compute(file, local, status);
                 status.setSegment(true);
                 final StorageObject part = S3MultipartUploadService.super.upload(
                     file, local, throttle, listener, status, overall, new StreamProgress() {
@@ -280,6 +292,14 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Received response %s for part number %d", part, partNumber));
                 }
+                if(Checksum.NONE != md5) {
+                    if(null != part.getServerSideEncryptionAlgorithm()) {
+                        log.warn(String.format("Skip checksum verification for part %d of %s with server side encryption enabled", partNumber, file));
+                    }
+                    else {
+                        S3MultipartUploadService.this.verify(file, md5, Checksum.parse(part.getETag()));
+                    }
+                }
                 // Populate part with response data that is accessible via the object's metadata
                 return new MultipartPart(partNumber,
                     null == part.getLastModifiedDate() ? new Date(System.currentTimeMillis()) : part.getLastModifiedDate(),
@@ -290,6 +310,18 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         }, overall));
     }
 
+    private static final class Part {
+        private final int number;
+        private final long offset;
+        private final long length;
+
+        public Part(final int number, final long offset, final long length) {
+            this.number = number;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
     @Override
     public Upload<StorageObject> withWriter(final Write<StorageObject> writer) {
         this.writer = writer;
@@ -21,16 +21,22 @@ package ch.cyberduck.core.s3;
 import ch.cyberduck.core.AbstractPath;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.CollectingListCallback;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.URIEncoder;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
@@ -38,9 +44,18 @@ import org.jets3t.service.ServiceException;
 import org.jets3t.service.StorageObjectsChunk;
 import org.jets3t.service.model.StorageObject;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
-public class S3ObjectListService implements ListService {
+public class S3ObjectListService implements StreamingListService {
     private static final Logger log = Logger.getLogger(S3ObjectListService.class);
 
     private final Preferences preferences
@@ -62,6 +77,11 @@ public class S3ObjectListService implements ListService {
         return this.list(directory, listener, String.valueOf(Path.DELIMITER), preferences.getInteger("s3.listing.chunksize"));
     }
 
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        this.list(directory, listener, String.valueOf(Path.DELIMITER), preferences.getInteger("s3.listing.chunksize"), callback);
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         attributes.withCache(cache);
@@ -69,6 +89,13 @@ public class S3ObjectListService implements ListService {
     }
 
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener, final String delimiter, final int chunksize) throws BackgroundException {
+        final CollectingListCallback children = new CollectingListCallback(listener);
+        this.list(directory, listener, delimiter, chunksize, children);
+        return children.getList();
+    }
+
+    public void list(final Path directory, final ListProgressListener listener, final String delimiter, final int chunksize,
+                     final Callback callback) throws BackgroundException {
         try {
             final String prefix = this.createPrefix(directory);
             // If this optional, Unicode string parameter is included with your request,
@@ -77,7 +104,7 @@ public class S3ObjectListService implements ListService {
             // element in the CommonPrefixes collection. These rolled-up keys are
             // not returned elsewhere in the response.
             final Path bucket = containerService.getContainer(directory);
-            final AttributedList<Path> children = new AttributedList<Path>();
+            final int concurrency = preferences.getInteger("s3.listing.concurrency");
             // Null if listing is complete
             String priorLastKey = null;
             do {
@@ -86,63 +113,177 @@ public class S3ObjectListService implements ListService {
                 final StorageObjectsChunk chunk = session.getClient().listObjectsChunked(
                         PathNormalizer.name(URIEncoder.encode(bucket.getName())), prefix, delimiter,
                         chunksize, priorLastKey);
-
-                final StorageObject[] objects = chunk.getObjects();
-                for(StorageObject object : objects) {
-                    final String key = PathNormalizer.normalize(object.getKey());
-                    if(String.valueOf(Path.DELIMITER).equals(key)) {
-                        log.warn(String.format("Skipping prefix %s", key));
-                        continue;
-                    }
-                    if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
-                        continue;
+                callback.chunk(directory, new AttributedList<Path>(this.parse(directory, bucket, delimiter, chunk, null).values()));
+                if(null == priorLastKey && null != chunk.getPriorLastKey() && concurrency > 1) {
+                    // Use keys of first chunk as sample to split remaining keyspace
+                    final List<String> sample = new ArrayList<String>();
+                    for(StorageObject object : chunk.getObjects()) {
+                        sample.add(object.getKey());
                     }
-                    final EnumSet<AbstractPath.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
-                            ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
-                    final Path file;
-                    final PathAttributes attributes = this.attributes.toAttributes(object);
-                    // Copy bucket location
-                    attributes.setRegion(bucket.attributes().getRegion());
-                    if(null == delimiter) {
-                        file = new Path(String.format("%s%s%s", bucket.getAbsolute(), String.valueOf(Path.DELIMITER), key), types, attributes);
+                    Collections.addAll(sample, chunk.getCommonPrefixes());
+                    final List<String> boundaries = new S3KeyRanges().split(prefix, sample, chunk.getPriorLastKey(),
+                            preferences.getInteger("s3.listing.concurrency.ranges"));
+                    if(!boundaries.isEmpty()) {
+                        this.list(directory, delimiter, chunksize, bucket, prefix,
+                                chunk.getPriorLastKey(), boundaries, concurrency, callback);
+                        return;
                     }
-                    else {
-                        file = new Path(directory, PathNormalizer.name(key), types, attributes);
-                    }
-                    children.add(file);
                 }
-                final String[] prefixes = chunk.getCommonPrefixes();
-                for(String common : prefixes) {
-                    if(String.valueOf(Path.DELIMITER).equals(common)) {
-                        log.warn(String.format("Skipping prefix %s", common));
-                        continue;
-                    }
-                    final String key = PathNormalizer.normalize(common);
-                    if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
-                        continue;
-                    }
-                    final Path file;
-                    final PathAttributes attributes = new PathAttributes();
-                    if(null == delimiter) {
-                        file = new Path(String.format("%s%s%s", bucket.getAbsolute(), String.valueOf(Path.DELIMITER), key), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attributes);
+                priorLastKey = chunk.getPriorLastKey();
+            }
+            while(priorLastKey != null);
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * List ranges of keyspace concurrently and merge results in order of ranges
+     *
+     * @param marker     Last key already listed
+     * @param boundaries Ordered upper bounds of ranges following marker
+     */
+    private void list(final Path directory, final String delimiter, final int chunksize,
+                      final Path bucket, final String prefix, final String marker, final List<String> boundaries,
+                      final int concurrency, final Callback callback) throws BackgroundException {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("List %d ranges of %s with %d connections", boundaries.size() + 1, directory, concurrency));
+        }
+        final ThreadPool pool = new DefaultThreadPool("listing", concurrency);
+        try {
+            final List<Future<NavigableMap<String, Path>>> ranges = new ArrayList<Future<NavigableMap<String, Path>>>();
+            String start = marker;
+            for(int i = 0; i <= boundaries.size(); i++) {
+                final String from = start;
+                final String to = i < boundaries.size() ? boundaries.get(i) : null;
+                ranges.add(pool.execute(new BackgroundExceptionCallable<NavigableMap<String, Path>>() {
+                    @Override
+                    public NavigableMap<String, Path> call() throws BackgroundException {
+                        return list(directory, delimiter, chunksize, bucket, prefix, from, to);
                     }
-                    else {
-                        file = new Path(directory, PathNormalizer.name(key), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attributes);
+                }));
+                start = to;
+            }
+            final S3KeyRanges.Merge<Path> merge = new S3KeyRanges.Merge<Path>(marker);
+            for(Future<NavigableMap<String, Path>> future : ranges) {
+                final NavigableMap<String, Path> range;
+                try {
+                    range = future.get();
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                catch(ExecutionException e) {
+                    if(e.getCause() instanceof BackgroundException) {
+                        throw (BackgroundException) e.getCause();
                     }
-                    attributes.setRegion(bucket.attributes().getRegion());
-                    children.add(file);
+                    throw new BackgroundException(e.getCause());
+                }
+                final NavigableMap<String, Path> following = merge.next(range);
+                if(following.isEmpty()) {
+                    continue;
                 }
+                callback.chunk(directory, new AttributedList<Path>(following.values()));
+            }
+        }
+        finally {
+            pool.shutdown(false);
+        }
+    }
+
+    /**
+     * List keys in range by following markers
+     *
+     * @param marker Exclusive lower bound
+     * @param end    Inclusive upper bound or null to list all keys after marker
+     * @return Files in range ordered by key
+     */
+    private NavigableMap<String, Path> list(final Path directory, final String delimiter, final int chunksize,
+                                            final Path bucket, final String prefix, final String marker, final String end) throws BackgroundException {
+        try {
+            final NavigableMap<String, Path> range = new TreeMap<String, Path>();
+            String priorLastKey = marker;
+            do {
+                final StorageObjectsChunk chunk = session.getClient().listObjectsChunked(
+                        PathNormalizer.name(URIEncoder.encode(bucket.getName())), prefix, delimiter,
+                        chunksize, priorLastKey);
+                range.putAll(this.parse(directory, bucket, delimiter, chunk, end));
                 priorLastKey = chunk.getPriorLastKey();
-                listener.chunk(directory, children);
+                if(null != end && null != priorLastKey && priorLastKey.compareTo(end) >= 0) {
+                    // Reached start of next range
+                    break;
+                }
             }
             while(priorLastKey != null);
-            return children;
+            return range;
         }
         catch(ServiceException e) {
             throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
         }
     }
 
+    /**
+     * @param end Skip keys greater than this bound if not null
+     * @return Files by key with objects followed by rolled up common prefixes
+     */
+    private Map<String, Path> parse(final Path directory, final Path bucket, final String delimiter,
+                                    final StorageObjectsChunk chunk, final String end) {
+        final Map<String, Path> children = new LinkedHashMap<String, Path>();
+        final StorageObject[] objects = chunk.getObjects();
+        for(StorageObject object : objects) {
+            if(null != end && object.getKey().compareTo(end) > 0) {
+                continue;
+            }
+            final String key = PathNormalizer.normalize(object.getKey());
+            if(String.valueOf(Path.DELIMITER).equals(key)) {
+                log.warn(String.format("Skipping prefix %s", key));
+                continue;
+            }
+            if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
+                continue;
+            }
+            final EnumSet<AbstractPath.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
+                    ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
+            final Path file;
+            final PathAttributes attributes = this.attributes.toAttributes(object);
+            // Copy bucket location
+            attributes.setRegion(bucket.attributes().getRegion());
+            if(null == delimiter) {
+                file = new Path(String.format("%s%s%s", bucket.getAbsolute(), String.valueOf(Path.DELIMITER), key), types, attributes);
+            }
+            else {
+                file = new Path(directory, PathNormalizer.name(key), types, attributes);
+            }
+            children.put(object.getKey(), file);
+        }
+        final String[] prefixes = chunk.getCommonPrefixes();
+        for(String common : prefixes) {
+            if(null != end && common.compareTo(end) > 0) {
+                continue;
+            }
+            if(String.valueOf(Path.DELIMITER).equals(common)) {
+                log.warn(String.format("Skipping prefix %s", common));
+                continue;
+            }
+            final String key = PathNormalizer.normalize(common);
+            if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
+                continue;
+            }
+            final Path file;
+            final PathAttributes attributes = new PathAttributes();
+            if(null == delimiter) {
+                file = new Path(String.format("%s%s%s", bucket.getAbsolute(), String.valueOf(Path.DELIMITER), key), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attributes);
+            }
+            else {
+                file = new Path(directory, PathNormalizer.name(key), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attributes);
+            }
+            attributes.setRegion(bucket.attributes().getRegion());
+            children.put(common, file);
+        }
+        return children;
+    }
+
     protected String createPrefix(final Path directory) {
         // Keys can be listed by prefix. By choosing a common prefix
         // for the names of related keys and marking these keys with
@@ -0,0 +1,76 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.ChecksumCompute;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.MultiChecksumCompute;
+import ch.cyberduck.core.io.SHA256ChecksumCompute;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import java.util.Map;
+
+/**
+ * Compute SHA-256 of payload required for AWS4 request signature. The MD5 hash to verify the ETag returned for
+ * the object or part is computed in the same pass over the input.
+ */
+public class S3PayloadChecksumService {
+    private static final Logger log = Logger.getLogger(S3PayloadChecksumService.class);
+
+    private final S3Session session;
+    private final Write<?> writer;
+
+    public S3PayloadChecksumService(final S3Session session, final Write<?> writer) {
+        this.session = session;
+        this.writer = writer;
+    }
+
+    /**
+     * Set checksum of payload in status if required for signature and not already set
+     *
+     * @param status Offset and length of content to upload
+     * @return MD5 hash of content or {@link Checksum#NONE} if not computed
+     */
+    public Checksum compute(final Path file, final Local local, final TransferStatus status) throws BackgroundException {
+        switch(session.getSignatureVersion()) {
+            case AWS4HMACSHA256:
+                if(Checksum.NONE == status.getChecksum()) {
+                    final ChecksumCompute compute = writer.checksum(file);
+                    // Content transformed by writer does not match MD5 of local file
+                    if(compute instanceof SHA256ChecksumCompute && PreferencesFactory.get().getBoolean("s3.upload.md5")) {
+                        final Map<HashAlgorithm, Checksum> checksums = new MultiChecksumCompute(HashAlgorithm.sha256, HashAlgorithm.md5)
+                            .computeAll(local.getInputStream(), status);
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Computed checksums %s for %s", checksums.values(), file));
+                        }
+                        status.setChecksum(checksums.get(HashAlgorithm.sha256));
+                        return checksums.get(HashAlgorithm.md5);
+                    }
+                    status.setChecksum(compute.compute(local.getInputStream(), status));
+                }
+                break;
+        }
+        return Checksum.NONE;
+    }
+}
@@ -27,7 +27,9 @@ import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.StreamCancelation;
 import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.io.StreamProgress;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
@@ -56,13 +58,6 @@ public class S3SingleUploadService extends HttpUploadFeature<StorageObject, Mess
     public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle,
                                 final StreamListener listener, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
         final S3Protocol.AuthenticationHeaderSignatureVersion signatureVersion = session.getSignatureVersion();
-        switch(signatureVersion) {
-            case AWS4HMACSHA256:
-                if(Checksum.NONE == status.getChecksum()) {
-                    status.setChecksum(writer.checksum(file).compute(local.getInputStream(), status));
-                }
-                break;
-        }
         try {
             return super.upload(file, local, throttle, listener, status, callback);
         }
@@ -76,10 +71,28 @@ public class S3SingleUploadService extends HttpUploadFeature<StorageObject, Mess
         }
     }
 
+    /**
+     * Verify ETag with MD5 hash computed together with SHA-256 of payload instead of while uploading
+     */
+    @Override
+    public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle,
+                                final StreamListener listener, final TransferStatus status,
+                                final StreamCancelation cancel, final StreamProgress progress, final ConnectionCallback callback) throws BackgroundException {
+        final Checksum md5 = new S3PayloadChecksumService(session, writer).compute(file, local, status);
+        if(Checksum.NONE == md5) {
+            return super.upload(file, local, throttle, listener, status, cancel, progress, callback);
+        }
+        final StorageObject part = this.upload(file, local, throttle, listener, status, cancel, progress, callback, null);
+        this.post(file, md5, part);
+        return part;
+    }
+
     @Override
     protected InputStream decorate(final InputStream in, final MessageDigest digest) throws IOException {
         if(null == digest) {
-            log.warn("MD5 calculation disabled");
+            if(log.isDebugEnabled()) {
+                log.debug("No MD5 calculation while uploading");
+            }
             return super.decorate(in, null);
         }
         else {
@@ -110,6 +123,17 @@ public class S3SingleUploadService extends HttpUploadFeature<StorageObject, Mess
         this.verify(file, digest, Checksum.parse(part.getETag()));
     }
 
+    /**
+     * @param expected MD5 hash computed before upload
+     */
+    private void post(final Path file, final Checksum expected, final StorageObject part) throws BackgroundException {
+        if(null != part.getServerSideEncryptionAlgorithm()) {
+            log.warn(String.format("Skip checksum verification for %s with server side encryption enabled", file));
+            return;
+        }
+        this.verify(file, expected, Checksum.parse(part.getETag()));
+    }
+
     @Override
     public Upload<StorageObject> withWriter(final Write<StorageObject> writer) {
         this.writer = writer;
@@ -17,12 +17,14 @@ package ch.cyberduck.core.s3;
 
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.CollectingListCallback;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.StreamingListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
@@ -38,7 +40,7 @@ import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
 
-public class S3VersionedObjectListService implements ListService {
+public class S3VersionedObjectListService implements StreamingListService {
     private static final Logger log = Logger.getLogger(S3VersionedObjectListService.class);
 
     private final Preferences preferences
@@ -55,9 +57,15 @@ public class S3VersionedObjectListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final CollectingListCallback children = new CollectingListCallback(listener);
+        this.list(directory, listener, children);
+        return children.getList();
+    }
+
+    @Override
+    public void list(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
         final String prefix = this.createPrefix(directory);
         final Path bucket = containerService.getContainer(directory);
-        final AttributedList<Path> children = new AttributedList<Path>();
         try {
             String priorLastKey = null;
             String priorLastVersionId = null;
@@ -69,6 +77,7 @@ public class S3VersionedObjectListService implements ListService {
                 // Amazon S3 returns object versions in the order in which they were
                 // stored, with the most recently stored returned first.
                 final List<BaseVersionOrDeleteMarker> items = Arrays.asList(chunk.getItems());
+                final AttributedList<Path> children = new AttributedList<Path>();
                 long i = 0L;
                 for(BaseVersionOrDeleteMarker marker : items) {
                     final String key = PathNormalizer.normalize(marker.getKey());
@@ -118,10 +127,9 @@ public class S3VersionedObjectListService implements ListService {
                 }
                 priorLastKey = chunk.getNextKeyMarker();
                 priorLastVersionId = chunk.getNextVersionIdMarker();
-                listener.chunk(directory, children);
+                callback.chunk(directory, children);
             }
             while(priorLastKey != null);
-            return children;
         }
         catch(ServiceException e) {
             throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
@@ -0,0 +1,98 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class S3KeyRangesTest {
+
+    @Test
+    public void testSplit() {
+        final List<String> boundaries = new S3KeyRanges().split("d/", Arrays.asList("d/a1", "d/b2", "d/c3"), "d/b2", 100);
+        assertEquals(Arrays.asList("d/b3", "d/ba", "d/bb", "d/bc", "d/c"), boundaries);
+        for(String boundary : boundaries) {
+            assertTrue(boundary.compareTo("d/b2") > 0);
+        }
+    }
+
+    @Test
+    public void testSplitMaximum() {
+        final List<String> boundaries = new S3KeyRanges().split("", Arrays.asList("0123456789", "abcdefghij"), "0", 5);
+        assertEquals(5, boundaries.size());
+        for(int i = 1; i < boundaries.size(); i++) {
+            assertTrue(boundaries.get(i).compareTo(boundaries.get(i - 1)) > 0);
+        }
+    }
+
+    @Test
+    public void testSplitNoSample() {
+        assertTrue(new S3KeyRanges().split("d/", Collections.<String>emptyList(), "d/a", 10).isEmpty());
+        assertTrue(new S3KeyRanges().split("d/", Collections.singletonList("d/a"), "d/", 10).isEmpty());
+    }
+
+    @Test
+    public void testSplitCommonPrefix() {
+        final List<String> boundaries = new S3KeyRanges().split("d/",
+                Arrays.asList("d/2018-01-a1", "d/2018-01-b2", "d/2018-01-c3"), "d/2018-01-b2", 100);
+        assertEquals(Arrays.asList("d/2018-01-b3", "d/2018-01-ba", "d/2018-01-bb", "d/2018-01-bc", "d/2018-01-c"), boundaries);
+    }
+
+    @Test
+    public void testSplitMarkerCommonPrefix() {
+        final List<String> boundaries = new S3KeyRanges().split("d/",
+                Arrays.asList("d/logs/a", "d/logs/b"), "d/logs/", 100);
+        assertEquals(Arrays.asList("d/logs/a", "d/logs/b"), boundaries);
+    }
+
+    @Test
+    public void testMerge() {
+        final S3KeyRanges.Merge<String> merge = new S3KeyRanges.Merge<String>("d/a");
+        final NavigableMap<String, String> first = new TreeMap<String, String>();
+        first.put("d/b", "d/b");
+        first.put("d/c/", "d/c/");
+        assertEquals(Arrays.asList("d/b", "d/c/"), new ArrayList<String>(merge.next(first).keySet()));
+        // Common prefix rolled up again in following range
+        final NavigableMap<String, String> second = new TreeMap<String, String>();
+        second.put("d/c/", "d/c/");
+        second.put("d/d", "d/d");
+        assertEquals(Collections.singletonList("d/d"), new ArrayList<String>(merge.next(second).keySet()));
+        assertTrue(merge.next(new TreeMap<String, String>()).isEmpty());
+        final NavigableMap<String, String> third = new TreeMap<String, String>();
+        third.put("d/c/", "d/c/");
+        third.put("d/e", "d/e");
+        assertEquals(Collections.singletonList("d/e"), new ArrayList<String>(merge.next(third).keySet()));
+    }
+
+    @Test
+    public void testMergeNoMarker() {
+        final S3KeyRanges.Merge<String> merge = new S3KeyRanges.Merge<String>(null);
+        final NavigableMap<String, String> first = new TreeMap<String, String>();
+        first.put("a", "a");
+        assertEquals(Collections.singletonList("a"), new ArrayList<String>(merge.next(first).keySet()));
+        final NavigableMap<String, String> second = new TreeMap<String, String>();
+        second.put("a", "a");
+        assertTrue(merge.next(second).isEmpty());
+    }
+}
@@ -0,0 +1,220 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Metrics;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controls the number of unconfirmed requests and the packet size of a stream from the measured latency of
+ * acknowledgements. The window grows while latency stays close to the lowest observed round trip time and
+ * shrinks when requests queue up on the link or at the server. Gauges are the sum over all open streams of
+ * the session with the same key.
+ */
+public class AdaptiveWindow {
+    private static final Logger log = Logger.getLogger(AdaptiveWindow.class);
+
+    /**
+     * Minimum added to baseline latency before shrinking to tolerate jitter on fast links
+     */
+    private static final long TOLERANCE = TimeUnit.MILLISECONDS.toNanos(2L);
+
+    private final String key;
+    private final Metrics metrics;
+
+    private final int minimum;
+    private final int maximum;
+    private final int minimumPacket;
+    /**
+     * Largest packet size ever requested
+     */
+    private final int capacity;
+    private int maximumPacket;
+
+    /**
+     * Number of unconfirmed requests allowed
+     */
+    private int window;
+    /**
+     * Bytes per request
+     */
+    private int packet;
+
+    /**
+     * Lowest round trip time observed in nanoseconds
+     */
+    private long baseline = Long.MAX_VALUE;
+    /**
+     * Smoothed round trip time in nanoseconds
+     */
+    private double smoothed;
+    /**
+     * Acknowledgements since last adjustment
+     */
+    private int acknowledged;
+    /**
+     * Double window until first congestion
+     */
+    private boolean slowstart = true;
+
+    /**
+     * Values added to gauges shared with other streams
+     */
+    private int publishedWindow;
+    private long publishedBytes;
+    private boolean closed;
+
+    /**
+     * @param key     Metric prefix
+     * @param window  Initial number of unconfirmed requests
+     * @param maximum Maximum number of unconfirmed requests
+     * @param packet  Initial and minimum packet size
+     * @param limit   Maximum packet size
+     */
+    public AdaptiveWindow(final String key, final int window, final int maximum, final int packet, final int limit, final Metrics metrics) {
+        this.key = key;
+        this.metrics = metrics;
+        this.minimum = 1;
+        this.maximum = Math.max(window, maximum);
+        this.window = Math.max(1, window);
+        this.minimumPacket = packet;
+        this.capacity = Math.max(packet, limit);
+        this.maximumPacket = capacity;
+        this.packet = packet;
+        synchronized(metrics) {
+            this.add("streams", 1L);
+        }
+        this.publish();
+    }
+
+    /**
+     * Record acknowledgement of request
+     *
+     * @param latency Time in nanoseconds from sending request to receiving response
+     */
+    public synchronized void acknowledge(final long latency) {
+        baseline = Math.min(baseline, latency);
+        smoothed = 0 == smoothed ? latency : smoothed * 0.875 + latency * 0.125;
+        // Adjust once per window of acknowledgements
+        if(++acknowledged < window) {
+            return;
+        }
+        acknowledged = 0;
+        if(smoothed > Math.max(baseline * 2, baseline + TOLERANCE)) {
+            // Requests are queuing
+            slowstart = false;
+            if(window > minimum) {
+                window = Math.max(minimum, window * 3 / 4);
+            }
+            else {
+                packet = Math.max(Math.min(minimumPacket, maximumPacket), packet / 2);
+            }
+        }
+        else if(smoothed < baseline * 1.25 + TOLERANCE / 2) {
+            if(window < maximum) {
+                window = Math.min(maximum, slowstart ? window * 2 : window + 1);
+            }
+            else {
+                packet = Math.min(maximumPacket, packet * 2);
+            }
+        }
+        else {
+            return;
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Adjusted window to %d requests with %d bytes for %s", window, packet, key));
+        }
+        this.publish();
+    }
+
+    /**
+     * Server returned less data than requested
+     *
+     * @param length Maximum number of bytes returned for a single request
+     */
+    public synchronized void limit(final int length) {
+        if(length < packet) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Limit packet size to %d bytes for %s", length, key));
+            }
+            maximumPacket = length;
+            packet = length;
+            this.publish();
+        }
+    }
+
+    private void publish() {
+        if(closed) {
+            return;
+        }
+        final long bytes = (long) window * packet;
+        synchronized(metrics) {
+            this.add("window", window - publishedWindow);
+            this.add("bytes", bytes - publishedBytes);
+        }
+        publishedWindow = window;
+        publishedBytes = bytes;
+    }
+
+    private void add(final String name, final long delta) {
+        final String gauge = String.format("%s.%s", key, name);
+        metrics.set(gauge, metrics.get(gauge) + delta);
+    }
+
+    /**
+     * Remove from gauges when stream is closed
+     */
+    public synchronized void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        synchronized(metrics) {
+            this.add("window", -publishedWindow);
+            this.add("bytes", -publishedBytes);
+            this.add("streams", -1L);
+        }
+    }
+
+    public synchronized int getWindow() {
+        return window;
+    }
+
+    public synchronized int getPacket() {
+        return packet;
+    }
+
+    /**
+     * @return Buffer size sufficient for any packet
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AdaptiveWindow{");
+        sb.append("key='").append(key).append('\'');
+        sb.append(", window=").append(window);
+        sb.append(", packet=").append(packet);
+        sb.append(", baseline=").append(baseline);
+        sb.append('}');
+        return sb.toString();
+    }
+}
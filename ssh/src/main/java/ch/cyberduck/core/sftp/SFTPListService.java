@@ -33,6 +33,7 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.util.EnumSet;
 
+import net.schmizz.sshj.sftp.FileAttributes;
 import net.schmizz.sshj.sftp.FileMode;
 import net.schmizz.sshj.sftp.RemoteDirectory;
 import net.schmizz.sshj.sftp.RemoteResourceFilter;
@@ -61,18 +62,7 @@ public class SFTPListService implements ListService {
                     return true;
                 }
             })) {
-                final PathAttributes attributes = this.attributes.toAttributes(f.getAttributes());
-                final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
-                if(f.getAttributes().getType().equals(FileMode.Type.DIRECTORY)) {
-                    type.add(Path.Type.directory);
-                }
-                if(f.getAttributes().getType().equals(FileMode.Type.REGULAR)) {
-                    type.add(Path.Type.file);
-                }
-                if(f.getAttributes().getType().equals(FileMode.Type.SYMLINK)) {
-                    type.add(Path.Type.symboliclink);
-                }
-                final Path file = new Path(directory, f.getName(), type, attributes);
+                final Path file = this.toPath(directory, f.getName(), f.getAttributes());
                 if(this.post(file)) {
                     children.add(file);
                     listener.chunk(directory, children);
@@ -92,6 +82,21 @@ public class SFTPListService implements ListService {
         return this;
     }
 
+    protected Path toPath(final Path directory, final String filename, final FileAttributes stat) {
+        final PathAttributes attributes = this.attributes.toAttributes(stat);
+        final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+        if(stat.getType().equals(FileMode.Type.DIRECTORY)) {
+            type.add(Path.Type.directory);
+        }
+        if(stat.getType().equals(FileMode.Type.REGULAR)) {
+            type.add(Path.Type.file);
+        }
+        if(stat.getType().equals(FileMode.Type.SYMLINK)) {
+            type.add(Path.Type.symboliclink);
+        }
+        return new Path(directory, filename, type, attributes);
+    }
+
     protected boolean post(final Path file) throws BackgroundException {
         if(file.isSymbolicLink()) {
             final Path target;
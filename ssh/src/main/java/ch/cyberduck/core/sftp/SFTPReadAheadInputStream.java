@@ -0,0 +1,173 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.concurrent.Promise;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPException;
+
+/**
+ * Read ahead with the number of unconfirmed requests and the request size controlled by an adaptive window
+ */
+public class SFTPReadAheadInputStream extends InputStream {
+    private static final Logger log = Logger.getLogger(SFTPReadAheadInputStream.class);
+
+    private final SFTPRemoteFile handle;
+    private final AdaptiveWindow window;
+
+    private final Deque<UnconfirmedRead> unconfirmed = new ArrayDeque<>();
+
+    /**
+     * Data of last response
+     */
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    /**
+     * Offset for next request
+     */
+    private long requestOffset;
+    private boolean eof;
+    private boolean closed;
+
+    public SFTPReadAheadInputStream(final SFTPRemoteFile handle, final long offset, final AdaptiveWindow window) {
+        this.handle = handle;
+        this.window = window;
+        this.requestOffset = offset;
+        this.buffer = new byte[window.getCapacity()];
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        return -1 == this.read(b, 0, 1) ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if(closed) {
+            throw new IOException("Stream closed");
+        }
+        if(0 == len) {
+            return 0;
+        }
+        while(position == limit) {
+            if(eof) {
+                return -1;
+            }
+            this.fill();
+        }
+        final int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    /**
+     * Send requests up to window size and wait for the response of the oldest request
+     */
+    private void fill() throws IOException {
+        while(unconfirmed.size() < window.getWindow()) {
+            final int length = window.getPacket();
+            unconfirmed.add(new UnconfirmedRead(requestOffset, length, handle.requestRead(requestOffset, length), 0));
+            requestOffset += length;
+        }
+        final UnconfirmedRead read = unconfirmed.poll();
+        final Response response = read.promise.retrieve(handle.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        window.acknowledge(System.nanoTime() - read.timestamp);
+        position = 0;
+        limit = 0;
+        switch(response.getType()) {
+            case DATA:
+                final int received = response.readUInt32AsInt();
+                response.readRawBytes(buffer, 0, received);
+                limit = received;
+                if(read.previous > 0) {
+                    // More data available after short read
+                    window.limit(read.previous);
+                }
+                if(received < read.length) {
+                    // Request remainder before any other outstanding request
+                    unconfirmed.addFirst(new UnconfirmedRead(read.offset + received, read.length - received,
+                        handle.requestRead(read.offset + received, read.length - received), received));
+                }
+                break;
+            case STATUS:
+                response.ensureStatusIs(Response.StatusCode.EOF);
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Reached end of file at offset %d with window %s", read.offset, window));
+                }
+                eof = true;
+                break;
+            default:
+                throw new SFTPException(String.format("Unexpected response type %s", response.getType()));
+        }
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed) {
+            log.warn(String.format("Skip double close of stream %s", this));
+            return;
+        }
+        closed = true;
+        // Discard outstanding responses
+        unconfirmed.clear();
+        window.close();
+        handle.close();
+    }
+
+    private static final class UnconfirmedRead {
+        private final long offset;
+        private final int length;
+        private final Promise<Response, SFTPException> promise;
+        private final long timestamp = System.nanoTime();
+        /**
+         * Number of bytes returned for preceding short read
+         */
+        private final int previous;
+
+        public UnconfirmedRead(final long offset, final int length, final Promise<Response, SFTPException> promise, final int previous) {
+            this.offset = offset;
+            this.length = length;
+            this.promise = promise;
+            this.previous = previous;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SFTPReadAheadInputStream{");
+        sb.append("handle=").append(handle.getPath());
+        sb.append(", window=").append(window);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -30,10 +30,8 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.EnumSet;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.schmizz.sshj.sftp.OpenMode;
-import net.schmizz.sshj.sftp.RemoteFile;
 
 public class SFTPReadFeature implements Read {
     private static final Logger log = Logger.getLogger(SFTPReadFeature.class);
@@ -50,29 +48,12 @@ public class SFTPReadFeature implements Read {
     @Override
     public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
         try {
-            final RemoteFile handle = session.sftp().open(file.getAbsolute(), EnumSet.of(OpenMode.READ));
+            final SFTPRemoteFile handle = SFTPRemoteFile.open(session.sftp(), file.getAbsolute(), EnumSet.of(OpenMode.READ));
             final int maxUnconfirmedReads = this.getMaxUnconfirmedReads(status);
             if(log.isInfoEnabled()) {
                 log.info(String.format("Skipping %d bytes", status.getOffset()));
             }
-            return handle.new ReadAheadRemoteFileInputStream(maxUnconfirmedReads, status.getOffset()) {
-                private final AtomicBoolean close = new AtomicBoolean();
-
-                @Override
-                public void close() throws IOException {
-                    if(close.get()) {
-                        log.warn(String.format("Skip double close of stream %s", this));
-                        return;
-                    }
-                    try {
-                        super.close();
-                    }
-                    finally {
-                        handle.close();
-                        close.set(true);
-                    }
-                }
-            };
+            return new SFTPReadAheadInputStream(handle, status.getOffset(), this.getWindow(status, maxUnconfirmedReads));
         }
         catch(IOException e) {
             throw new SFTPExceptionMappingService().map("Download {0} failed", e, file);
@@ -87,6 +68,20 @@ public class SFTPReadFeature implements Read {
                 preferences.getInteger("sftp.read.maxunconfirmed"));
     }
 
+    protected AdaptiveWindow getWindow(final TransferStatus status, final int maxUnconfirmedReads) {
+        final int packet = preferences.getInteger("sftp.packet.size");
+        if(!preferences.getBoolean("sftp.window.adaptive")) {
+            return new AdaptiveWindow("sftp.read", maxUnconfirmedReads, maxUnconfirmedReads, packet, packet, session.getMetrics());
+        }
+        int maximum = preferences.getInteger("sftp.read.maxunconfirmed.limit");
+        if(-1 != status.getLength()) {
+            // No more requests than needed for whole file
+            maximum = (int) Math.min(maximum, status.getLength() / packet + 1);
+        }
+        return new AdaptiveWindow("sftp.read", maxUnconfirmedReads, maximum, packet,
+            preferences.getInteger("sftp.packet.size.limit"), session.getMetrics());
+    }
+
     @Override
     public boolean offset(final Path file) {
         return true;
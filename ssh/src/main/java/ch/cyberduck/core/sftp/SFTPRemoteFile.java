@@ -0,0 +1,69 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.concurrent.Promise;
+import net.schmizz.sshj.sftp.FileAttributes;
+import net.schmizz.sshj.sftp.OpenMode;
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.RemoteFile;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
+import net.schmizz.sshj.sftp.SFTPException;
+
+/**
+ * File handle allowing to send read and write requests without waiting for the response
+ */
+public class SFTPRemoteFile extends RemoteFile {
+
+    public SFTPRemoteFile(final SFTPEngine requester, final String path, final byte[] handle) {
+        super(requester, path, handle);
+    }
+
+    public static SFTPRemoteFile open(final SFTPEngine sftp, final String path, final Set<OpenMode> modes) throws IOException {
+        final byte[] handle = sftp.request(sftp.newRequest(PacketType.OPEN)
+            .putString(path).putUInt32(OpenMode.toMask(modes)).putFileAttributes(FileAttributes.EMPTY))
+            .retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS)
+            .ensurePacketTypeIs(PacketType.HANDLE).readBytes();
+        return new SFTPRemoteFile(sftp, path, handle);
+    }
+
+    /**
+     * @param offset Position in file
+     * @param length Number of bytes to read
+     * @return Pending response with either DATA or EOF status
+     */
+    public Promise<Response, SFTPException> requestRead(final long offset, final int length) throws IOException {
+        return requester.request(newRequest(PacketType.READ).putUInt64(offset).putUInt32(length));
+    }
+
+    /**
+     * @param offset Position in file
+     * @param data   Buffer copied to request before returning
+     * @return Pending response with status
+     */
+    public Promise<Response, SFTPException> requestWrite(final long offset, final byte[] data, final int off, final int len) throws IOException {
+        return requester.request(newRequest(PacketType.WRITE).putUInt64(offset).putString(data, off, len));
+    }
+
+    public int getTimeoutMs() {
+        return requester.getTimeoutMs();
+    }
+}
@@ -67,6 +67,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import net.schmizz.concurrent.Promise;
 import net.schmizz.keepalive.KeepAlive;
@@ -76,6 +77,7 @@ import net.schmizz.sshj.DefaultConfig;
 import net.schmizz.sshj.SSHClient;
 import net.schmizz.sshj.common.DisconnectReason;
 import net.schmizz.sshj.common.SSHException;
+import net.schmizz.sshj.sftp.PacketType;
 import net.schmizz.sshj.sftp.Request;
 import net.schmizz.sshj.sftp.Response;
 import net.schmizz.sshj.sftp.SFTPEngine;
@@ -97,6 +99,11 @@ public class SFTPSession extends Session<SSHClient> {
 
     private SFTPEngine sftp;
 
+    /**
+     * Maximum length of write request announced by server or -1 if unknown
+     */
+    private long writeLimit = -1L;
+
     private StateDisconnectListener disconnectListener;
 
     private NegotiatedAlgorithms algorithms;
@@ -312,12 +319,49 @@ public class SFTPSession extends Session<SSHClient> {
             }.init();
             final int timeout = preferences.getInteger("connection.timeout.seconds") * 1000;
             sftp.setTimeoutMs(timeout);
+            writeLimit = this.limit(sftp);
         }
         catch(IOException e) {
             throw new SFTPExceptionMappingService().map(e);
         }
     }
 
+    /**
+     * Query limits with extension supported by OpenSSH 8.6 and later
+     *
+     * @return Maximum length of write request or -1 if not announced
+     */
+    private long limit(final SFTPEngine sftp) {
+        if(!sftp.supportsServerExtension("limits", "openssh.com")) {
+            return -1L;
+        }
+        try {
+            final Response response = sftp.request(sftp.newExtendedRequest("limits@openssh.com"))
+                .retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            response.ensurePacketTypeIs(PacketType.EXTENDED_REPLY);
+            // Maximum packet length
+            response.readUInt64();
+            // Maximum read length
+            response.readUInt64();
+            final long limit = response.readUInt64();
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Server limits write requests to %d bytes", limit));
+            }
+            return limit > 0 ? limit : -1L;
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading limits of server. %s", e.getMessage()));
+            return -1L;
+        }
+    }
+
+    /**
+     * @return Maximum length of write request announced by server or -1 if unknown
+     */
+    public long getWriteLimit() {
+        return writeLimit;
+    }
+
     public SFTPEngine sftp() throws LoginCanceledException {
         if(null == sftp) {
             throw new LoginCanceledException();
@@ -403,6 +447,9 @@ public class SFTPSession extends Session<SSHClient> {
         if(type == Quota.class) {
             return (T) new SFTPQuotaFeature(this);
         }
+        if(type == Walk.class) {
+            return (T) new SFTPWalkFeature(this);
+        }
         return super._getFeature(type);
     }
 
@@ -0,0 +1,205 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Walk;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.concurrent.Promise;
+import net.schmizz.sshj.sftp.FileAttributes;
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
+import net.schmizz.sshj.sftp.SFTPException;
+
+/**
+ * Walk directory tree with requests for multiple directories outstanding on the same channel. Directory handles
+ * are opened for up to <code>sftp.list.pipeline</code> directories at a time and the next READDIR request
+ * for a directory is sent as soon as the previous response is received.
+ */
+public class SFTPWalkFeature implements Walk {
+    private static final Logger log = Logger.getLogger(SFTPWalkFeature.class);
+
+    private final SFTPSession session;
+    private final SFTPListService list;
+    private final int pipeline;
+
+    public SFTPWalkFeature(final SFTPSession session) {
+        this(session, PreferencesFactory.get().getInteger("sftp.list.pipeline"));
+    }
+
+    public SFTPWalkFeature(final SFTPSession session, final int pipeline) {
+        this.session = session;
+        this.list = new SFTPListService(session);
+        this.pipeline = Math.max(1, pipeline);
+    }
+
+    @Override
+    public void walk(final Path directory, final ListProgressListener listener, final Callback callback) throws BackgroundException {
+        if(!callback.accept(directory)) {
+            return;
+        }
+        final SFTPEngine sftp = session.sftp();
+        final Deque<Path> pending = new ArrayDeque<>();
+        final Deque<DirectoryListing> outstanding = new ArrayDeque<>();
+        pending.add(directory);
+        try {
+            while(!pending.isEmpty() || !outstanding.isEmpty()) {
+                // Fill pipeline
+                while(outstanding.size() < pipeline && !pending.isEmpty()) {
+                    final Path next = pending.poll();
+                    try {
+                        outstanding.add(new DirectoryListing(sftp, next));
+                    }
+                    catch(IOException e) {
+                        throw new SFTPExceptionMappingService().map("Listing directory {0} failed", e, next);
+                    }
+                }
+                final DirectoryListing next = outstanding.poll();
+                try {
+                    if(next.read()) {
+                        // Wait for next response
+                        outstanding.add(next);
+                        continue;
+                    }
+                }
+                catch(IOException e) {
+                    next.close();
+                    if(next.directory == directory) {
+                        throw new SFTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
+                    }
+                    // Leave to be listed by caller
+                    log.warn(String.format("Skip directory %s failing to list. %s", next.directory, e.getMessage()));
+                    continue;
+                }
+                listener.chunk(next.directory, next.children);
+                callback.visit(next.directory, next.children);
+                for(Path f : next.children) {
+                    if(f.isDirectory() && callback.accept(f)) {
+                        pending.add(f);
+                    }
+                }
+            }
+        }
+        finally {
+            for(DirectoryListing l : outstanding) {
+                l.close();
+            }
+        }
+    }
+
+    private final class DirectoryListing {
+        private final SFTPEngine sftp;
+        private final Path directory;
+        private final AttributedList<Path> children = new AttributedList<>();
+
+        /**
+         * Outstanding request
+         */
+        private Promise<Response, SFTPException> response;
+        private byte[] handle;
+
+        public DirectoryListing(final SFTPEngine sftp, final Path directory) throws IOException {
+            this.sftp = sftp;
+            this.directory = directory;
+            this.response = sftp.request(sftp.newRequest(PacketType.OPENDIR).putString(directory.getAbsolute()));
+        }
+
+        /**
+         * Process outstanding response and send next request
+         *
+         * @return False when all entries of directory are read
+         */
+        public boolean read() throws IOException, BackgroundException {
+            final Response res = response.retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            response = null;
+            if(null == handle) {
+                handle = res.ensurePacketTypeIs(PacketType.HANDLE).readBytes();
+            }
+            else {
+                switch(res.getType()) {
+                    case NAME:
+                        final int count = res.readUInt32AsInt();
+                        for(int i = 0; i < count; i++) {
+                            final String filename = res.readString();
+                            // Long name
+                            res.readString();
+                            final FileAttributes attributes = res.readFileAttributes();
+                            if(".".equals(filename) || "..".equals(filename)) {
+                                continue;
+                            }
+                            final Path file = list.toPath(directory, filename, attributes);
+                            if(list.post(file)) {
+                                children.add(file);
+                            }
+                        }
+                        break;
+                    case STATUS:
+                        res.ensureStatusIs(Response.StatusCode.EOF);
+                        this.close();
+                        return false;
+                    default:
+                        throw new SFTPException(String.format("Unexpected response type %s", res.getType()));
+                }
+            }
+            response = sftp.request(sftp.newRequest(PacketType.READDIR).putString(handle));
+            return true;
+        }
+
+        /**
+         * Release directory handle without waiting for confirmation
+         */
+        public void close() {
+            try {
+                if(response != null) {
+                    final Response res = response.retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS);
+                    if(null == handle && res.getType() == PacketType.HANDLE) {
+                        handle = res.readBytes();
+                    }
+                }
+                if(handle != null) {
+                    sftp.request(sftp.newRequest(PacketType.CLOSE).putString(handle));
+                }
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure closing directory handle for %s. %s", directory, e.getMessage()));
+            }
+            finally {
+                response = null;
+                handle = null;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SFTPWalkFeature{");
+        sb.append("pipeline=").append(pipeline);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,144 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.concurrent.Promise;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPException;
+
+/**
+ * Write with the number of unconfirmed requests and the request size controlled by an adaptive window
+ */
+public class SFTPWriteAheadOutputStream extends OutputStream {
+    private static final Logger log = Logger.getLogger(SFTPWriteAheadOutputStream.class);
+
+    private final SFTPRemoteFile handle;
+    private final AdaptiveWindow window;
+
+    private final Deque<UnconfirmedWrite> unconfirmed = new ArrayDeque<>();
+
+    private final byte[] buffer;
+    private int count;
+
+    /**
+     * Offset for next request
+     */
+    private long offset;
+    private boolean closed;
+
+    public SFTPWriteAheadOutputStream(final SFTPRemoteFile handle, final long offset, final AdaptiveWindow window) {
+        this.handle = handle;
+        this.window = window;
+        this.offset = offset;
+        this.buffer = new byte[window.getCapacity()];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) throws IOException {
+        if(closed) {
+            throw new IOException("Stream closed");
+        }
+        while(len > 0) {
+            final int n = Math.min(len, window.getPacket() - count);
+            if(n > 0) {
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+            if(count >= window.getPacket()) {
+                this.send();
+            }
+        }
+    }
+
+    /**
+     * Send buffered data waiting for the oldest requests to be confirmed when the window is full
+     */
+    private void send() throws IOException {
+        if(0 == count) {
+            return;
+        }
+        while(unconfirmed.size() >= window.getWindow()) {
+            this.confirm();
+        }
+        // Data is copied to request
+        unconfirmed.add(new UnconfirmedWrite(handle.requestWrite(offset, buffer, 0, count)));
+        offset += count;
+        count = 0;
+    }
+
+    private void confirm() throws IOException {
+        final UnconfirmedWrite write = unconfirmed.poll();
+        write.promise.retrieve(handle.getTimeoutMs(), TimeUnit.MILLISECONDS).ensureStatusPacketIsOK();
+        window.acknowledge(System.nanoTime() - write.timestamp);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.send();
+        while(!unconfirmed.isEmpty()) {
+            this.confirm();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed) {
+            log.warn(String.format("Skip double close of stream %s", this));
+            return;
+        }
+        try {
+            this.flush();
+        }
+        finally {
+            closed = true;
+            window.close();
+            handle.close();
+        }
+    }
+
+    private static final class UnconfirmedWrite {
+        private final Promise<Response, SFTPException> promise;
+        private final long timestamp = System.nanoTime();
+
+        public UnconfirmedWrite(final Promise<Response, SFTPException> promise) {
+            this.promise = promise;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SFTPWriteAheadOutputStream{");
+        sb.append("handle=").append(handle.getPath());
+        sb.append(", window=").append(window);
+        sb.append('}');
+        return sb.toString();
+    }
+}
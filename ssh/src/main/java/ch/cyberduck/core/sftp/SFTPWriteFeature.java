@@ -33,10 +33,8 @@ import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.util.EnumSet;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.schmizz.sshj.sftp.OpenMode;
-import net.schmizz.sshj.sftp.RemoteFile;
 
 public class SFTPWriteFeature extends AppendWriteFeature<Void> {
     private static final Logger log = Logger.getLogger(SFTPWriteFeature.class);
@@ -81,7 +79,7 @@ public class SFTPWriteFeature extends AppendWriteFeature<Void> {
                     flags = EnumSet.of(OpenMode.CREAT, OpenMode.TRUNC, OpenMode.WRITE);
                 }
             }
-            final RemoteFile handle = session.sftp().open(file.getAbsolute(), flags);
+            final SFTPRemoteFile handle = SFTPRemoteFile.open(session.sftp(), file.getAbsolute(), flags);
             final int maxUnconfirmedWrites = this.getMaxUnconfirmedWrites(status);
             if(log.isInfoEnabled()) {
                 log.info(String.format("Using %d unconfirmed writes", maxUnconfirmedWrites));
@@ -90,24 +88,8 @@ public class SFTPWriteFeature extends AppendWriteFeature<Void> {
                 log.info(String.format("Skipping %d bytes", status.getOffset()));
             }
             // Open stream at offset
-            return new VoidStatusOutputStream(handle.new RemoteFileOutputStream(status.getOffset(), maxUnconfirmedWrites) {
-                private final AtomicBoolean close = new AtomicBoolean();
-
-                @Override
-                public void close() throws IOException {
-                    if(close.get()) {
-                        log.warn(String.format("Skip double close of stream %s", this));
-                        return;
-                    }
-                    try {
-                        super.close();
-                    }
-                    finally {
-                        handle.close();
-                        close.set(true);
-                    }
-                }
-            });
+            return new VoidStatusOutputStream(new SFTPWriteAheadOutputStream(handle, status.getOffset(),
+                this.getWindow(status, maxUnconfirmedWrites)));
         }
         catch(IOException e) {
             throw new SFTPExceptionMappingService().map("Upload {0} failed", e, file);
@@ -122,6 +104,34 @@ public class SFTPWriteFeature extends AppendWriteFeature<Void> {
                 preferences.getInteger("sftp.write.maxunconfirmed"));
     }
 
+    protected AdaptiveWindow getWindow(final TransferStatus status, final int maxUnconfirmedWrites) {
+        final int limit = this.getPacketLimit(preferences.getInteger("sftp.packet.size"));
+        final int packet = Math.min(preferences.getInteger("sftp.packet.size"), limit);
+        if(!preferences.getBoolean("sftp.window.adaptive")) {
+            return new AdaptiveWindow("sftp.write", maxUnconfirmedWrites, maxUnconfirmedWrites, packet, packet, session.getMetrics());
+        }
+        int maximum = preferences.getInteger("sftp.write.maxunconfirmed.limit");
+        if(-1 != status.getLength()) {
+            maximum = (int) Math.min(maximum, status.getLength() / packet + 1);
+        }
+        return new AdaptiveWindow("sftp.write", maxUnconfirmedWrites, maximum, packet, limit, session.getMetrics());
+    }
+
+    /**
+     * Servers may close the connection when receiving write requests larger than 32 KiB, which is the minimum
+     * required to support by the protocol. Only exceed if larger writes are announced by the server.
+     *
+     * @param packet Initial packet size
+     * @return Maximum packet size for write requests
+     */
+    protected int getPacketLimit(final int packet) {
+        final long announced = session.getWriteLimit();
+        if(-1L == announced) {
+            return packet;
+        }
+        return (int) Math.min(announced, preferences.getInteger("sftp.packet.size.limit"));
+    }
+
     @Override
     public boolean temporary() {
         return true;
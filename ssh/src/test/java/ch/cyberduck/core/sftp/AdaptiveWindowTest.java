@@ -0,0 +1,94 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.CountingMetrics;
+import ch.cyberduck.core.DisabledMetrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveWindowTest {
+
+    @Test
+    public void testGrowWithConstantLatency() {
+        final CountingMetrics metrics = new CountingMetrics();
+        final AdaptiveWindow window = new AdaptiveWindow("sftp.read", 4, 64, 32768, 131072, metrics);
+        assertEquals(4L, metrics.get("sftp.read.window"));
+        for(int i = 0; i < 1000; i++) {
+            window.acknowledge(TimeUnit.MILLISECONDS.toNanos(50L));
+        }
+        assertEquals(64, window.getWindow());
+        assertEquals(131072, window.getPacket());
+        assertEquals(64L, metrics.get("sftp.read.window"));
+        assertEquals(64L * 131072L, metrics.get("sftp.read.bytes"));
+        window.close();
+        assertEquals(0L, metrics.get("sftp.read.window"));
+        assertEquals(0L, metrics.get("sftp.read.bytes"));
+    }
+
+    @Test
+    public void testConcurrentStreams() {
+        final CountingMetrics metrics = new CountingMetrics();
+        final AdaptiveWindow first = new AdaptiveWindow("sftp.read", 4, 64, 32768, 32768, metrics);
+        final AdaptiveWindow second = new AdaptiveWindow("sftp.read", 8, 64, 32768, 32768, metrics);
+        assertEquals(2L, metrics.get("sftp.read.streams"));
+        assertEquals(12L, metrics.get("sftp.read.window"));
+        for(int i = 0; i < 4; i++) {
+            first.acknowledge(TimeUnit.MILLISECONDS.toNanos(50L));
+        }
+        assertEquals(8, first.getWindow());
+        // Sum of both streams
+        assertEquals(16L, metrics.get("sftp.read.window"));
+        first.close();
+        assertEquals(1L, metrics.get("sftp.read.streams"));
+        assertEquals(8L, metrics.get("sftp.read.window"));
+        assertEquals(8L * 32768L, metrics.get("sftp.read.bytes"));
+        second.close();
+        second.close();
+        assertEquals(0L, metrics.get("sftp.read.streams"));
+        assertEquals(0L, metrics.get("sftp.read.window"));
+    }
+
+    @Test
+    public void testShrinkWhenQueuing() {
+        final AdaptiveWindow window = new AdaptiveWindow("sftp.write", 64, 64, 32768, 32768, new DisabledMetrics());
+        for(int i = 0; i < 64; i++) {
+            window.acknowledge(TimeUnit.MILLISECONDS.toNanos(50L));
+        }
+        assertEquals(64, window.getWindow());
+        for(int i = 0; i < 200; i++) {
+            window.acknowledge(TimeUnit.MILLISECONDS.toNanos(500L));
+        }
+        assertTrue(window.getWindow() < 64);
+        assertTrue(window.getWindow() >= 1);
+    }
+
+    @Test
+    public void testLimitPacket() {
+        final AdaptiveWindow window = new AdaptiveWindow("sftp.read", 1, 1, 32768, 131072, new DisabledMetrics());
+        window.limit(16384);
+        assertEquals(16384, window.getPacket());
+        for(int i = 0; i < 100; i++) {
+            window.acknowledge(TimeUnit.MILLISECONDS.toNanos(10L));
+        }
+        assertEquals(16384, window.getPacket());
+        assertEquals(131072, window.getCapacity());
+    }
+}